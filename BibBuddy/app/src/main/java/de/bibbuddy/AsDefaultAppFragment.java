@@ -171,42 +171,65 @@ public class AsDefaultAppFragment extends BackStackFragment
   private void performDeleteShelf() {
     final int shelvesNumber = selectedShelfItems.size();
 
-    libraryModel.deleteShelves(selectedShelfItems);
-    updateLibraryListView(libraryModel.getCurrentLibraryList());
+    libraryModel.deleteShelves(selectedShelfItems, deleteResult -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    if (shelvesNumber > 1) {
-      Toast.makeText(context, getString(R.string.deleted_shelves), Toast.LENGTH_SHORT).show();
-    } else {
-      Toast.makeText(context, getString(R.string.deleted_shelf), Toast.LENGTH_SHORT).show();
-    }
+      updateLibraryListView(libraryModel.getCurrentLibraryList());
+
+      if (shelvesNumber > 1) {
+        Toast.makeText(context, getString(R.string.deleted_shelves), Toast.LENGTH_SHORT).show();
+      } else {
+        Toast.makeText(context, getString(R.string.deleted_shelf), Toast.LENGTH_SHORT).show();
+      }
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
-  private Bundle createRenameShelfBundle() {
+  private Bundle createRenameShelfBundle(ShelfItem shelfItem, String[] shelfNames) {
     Bundle bundle = new Bundle();
 
-    bundle.putStringArray(LibraryKeys.SHELF_NAMES, getAllShelfNames());
-    bundle.putString(LibraryKeys.SHELF_NAME, selectedShelfItems.get(0).getName());
+    bundle.putStringArray(LibraryKeys.SHELF_NAMES, shelfNames);
+    bundle.putString(LibraryKeys.SHELF_NAME, shelfItem.getName());
 
-    Long currentShelfId = selectedShelfItems.get(0).getId();
+    Long currentShelfId = shelfItem.getId();
     bundle.putLong(LibraryKeys.SHELF_ID, currentShelfId);
 
     return bundle;
   }
 
   private void handleRenameShelf() {
-    LibraryFormFragment libraryFormFragment =
-        new LibraryFormFragment(new LibraryFormFragment.ChangeShelfListener() {
-          @Override
-          public void onShelfRenamed(String shelfName) {
-            libraryModel.renameShelf(selectedShelfItems.get(0), shelfName);
-            adapter.notifyDataSetChanged();
-            Toast.makeText(context, getString(R.string.renamed_shelf), Toast.LENGTH_SHORT).show();
-          }
-        });
+    ShelfItem shelfItem = selectedShelfItems.get(0);
+
+    libraryModel.loadShelfNames(shelfNames -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      LibraryFormFragment libraryFormFragment =
+          new LibraryFormFragment(new LibraryFormFragment.ChangeShelfListener() {
+            @Override
+            public void onShelfRenamed(String shelfName) {
+              renameShelf(shelfItem, shelfName);
+            }
+          });
 
-    libraryFormFragment.setArguments(createRenameShelfBundle());
+      libraryFormFragment.setArguments(createRenameShelfBundle(shelfItem, shelfNames));
 
-    showFragment(libraryFormFragment, LibraryKeys.FRAGMENT_LIBRARY_FORM);
+      showFragment(libraryFormFragment, LibraryKeys.FRAGMENT_LIBRARY_FORM);
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
+  }
+
+  private void renameShelf(ShelfItem shelfItem, String shelfName) {
+    libraryModel.renameShelf(shelfItem, shelfName, renamedShelfItem -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      // the list is loaded after the shelf was renamed, an earlier load may miss the new name
+      loadLibraryList();
+      Toast.makeText(context, getString(R.string.renamed_shelf), Toast.LENGTH_SHORT).show();
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   private void deselectLibraryItems() {
@@ -225,32 +248,35 @@ public class AsDefaultAppFragment extends BackStackFragment
           sortTypeLut = newSortCriteria;
           ((MainActivity) requireActivity())
           .setSortTypeLut(newSortCriteria);
-          sortLibraryList();
+          loadLibraryList();
         });
 
     sortDialog.show();
   }
 
-  private void sortLibraryList() {
-    List<ShelfItem> libraryList = libraryModel.getSortedLibraryList(sortTypeLut);
-
-    adapter.setLibraryList(libraryList);
-    adapter.notifyDataSetChanged();
-  }
-
   private void setupRecyclerView() {
     libraryModel = new LibraryModel(requireContext());
-    List<ShelfItem> libraryList = libraryModel
-        .getSortedLibraryList(sortTypeLut, libraryModel.getLibraryList(null));
 
     SwipeableRecyclerView libraryRecyclerView =
         view.findViewById(R.id.library_recycler_view);
 
-    adapter = new LibraryRecyclerViewAdapter(libraryList, this, context);
+    adapter = new LibraryRecyclerViewAdapter(libraryModel.getCurrentLibraryList(), this,
+                                             context);
     libraryRecyclerView.setAdapter(adapter);
     libraryRecyclerView.setListener(this);
+    libraryRecyclerView.addOnScrollListener(new PageScrollListener(this::loadNextLibraryPage));
 
-    updateEmptyView(libraryList);
+    loadLibraryList();
+  }
+
+  private void loadLibraryList() {
+    libraryModel.loadLibraryList(null, sortTypeLut, this::updateLibraryListView,
+                                 error -> showLoadError(this::loadLibraryList));
+  }
+
+  private void loadNextLibraryPage() {
+    libraryModel.loadNextLibraryPage(this::updateLibraryListView,
+        error -> showLoadError(this::loadNextLibraryPage));
   }
 
   private void setupAddShelfBtn() {
@@ -262,7 +288,7 @@ public class AsDefaultAppFragment extends BackStackFragment
     addShelfBtn.setOnClickListener(v -> handleAddShelf());
   }
 
-  private Bundle createAddShelfBundle() {
+  private Bundle createAddShelfBundle(String[] shelfNames) {
     Bundle bundle = new Bundle();
 
     Long currentShelfId = libraryModel.getShelfId();
@@ -272,36 +298,46 @@ public class AsDefaultAppFragment extends BackStackFragment
       bundle.putLong(LibraryKeys.SHELF_ID, currentShelfId);
     }
 
-    bundle.putStringArray(LibraryKeys.SHELF_NAMES, getAllShelfNames());
+    bundle.putStringArray(LibraryKeys.SHELF_NAMES, shelfNames);
 
     return bundle;
   }
 
-  private String[] getAllShelfNames() {
-    List<ShelfItem> currentLibraryList = libraryModel.getCurrentLibraryList();
-    String[] shelfNames = new String[currentLibraryList.size()];
+  private void handleAddShelf() {
+    libraryModel.loadShelfNames(shelfNames -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    for (int i = 0; i < currentLibraryList.size(); i++) {
-      shelfNames[i] = currentLibraryList.get(i).getName();
-    }
+      LibraryFormFragment libraryFormFragment =
+          new LibraryFormFragment(new LibraryFormFragment.ChangeShelfListener() {
+            @Override
+            public void onShelfAdded(String name) {
+              addShelf(name);
+            }
+          });
+
+      libraryFormFragment.setArguments(createAddShelfBundle(shelfNames));
 
-    return shelfNames;
+      showFragment(libraryFormFragment, LibraryKeys.FRAGMENT_LIBRARY_FORM);
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
-  private void handleAddShelf() {
-    LibraryFormFragment libraryFormFragment =
-        new LibraryFormFragment(new LibraryFormFragment.ChangeShelfListener() {
-          @Override
-          public void onShelfAdded(String name) {
-            libraryModel.addShelf(name, libraryModel.getShelfId());
-            updateLibraryListView(libraryModel.getCurrentLibraryList());
-            Toast.makeText(context, getString(R.string.shelf_added), Toast.LENGTH_SHORT).show();
-          }
-        });
+  private void addShelf(String name) {
+    libraryModel.addShelf(name, libraryModel.getShelfId(), shelf -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    libraryFormFragment.setArguments(createAddShelfBundle());
+      if (shelf == null) {
+        Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show();
+        return;
+      }
 
-    showFragment(libraryFormFragment, LibraryKeys.FRAGMENT_LIBRARY_FORM);
+      // the list is loaded after the shelf was saved, an earlier load may miss the new shelf
+      loadLibraryList();
+      Toast.makeText(context, getString(R.string.shelf_added), Toast.LENGTH_SHORT).show();
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   private void updateEmptyView(List<ShelfItem> libraryList) {
@@ -315,7 +351,7 @@ public class AsDefaultAppFragment extends BackStackFragment
   }
 
   private void updateLibraryListView(List<ShelfItem> libraryList) {
-    libraryList = libraryModel.getSortedLibraryList(sortTypeLut, libraryList);
+    adapter.setLibraryList(libraryList);
     adapter.notifyDataSetChanged();
     updateEmptyView(libraryList);
   }
@@ -367,6 +403,12 @@ public class AsDefaultAppFragment extends BackStackFragment
     return view;
   }
 
+  @Override
+  public void onDestroyView() {
+    libraryModel.cancelLoading();
+    super.onDestroyView();
+  }
+
   @Override
   public void onCreateOptionsMenu(@NonNull Menu menu, MenuInflater inflater) {
     inflater.inflate(R.menu.fragment_library_menu, menu);
@@ -57,11 +57,6 @@ public class AuthorDao {
     }
   }
 
-  // Checks if there is an entry of the author in the AUTHOR_BOOK_LNK table
-  private boolean existsAuthorBookLink(Long authorId) {
-    return countAuthorBookLinks(authorId) > 0;
-  }
-
   public AuthorDao(DatabaseHelper dbHelper) {
     this.dbHelper = dbHelper;
   }
@@ -73,8 +68,9 @@ public class AuthorDao {
    */
   public void create(Author author) {
     Long currentTime = new Date().getTime();
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
 
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
+    try {
       ContentValues contentValues = new ContentValues();
       contentValues.put(DatabaseHelper.FIRST_NAME, author.getFirstName());
       contentValues.put(DatabaseHelper.LAST_NAME, author.getLastName());
@@ -103,8 +99,9 @@ public class AuthorDao {
    */
   public void update(Author author) {
     Long currentTime = new Date().getTime();
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
 
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
+    try {
       ContentValues contentValues = new ContentValues();
       contentValues.put(DatabaseHelper.FIRST_NAME, author.getFirstName());
       contentValues.put(DatabaseHelper.LAST_NAME, author.getLastName());
@@ -120,10 +117,10 @@ public class AuthorDao {
       Log.e(TAG, ex.toString(), ex);
     }
 
+    dbHelper.getAuthorCache().remove(author.getId());
   }
 
-  // Gets single author entry
-  public Author findById(Long id) {
+  private Author loadById(long id) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
     Cursor cursor = db.query(DatabaseHelper.TABLE_NAME_AUTHOR,
@@ -144,6 +141,21 @@ public class AuthorDao {
     return author;
   }
 
+  /**
+   * Gets a single author by its id. The author is shared with the other callers through
+   * the author cache until it is updated.
+   *
+   * @param id id of the author
+   * @return the author or null if it does not exist
+   */
+  public Author findById(Long id) {
+    if (id == null) {
+      return null;
+    }
+
+    return dbHelper.getAuthorCache().get(id, this::loadById);
+  }
+
   /**
    * Finds an existing author by its title, first and last name.
    *
@@ -190,28 +202,6 @@ public class AuthorDao {
     }
   }
 
-  /**
-   * Deletes the relevant author entries.
-   *
-   * @param authorId id of the author
-   * @param bookId   id of the book
-   */
-  public void delete(Long authorId, Long bookId) {
-    SQLiteDatabase db = dbHelper.getWritableDatabase();
-
-    db.delete(DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK, DatabaseHelper.AUTHOR_ID
-                  + " = ?" + " AND " + DatabaseHelper.BOOK_ID + " = ?",
-              new String[] {String.valueOf(authorId), String.valueOf(bookId)});
-
-    // Deletes author only if author has no link to another book
-    if (!existsAuthorBookLink(authorId)) {
-      db.delete(DatabaseHelper.TABLE_NAME_AUTHOR, DatabaseHelper._ID + " = ?",
-                new String[] {String.valueOf(authorId)});
-    }
-
-    db.close();
-  }
-
 
   /**
    * Checks if a certain Author already exists in the database.
@@ -1,9 +1,11 @@
 package de.bibbuddy;
 
+import android.view.View;
 import androidx.activity.OnBackPressedCallback;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
+import com.google.android.material.snackbar.Snackbar;
 
 /**
  * The BackStackFragment contains several functions that are used by multiple Fragments.
@@ -52,6 +54,22 @@ public class BackStackFragment extends Fragment {
     }
   }
 
+  /**
+   * Shows that a list could not be loaded, until the user loads it again.
+   *
+   * @param retry loads the list again
+   */
+  protected void showLoadError(@NonNull Runnable retry) {
+    View view = getView();
+    if (view == null) {
+      return;
+    }
+
+    Snackbar.make(view, R.string.load_error, Snackbar.LENGTH_INDEFINITE)
+        .setAction(R.string.retry, v -> retry.run())
+        .show();
+  }
+
   protected void enableBackPressedHandler() {
     requireActivity().getOnBackPressedDispatcher().addCallback(backPressedCallback);
     backPressedCallback.setEnabled(true);
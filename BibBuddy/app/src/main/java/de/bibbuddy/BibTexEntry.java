@@ -0,0 +1,47 @@
+package de.bibbuddy;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The BibTexEntry holds the parsed data of one BibTeX item until it is saved in the database.
+ * It is not changed after it has been parsed, so it can be passed between threads.
+ *
+ * @author Silvia Ivanova
+ */
+public class BibTexEntry {
+
+  private final Book book;
+  private final List<Author> authors;
+  private final String note;
+
+  /**
+   * Constructor for a parsed BibTeX item.
+   *
+   * @param book    the parsed book
+   * @param authors the parsed authors of the book
+   * @param note    the parsed note text, empty if the item has no note
+   */
+  public BibTexEntry(Book book, List<Author> authors, String note) {
+    this.book = book;
+    this.authors = Collections.unmodifiableList(authors);
+    this.note = note;
+  }
+
+  public Book getBook() {
+    return book;
+  }
+
+  public List<Author> getAuthors() {
+    return authors;
+  }
+
+  public String getNote() {
+    return note;
+  }
+
+  public boolean hasNote() {
+    return note != null && !note.isEmpty();
+  }
+
+}
@@ -0,0 +1,55 @@
+package de.bibbuddy;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The BibTexItem holds one raw entry of a BibTeX file as it was read by the BibTexReader.
+ * The field names are lower case and the values contain no enclosing braces or quotes.
+ *
+ * @author Silvia Ivanova
+ */
+public class BibTexItem {
+
+  private final String type;
+  private final String key;
+  private final Map<String, String> fields;
+
+  /**
+   * Constructor for a BibTeX entry.
+   *
+   * @param type   entry type in lower case, e.g. "book"
+   * @param key    citation key of the entry
+   * @param fields field names with their values
+   */
+  public BibTexItem(String type, String key, Map<String, String> fields) {
+    this.type = type;
+    this.key = key;
+    this.fields = Collections.unmodifiableMap(fields);
+  }
+
+  public String getType() {
+    return type;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public Map<String, String> getFields() {
+    return fields;
+  }
+
+  /**
+   * Gets the value of a field.
+   *
+   * @param name lower case name of the field
+   * @return the value of the field, empty if the entry has no such field
+   */
+  public String getField(String name) {
+    String value = fields.get(name);
+
+    return value == null ? "" : value;
+  }
+
+}
@@ -7,27 +7,39 @@ package de.bibbuddy;
  */
 public class BibTexKeys {
 
-  public static final String BIB_AT_TAG = "@";
   public static final String BOOK_TAG = "@book";
   public static final String ISBN = "isbn = ";
   public static final String AUTHOR = "author = ";
   public static final String BOOK_TITLE = "title = ";
-  public static final String BOOK_SHORTTITLE = "shorttitle = ";
   public static final String SUBTITLE = "subtitle = ";
   public static final String VOLUME = "volume = ";
   public static final String PUBLISHER = "publisher = ";
   public static final String EDITION = "edition = ";
   public static final String ANNOTE = "annote = ";
-  public static final String NOTE = "note = ";
   public static final String YEAR = "year = ";
 
-  public static final String BOOK_TAG_REGEX = "(?=@book)";
+  // Entry types of a BibTeX file
+  public static final String ENTRY_BOOK = "book";
+  public static final String ENTRY_COMMENT = "comment";
+  public static final String ENTRY_PREAMBLE = "preamble";
+  public static final String ENTRY_STRING = "string";
+
+  // Field names of a BibTeX entry
+  public static final String FIELD_ISBN = "isbn";
+  public static final String FIELD_AUTHOR = "author";
+  public static final String FIELD_TITLE = "title";
+  public static final String FIELD_SUBTITLE = "subtitle";
+  public static final String FIELD_VOLUME = "volume";
+  public static final String FIELD_PUBLISHER = "publisher";
+  public static final String FIELD_EDITION = "edition";
+  public static final String FIELD_ANNOTE = "annote";
+  public static final String FIELD_NOTE = "note";
+  public static final String FIELD_YEAR = "year";
 
   public static final String AND_MULTIPLE_AUTHORS = " and ";
 
   public static final String OPENING_CURLY_BRACKET = "{";
   public static final String CLOSING_CURLY_BRACKET = "}";
   public static final String COMMA_SEPARATOR = ",";
-  public static final String EQUAL_SIGN = "=";
 
 }
@@ -0,0 +1,296 @@
+package de.bibbuddy;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * The BibTexReader reads a BibTeX file entry by entry from a Reader.
+ * Only the entry that is currently read is held in memory, so the memory needed does not
+ * depend on the size of the file. Nested braces, quoted values, @string macros and
+ * concatenations with "#" are supported. @comment and @preamble entries are skipped.
+ *
+ * @author Silvia Ivanova
+ */
+public class BibTexReader implements Closeable {
+
+  private static final int EOF = -1;
+
+  private final Reader reader;
+  private final Map<String, String> macros = new HashMap<>();
+
+  private int current;
+  private boolean hasCurrent;
+
+  private int peek() throws IOException {
+    if (!hasCurrent) {
+      current = reader.read();
+      hasCurrent = true;
+    }
+
+    return current;
+  }
+
+  private int read() throws IOException {
+    int ch = peek();
+    hasCurrent = false;
+
+    return ch;
+  }
+
+  private void skipWhitespace() throws IOException {
+    while (peek() != EOF && Character.isWhitespace(peek())) {
+      read();
+    }
+  }
+
+  private boolean skipToNextEntry() throws IOException {
+    int ch = read();
+    while (ch != EOF && ch != '@') {
+      ch = read();
+    }
+
+    return ch == '@';
+  }
+
+  private static boolean isNameChar(int ch) {
+    return ch != EOF && !Character.isWhitespace(ch) && ch != '{' && ch != '(' && ch != '}'
+        && ch != ')' && ch != ',' && ch != '=' && ch != '#' && ch != '"';
+  }
+
+  private String readName() throws IOException {
+    StringBuilder name = new StringBuilder();
+    while (isNameChar(peek())) {
+      name.append((char) read());
+    }
+
+    return name.toString();
+  }
+
+  private static int closingDelimiter(int openingDelimiter) {
+    return openingDelimiter == '(' ? ')' : '}';
+  }
+
+  // Reads until the brace that closes an already opened brace, nested braces are kept
+  private void readBracedText(StringBuilder text) throws IOException {
+    int depth = 1;
+
+    int ch = read();
+    while (ch != EOF) {
+      if (ch == '{') {
+        depth++;
+      } else if (ch == '}' && --depth == 0) {
+        return;
+      }
+
+      text.append((char) ch);
+      ch = read();
+    }
+
+    throw new IOException("Unexpected end of BibTeX file within braces");
+  }
+
+  // Reads until the closing quote, quotes within braces do not end the value
+  private void readQuotedText(StringBuilder text) throws IOException {
+    int depth = 0;
+
+    int ch = read();
+    while (ch != EOF) {
+      if (ch == '{') {
+        depth++;
+      } else if (ch == '}') {
+        depth--;
+      } else if (ch == '"' && depth == 0) {
+        return;
+      }
+
+      text.append((char) ch);
+      ch = read();
+    }
+
+    throw new IOException("Unexpected end of BibTeX file within quotes");
+  }
+
+  private String readValue() throws IOException {
+    StringBuilder value = new StringBuilder();
+
+    while (true) {
+      skipWhitespace();
+      int ch = peek();
+
+      if (ch == '{') {
+        read();
+        readBracedText(value);
+      } else if (ch == '"') {
+        read();
+        readQuotedText(value);
+      } else if (isNameChar(ch)) {
+        String part = readName();
+        String macro = macros.get(part.toLowerCase(Locale.ROOT));
+        value.append(macro == null ? part : macro);
+      } else {
+        throw new IOException("Unexpected character in BibTeX value: " + (char) ch);
+      }
+
+      skipWhitespace();
+      if (peek() != '#') {
+        return value.toString();
+      }
+
+      read();
+    }
+  }
+
+  // Reads "name = value" pairs until the closing delimiter of the entry
+  private Map<String, String> readFields(int closingDelimiter) throws IOException {
+    Map<String, String> fields = new LinkedHashMap<>();
+
+    while (true) {
+      skipWhitespace();
+      int ch = peek();
+
+      if (ch == closingDelimiter) {
+        read();
+        return fields;
+      }
+
+      if (ch == ',') {
+        read();
+        continue;
+      }
+
+      String name = readName().toLowerCase(Locale.ROOT);
+      skipWhitespace();
+
+      if (name.isEmpty() || read() != '=') {
+        throw new IOException("Invalid BibTeX field in entry");
+      }
+
+      fields.put(name, normalize(readValue()));
+    }
+  }
+
+  // Skips until the delimiter that closes the entry, nested pairs of it are skipped as well
+  private void skipEntryBody(int openingDelimiter) throws IOException {
+    int closingDelimiter = closingDelimiter(openingDelimiter);
+    int depth = 1;
+
+    int ch = read();
+    while (ch != EOF) {
+      if (ch == openingDelimiter) {
+        depth++;
+      } else if (ch == closingDelimiter && --depth == 0) {
+        return;
+      }
+
+      ch = read();
+    }
+
+    throw new IOException("Unexpected end of BibTeX file within an entry");
+  }
+
+  /**
+   * Removes the remaining braces of a value and collapses all whitespace to single spaces.
+   *
+   * @param value raw value of a field
+   * @return the plain value
+   */
+  static String normalize(String value) {
+    StringBuilder plain = new StringBuilder(value.length());
+
+    boolean pendingSpace = false;
+    for (int i = 0; i < value.length(); i++) {
+      char ch = value.charAt(i);
+
+      if (ch == '{' || ch == '}') {
+        continue;
+      }
+
+      if (Character.isWhitespace(ch)) {
+        pendingSpace = plain.length() > 0;
+        continue;
+      }
+
+      if (pendingSpace) {
+        plain.append(' ');
+        pendingSpace = false;
+      }
+
+      plain.append(ch);
+    }
+
+    return plain.toString();
+  }
+
+  /**
+   * Constructor for a BibTexReader.
+   *
+   * @param reader reader of the BibTeX content, it is buffered if it is not buffered yet
+   */
+  public BibTexReader(Reader reader) {
+    if (reader instanceof BufferedReader) {
+      this.reader = reader;
+    } else {
+      this.reader = new BufferedReader(reader);
+    }
+  }
+
+  /**
+   * Reads the next entry of the BibTeX file.
+   * Entries that cannot be parsed are skipped.
+   *
+   * @return the next entry or null if the end of the file is reached
+   * @throws IOException if the file cannot be read
+   */
+  public BibTexItem next() throws IOException {
+    while (skipToNextEntry()) {
+      skipWhitespace();
+      String type = readName().toLowerCase(Locale.ROOT);
+      skipWhitespace();
+
+      int openingDelimiter = read();
+      if (openingDelimiter != '{' && openingDelimiter != '(') {
+        continue;
+      }
+
+      try {
+        switch (type) {
+          case BibTexKeys.ENTRY_COMMENT:
+          case BibTexKeys.ENTRY_PREAMBLE:
+            skipEntryBody(openingDelimiter);
+            break;
+
+          case BibTexKeys.ENTRY_STRING:
+            for (Map.Entry<String, String> macro
+                : readFields(closingDelimiter(openingDelimiter)).entrySet()) {
+              macros.put(macro.getKey(), macro.getValue());
+            }
+            break;
+
+          default:
+            skipWhitespace();
+            String key = readName();
+            return new BibTexItem(type, key, readFields(closingDelimiter(openingDelimiter)));
+        }
+      } catch (IOException ex) {
+        // The entry is invalid, so the reader continues with the next entry
+        if (peek() == EOF) {
+          return null;
+        }
+      }
+    }
+
+    return null;
+  }
+
+  @Override
+  public void close() throws IOException {
+    reader.close();
+  }
+
+}
@@ -83,6 +83,16 @@ public class Book {
   public Book() {
   }
 
+  /**
+   * Copy constructor, so that a book can be edited without changing the cached book.
+   *
+   * @param book book that is copied
+   */
+  public Book(Book book) {
+    this(book.id, book.isbn, book.title, book.subtitle, book.pubYear, book.publisher,
+         book.volume, book.edition, book.addInfo, book.createDate, book.modDate);
+  }
+
   public Long getId() {
     return id;
   }
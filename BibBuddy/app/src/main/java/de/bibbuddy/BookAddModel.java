@@ -13,12 +13,27 @@ public class BookAddModel {
   private final BookDao bookDao;
 
   public BookAddModel(Context context) {
-    DatabaseHelper databaseHelper = new DatabaseHelper(context);
+    DatabaseHelper databaseHelper = DatabaseHelper.getInstance(context);
     this.bookDao = new BookDao(databaseHelper);
   }
 
-  public void addBook(Book book, List<Author> authorList, Long shelfId) {
-    bookDao.create(book, authorList, shelfId);
+  /**
+   * Adds a new book to a shelf on the writer thread. A bookList that has to show the book
+   * is loaded after the listener is called.
+   *
+   * @param book          book data for the database
+   * @param authorList    authorList of the new book
+   * @param shelfId       id of the shelf of the book
+   * @param listener      listener for the saved book or null if it could not be saved,
+   *                      called on the main thread
+   * @param errorListener listener for the error if the book could not be saved, called on
+   *                      the main thread
+   */
+  public void addBook(Book book, List<Author> authorList, Long shelfId,
+                      DatabaseExecutor.ResultListener<Book> listener,
+                      DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().write(() -> bookDao.create(book, authorList, shelfId),
+                                         listener, errorListener);
   }
 
 }
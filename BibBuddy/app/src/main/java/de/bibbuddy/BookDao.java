@@ -2,13 +2,16 @@ package de.bibbuddy;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
 import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.util.Log;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -45,6 +48,7 @@ public class BookDao {
 
     bookContentValues.put(DatabaseHelper.ISBN, book.getIsbn());
     bookContentValues.put(DatabaseHelper.TITLE, book.getTitle());
+    bookContentValues.put(DatabaseHelper.SORT_KEY, SortKey.create(book.getTitle()));
     bookContentValues.put(DatabaseHelper.SUBTITLE, book.getSubtitle());
     bookContentValues.put(DatabaseHelper.PUB_YEAR, book.getPubYear());
     bookContentValues.put(DatabaseHelper.PUBLISHER, book.getPublisher());
@@ -56,43 +60,36 @@ public class BookDao {
     return bookContentValues;
   }
 
-  private void linkBookWithShelf(Long shelfId, Long bookId) {
-
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
-      ContentValues contentValues = new ContentValues();
-      contentValues.put(DatabaseHelper.BOOK_ID, bookId);
-      contentValues.put(DatabaseHelper.SHELF_ID, shelfId);
-      db.insert(DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK, null, contentValues);
-    } catch (SQLiteException ex) {
-      Log.e(TAG, ex.toString(), ex);
-    }
+  // The links throw an SQLException if they cannot be saved, so the caller can roll back
+  private void linkBookWithShelf(SQLiteDatabase db, Long shelfId, Long bookId) {
+    ContentValues contentValues = new ContentValues();
+    contentValues.put(DatabaseHelper.BOOK_ID, bookId);
+    contentValues.put(DatabaseHelper.SHELF_ID, shelfId);
+    db.insertOrThrow(DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK, null, contentValues);
   }
 
-  private void linkBookWithAuthors(Long bookId, List<Long> authorIds) {
-
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
-      List<Long> existingAuthorIds = getAllAuthorIdsForBook(bookId);
-      existingAuthorIds.stream()
-          .filter(id -> !authorIds.contains(id))
-          .forEach(id -> deleteAuthorBookLink(db, bookId, id));
+  private void linkBookWithAuthors(SQLiteDatabase db, Long bookId, List<Long> authorIds) {
+    List<Long> existingAuthorIds = getAllAuthorIdsForBook(bookId);
+    existingAuthorIds.stream()
+        .filter(id -> !authorIds.contains(id))
+        .forEach(id -> deleteAuthorBookLink(db, bookId, id));
 
-      authorIds.stream()
-          .filter(id -> !existingAuthorIds.contains(id))
-          .forEach(id -> insertAuthorBookLink(db, bookId, id));
-    } catch (SQLException ex) {
-      Log.e(TAG, ex.toString(), ex);
-    }
+    authorIds.stream()
+        .filter(id -> !existingAuthorIds.contains(id))
+        .forEach(id -> insertAuthorBookLink(db, bookId, id));
   }
 
   private void insertAuthorBookLink(SQLiteDatabase db, Long bookId, Long authorId) {
-    try {
-      ContentValues contentValues = new ContentValues();
-      contentValues.put(DatabaseHelper.AUTHOR_ID, authorId);
-      contentValues.put(DatabaseHelper.BOOK_ID, bookId);
-      db.insert(DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK, null, contentValues);
-    } catch (Exception ex) {
-      Log.e(TAG, ex.toString(), ex);
-    }
+    ContentValues contentValues = new ContentValues();
+    contentValues.put(DatabaseHelper.AUTHOR_ID, authorId);
+    contentValues.put(DatabaseHelper.BOOK_ID, bookId);
+    db.insertOrThrow(DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK, null, contentValues);
+  }
+
+  private List<Long> saveAuthors(List<Author> authorList) {
+    authorDao.createOrUpdateAuthors(authorList);
+
+    return authorList.stream().map(Author::getId).collect(Collectors.toList());
   }
 
   private void deleteAuthorBookLink(SQLiteDatabase db, Long bookId, Long authorId) {
@@ -101,6 +98,28 @@ public class BookDao {
               new String[] {bookId.toString(), authorId.toString()});
   }
 
+  private static String createBookPageQuery(String columns, KeysetPage page) {
+    String sortKeyColumn = "b." + DatabaseHelper.SORT_KEY;
+    String dateColumn = "b." + DatabaseHelper.MOD_DATE;
+    String idColumn = "b." + DatabaseHelper._ID;
+
+    return "SELECT " + columns + " FROM " + DatabaseHelper.TABLE_NAME_BOOK + " b JOIN "
+        + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " lnk ON (b." + DatabaseHelper._ID
+        + " = lnk." + DatabaseHelper.BOOK_ID + ") WHERE lnk." + DatabaseHelper.SHELF_ID + " = ?"
+        + " AND " + page.createWhere(sortKeyColumn, dateColumn, idColumn)
+        + page.createOrderBy(sortKeyColumn, dateColumn, idColumn);
+  }
+
+  private static String[] getBookPageArgs(Long shelfId, KeysetPage page) {
+    String[] whereArgs = page.getWhereArgs();
+    String[] args = new String[whereArgs.length + 1];
+
+    args[0] = String.valueOf(shelfId);
+    System.arraycopy(whereArgs, 0, args, 1, whereArgs.length);
+
+    return args;
+  }
+
   public BookDao(DatabaseHelper dbHelper) {
     this.dbHelper = dbHelper;
     this.authorDao = new AuthorDao(dbHelper);
@@ -110,47 +129,83 @@ public class BookDao {
    * Save a book in the database.
    *
    * @param book that should be saved.
+   * @return the saved book with its generated id or null if it could not be saved
    */
-  public void create(Book book) {
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
-      Long currentTime = new Date().getTime();
+  public Book create(Book book) {
+    try {
+      return insertBook(dbHelper.getWritableDatabase(), book);
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
+    } finally {
+      dbHelper.updateSearchDataVersion();
+    }
 
-      ContentValues contentValues = createBookContentValues(book);
-      contentValues.put(DatabaseHelper.CREATE_DATE, currentTime);
+    return null;
+  }
 
-      Long id = db.insert(DatabaseHelper.TABLE_NAME_BOOK, null, contentValues);
-      book.setId(id);
+  // Inserts the book without changing the search data version, so it can be part of a
+  // transaction of the caller
+  private Book insertBook(SQLiteDatabase db, Book book) {
+    Long currentTime = new Date().getTime();
 
-    } catch (SQLiteException ex) {
-      Log.e(TAG, ex.toString(), ex);
-    }
+    ContentValues contentValues = createBookContentValues(book);
+    contentValues.put(DatabaseHelper.CREATE_DATE, currentTime);
+    contentValues.put(DatabaseHelper.MOD_DATE, currentTime);
 
+    long id = db.insertOrThrow(DatabaseHelper.TABLE_NAME_BOOK, null, contentValues);
+    book.setId(id);
+
+    return new Book(id, book.getIsbn(), book.getTitle(), book.getSubtitle(),
+                    book.getPubYear(), book.getPublisher(), book.getVolume(),
+                    book.getEdition(), book.getAddInfo(), currentTime, currentTime);
   }
 
   /**
    * Creates a new book in the database, link it with a shelf and add a author to it.
+   * The book, its authors and its links are saved within one transaction, so either all of
+   * them are saved or nothing.
    *
    * @param book       instance of book
    * @param authorList list of authors
    * @param shelfId    current shelfId
+   * @return the saved book with its generated id or null if it could not be saved
    */
-  public void create(Book book, List<Author> authorList, Long shelfId) {
-    create(book);
-    Long bookId = findLatestId();
-    linkBookWithShelf(shelfId, bookId);
+  public Book create(Book book, List<Author> authorList, Long shelfId) {
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
+    Book savedBook = null;
+    List<Long> authorIds = new ArrayList<>();
 
-    if (authorList == null || authorList.isEmpty()) {
-      return;
-    }
+    db.beginTransaction();
+    try {
+      Book createdBook = insertBook(db, book);
+      linkBookWithShelf(db, shelfId, createdBook.getId());
 
-    authorDao.createOrUpdateAuthors(authorList);
-    List<Long> authorIds = authorList.stream().map(Author::getId).collect(Collectors.toList());
+      if (authorList != null && !authorList.isEmpty()) {
+        authorIds = saveAuthors(authorList);
+        if (authorIds.contains(null) || authorIds.contains(-1L)) {
+          throw new SQLException("Could not save the authors of " + createdBook.getTitle());
+        }
+
+        linkBookWithAuthors(db, createdBook.getId(), authorIds);
+      }
+
+      db.setTransactionSuccessful();
+      savedBook = createdBook;
+
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
+    } finally {
+      db.endTransaction();
 
-    linkBookWithAuthors(bookId, authorIds);
+      // Removed again after the commit, so no reader caches an author that was updated
+      dbHelper.getAuthorCache().removeAll(authorIds);
+      dbHelper.updateSearchDataVersion();
+    }
+
+    return savedBook;
   }
 
-  // Gets a single book entry by id
-  public Book findById(Long id) {
+  private Book loadById(long id) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
     Cursor cursor = db.query(DatabaseHelper.TABLE_NAME_BOOK,
@@ -175,89 +230,154 @@ public class BookDao {
   }
 
   /**
-   * Deletes all the relevant book data in the tables.
+   * Gets a single book by its id. The book is shared with the other callers through the
+   * book cache until it is updated.
    *
-   * @param bookId  id of the book
-   * @param shelfId id of the shelf
+   * @param id id of the book
+   * @return the book or null if it does not exist
    */
-  public void delete(Long bookId, Long shelfId) {
-    SQLiteDatabase db = dbHelper.getWritableDatabase();
-
-    db.delete(DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK, DatabaseHelper.BOOK_ID + " = ?"
-                  + " AND " + DatabaseHelper.SHELF_ID + " = ?",
-              new String[] {String.valueOf(bookId), String.valueOf(shelfId)});
-
-    db.delete(DatabaseHelper.TABLE_NAME_BOOK, DatabaseHelper._ID + " = ?",
-              new String[] {String.valueOf(bookId)});
+  public Book findById(Long id) {
+    if (id == null) {
+      return null;
+    }
 
-    db.close();
+    return dbHelper.getBookCache().get(id, this::loadById);
   }
 
+
   /**
-   * Finds the last added id.
+   * Gets all Books for a specific Shelf.
    *
-   * @return last added bookId
+   * @param shelfId current shelfId
+   * @return list of all books for current shelf
    */
-  public Long findLatestId() {
+  public List<Book> getAllBooksForShelf(Long shelfId) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
-    String selectQuery = "SELECT " + DatabaseHelper._ID + " FROM "
-        + DatabaseHelper.TABLE_NAME_BOOK + " ORDER BY " + DatabaseHelper._ID + " DESC LIMIT 1";
 
-    Cursor cursor = db.rawQuery(selectQuery, null);
+    String selectQuery = "SELECT b.* FROM " + DatabaseHelper.TABLE_NAME_BOOK + " b JOIN "
+        + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " lnk ON (b." + DatabaseHelper._ID
+        + " = lnk." + DatabaseHelper.BOOK_ID + ") WHERE lnk." + DatabaseHelper.SHELF_ID + " = ?";
+
+    Cursor cursor = db.rawQuery(selectQuery, new String[] {String.valueOf(shelfId)});
 
-    Long id = null;
+    List<Book> bookList = new ArrayList<>();
     if (cursor.moveToFirst()) {
-      id = cursor.getLong(0); // Id
+      do {
+        bookList.add(createBookData(cursor));
+      } while (cursor.moveToNext());
     }
 
     cursor.close();
 
-    return id;
+    return bookList;
+  }
+
+  /**
+   * Checks whether the library contains at least one book. The query stops at the first
+   * book instead of loading all books.
+   *
+   * @return true if the library contains a book
+   */
+  public boolean hasBooks() {
+    SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+    String selectQuery = "SELECT EXISTS (SELECT 1 FROM " + DatabaseHelper.TABLE_NAME_BOOK + ")";
+
+    return DatabaseUtils.longForQuery(db, selectQuery, null) == 1;
   }
 
   /**
-   * Gets all bookIds for a specific Shelf with its shelfId.
+   * Checks whether a shelf contains at least one book. The query stops at the first link
+   * of the shelf instead of loading its books.
+   *
+   * @param shelfId id of the shelf
+   * @return true if the shelf contains a book
+   */
+  public boolean hasBooksInShelf(Long shelfId) {
+    SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+    String selectQuery = "SELECT EXISTS (SELECT 1 FROM "
+        + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " WHERE " + DatabaseHelper.SHELF_ID
+        + " = ?)";
+
+    return DatabaseUtils.longForQuery(db, selectQuery,
+                                      new String[] {String.valueOf(shelfId)}) == 1;
+  }
+
+  /**
+   * Gets the authors of the books of one page of a shelf with one query.
    *
    * @param shelfId current shelfId
-   * @return all bookIds for current shelf
+   * @param page    page of the books in their sort order
+   * @return the authors of each book of the page by bookId
    */
-  public List<Long> getAllBookIdsForShelf(Long shelfId) {
+  public Map<Long, List<Author>> getAllAuthorsForShelf(Long shelfId, KeysetPage page) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-    String selectQuery = "SELECT * FROM " + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " WHERE "
-        + DatabaseHelper.SHELF_ID + " = ?";
+    String selectQuery = "SELECT al." + DatabaseHelper.BOOK_ID + ", a." + DatabaseHelper._ID
+        + ", a." + DatabaseHelper.FIRST_NAME + ", a." + DatabaseHelper.LAST_NAME
+        + ", a." + DatabaseHelper.TITLE + ", a." + DatabaseHelper.CREATE_DATE
+        + ", a." + DatabaseHelper.MOD_DATE
+        + " FROM " + DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK + " al JOIN "
+        + DatabaseHelper.TABLE_NAME_AUTHOR + " a ON (a." + DatabaseHelper._ID + " = al."
+        + DatabaseHelper.AUTHOR_ID + ") WHERE al." + DatabaseHelper.BOOK_ID + " IN ("
+        + createBookPageQuery("b." + DatabaseHelper._ID, page) + ")"
+        + " ORDER BY al." + DatabaseHelper.BOOK_ID + ", al." + DatabaseHelper._ID;
 
-    Cursor cursor = db.rawQuery(selectQuery, new String[] {String.valueOf(shelfId)});
+    Cursor cursor = db.rawQuery(selectQuery, getBookPageArgs(shelfId, page));
 
-    List<Long> bookIds = new ArrayList<>();
+    Map<Long, List<Author>> authorMap = new HashMap<>();
     if (cursor.moveToFirst()) {
       do {
-        // Id, ShelfId, BookId
-        bookIds.add(Long.parseLong(cursor.getString(2)));
+        // BookId, AuthorId, First name, Last name, Title, Create date, Mod date
+        Author author = new Author(cursor.getLong(1), cursor.getString(2), cursor.getString(3),
+                                   cursor.getString(4), cursor.getLong(5), cursor.getLong(6));
+        authorMap.computeIfAbsent(cursor.getLong(0), id -> new ArrayList<>()).add(author);
       } while (cursor.moveToNext());
     }
 
     cursor.close();
 
-    return bookIds;
+    return authorMap;
   }
 
-
   /**
-   * Gets all Books for a specific Shelf with a list of all bookIds.
+   * Gets the list rows of one page of the books of a shelf with their authors and note
+   * counts. The rows are read with a constant number of queries, no matter how many books
+   * the shelf contains.
    *
    * @param shelfId current shelfId
-   * @return list of all books for current shelf
+   * @param page    page of the books in their sort order
+   * @return list of BookItems of the page
    */
-  public List<Book> getAllBooksForShelf(Long shelfId) {
-    List<Long> bookIds = getAllBookIdsForShelf(shelfId);
-    List<Book> bookList = new ArrayList<>();
+  public List<BookItem> findBookItemsForShelf(Long shelfId, KeysetPage page) {
+    Map<Long, List<Author>> authorMap = getAllAuthorsForShelf(shelfId, page);
+    SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+    String selectQuery = createBookPageQuery(
+        "b." + DatabaseHelper._ID + ", b." + DatabaseHelper.TITLE
+            + ", b." + DatabaseHelper.PUB_YEAR + ", b." + DatabaseHelper.MOD_DATE
+            + ", (SELECT COUNT(" + DatabaseHelper._ID + ") FROM "
+            + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " n WHERE n." + DatabaseHelper.BOOK_ID
+            + " = b." + DatabaseHelper._ID + ")", page);
 
-    for (Long id : bookIds) {
-      bookList.add(findById(id));
+    Cursor cursor = db.rawQuery(selectQuery, getBookPageArgs(shelfId, page));
+
+    List<BookItem> bookItemList = new ArrayList<>();
+    if (cursor.moveToFirst()) {
+      do {
+        // Id, Title, Publication year, Mod date, Note count
+        Long bookId = cursor.getLong(0);
+        bookItemList.add(new BookItem(bookId, cursor.getString(1), cursor.getInt(2),
+                                      cursor.getLong(3), shelfId,
+                                      BookItem.convertAuthorListToString(authorMap.get(bookId)),
+                                      cursor.getInt(4)));
+      } while (cursor.moveToNext());
     }
 
-    return bookList;
+    cursor.close();
+
+    return bookItemList;
   }
 
   /**
@@ -295,68 +415,29 @@ public class BookDao {
    * @return list of all authors for the current book
    */
   public List<Author> getAllAuthorsForBook(Long bookId) {
-    List<Author> authorList = new ArrayList<>();
-    List<Long> authorIds = getAllAuthorIdsForBook(bookId);
-
-    for (Long id : authorIds) {
-      authorList.add(authorDao.findById(id));
-    }
-
-    return authorList;
-  }
-
-  /**
-   * Counts all Notes for a specific Book.
-   *
-   * @param bookId current bookId
-   * @return count of all notes that belong to the current book
-   */
-  public int countAllNotesForBook(Long bookId) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-    String selectQuery =
-        "SELECT COUNT(" + DatabaseHelper._ID + ") FROM " + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK
-            + " WHERE " + DatabaseHelper.BOOK_ID + " = ?";
+    String selectQuery = "SELECT a." + DatabaseHelper._ID + ", a." + DatabaseHelper.FIRST_NAME
+        + ", a." + DatabaseHelper.LAST_NAME + ", a." + DatabaseHelper.TITLE
+        + ", a." + DatabaseHelper.CREATE_DATE + ", a." + DatabaseHelper.MOD_DATE
+        + " FROM " + DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK + " al JOIN "
+        + DatabaseHelper.TABLE_NAME_AUTHOR + " a ON (a." + DatabaseHelper._ID + " = al."
+        + DatabaseHelper.AUTHOR_ID + ") WHERE al." + DatabaseHelper.BOOK_ID + " = ?"
+        + " ORDER BY al." + DatabaseHelper._ID;
 
     Cursor cursor = db.rawQuery(selectQuery, new String[] {String.valueOf(bookId)});
 
-    int noteCount = 0;
-    if (cursor.moveToFirst()) {
-      do {
-        noteCount = Integer.parseInt(cursor.getString(0));
-      } while (cursor.moveToNext());
-    }
-
-    cursor.close();
-
-    return noteCount;
-  }
-
-  /**
-   * Finds all books which contain searchInput.
-   *
-   * @param searchInput searchInput of the user
-   * @return returns a list of books which have the searchInput in the name
-   */
-  public List<Book> findBooksByTitle(String searchInput) {
-    SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-    String selectQuery = "SELECT * FROM " + DatabaseHelper.TABLE_NAME_BOOK + " WHERE "
-        + DatabaseHelper.TITLE + " LIKE '%" + searchInput + "%'";
-
-    Cursor cursor = db.rawQuery(selectQuery, null);
-
-    List<Book> bookList = new ArrayList<>();
+    List<Author> authorList = new ArrayList<>();
     if (cursor.moveToFirst()) {
       do {
-        bookList.add(createBookData(cursor));
-
+        authorList.add(new Author(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                                  cursor.getString(3), cursor.getLong(4), cursor.getLong(5)));
       } while (cursor.moveToNext());
     }
 
     cursor.close();
 
-    return bookList;
+    return authorList;
   }
 
   /**
@@ -368,21 +449,28 @@ public class BookDao {
 
     ContentValues contentValues = createBookContentValues(book);
 
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
-      dbHelper.getWritableDatabase().update(DatabaseHelper.TABLE_NAME_BOOK, contentValues,
-                                            DatabaseHelper._ID + " = ?",
-                                            new String[] {String.valueOf(book.getId())});
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+    try {
+      db.update(DatabaseHelper.TABLE_NAME_BOOK, contentValues,
+                DatabaseHelper._ID + " = ?",
+                new String[] {String.valueOf(book.getId())});
     } catch (SQLiteException ex) {
       Log.e(TAG, ex.toString(), ex);
     }
 
+    dbHelper.getBookCache().remove(book.getId());
+    dbHelper.updateSearchDataVersion();
+
     if (authorList == null || authorList.isEmpty()) {
       return;
     }
 
-    authorDao.createOrUpdateAuthors(authorList);
-    List<Long> authorIds = authorList.stream().map(Author::getId).collect(Collectors.toList());
-    linkBookWithAuthors(book.getId(), authorIds);
+    try {
+      linkBookWithAuthors(dbHelper.getWritableDatabase(), book.getId(), saveAuthors(authorList));
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
+    }
   }
 
   /**
@@ -391,7 +479,7 @@ public class BookDao {
    * @return bookList all books as a list
    */
   public List<Book> findAllBooks() {
-    SQLiteDatabase db = dbHelper.getWritableDatabase();
+    SQLiteDatabase db = dbHelper.getReadableDatabase();
 
     String selectQuery = "SELECT * FROM " + DatabaseHelper.TABLE_NAME_BOOK;
 
@@ -462,34 +550,52 @@ public class BookDao {
   }
 
   /**
-   * Finds an amount of last modified books.
+   * Finds the last modified books with their shelf, authors and note counts in one query.
+   * The books are read in the order of the index on their modification date. The authors
+   * of a book are joined in the order in which they were linked with it, group_concat keeps
+   * the order of its ordered subquery, because SQLite does not flatten it into the aggregate.
    *
    * @param amount of books to retrieve
-   * @return a list of the retrieved books
+   * @return the retrieved books, the last modified book first
    */
-  public List<Book> findModifiedBooks(int amount) {
+  public List<RecentBookItem> findRecentBookItems(int amount) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-    String selectQuery = "SELECT " + DatabaseHelper._ID + " FROM "
-        + DatabaseHelper.TABLE_NAME_BOOK + " ORDER BY " + DatabaseHelper.MOD_DATE + " DESC LIMIT ?";
+    String selectQuery = "SELECT b." + DatabaseHelper._ID + ", b." + DatabaseHelper.TITLE
+        + ", b." + DatabaseHelper.PUB_YEAR + ", b." + DatabaseHelper.MOD_DATE
+        + ", IFNULL(s." + DatabaseHelper._ID + ", 0), IFNULL(s." + DatabaseHelper.NAME
+        + ", ''), IFNULL((SELECT group_concat(name, ', ') FROM (SELECT IFNULL(a."
+        + DatabaseHelper.TITLE + " || ' ', '') || IFNULL(a." + DatabaseHelper.FIRST_NAME
+        + ", '') || ' ' || IFNULL(a." + DatabaseHelper.LAST_NAME + ", '') AS name FROM "
+        + DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK + " al JOIN "
+        + DatabaseHelper.TABLE_NAME_AUTHOR + " a ON (a." + DatabaseHelper._ID + " = al."
+        + DatabaseHelper.AUTHOR_ID + ") WHERE al." + DatabaseHelper.BOOK_ID + " = b."
+        + DatabaseHelper._ID + " ORDER BY al." + DatabaseHelper._ID
+        + ")), ''), (SELECT COUNT(" + DatabaseHelper._ID + ") FROM "
+        + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " n WHERE n." + DatabaseHelper.BOOK_ID
+        + " = b." + DatabaseHelper._ID + ") FROM " + DatabaseHelper.TABLE_NAME_BOOK
+        + " b LEFT JOIN " + DatabaseHelper.TABLE_NAME_SHELF + " s ON (s." + DatabaseHelper._ID
+        + " = (SELECT lnk." + DatabaseHelper.SHELF_ID + " FROM "
+        + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " lnk WHERE lnk." + DatabaseHelper.BOOK_ID
+        + " = b." + DatabaseHelper._ID + " LIMIT 1)) ORDER BY b." + DatabaseHelper.MOD_DATE
+        + " DESC LIMIT ?";
 
     Cursor cursor = db.rawQuery(selectQuery, new String[] {String.valueOf(amount)});
 
-    List<Long> bookIds = new ArrayList<>();
+    List<RecentBookItem> bookItemList = new ArrayList<>();
     if (cursor.moveToFirst()) {
       do {
-        bookIds.add(Long.parseLong(cursor.getString(0)));
+        // Id, Title, Publication year, Mod date, Shelf id, Shelf name, Authors, Note count
+        bookItemList.add(new RecentBookItem(cursor.getLong(0), cursor.getString(1),
+                                            cursor.getInt(2), cursor.getLong(3),
+                                            cursor.getLong(4), cursor.getString(5),
+                                            cursor.getString(6), cursor.getInt(7)));
       } while (cursor.moveToNext());
     }
 
     cursor.close();
 
-    List<Book> bookList = new ArrayList<>();
-    for (Long id : bookIds) {
-      bookList.add(findById(id));
-    }
-
-    return bookList;
+    return bookItemList;
   }
 
   /**
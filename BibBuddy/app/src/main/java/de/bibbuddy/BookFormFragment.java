@@ -7,6 +7,7 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.EditText;
 import android.widget.TextView;
+import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
@@ -41,19 +42,12 @@ public class BookFormFragment extends BackStackFragment {
 
       if (bookId == 0) { // Adds new book
         mainActivity.updateHeaderFragment(getString(R.string.add_book));
+        setInputText(view);
+        setupAddAuthorBtnListener(view);
       } else { // Edits existing book
-        BookModel model = new BookModel(requireContext(), shelfId);
-        book = model.getBookById(bookId);
-
-        if (authorList.isEmpty()) {
-          authorList.addAll(model.getAuthorList(bookId));
-        }
-
         mainActivity.updateHeaderFragment(getString(R.string.change_book));
+        loadBook(view, shelfId, bookId);
       }
-
-      setInputText(view);
-      setupAddAuthorBtnListener(view);
     } else if (this.book != null) {
       mainActivity.updateHeaderFragment(getString(R.string.add_book));
       setInputText(view);
@@ -63,6 +57,45 @@ public class BookFormFragment extends BackStackFragment {
     mainActivity.updateNavigationFragment(R.id.navigation_library);
   }
 
+  private void loadBook(View view, Long shelfId, Long bookId) {
+    // The book can only be changed after its data is shown
+    FloatingActionButton confirmBtn = view.findViewById(R.id.confirm_btn);
+    confirmBtn.setEnabled(false);
+
+    BookModel model = new BookModel(requireContext(), shelfId);
+    model.loadBook(bookId, loadedBook -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      book = new Book(loadedBook);
+
+      if (!authorList.isEmpty()) {
+        showBook(view);
+        return;
+      }
+
+      model.loadAuthorList(bookId, authors -> {
+        if (!isAdded()) {
+          return;
+        }
+
+        authorList.addAll(authors);
+        showBook(view);
+      }, this::showDatabaseError);
+    }, this::showDatabaseError);
+  }
+
+  private void showBook(View view) {
+    setInputText(view);
+    setupAddAuthorBtnListener(view);
+    view.findViewById(R.id.confirm_btn).setEnabled(true);
+  }
+
+  private void showDatabaseError(Throwable error) {
+    Toast.makeText(requireContext(), R.string.database_error, Toast.LENGTH_LONG).show();
+  }
+
   private void setInputText(View view) {
     EditText isbnField = view.findViewById(R.id.book_form_isbn_input);
     isbnField.setText(book.getIsbn());
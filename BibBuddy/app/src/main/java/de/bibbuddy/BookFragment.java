@@ -9,7 +9,6 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.net.Uri;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.Menu;
 import android.view.MenuInflater;
@@ -32,7 +31,6 @@ import androidx.core.content.ContextCompat;
 import com.google.android.material.floatingactionbutton.FloatingActionButton;
 import com.tsuryo.swipeablerv.SwipeLeftRightCallback;
 import com.tsuryo.swipeablerv.SwipeableRecyclerView;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
@@ -45,8 +43,6 @@ import java.util.Objects;
 public class BookFragment extends BackStackFragment implements BookRecyclerViewAdapter.BookListener,
     BookFormFragment.ChangeBookListener, SwipeLeftRightCallback.Listener {
 
-  private static final String TAG = BookFragment.class.getSimpleName();
-
   private final List<BookItem> selectedBookItems = new ArrayList<>();
 
   private final ActivityResultLauncher<String> requestStoragePermissionLauncher =
@@ -71,8 +67,9 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
                 if (data != null) {
                   Uri uri = data.getData();
 
+                  // Only the name of the file is checked, it is read by the import
                   if (importBibTex.isBibFile(
-                      Objects.requireNonNull(UriUtils.getFullUriPath(context, uri)))) {
+                      Objects.requireNonNull(UriUtils.getUriFileName(requireActivity(), uri)))) {
                     handleImport(uri);
                   } else {
                     showDialogNonBibFile();
@@ -130,7 +127,6 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
 
     if (mainActivity.isDefaultApp()) {
       handleImport(uri);
-      updateBookList(bookModel.getCurrentBookList());
     }
 
     mainActivity.resetIsDefaultApp();
@@ -139,14 +135,23 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
   private void setupRecyclerView() {
     SwipeableRecyclerView recyclerView = view.findViewById(R.id.book_recycler_view);
 
-    List<BookItem> bookList = bookModel.getSortedBookList(sortTypeLut,
-                                                          bookModel.getBookList(shelfId));
-
-    adapter = new BookRecyclerViewAdapter(bookList, this, requireContext());
+    adapter = new BookRecyclerViewAdapter(bookModel.getCurrentBookList(), this,
+                                          requireContext());
     recyclerView.setAdapter(adapter);
     recyclerView.setListener(this);
+    recyclerView.addOnScrollListener(new PageScrollListener(this::loadNextBookPage));
 
-    updateEmptyView(bookList);
+    loadBookList();
+  }
+
+  private void loadBookList() {
+    bookModel.loadBookList(shelfId, sortTypeLut, this::updateBookList,
+        error -> showLoadError(this::loadBookList));
+  }
+
+  private void loadNextBookPage() {
+    bookModel.loadNextBookPage(this::updateBookList,
+        error -> showLoadError(this::loadNextBookPage));
   }
 
   private void handleChangeBookData() {
@@ -167,8 +172,6 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
   }
 
   private void updateBookList(List<BookItem> bookList) {
-    bookList = bookModel.getSortedBookList(sortTypeLut, bookList);
-
     adapter.setBookList(bookList);
     adapter.notifyDataSetChanged();
 
@@ -241,14 +244,19 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
   private void performDeleteBook() {
     final int booksNumber = selectedBookItems.size();
 
-    bookModel.deleteBooks(selectedBookItems, shelfId);
-    updateBookList(bookModel.getCurrentBookList());
+    bookModel.deleteBooks(selectedBookItems, deleteResult -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    if (booksNumber > 1) {
-      Toast.makeText(context, getString(R.string.deleted_books), Toast.LENGTH_SHORT).show();
-    } else {
-      Toast.makeText(context, getString(R.string.deleted_book), Toast.LENGTH_SHORT).show();
-    }
+      updateBookList(bookModel.getCurrentBookList());
+
+      if (booksNumber > 1) {
+        Toast.makeText(context, getString(R.string.deleted_books), Toast.LENGTH_SHORT).show();
+      } else {
+        Toast.makeText(context, getString(R.string.deleted_book), Toast.LENGTH_SHORT).show();
+      }
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   private void handleSortBook() {
@@ -257,85 +265,57 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
           sortTypeLut = newSortCriteria;
           ((MainActivity) requireActivity())
           .setSortTypeLut(newSortCriteria);
-          sortBookList();
+          loadBookList();
         });
 
     sortDialog.show();
   }
 
-  private void sortBookList() {
-    List<BookItem> bookList = bookModel.getSortedBookList(sortTypeLut);
-    adapter.setBookList(bookList);
-    adapter.notifyDataSetChanged();
-  }
-
   private void checkEmptyShelf() {
-    if (bookModel.getAllBooksForShelf(shelfId).isEmpty()) {
-      AlertDialog.Builder alertDialogEmptyShelf = new AlertDialog.Builder(requireContext());
-      alertDialogEmptyShelf.setTitle(R.string.empty_shelf);
-      alertDialogEmptyShelf.setMessage(R.string.empty_shelf_description);
-
-      alertDialogEmptyShelf.setPositiveButton(R.string.ok,
-          (dialog, which) -> {
-        });
-
-      alertDialogEmptyShelf.create().show();
-    } else {
-      shareShelfBibIntent();
-    }
-  }
-
-  private void handleImport(Uri uri) {
-    String bibText = readBibFile(uri);
-
-    if (bibText != null) {
-      List<String> nonRedundantBibItems
-          = importBibTex.getNonRedundantBibItems(bibText);
-
-      NoteModel noteModel = new NoteModel(context);
-      for (int i = 0; i < nonRedundantBibItems.size(); i++) {
-
-        if (nonRedundantBibItems.get(i).startsWith(BibTexKeys.BOOK_TAG)) {
-          importBibTex.parseBibItem(nonRedundantBibItems.get(i));
-          Book book = importBibTex.importBook();
-          addImportedBook(book, importBibTex.parseAuthorNames());
-          importBibTex.importBibNote(noteModel, book);
-        }
+    bookModel.checkHasBooks(hasBooks -> {
+      if (!isAdded()) {
+        return;
+      }
 
+      if (hasBooks) {
+        shareShelfBibIntent();
+      } else {
+        showEmptyShelfDialog();
       }
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
+  }
 
-      Toast.makeText(context, getString(R.string.imported_file_name_is) + '\n'
-          + UriUtils.getUriFileName(requireActivity(), uri), Toast.LENGTH_LONG).show();
+  private void showEmptyShelfDialog() {
+    AlertDialog.Builder alertDialogEmptyShelf = new AlertDialog.Builder(requireContext());
+    alertDialogEmptyShelf.setTitle(R.string.empty_shelf);
+    alertDialogEmptyShelf.setMessage(R.string.empty_shelf_description);
 
-    } else {
-      Toast.makeText(context, getString(R.string.not_valid_bib_file),
-                     Toast.LENGTH_LONG).show();
-    }
+    alertDialogEmptyShelf.setPositiveButton(R.string.ok,
+        (dialog, which) -> {
+      });
 
+    alertDialogEmptyShelf.create().show();
   }
 
-  private void addImportedBook(Book book, List<Author> authorList) {
-    if (importBibTex.existsBibNote()) {
-      bookModel.addBook(book, authorList);
+  private void handleImport(Uri uri) {
+    String fileName = UriUtils.getUriFileName(requireActivity(), uri);
 
-    } else {
-      bookModel.addImportedBook(book, authorList);
-    }
+    importBibTex.importBibItems(uri, shelfId, importedBooks -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    adapter.setBookList(bookModel.getCurrentBookList());
-    adapter.notifyDataSetChanged();
-    updateEmptyView(bookModel.getCurrentBookList());
-  }
+      if (importedBooks > 0) {
+        loadBookList();
 
-  private String readBibFile(Uri uri) {
-    try {
-      importBibTex.readTextFromUri(uri);
-      return importBibTex.readTextFromUri(uri);
-    } catch (IOException ex) {
-      Log.e(TAG, ex.toString(), ex);
-    }
+        Toast.makeText(context, getString(R.string.imported_file_name_is) + '\n' + fileName,
+                       Toast.LENGTH_LONG).show();
 
-    return null;
+      } else {
+        Toast.makeText(context, getString(R.string.not_valid_bib_file),
+                       Toast.LENGTH_LONG).show();
+      }
+    }, error -> Toast.makeText(context, R.string.not_valid_bib_file, Toast.LENGTH_LONG).show());
   }
 
   private void filePicker() {
@@ -504,8 +484,6 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
           @Override
           public void onBookAdded(Book book, List<Author> authorList) {
             addBook(book, authorList);
-            Toast.makeText(requireContext(), getString(R.string.added_book), Toast.LENGTH_SHORT)
-                .show();
           }
         });
 
@@ -515,9 +493,20 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
   }
 
   private void addBook(Book book, List<Author> authorList) {
-    bookModel.addBook(book, authorList);
-    Toast.makeText(requireContext(), getString(R.string.added_book), Toast.LENGTH_SHORT).show();
-    updateBookList(bookModel.getCurrentBookList());
+    bookModel.addBook(book, authorList, savedBook -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      if (savedBook == null) {
+        Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show();
+        return;
+      }
+
+      // the list is loaded after the book was saved, an earlier load may miss the new book
+      loadBookList();
+      Toast.makeText(context, getString(R.string.added_book), Toast.LENGTH_SHORT).show();
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   private void handleAddBookBarcodeFragment() {
@@ -537,13 +526,24 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
   }
 
   private void shareShelfBibIntent() {
-    NoteModel noteModel = new NoteModel(context);
-    ShareBibTex shareBibTex = new ShareBibTex(shelfName);
-    String bibContent =
-        shareBibTex.getBibDataFromShelf(shelfId, bookModel, noteModel);
-
-    Uri contentUri = shareBibTex.writeTemporaryBibFile(context, bibContent);
+    ShareBibTex shareBibTex = new ShareBibTex(context, shelfName);
+    ExportProgressDialog progressDialog = new ExportProgressDialog(context);
+    progressDialog.show();
+
+    shareBibTex.writeTemporaryBibFile(
+        (writer, progressListener) -> shareBibTex.writeBibDataFromShelf(
+            writer, shelfId, progressListener),
+        progressDialog,
+        contentUri -> {
+          progressDialog.dismiss();
+
+          if (contentUri != null && isAdded()) {
+            startShareShelfIntent(contentUri);
+          }
+        });
+  }
 
+  private void startShareShelfIntent(Uri contentUri) {
     Intent shareShelfIntent =
         ShareCompat.IntentBuilder.from(requireActivity())
             .setStream(contentUri)
@@ -598,6 +598,12 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
   }
 
 
+  @Override
+  public void onDestroyView() {
+    bookModel.cancelLoading();
+    super.onDestroyView();
+  }
+
   @Override
   public void onCreateOptionsMenu(@NonNull Menu menu, MenuInflater inflater) {
     inflater.inflate(R.menu.fragment_book_menu, menu);
@@ -633,8 +639,7 @@ public class BookFragment extends BackStackFragment implements BookRecyclerViewA
 
   @Override
   public void onBookChanged(Book book, List<Author> authorList) {
-    bookModel.updateBook(book, authorList);
-    updateBookList(bookModel.getBookList(shelfId));
+    bookModel.updateBook(book, authorList, updatedBook -> loadBookList());
   }
 
   @Override
@@ -1,5 +1,7 @@
 package de.bibbuddy;
 
+import java.util.List;
+
 /**
  * The BookItem is responsible for holding the information of the book view items.
  * It is a child of the LibraryItem.
@@ -28,6 +30,57 @@ public class BookItem extends LibraryItem {
     this.noteCount = noteCount;
   }
 
+  /**
+   * Constructor for a BookItem that is read directly from a list query.
+   *
+   * @param id        id of the book
+   * @param title     title of the book
+   * @param year      publication year of the book
+   * @param modDate   modification date of the book
+   * @param shelfId   shelfId of the book
+   * @param authors   authors of the book
+   * @param noteCount total number of notes in the book
+   */
+  public BookItem(Long id, String title, int year, Long modDate, Long shelfId, String authors,
+                  int noteCount) {
+    super(title, R.drawable.ic_book, id, shelfId, modDate);
+
+    this.year = year;
+    this.authors = authors;
+    this.noteCount = noteCount;
+  }
+
+  /**
+   * Converts the authors of a book to the String that is shown in the list.
+   *
+   * @param authorList authors of the book
+   * @return the authors separated by commas
+   */
+  public static String convertAuthorListToString(List<Author> authorList) {
+    if (authorList == null) {
+      return "";
+    }
+
+    StringBuilder authors = new StringBuilder();
+
+    boolean savedAuthor = false;
+    for (Author author : authorList) {
+
+      if (savedAuthor) {
+        authors.append(", ");
+      }
+
+      if (author.getTitle() != null) {
+        authors.append(author.getTitle()).append(" ");
+      }
+
+      authors.append(author.getFirstName()).append(" ").append(author.getLastName());
+      savedAuthor = true;
+    }
+
+    return authors.toString();
+  }
+
   public int getYear() {
     return year;
   }
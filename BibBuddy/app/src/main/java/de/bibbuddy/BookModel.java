@@ -3,6 +3,8 @@ package de.bibbuddy;
 import android.content.Context;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 /**
  * The BookModel contains all the book data for the BookFragment.
@@ -13,77 +15,12 @@ import java.util.List;
 public class BookModel {
 
   private final BookDao bookDao;
-  private final AuthorDao authorDao;
-  private final NoteDao noteDao;
+  private final DeleteDao deleteDao;
 
-  private List<BookItem> bookList;
-  private Long shelfId;
-
-
-  private String convertAuthorListToString(List<Author> authorList) {
-    if (authorList == null) {
-      return "";
-    }
-
-    StringBuilder authors = new StringBuilder();
-
-    boolean savedAuthor = false;
-    for (Author author : authorList) {
-
-      if (savedAuthor) {
-        authors.append(", ");
-      }
-
-      if (author.getTitle() != null) {
-        authors.append(author.getTitle()).append(" ");
-      }
-
-      authors.append(author.getFirstName()).append(" ").append(author.getLastName());
-      savedAuthor = true;
-    }
-
-    return authors.toString();
-  }
-
-  private void deleteAuthors(Long bookId) {
-    List<Long> authorIds = bookDao.getAllAuthorIdsForBook(bookId);
-
-    for (Long authorId : authorIds) {
-      authorDao.delete(authorId, bookId);
-    }
-  }
-
-  private void deleteNotes(Long bookId) {
-    List<Long> noteIds = noteDao.getAllNoteIdsForBook(bookId);
-
-    for (Long noteId : noteIds) {
-      noteDao.delete(noteId);
-    }
-
-  }
-
-  private void sortBookList(SortTypeLut sortTypeLut) {
-    switch (sortTypeLut) {
-      case MOD_DATE_LATEST:
-        bookList.sort(new SortDate());
-        break;
-
-      case MOD_DATE_OLDEST:
-        bookList.sort(new SortDate().reversed());
-        break;
-
-      case NAME_ASCENDING:
-        bookList.sort(new SortName());
-        break;
-
-      case NAME_DESCENDING:
-        bookList.sort(new SortName().reversed());
-        break;
+  private final PageLoader<BookItem> bookPages;
+  private final Function<Integer, List<RecentBookItem>> recentBookItems;
 
-      default:
-        throw new IllegalArgumentException();
-    }
-  }
+  private Long shelfId;
 
   /**
    * Constructor for a BookModel.
@@ -94,19 +31,13 @@ public class BookModel {
   public BookModel(Context context, Long shelfId) {
     this.shelfId = shelfId;
 
-    DatabaseHelper databaseHelper = new DatabaseHelper(context);
+    DatabaseHelper databaseHelper = DatabaseHelper.getInstance(context);
     this.bookDao = new BookDao(databaseHelper);
-    this.authorDao = new AuthorDao(databaseHelper);
-    this.noteDao = new NoteDao(databaseHelper);
-  }
-
-  /**
-   * Gets all books from the database.
-   *
-   * @return a list with objects of the class Book
-   */
-  public List<Book> getAllBooks() {
-    return bookDao.findAllBooks();
+    this.deleteDao = new DeleteDao(databaseHelper);
+    this.bookPages = new PageLoader<>(databaseHelper.getQueryStats().traceScreen(
+        "BookFragment page", page -> bookDao.findBookItemsForShelf(this.shelfId, page)));
+    this.recentBookItems = databaseHelper.getQueryStats().traceScreen(
+        "HomeFragment load", bookDao::findRecentBookItems);
   }
 
   /**
@@ -119,183 +50,188 @@ public class BookModel {
     return bookDao.getAllBooksForShelf(id);
   }
 
+
   /**
-   * Gets all book Ids from a shelf with given ID.
+   * Adds a new book to the database on the writer thread. The bookList has to be loaded
+   * again by the listener to show it at its position in the sort order, a list that was
+   * loaded before the listener is called may not contain the new book yet.
    *
-   * @param id id of a shelf
-   * @return a list with all book ids from a given shelf
+   * @param book          book data for the database
+   * @param authorList    authorList of the new book
+   * @param listener      listener for the saved book or null if it could not be saved,
+   *                      called on the main thread
+   * @param errorListener listener for the error if the book could not be saved, called on
+   *                      the main thread
    */
-  public List<Long> getAllBookIdsForShelf(Long id) {
-    return bookDao.getAllBookIdsForShelf(id);
+  public void addBook(Book book, List<Author> authorList,
+                      DatabaseExecutor.ResultListener<Book> listener,
+                      DatabaseExecutor.ErrorListener errorListener) {
+    Long currentShelfId = shelfId;
+    DatabaseExecutor.getInstance().write(() -> bookDao.create(book, authorList, currentShelfId),
+                                         listener, errorListener);
   }
 
-
   /**
-   * Adds a new book to the bookList and database.
+   * Checks on a background thread whether the shelf of the bookList contains at least one
+   * book, also if the bookList is not loaded yet.
    *
-   * @param book       book data for the database and bookList
-   * @param authorList authorList of the new book
+   * @param listener      listener for the result, called on the main thread
+   * @param errorListener listener for the error if the check failed, called on the main
+   *                      thread
    */
-  public void addBook(Book book, List<Author> authorList) {
-    bookDao.create(book, authorList, shelfId);
-    String authors = convertAuthorListToString(authorList);
-
-    book = bookDao.findById(bookDao.findLatestId());
-
-    bookList.add(new BookItem(book, shelfId, authors, 0));
+  public void checkHasBooks(DatabaseExecutor.ResultListener<Boolean> listener,
+                            DatabaseExecutor.ErrorListener errorListener) {
+    Long currentShelfId = shelfId;
+    DatabaseExecutor.getInstance().read(() -> bookDao.hasBooksInShelf(currentShelfId),
+                                        listener, errorListener);
   }
 
   /**
-   * Adds an imported book to the bookList and database.
-   * Sets the note counter to 1 because a BibTeX item can only
-   * import one note.
+   * Loads the first page of the bookList of the given shelf on a background thread.
    *
-   * @param book       book data for the database and bookList
-   * @param authorList authorList of the new book
+   * @param shelfId       shelfId of the given shelf
+   * @param sortTypeLut   sort order of the bookList
+   * @param listener      listener for the loaded bookList, called on the main thread
+   * @param errorListener listener for the error if the page could not be loaded, called on
+   *                      the main thread
    */
-  public void addImportedBook(Book book, List<Author> authorList) {
-    bookDao.create(book, authorList, shelfId);
-    String authors = convertAuthorListToString(authorList);
-
-    book = bookDao.findById(bookDao.findLatestId());
-
-    bookList
-        .add(new BookItem(book, shelfId, authors, 1));
+  public void loadBookList(Long shelfId, SortTypeLut sortTypeLut,
+                           DatabaseExecutor.ResultListener<List<BookItem>> listener,
+                           DatabaseExecutor.ErrorListener errorListener) {
+    this.shelfId = shelfId;
+    bookPages.loadFirstPage(sortTypeLut, listener, errorListener);
   }
 
   /**
-   * Gets the bookList of the current shelfId.
+   * Loads the next page of the bookList and appends it, if there is one.
    *
-   * @param shelfId shelfId of the given shelf
-   * @return the bookList of the current shelfId
+   * @param listener      listener for the loaded bookList, called on the main thread
+   * @param errorListener listener for the error if the page could not be loaded, called on
+   *                      the main thread
    */
-  public List<BookItem> getBookList(Long shelfId) {
-    bookList = new ArrayList<>();
-    List<Book> bookDbList = bookDao.getAllBooksForShelf(shelfId);
-
-    for (Book book : bookDbList) {
-      List<Author> authorList = bookDao.getAllAuthorsForBook(book.getId());
-      int noteCount = countAllNotesForBook(book.getId());
-
-      bookList.add(new BookItem(book, shelfId, convertAuthorListToString(authorList), noteCount));
-    }
+  public void loadNextBookPage(DatabaseExecutor.ResultListener<List<BookItem>> listener,
+                               DatabaseExecutor.ErrorListener errorListener) {
+    bookPages.loadNextPage(listener, errorListener);
+  }
 
-    return bookList;
+  public void cancelLoading() {
+    bookPages.cancel();
   }
 
-  public List<Author> getAuthorList(Long bookId) {
-    return bookDao.getAllAuthorsForBook(bookId);
+  /**
+   * Loads the authors of a book on a background thread.
+   *
+   * @param bookId        id of the book
+   * @param listener      listener for the authors, called on the main thread
+   * @param errorListener listener for the error if the authors could not be loaded, called
+   *                      on the main thread
+   */
+  public void loadAuthorList(Long bookId, DatabaseExecutor.ResultListener<List<Author>> listener,
+                             DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(() -> bookDao.getAllAuthorsForBook(bookId),
+                                        listener, errorListener);
   }
 
-  public String getAuthorString(Long bookId) {
-    return convertAuthorListToString(getAuthorList(bookId));
+  /**
+   * Loads the authors of a book as one string on a background thread.
+   *
+   * @param bookId        id of the book
+   * @param listener      listener for the authors, called on the main thread
+   * @param errorListener listener for the error if the authors could not be loaded, called
+   *                      on the main thread
+   */
+  public void loadAuthorString(Long bookId, DatabaseExecutor.ResultListener<String> listener,
+                               DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(
+        () -> BookItem.convertAuthorListToString(bookDao.getAllAuthorsForBook(bookId)),
+        listener, errorListener);
   }
 
   /**
-   * Deletes all selected books and their respective notes.
+   * Deletes all selected books and their respective notes within one transaction on the
+   * writer thread. The deleted books are removed from the bookList afterwards.
    *
    * @param selectedBookItems selected book items
+   * @param listener          listener for what was deleted, called on the main thread
+   * @param errorListener     listener for the error if the books could not be deleted,
+   *                          called on the main thread
    */
-  public void deleteBooks(List<BookItem> selectedBookItems, Long shelfId) {
+  public void deleteBooks(List<BookItem> selectedBookItems,
+                          DatabaseExecutor.ResultListener<DeleteResult> listener,
+                          DatabaseExecutor.ErrorListener errorListener) {
     if (selectedBookItems == null || selectedBookItems.isEmpty()) {
+      listener.onResult(new DeleteResult(0, 0, 0, 0));
       return;
     }
 
-    for (BookItem book : selectedBookItems) {
-      Long bookId = book.getId();
-
-      deleteNotes(bookId);
-      deleteAuthors(bookId);
-
-      bookDao.delete(bookId, shelfId);
-      bookList.removeIf(book::equals);
+    // The selection of the user is cleared while the books are deleted
+    List<BookItem> deletedBookItems = new ArrayList<>(selectedBookItems);
+    List<Long> bookIds = new ArrayList<>();
+    for (BookItem book : deletedBookItems) {
+      bookIds.add(book.getId());
     }
-  }
-
-  public void updateBook(Book book, List<Author> authorList) {
-    bookDao.updateBook(book, authorList);
-  }
 
-  public List<BookItem> getCurrentBookList() {
-    return bookList;
-  }
+    DatabaseExecutor.getInstance().write(() -> deleteDao.deleteBooks(bookIds),
+        deleteResult -> {
+          if (deleteResult.getBookCount() > 0) {
+            getCurrentBookList().removeAll(deletedBookItems);
+          }
 
-  public BookItem getSelectedBookItem(int position) {
-    return bookList.get(position);
-  }
-
-  public Book getBookById(Long id) {
-    return bookDao.findById(id);
-  }
-
-  public void setShelfId(Long shelfId) {
-    this.shelfId = shelfId;
+          listener.onResult(deleteResult);
+        }, errorListener);
   }
 
   /**
-   * Gets the sorted bookList by sortTypeLut.
+   * Updates a book and its authors on the writer thread.
    *
-   * @param sortTypeLut sortTypeLut of the list
-   * @return the sorted bookList
+   * @param book       book data for the database
+   * @param authorList authors of the book
+   * @param listener   listener that is called on the main thread after the update
+   * @return the future of the update
    */
-  public List<BookItem> getSortedBookList(SortTypeLut sortTypeLut) {
-    sortBookList(sortTypeLut);
-
-    return bookList;
+  public Future<Book> updateBook(Book book, List<Author> authorList,
+                                 DatabaseExecutor.ResultListener<Book> listener) {
+    return DatabaseExecutor.getInstance().write(() -> {
+      bookDao.updateBook(book, authorList);
+      return book;
+    }, listener);
   }
 
-  /**
-   * Gets the sorted bookList by sortTypeLut with the given bookList.
-   *
-   * @param sortTypeLut sortTypeLut of the list
-   * @param bookList    bookList that should be sorted
-   * @return the sorted bookList
-   */
-  public List<BookItem> getSortedBookList(SortTypeLut sortTypeLut, List<BookItem> bookList) {
-    this.bookList = bookList;
-    sortBookList(sortTypeLut);
-
-    return bookList;
-  }
-
-  /**
-   * Finds an amount of last modified books.
-   *
-   * @param amount of books to retrieve
-   * @return a list of the retrieved books
-   */
-  public List<Book> findModifiedBooks(int amount) {
-    return bookDao.findModifiedBooks(amount);
+  public List<BookItem> getCurrentBookList() {
+    return bookPages.getItems();
   }
 
-  /**
-   * Finds the shelfId of a book in the database.
-   *
-   * @param id id of the book
-   * @return the shelfId of the book
-   */
-  public Long findShelfIdByBook(Long id) {
-    return bookDao.findShelfIdByBook(id);
+  public BookItem getSelectedBookItem(int position) {
+    return getCurrentBookList().get(position);
   }
 
   /**
-   * Finds the shelf name of a book in the database.
+   * Loads a book by its id on a background thread.
    *
-   * @param id of the book
-   * @return the shelf name of the book
+   * @param id            id of the book
+   * @param listener      listener for the book, called on the main thread
+   * @param errorListener listener for the error if the book could not be loaded, called on
+   *                      the main thread
    */
-  public String findShelfNameByBook(Long id) {
-    return bookDao.findShelfNameByBook(id);
+  public void loadBook(Long id, DatabaseExecutor.ResultListener<Book> listener,
+                       DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(() -> bookDao.findById(id), listener, errorListener);
   }
 
   /**
-   * Counts all Notes for a specific Book.
+   * Loads an amount of last modified books with their shelf, authors and note counts on a
+   * background thread.
    *
-   * @param bookId current bookId
-   * @return count of all notes that belong to the current book
+   * @param amount        of books to retrieve
+   * @param listener      listener for the retrieved books, called on the main thread
+   * @param errorListener listener for the error if the books could not be loaded, called on
+   *                      the main thread
    */
-  public int countAllNotesForBook(Long bookId) {
-    return bookDao.countAllNotesForBook(bookId);
+  public void loadRecentBookItems(int amount,
+                                  DatabaseExecutor.ResultListener<List<RecentBookItem>> listener,
+                                  DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(() -> recentBookItems.apply(amount), listener,
+                                        errorListener);
   }
 
 }
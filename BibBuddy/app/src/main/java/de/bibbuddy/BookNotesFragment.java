@@ -25,6 +25,7 @@ import androidx.core.app.ShareCompat;
 import androidx.core.content.ContextCompat;
 import com.tsuryo.swipeablerv.SwipeLeftRightCallback;
 import com.tsuryo.swipeablerv.SwipeableRecyclerView;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
@@ -143,17 +144,20 @@ public class BookNotesFragment extends BackStackFragment
   private void performDeleteNotes(List<NoteItem> itemsToDelete) {
     deselectNoteItems();
 
-    bookNotesModel.deleteNotes(itemsToDelete);
-    adapter.setNoteList(bookNotesModel.getBookNoteList(bookId));
-    adapter.notifyDataSetChanged();
+    bookNotesModel.deleteNotes(itemsToDelete, deleteResult -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    if (itemsToDelete.size() > 1) {
-      Toast.makeText(context, getString(R.string.deleted_notes), Toast.LENGTH_SHORT).show();
-    } else {
-      Toast.makeText(context, getString(R.string.deleted_note), Toast.LENGTH_SHORT).show();
-    }
+      // the list is loaded after the notes were deleted, an earlier load may still show them
+      loadNoteList();
 
-    updateBookNoteList(adapter.getNoteList());
+      if (itemsToDelete.size() > 1) {
+        Toast.makeText(context, getString(R.string.deleted_notes), Toast.LENGTH_SHORT).show();
+      } else {
+        Toast.makeText(context, getString(R.string.deleted_note), Toast.LENGTH_SHORT).show();
+      }
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   private void deselectNoteItems() {
@@ -170,33 +174,47 @@ public class BookNotesFragment extends BackStackFragment
         sortTypeLut = newSortCriteria;
         ((MainActivity) requireActivity())
                                                  .setSortTypeLut(newSortCriteria);
-        sortNoteList();
+        loadNoteList();
         });
 
     sortDialog.show();
   }
 
-  private void sortNoteList() {
-    List<NoteItem> noteList = bookNotesModel.getSortedNoteList(sortTypeLut, bookId);
-    adapter.setNoteList(noteList);
+  private void loadNoteList() {
+    bookNotesModel.loadNoteList(sortTypeLut, bookId, noteList -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      adapter.setNoteList(noteList);
+      updateEmptyView(noteList);
+    }, error -> showLoadError(this::loadNoteList));
   }
 
   private void checkEmptyNoteList() {
-    if (bookNotesModel.getBookNoteList(bookId).isEmpty()) {
-      AlertDialog.Builder alertDialogEmptyLib = new AlertDialog.Builder(requireContext());
-      alertDialogEmptyLib.setTitle(R.string.empty_note_list);
-      alertDialogEmptyLib.setMessage(R.string.empty_note_list_description);
+    bookNotesModel.checkHasNotes(bookId, hasNotes -> {
+      if (!isAdded()) {
+        return;
+      }
 
-      alertDialogEmptyLib.setPositiveButton(R.string.ok,
-        (dialog, which) -> {
-        });
+      if (hasNotes) {
+        shareBookNoteBibIntent();
+      } else {
+        showEmptyNoteListDialog();
+      }
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
+  }
 
-      alertDialogEmptyLib.create().show();
+  private void showEmptyNoteListDialog() {
+    AlertDialog.Builder alertDialogEmptyLib = new AlertDialog.Builder(requireContext());
+    alertDialogEmptyLib.setTitle(R.string.empty_note_list);
+    alertDialogEmptyLib.setMessage(R.string.empty_note_list_description);
 
-    } else {
-      shareBookNoteBibIntent();
-    }
+    alertDialogEmptyLib.setPositiveButton(R.string.ok,
+      (dialog, which) -> {
+      });
 
+    alertDialogEmptyLib.create().show();
   }
 
   private void handleManualBookNotes() {
@@ -271,48 +289,50 @@ public class BookNotesFragment extends BackStackFragment
     reqAlertDialog.create().show();
   }
 
-  private void updateBookNoteList(List<NoteItem> noteList) {
-    sortNoteList();
-    updateEmptyView(noteList);
-  }
-
   private void setupBookData() {
-    Bundle bundle = this.getArguments();
-    assert bundle != null;
-    BookModel bookModel = new BookModel(context, bundle.getLong(LibraryKeys.SHELF_ID));
-    Book book = bookModel.getBookById(bookId);
+    bookModel.loadBook(bookId, book -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      TextView bookTitle = view.findViewById(R.id.book_title);
+      bookTitle.setText(book.getTitle());
 
-    TextView bookTitle = view.findViewById(R.id.book_title);
-    bookTitle.setText(book.getTitle());
+      TextView bookYear = view.findViewById(R.id.book_year);
+      bookYear.setText(String.valueOf(book.getPubYear()));
 
-    TextView bookAuthors = view.findViewById(R.id.book_authors);
-    bookAuthors.setText(bookModel.getAuthorString(bookId));
+      if (bookYear.getText().equals("0")) {
+        bookYear.setVisibility(View.GONE);
+      }
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
 
-    TextView bookYear = view.findViewById(R.id.book_year);
-    bookYear.setText(String.valueOf(book.getPubYear()));
+    bookModel.loadAuthorString(bookId, authors -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    if (bookAuthors.getText().equals("")) {
-      bookAuthors.setVisibility(View.GONE);
-    }
+      TextView bookAuthors = view.findViewById(R.id.book_authors);
+      bookAuthors.setText(authors);
 
-    if (bookYear.getText().equals("0")) {
-      bookYear.setVisibility(View.GONE);
-    }
+      if (bookAuthors.getText().equals("")) {
+        bookAuthors.setVisibility(View.GONE);
+      }
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
-  private void setupRecyclerView(Long bookId) {
+  private void setupRecyclerView() {
     bookNotesModel = new BookNotesModel(context);
 
     SwipeableRecyclerView notesRecyclerView =
         view.findViewById(R.id.book_notes_recycler_view);
 
-    adapter = new NoteRecyclerViewAdapter((MainActivity) requireActivity(),
-                                          bookNotesModel.getBookNoteList(bookId),
+    adapter = new NoteRecyclerViewAdapter((MainActivity) requireActivity(), new ArrayList<>(),
                                           bookNotesModel.getNoteModel());
 
     notesRecyclerView.setAdapter(adapter);
     notesRecyclerView.setListener(this);
-    updateEmptyView(adapter.getNoteList());
+
+    loadNoteList();
   }
 
   private void updateEmptyView(List<NoteItem> noteList) {
@@ -326,17 +346,26 @@ public class BookNotesFragment extends BackStackFragment
   }
 
   private void shareBookNoteBibIntent() {
-    NoteModel noteModel = new NoteModel(context);
-
-    Book book = bookModel.getBookById(bookId);
-    String fileName = (book.getTitle() + book.getPubYear())
-        .replaceAll("\\s+", "");
-    ShareBibTex shareBibTex = new ShareBibTex(fileName);
+    bookModel.loadBook(bookId, book -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    String content =
-        shareBibTex.getBibDataFromBook(bookId, bookModel, noteModel);
-    Uri contentUri = shareBibTex.writeTemporaryBibFile(context, content);
+      String fileName = (book.getTitle() + book.getPubYear())
+          .replaceAll("\\s+", "");
+      ShareBibTex shareBibTex = new ShareBibTex(context, fileName);
+
+      shareBibTex.writeTemporaryBibFile(
+          (writer, progressListener) -> shareBibTex.writeBibDataFromBook(writer, bookId),
+          contentUri -> {
+            if (contentUri != null && isAdded()) {
+              startShareBookNoteIntent(contentUri);
+            }
+          });
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
+  }
 
+  private void startShareBookNoteIntent(Uri contentUri) {
     Intent shareBookNoteIntent =
         ShareCompat.IntentBuilder.from(requireActivity())
             .setStream(contentUri)
@@ -376,7 +405,7 @@ public class BookNotesFragment extends BackStackFragment
     bookId = bundle.getLong(LibraryKeys.BOOK_ID);
 
     setupMainActivity(bundle);
-    setupRecyclerView(bookId);
+    setupRecyclerView();
 
     bookModel = new BookModel(context, getShelfId());
 
@@ -384,7 +413,6 @@ public class BookNotesFragment extends BackStackFragment
     setupSortBtn();
     setupAddBtn();
 
-    updateBookNoteList(adapter.getNoteList());
     setupBookData();
 
     setHasOptionsMenu(true);
@@ -392,6 +420,12 @@ public class BookNotesFragment extends BackStackFragment
     return view;
   }
 
+  @Override
+  public void onDestroyView() {
+    bookNotesModel.cancelLoading();
+    super.onDestroyView();
+  }
+
   @Override
   public void onCreateOptionsMenu(@NonNull Menu menu, MenuInflater inflater) {
     inflater.inflate(R.menu.fragment_book_note_menu, menu);
@@ -1,7 +1,9 @@
 package de.bibbuddy;
 
 import android.content.Context;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Future;
 
 /**
  * BookNotesModel manages all data of the BookNotesFragment.
@@ -12,6 +14,8 @@ public class BookNotesModel {
 
   private final NoteModel noteModel;
 
+  private Future<List<NoteItem>> noteListLoad;
+
   /**
    * BookNotesModel contains methods for managing the
    * data for the BookNotesFragment.
@@ -26,27 +30,67 @@ public class BookNotesModel {
     return noteModel;
   }
 
-  public List<NoteItem> getBookNoteList(Long bookId) {
-    return noteModel.getNoteListForBook(bookId);
-  }
-
   /**
-   * Deletes all selected notes.
+   * Deletes all selected notes on the writer thread. The noteList has to be loaded again by
+   * the listener, a list that was loaded before may still contain the notes.
    *
    * @param selectedNoteItems selected note items
+   * @param listener          listener for what was deleted, called on the main thread
+   * @param errorListener     listener for the error if the notes could not be deleted,
+   *                          called on the main thread
    */
-  public void deleteNotes(List<NoteItem> selectedNoteItems) {
+  public void deleteNotes(List<NoteItem> selectedNoteItems,
+                          DatabaseExecutor.ResultListener<DeleteResult> listener,
+                          DatabaseExecutor.ErrorListener errorListener) {
     if (selectedNoteItems == null) {
       return;
     }
 
+    List<Long> noteIds = new ArrayList<>();
     for (NoteItem note : selectedNoteItems) {
-      noteModel.deleteNote(note.getId());
+      noteIds.add(note.getId());
     }
+
+    noteModel.deleteNotes(noteIds, listener, errorListener);
   }
 
-  public List<NoteItem> getSortedNoteList(SortTypeLut sortTypeLut, Long bookId) {
-    return noteModel.getSortedNoteList(sortTypeLut, bookId);
+  /**
+   * Loads the noteList of a book sorted by sortTypeLut on a background thread. A load that
+   * is still running is canceled, so an older noteList never replaces a newer one.
+   *
+   * @param sortTypeLut   currently applied to the list
+   * @param bookId        id of the book the noteList is linked to
+   * @param listener      listener for the sorted noteList, called on the main thread
+   * @param errorListener listener for the error if the noteList could not be loaded, called
+   *                      on the main thread
+   */
+  public void loadNoteList(SortTypeLut sortTypeLut, Long bookId,
+                           DatabaseExecutor.ResultListener<List<NoteItem>> listener,
+                           DatabaseExecutor.ErrorListener errorListener) {
+    cancelLoading();
+    noteListLoad = noteModel.loadNoteListForBook(sortTypeLut, bookId, listener, errorListener);
   }
-}
 
+  /**
+   * Checks on a background thread whether a book has at least one note.
+   *
+   * @param bookId        id of the book
+   * @param listener      listener for the result, called on the main thread
+   * @param errorListener listener for the error if the check failed, called on the main
+   *                      thread
+   */
+  public void checkHasNotes(Long bookId, DatabaseExecutor.ResultListener<Boolean> listener,
+                            DatabaseExecutor.ErrorListener errorListener) {
+    noteModel.checkHasNotes(bookId, listener, errorListener);
+  }
+
+  /**
+   * Cancels the load of the noteList, its listener is not called anymore.
+   */
+  public void cancelLoading() {
+    if (noteListLoad != null) {
+      noteListLoad.cancel(false);
+    }
+  }
+
+}
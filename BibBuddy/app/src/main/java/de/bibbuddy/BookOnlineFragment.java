@@ -116,14 +116,22 @@ public class BookOnlineFragment extends BackStackFragment
   @Override
   public void onBookAdded(Book book, List<Author> authorList) {
     BookAddModel bookAddModel = new BookAddModel(requireContext());
-    bookAddModel.addBook(book, authorList, shelfId);
-
     MainActivity mainActivity = (MainActivity) requireActivity();
-    mainActivity
-        .runOnUiThread(() -> Toast.makeText(mainActivity, getString(R.string.added_book),
-                                            Toast.LENGTH_SHORT).show());
 
-    closeFragment();
+    // The fragment is closed after the book was saved, so the bookList is loaded with it
+    bookAddModel.addBook(book, authorList, shelfId, savedBook -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      if (savedBook == null) {
+        Toast.makeText(mainActivity, R.string.database_error, Toast.LENGTH_LONG).show();
+        return;
+      }
+
+      Toast.makeText(mainActivity, getString(R.string.added_book), Toast.LENGTH_SHORT).show();
+      closeFragment();
+    }, error -> Toast.makeText(mainActivity, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
 }
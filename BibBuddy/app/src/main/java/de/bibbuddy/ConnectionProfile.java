@@ -0,0 +1,127 @@
+package de.bibbuddy;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.os.Build;
+
+/**
+ * ConnectionProfile contains the settings that DatabaseHelper applies to the connection when
+ * the database is opened. The foreign keys are always enabled, because the links are deleted
+ * together with the linked rows by them.
+ * SQLite keeps the page cache, mmap, temp store and sync settings per connection, and with the
+ * write-ahead log the pool opens further connections for the readers. Since Android 11 the
+ * settings are applied to every connection of the pool, also to the ones opened later. Older
+ * versions only allow them on the primary connection, which runs all writes. The mmap size
+ * is always only set on the primary connection, because its pragma returns a row, which
+ * Android does not accept for the pragmas of every connection.
+ *
+ * @author Sarah Kurek
+ */
+public class ConnectionProfile {
+
+  // The defaults of SQLite: rollback journal, about 2 MB page cache, no mmap, full sync
+  public static final ConnectionProfile DEFAULT =
+      new ConnectionProfile(false, 0, -2000, TempStore.DEFAULT, Synchronous.FULL);
+
+  // Readers do not block the writer, commits only sync the log at checkpoints
+  public static final ConnectionProfile PERFORMANCE =
+      new ConnectionProfile(true, 64 * 1024 * 1024, -8 * 1024, TempStore.MEMORY,
+                            Synchronous.NORMAL);
+
+  private final boolean writeAheadLogging;
+  private final long mmapSize;
+  private final int cacheSize;
+  private final TempStore tempStore;
+  private final Synchronous synchronous;
+
+  // Some pragmas return the new value, so they are run as a query and not with execSQL
+  private static void setPragma(SQLiteDatabase db, String pragma, Object value) {
+    Cursor cursor = db.rawQuery("PRAGMA " + pragma + " = " + value, null);
+    cursor.moveToFirst();
+    cursor.close();
+  }
+
+  // The pragma must not return a row
+  private static void setConnectionPragma(SQLiteDatabase db, String pragma, Object value) {
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.R) {
+      db.execPerConnectionSQL("PRAGMA " + pragma + " = " + value, null);
+    } else {
+      setPragma(db, pragma, value);
+    }
+  }
+
+  /**
+   * Constructor of a ConnectionProfile.
+   *
+   * @param writeAheadLogging whether the write-ahead log is used instead of the rollback
+   *                          journal
+   * @param mmapSize          maximum number of bytes of the database file that are memory
+   *                          mapped, 0 disables mmap
+   * @param cacheSize         size of the page cache, in pages if positive and in KiB if
+   *                          negative
+   * @param tempStore         where temporary tables and indexes are stored
+   * @param synchronous       how often the database file is synced to the disk
+   */
+  public ConnectionProfile(boolean writeAheadLogging, long mmapSize, int cacheSize,
+                           TempStore tempStore, Synchronous synchronous) {
+    this.writeAheadLogging = writeAheadLogging;
+    this.mmapSize = mmapSize;
+    this.cacheSize = cacheSize;
+    this.tempStore = tempStore;
+    this.synchronous = synchronous;
+  }
+
+  /**
+   * Applies the profile to the connections of the database. This has to be done in
+   * onConfigure, before the database is created or migrated. The foreign keys and the journal
+   * mode are part of the configuration of the database, which Android applies to every
+   * connection itself.
+   *
+   * @param db the database that is opened
+   */
+  public void apply(SQLiteDatabase db) {
+    db.setForeignKeyConstraintsEnabled(true);
+
+    // Changing the journal mode resets the sync mode, so the pragmas are set afterwards
+    if (writeAheadLogging) {
+      db.enableWriteAheadLogging();
+    } else {
+      db.disableWriteAheadLogging();
+    }
+
+    setPragma(db, "mmap_size", mmapSize);
+    setConnectionPragma(db, "cache_size", cacheSize);
+    setConnectionPragma(db, "temp_store", tempStore.ordinal());
+    setConnectionPragma(db, "synchronous", synchronous.ordinal());
+  }
+
+  public boolean isWriteAheadLogging() {
+    return writeAheadLogging;
+  }
+
+  public long getMmapSize() {
+    return mmapSize;
+  }
+
+  public int getCacheSize() {
+    return cacheSize;
+  }
+
+  public TempStore getTempStore() {
+    return tempStore;
+  }
+
+  public Synchronous getSynchronous() {
+    return synchronous;
+  }
+
+  // The ordinals are the values of the pragmas
+  public enum TempStore {
+    DEFAULT, FILE, MEMORY
+  }
+
+  public enum Synchronous {
+    OFF, NORMAL, FULL, EXTRA
+  }
+
+}
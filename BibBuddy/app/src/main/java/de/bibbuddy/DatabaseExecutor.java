@@ -0,0 +1,156 @@
+package de.bibbuddy;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * The DatabaseExecutor runs the queries of the models off the main thread.
+ * All writes run one after the other on a single writer thread, so they never wait for
+ * each other's locks. Reads run on a small pool of reader threads. The result of a task
+ * is delivered to its listener on the main thread, unless the task was canceled before.
+ * If a task fails, its error is logged and delivered to its error listener instead.
+ * A read is not ordered after the writes submitted before it, it may run while they are
+ * still waiting for the writer thread. A read that has to see a write is started from the
+ * listener of that write.
+ *
+ * @author Sarah Kurek
+ */
+public class DatabaseExecutor {
+
+  private static final String TAG = DatabaseExecutor.class.getSimpleName();
+
+  private static final int READER_COUNT = 2;
+
+  private static DatabaseExecutor instance;
+
+  private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor();
+  private final ExecutorService readExecutor = Executors.newFixedThreadPool(READER_COUNT);
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  private DatabaseExecutor() {
+  }
+
+  /**
+   * Gets the process-wide DatabaseExecutor.
+   *
+   * @return the shared DatabaseExecutor
+   */
+  public static synchronized DatabaseExecutor getInstance() {
+    if (instance == null) {
+      instance = new DatabaseExecutor();
+    }
+
+    return instance;
+  }
+
+  private <T> Future<T> submit(ExecutorService executor, Callable<T> task,
+                               ResultListener<T> listener, ErrorListener errorListener) {
+    FutureTask<T> future = new FutureTask<T>(task) {
+      @Override
+      protected void done() {
+        if (isCancelled()) {
+          return;
+        }
+
+        try {
+          T result = get();
+
+          // Checked on the main thread again, so a task canceled in the meantime is ignored
+          mainHandler.post(() -> {
+            if (!isCancelled() && listener != null) {
+              listener.onResult(result);
+            }
+          });
+
+        } catch (ExecutionException ex) {
+          Throwable error = ex.getCause();
+          Log.e(TAG, error.toString(), error);
+
+          mainHandler.post(() -> {
+            if (!isCancelled() && errorListener != null) {
+              errorListener.onError(error);
+            }
+          });
+
+        } catch (InterruptedException ex) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    };
+
+    executor.execute(future);
+
+    return future;
+  }
+
+  /**
+   * Runs a query that only reads on a reader thread.
+   *
+   * @param query    the query
+   * @param listener listener for the result, called on the main thread, or null
+   * @param <T>      type of the result
+   * @return the future of the result
+   */
+  public <T> Future<T> read(Callable<T> query, ResultListener<T> listener) {
+    return read(query, listener, null);
+  }
+
+  /**
+   * Runs a query that only reads on a reader thread. It may run before writes that were
+   * submitted earlier, so a read that has to see a write is started from its listener.
+   *
+   * @param query         the query
+   * @param listener      listener for the result, called on the main thread, or null
+   * @param errorListener listener for the error if the query fails, called on the main thread,
+   *                      or null
+   * @param <T>           type of the result
+   * @return the future of the result
+   */
+  public <T> Future<T> read(Callable<T> query, ResultListener<T> listener,
+                            ErrorListener errorListener) {
+    return submit(readExecutor, query, listener, errorListener);
+  }
+
+  /**
+   * Runs a query that writes on the writer thread after all writes submitted before.
+   *
+   * @param update   the query
+   * @param listener listener for the result, called on the main thread, or null
+   * @param <T>      type of the result
+   * @return the future of the result
+   */
+  public <T> Future<T> write(Callable<T> update, ResultListener<T> listener) {
+    return write(update, listener, null);
+  }
+
+  /**
+   * Runs a query that writes on the writer thread after all writes submitted before.
+   *
+   * @param update        the query
+   * @param listener      listener for the result, called on the main thread, or null
+   * @param errorListener listener for the error if the query fails, called on the main thread,
+   *                      or null
+   * @param <T>           type of the result
+   * @return the future of the result
+   */
+  public <T> Future<T> write(Callable<T> update, ResultListener<T> listener,
+                             ErrorListener errorListener) {
+    return submit(writeExecutor, update, listener, errorListener);
+  }
+
+  public interface ResultListener<T> {
+    void onResult(T result);
+  }
+
+  public interface ErrorListener {
+    void onError(Throwable error);
+  }
+
+}
@@ -2,11 +2,21 @@ package de.bibbuddy;
 
 import android.annotation.SuppressLint;
 import android.content.Context;
+import android.database.Cursor;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteOpenHelper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * DatabaseHelper contains all sql commands to create the database with all its tables.
+ * There is only one DatabaseHelper per process, which owns the connection that all DAOs share.
+ * The connection stays open for the lifetime of the app and is not closed after a query.
+ * It is configured with a ConnectionProfile, by default with the write-ahead log, so the
+ * background readers do not block the writer. In debug builds its queries are recorded in
+ * the QueryStats.
  *
  * @author Sarah Kurek
  */
@@ -26,6 +36,8 @@ public class DatabaseHelper extends SQLiteOpenHelper {
   public static final String TABLE_NAME_NOTE_TAG_LNK = "note_tag_lnk";
   public static final String TABLE_NAME_BOOK_NOTE_LNK = "book_note_lnk";
   public static final String TABLE_NAME_AUTHOR_BOOK_LNK = "author_book_lnk";
+  public static final String TABLE_NAME_SEARCH_INDEX = "search_index";
+  public static final String TABLE_NAME_BIB_FRAGMENT = "bib_fragment";
 
   // Table columns
   public static final String _ID = "id";
@@ -54,12 +66,21 @@ public class DatabaseHelper extends SQLiteOpenHelper {
   public static final String NOTE_FILE_ID = "note_file_id";
   public static final String BOOK_ORIGIN_ID = "book_origin_id";
   public static final String BOOK_REF_ID = "book_referred_id";
+  public static final String CONTENT = "content";
+  public static final String DOC_ID = "docid";
+  public static final String SORT_KEY = "sort_key";
+  public static final String STAMP = "stamp";
+  public static final String FRAGMENT = "fragment";
+  public static final String PLAIN_TEXT = "plain_text";
 
   // Database Information
   private static final String DB_NAME = "BibBuddyStorage.db"; // DB
 
-  // Database version
-  private static final int DB_VERSION = 1;
+  // Database version, every version above DatabaseMigration.FIRST_DB_VERSION needs a migration
+  private static final int DB_VERSION = 7;
+
+  // Maximum estimated size of each entity cache in bytes
+  private static final int ENTITY_CACHE_SIZE = 256 * 1024;
 
   // Table queries
   private static final String CREATE_TABLE_AUTHOR =
@@ -239,9 +260,153 @@ public class DatabaseHelper extends SQLiteOpenHelper {
           + " );";
 
 
+  private static DatabaseHelper instance;
+
+  private final ConnectionProfile connectionProfile;
+  private final QueryStats queryStats;
+
+  private final AtomicInteger openCount = new AtomicInteger();
+  private final AtomicInteger closeCount = new AtomicInteger();
+
+  // Increased by the DAOs after they wrote shelves, books or notes, the items that are searched
+  private final AtomicLong searchDataVersion = new AtomicLong();
+
+  // Read-through caches of the DAOs, shared like the connection
+  private final EntityCache<Book> bookCache =
+      new EntityCache<>(ENTITY_CACHE_SIZE, book -> EntityCache.sizeOf(book.getIsbn())
+          + EntityCache.sizeOf(book.getTitle()) + EntityCache.sizeOf(book.getSubtitle())
+          + EntityCache.sizeOf(book.getPublisher()) + EntityCache.sizeOf(book.getVolume())
+          + EntityCache.sizeOf(book.getEdition()) + EntityCache.sizeOf(book.getAddInfo()));
+  private final EntityCache<Author> authorCache =
+      new EntityCache<>(ENTITY_CACHE_SIZE, author -> EntityCache.sizeOf(author.getFirstName())
+          + EntityCache.sizeOf(author.getLastName()) + EntityCache.sizeOf(author.getTitle()));
+  private final EntityCache<Shelf> shelfCache =
+      new EntityCache<>(ENTITY_CACHE_SIZE, shelf -> EntityCache.sizeOf(shelf.getName()));
+
   // Constructor
-  public DatabaseHelper(Context context) {
-    super(context, DB_NAME, null, DB_VERSION);
+  private DatabaseHelper(Context context, ConnectionProfile connectionProfile,
+                         QueryStats queryStats) {
+    super(context, DB_NAME,
+          queryStats.isEnabled() ? new InstrumentedCursorFactory(queryStats) : null, DB_VERSION);
+
+    this.connectionProfile = connectionProfile;
+    this.queryStats = queryStats;
+  }
+
+  /**
+   * Gets the process-wide DatabaseHelper. The application context is used, so that no
+   * activity or fragment is leaked by the shared instance.
+   *
+   * @param context any context of the app
+   * @return the shared DatabaseHelper
+   */
+  public static DatabaseHelper getInstance(Context context) {
+    return getInstance(context, ConnectionProfile.PERFORMANCE);
+  }
+
+  /**
+   * Gets the process-wide DatabaseHelper. The profile is only used if the instance does
+   * not exist yet, it can be changed by closing the instance first.
+   *
+   * @param context           any context of the app
+   * @param connectionProfile settings of the connection
+   * @return the shared DatabaseHelper
+   */
+  public static synchronized DatabaseHelper getInstance(Context context,
+                                                        ConnectionProfile connectionProfile) {
+    if (instance == null) {
+      // The queries are only recorded in debug builds
+      instance = new DatabaseHelper(context.getApplicationContext(), connectionProfile,
+                                    new QueryStats(BuildConfig.DEBUG));
+    }
+
+    return instance;
+  }
+
+  /**
+   * Closes the shared connection and releases the instance.
+   * This is only needed if the app (or a test) wants to end the lifecycle explicitly.
+   */
+  public static synchronized void closeInstance() {
+    if (instance != null) {
+      instance.close();
+      instance = null;
+    }
+  }
+
+  /**
+   * Gets how often the database connection has been opened.
+   *
+   * @return number of opened connections
+   */
+  public int getOpenCount() {
+    return openCount.get();
+  }
+
+  /**
+   * Gets how often the database connection has been closed.
+   *
+   * @return number of closed connections
+   */
+  public int getCloseCount() {
+    return closeCount.get();
+  }
+
+  /**
+   * Gets the version of the searched items. It changes after every write of shelves, books
+   * or notes, so search results that were found with another version may be outdated.
+   *
+   * @return the version of the searched items
+   */
+  public long getSearchDataVersion() {
+    return searchDataVersion.get();
+  }
+
+  /**
+   * Changes the version of the searched items. The DAOs call it after they wrote shelves,
+   * books or notes, also if the write failed, and only after its transaction has ended.
+   */
+  public void updateSearchDataVersion() {
+    searchDataVersion.incrementAndGet();
+  }
+
+  public ConnectionProfile getConnectionProfile() {
+    return connectionProfile;
+  }
+
+  public QueryStats getQueryStats() {
+    return queryStats;
+  }
+
+  public EntityCache<Book> getBookCache() {
+    return bookCache;
+  }
+
+  public EntityCache<Author> getAuthorCache() {
+    return authorCache;
+  }
+
+  public EntityCache<Shelf> getShelfCache() {
+    return shelfCache;
+  }
+
+  @Override
+  public void onConfigure(SQLiteDatabase db) {
+    super.onConfigure(db);
+
+    connectionProfile.apply(db);
+  }
+
+  @Override
+  public void onOpen(SQLiteDatabase db) {
+    super.onOpen(db);
+    openCount.incrementAndGet();
+  }
+
+  @Override
+  public synchronized void close() {
+    closeCount.incrementAndGet();
+    super.close();
   }
 
   @SuppressLint("SQLiteString")
@@ -260,11 +425,36 @@ public class DatabaseHelper extends SQLiteOpenHelper {
     db.execSQL(CREATE_TABLE_NOTE_TAG_LNK);
     db.execSQL(CREATE_TABLE_BOOK_NOTE_LNK);
     db.execSQL(CREATE_TABLE_AUTHOR_BOOK_LNK);
+
+    DatabaseMigration.migrate(db, DatabaseMigration.FIRST_DB_VERSION, DB_VERSION);
   }
 
   @Override
   public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
-    onCreate(db);
+    DatabaseMigration.migrate(db, oldVersion, newVersion);
+  }
+
+  /**
+   * Gets the query plan that SQLite uses for a query. This can be used to check
+   * whether a query uses an index or scans a whole table.
+   *
+   * @param db    the database
+   * @param query the query to explain
+   * @param args  arguments of the query
+   * @return the details of each step of the query plan
+   */
+  public static List<String> explainQueryPlan(SQLiteDatabase db, String query, String[] args) {
+    List<String> queryPlan = new ArrayList<>();
+
+    try (Cursor cursor = db.rawQuery("EXPLAIN QUERY PLAN " + query, args)) {
+      int detailIndex = cursor.getColumnIndex("detail");
+
+      while (cursor.moveToNext()) {
+        queryPlan.add(cursor.getString(detailIndex));
+      }
+    }
+
+    return queryPlan;
   }
 
 }
@@ -0,0 +1,397 @@
+package de.bibbuddy;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+
+/**
+ * DatabaseMigration contains all sql commands to migrate the database from one version to the
+ * next one. A new database is created in version 1 and then migrated step by step as well,
+ * so new and upgraded databases always have the same schema.
+ *
+ * @author Sarah Kurek
+ */
+public class DatabaseMigration {
+
+  // Version of the database that is created by the table queries of DatabaseHelper
+  public static final int FIRST_DB_VERSION = 1;
+
+  private static String createIndexQuery(boolean isUnique, String table, String... columns) {
+    StringBuilder query = new StringBuilder("CREATE ");
+    if (isUnique) {
+      query.append("UNIQUE ");
+    }
+
+    query.append("INDEX IF NOT EXISTS ").append(table).append("_IDX");
+    for (String column : columns) {
+      query.append('_').append(column);
+    }
+
+    query.append(" ON ").append(table).append(" (").append(String.join(", ", columns))
+        .append(")");
+
+    return query.toString();
+  }
+
+  // A unique index cannot be created as long as a link is stored twice
+  private static String removeDuplicateLinksQuery(String table, String firstColumn,
+                                                  String secondColumn) {
+    return "DELETE FROM " + table + " WHERE " + DatabaseHelper._ID + " NOT IN (SELECT MIN("
+        + DatabaseHelper._ID + ") FROM " + table + " GROUP BY " + firstColumn + ", "
+        + secondColumn + ")";
+  }
+
+  private static void createUniqueLinkIndex(SQLiteDatabase db, String table, String firstColumn,
+                                            String secondColumn) {
+    db.execSQL(removeDuplicateLinksQuery(table, firstColumn, secondColumn));
+    db.execSQL(createIndexQuery(true, table, firstColumn, secondColumn));
+  }
+
+  private static void createLinkIndexes(SQLiteDatabase db) {
+    createUniqueLinkIndex(db, DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK,
+                          DatabaseHelper.SHELF_ID, DatabaseHelper.BOOK_ID);
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK,
+                                DatabaseHelper.BOOK_ID, DatabaseHelper.SHELF_ID));
+
+    createUniqueLinkIndex(db, DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK,
+                          DatabaseHelper.BOOK_ID, DatabaseHelper.NOTE_ID);
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK,
+                                DatabaseHelper.NOTE_ID, DatabaseHelper.BOOK_ID));
+
+    createUniqueLinkIndex(db, DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK,
+                          DatabaseHelper.BOOK_ID, DatabaseHelper.AUTHOR_ID);
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK,
+                                DatabaseHelper.AUTHOR_ID, DatabaseHelper.BOOK_ID));
+
+    createUniqueLinkIndex(db, DatabaseHelper.TABLE_NAME_BOOK_TAG_LNK,
+                          DatabaseHelper.BOOK_ID, DatabaseHelper.TAG_ID);
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_BOOK_TAG_LNK,
+                                DatabaseHelper.TAG_ID, DatabaseHelper.BOOK_ID));
+
+    createUniqueLinkIndex(db, DatabaseHelper.TABLE_NAME_NOTE_TAG_LNK,
+                          DatabaseHelper.NOTE_ID, DatabaseHelper.TAG_ID);
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_NOTE_TAG_LNK,
+                                DatabaseHelper.TAG_ID, DatabaseHelper.NOTE_ID));
+
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_BOOK_LINK,
+                                DatabaseHelper.BOOK_ORIGIN_ID));
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_BOOK_LINK,
+                                DatabaseHelper.BOOK_REF_ID));
+  }
+
+  // Version 2: indexes for the foreign keys of all link tables and for the sort columns
+  private static void migrateToVersion2(SQLiteDatabase db) {
+    createLinkIndexes(db);
+
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_BOOK,
+                                DatabaseHelper.MOD_DATE));
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_SHELF,
+                                DatabaseHelper.SHELF_ID));
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_AUTHOR,
+                                DatabaseHelper.LAST_NAME, DatabaseHelper.FIRST_NAME));
+  }
+
+  private static String createTriggerQuery(String name, String event, String table,
+                                           String statement) {
+    return "CREATE TRIGGER IF NOT EXISTS " + name + " AFTER " + event + " ON " + table
+        + " BEGIN " + statement + "; END";
+  }
+
+  private static String docIdOf(String row, int docType) {
+    return row + "." + DatabaseHelper._ID + " * " + SearchDao.DOC_TYPE_COUNT + " + " + docType;
+  }
+
+  private static String indexDocQuery(String row, int docType, String name, String content) {
+    return "INSERT INTO " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + " ("
+        + DatabaseHelper.DOC_ID + ", " + DatabaseHelper.NAME + ", " + DatabaseHelper.CONTENT
+        + ") VALUES (" + docIdOf(row, docType) + ", " + name + ", " + content + ")";
+  }
+
+  private static String removeDocQuery(String row, int docType) {
+    return "DELETE FROM " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + " WHERE "
+        + DatabaseHelper.DOC_ID + " = " + docIdOf(row, docType);
+  }
+
+  private static String bookContent(String row) {
+    return "IFNULL(" + row + "." + DatabaseHelper.SUBTITLE + ", '') || ' ' || IFNULL(" + row
+        + "." + DatabaseHelper.PUBLISHER + ", '') || ' ' || IFNULL(" + row + "."
+        + DatabaseHelper.ISBN + ", '')";
+  }
+
+  private static void createIndexTriggers(SQLiteDatabase db, String table, int docType,
+                                          String name, String content,
+                                          String... indexedColumns) {
+    db.execSQL(createTriggerQuery(table + "_AI_SEARCH", "INSERT", table,
+                                  indexDocQuery("new", docType, "new." + name, content)));
+
+    // Only changes of indexed columns update the index, not the modification date
+    db.execSQL(createTriggerQuery(table + "_AU_SEARCH",
+                                  "UPDATE OF " + String.join(", ", indexedColumns), table,
+                                  removeDocQuery("old", docType) + "; "
+                                      + indexDocQuery("new", docType, "new." + name, content)));
+
+    db.execSQL(createTriggerQuery(table + "_AD_SEARCH", "DELETE", table,
+                                  removeDocQuery("old", docType)));
+  }
+
+  private static void indexTextNotes(SQLiteDatabase db) {
+    Cursor cursor = db.query(DatabaseHelper.TABLE_NAME_NOTE,
+                             new String[] {DatabaseHelper._ID, DatabaseHelper.TEXT},
+                             DatabaseHelper.TYPE + " = ?",
+                             new String[] {String.valueOf(NoteTypeLut.TEXT.getId())},
+                             null, null, null);
+
+    SQLiteStatement insertNoteIndex = db.compileStatement(SearchDao.INSERT_NOTE_INDEX);
+    if (cursor.moveToFirst()) {
+      do {
+        insertNoteIndex.bindString(1, NoteDao.toPlainText(cursor.getString(1)));
+        insertNoteIndex.bindLong(2, cursor.getLong(0));
+        insertNoteIndex.executeInsert();
+      } while (cursor.moveToNext());
+    }
+
+    insertNoteIndex.close();
+    cursor.close();
+  }
+
+  // Version 3: full-text search index for shelves, books and text notes
+  private static void migrateToVersion3(SQLiteDatabase db) {
+    db.execSQL("CREATE VIRTUAL TABLE IF NOT EXISTS " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX
+                   + " USING fts4(" + DatabaseHelper.NAME + ", " + DatabaseHelper.CONTENT
+                   + ", tokenize=unicode61)");
+
+    createIndexTriggers(db, DatabaseHelper.TABLE_NAME_SHELF, SearchDao.DOC_TYPE_SHELF,
+                        DatabaseHelper.NAME, "''", DatabaseHelper.NAME);
+    createIndexTriggers(db, DatabaseHelper.TABLE_NAME_BOOK, SearchDao.DOC_TYPE_BOOK,
+                        DatabaseHelper.TITLE, bookContent("new"), DatabaseHelper.TITLE,
+                        DatabaseHelper.SUBTITLE, DatabaseHelper.PUBLISHER, DatabaseHelper.ISBN);
+
+    // The plain text of a note is indexed by the DAOs, only the delete is done by a trigger
+    db.execSQL(createTriggerQuery(DatabaseHelper.TABLE_NAME_NOTE + "_AD_SEARCH", "DELETE",
+                                  DatabaseHelper.TABLE_NAME_NOTE,
+                                  removeDocQuery("old", SearchDao.DOC_TYPE_TEXT_NOTE)));
+
+    db.execSQL("INSERT INTO " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + " ("
+                   + DatabaseHelper.DOC_ID + ", " + DatabaseHelper.NAME + ", "
+                   + DatabaseHelper.CONTENT + ") SELECT "
+                   + docIdOf("s", SearchDao.DOC_TYPE_SHELF) + ", s." + DatabaseHelper.NAME
+                   + ", '' FROM " + DatabaseHelper.TABLE_NAME_SHELF + " s");
+
+    db.execSQL("INSERT INTO " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + " ("
+                   + DatabaseHelper.DOC_ID + ", " + DatabaseHelper.NAME + ", "
+                   + DatabaseHelper.CONTENT + ") SELECT "
+                   + docIdOf("b", SearchDao.DOC_TYPE_BOOK) + ", b." + DatabaseHelper.TITLE
+                   + ", " + bookContent("b") + " FROM " + DatabaseHelper.TABLE_NAME_BOOK + " b");
+
+    indexTextNotes(db);
+  }
+
+  private static String createLinkTableQuery(String newTable, String table, String firstColumn,
+                                             String firstTable, String secondColumn,
+                                             String secondTable, String otherColumns) {
+    return "CREATE TABLE " + newTable
+        + "( "
+        + DatabaseHelper._ID + " INTEGER NOT NULL PRIMARY KEY AUTOINCREMENT, "
+        + firstColumn + " INTEGER NOT NULL, "
+        + secondColumn + " INTEGER NOT NULL, "
+        + otherColumns
+
+        + " CONSTRAINT " + table + "_FK_1 FOREIGN KEY (" + firstColumn
+        + ") REFERENCES " + firstTable + "(" + DatabaseHelper._ID + ") ON DELETE CASCADE,"
+
+        + " CONSTRAINT " + table + "_FK_2 FOREIGN KEY (" + secondColumn
+        + ") REFERENCES " + secondTable + "(" + DatabaseHelper._ID + ") ON DELETE CASCADE"
+        + " );";
+  }
+
+  // SQLite cannot change the constraints of a table, so the table is created again
+  private static void recreateLinkTable(SQLiteDatabase db, String table, String firstColumn,
+                                        String firstTable, String secondColumn,
+                                        String secondTable, String otherColumns) {
+    String newTable = table + "_new";
+
+    db.execSQL(createLinkTableQuery(newTable, table, firstColumn, firstTable, secondColumn,
+                                    secondTable, otherColumns));
+
+    // Links to deleted rows are not copied, they would violate the foreign keys
+    db.execSQL("INSERT INTO " + newTable + " SELECT * FROM " + table + " WHERE "
+                   + firstColumn + " IN (SELECT " + DatabaseHelper._ID + " FROM " + firstTable
+                   + ") AND " + secondColumn + " IN (SELECT " + DatabaseHelper._ID + " FROM "
+                   + secondTable + ")");
+
+    db.execSQL("DROP TABLE " + table);
+    db.execSQL("ALTER TABLE " + newTable + " RENAME TO " + table);
+  }
+
+  // Version 4: links are deleted together with the linked rows by the foreign keys
+  private static void migrateToVersion4(SQLiteDatabase db) {
+    for (NoteTypeLut noteType : NoteTypeLut.values()) {
+      db.execSQL("INSERT OR IGNORE INTO " + DatabaseHelper.TABLE_NAME_NOTE_TYPE_LUT + " ("
+                     + DatabaseHelper._ID + ", " + DatabaseHelper.NAME + ") VALUES ("
+                     + noteType.getId() + ", '" + noteType.name() + "')");
+    }
+
+    recreateLinkTable(db, DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK,
+                      DatabaseHelper.SHELF_ID, DatabaseHelper.TABLE_NAME_SHELF,
+                      DatabaseHelper.BOOK_ID, DatabaseHelper.TABLE_NAME_BOOK, "");
+    recreateLinkTable(db, DatabaseHelper.TABLE_NAME_BOOK_LINK,
+                      DatabaseHelper.BOOK_ORIGIN_ID, DatabaseHelper.TABLE_NAME_BOOK,
+                      DatabaseHelper.BOOK_REF_ID, DatabaseHelper.TABLE_NAME_BOOK,
+                      DatabaseHelper.COMMENT + " TEXT, "
+                          + DatabaseHelper.CREATE_DATE + " DATETIME NOT NULL, "
+                          + DatabaseHelper.MOD_DATE + " DATETIME NOT NULL, ");
+    recreateLinkTable(db, DatabaseHelper.TABLE_NAME_BOOK_TAG_LNK,
+                      DatabaseHelper.TAG_ID, DatabaseHelper.TABLE_NAME_TAG,
+                      DatabaseHelper.BOOK_ID, DatabaseHelper.TABLE_NAME_BOOK, "");
+    recreateLinkTable(db, DatabaseHelper.TABLE_NAME_NOTE_TAG_LNK,
+                      DatabaseHelper.TAG_ID, DatabaseHelper.TABLE_NAME_TAG,
+                      DatabaseHelper.NOTE_ID, DatabaseHelper.TABLE_NAME_NOTE, "");
+    recreateLinkTable(db, DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK,
+                      DatabaseHelper.BOOK_ID, DatabaseHelper.TABLE_NAME_BOOK,
+                      DatabaseHelper.NOTE_ID, DatabaseHelper.TABLE_NAME_NOTE, "");
+    recreateLinkTable(db, DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK,
+                      DatabaseHelper.AUTHOR_ID, DatabaseHelper.TABLE_NAME_AUTHOR,
+                      DatabaseHelper.BOOK_ID, DatabaseHelper.TABLE_NAME_BOOK, "");
+
+    // The indexes were dropped together with the old tables
+    createLinkIndexes(db);
+  }
+
+  private static void addSortKeyColumn(SQLiteDatabase db, String table, String nameColumn) {
+    db.execSQL("ALTER TABLE " + table + " ADD COLUMN " + DatabaseHelper.SORT_KEY
+                   + " TEXT NOT NULL DEFAULT ''");
+
+    Cursor cursor = db.query(table, new String[] {DatabaseHelper._ID, nameColumn},
+                             null, null, null, null, null);
+
+    SQLiteStatement updateSortKey = db.compileStatement(
+        "UPDATE " + table + " SET " + DatabaseHelper.SORT_KEY + " = ? WHERE "
+            + DatabaseHelper._ID + " = ?");
+    if (cursor.moveToFirst()) {
+      do {
+        updateSortKey.bindString(1, SortKey.create(cursor.getString(1)));
+        updateSortKey.bindLong(2, cursor.getLong(0));
+        updateSortKey.executeUpdateDelete();
+      } while (cursor.moveToNext());
+    }
+
+    updateSortKey.close();
+    cursor.close();
+  }
+
+  // Version 5: stored sort keys and indexes for every sort order of the lists
+  private static void migrateToVersion5(SQLiteDatabase db) {
+    addSortKeyColumn(db, DatabaseHelper.TABLE_NAME_SHELF, DatabaseHelper.NAME);
+    addSortKeyColumn(db, DatabaseHelper.TABLE_NAME_BOOK, DatabaseHelper.TITLE);
+    addSortKeyColumn(db, DatabaseHelper.TABLE_NAME_NOTE, DatabaseHelper.NAME);
+
+    // The shelves of a parent are sorted, so the index on the parent alone is not needed
+    db.execSQL("DROP INDEX IF EXISTS " + DatabaseHelper.TABLE_NAME_SHELF + "_IDX_"
+                   + DatabaseHelper.SHELF_ID);
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_SHELF,
+                                DatabaseHelper.SHELF_ID, DatabaseHelper.SORT_KEY));
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_SHELF,
+                                DatabaseHelper.SHELF_ID, DatabaseHelper.MOD_DATE));
+
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_BOOK,
+                                DatabaseHelper.SORT_KEY));
+
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_NOTE,
+                                DatabaseHelper.SORT_KEY));
+    db.execSQL(createIndexQuery(false, DatabaseHelper.TABLE_NAME_NOTE,
+                                DatabaseHelper.MOD_DATE));
+  }
+
+  // Version 6: rendered BibTeX entries of the books, deleted together with their book
+  private static void migrateToVersion6(SQLiteDatabase db) {
+    db.execSQL("CREATE TABLE IF NOT EXISTS " + DatabaseHelper.TABLE_NAME_BIB_FRAGMENT
+                   + "( "
+                   + DatabaseHelper.BOOK_ID + " INTEGER NOT NULL PRIMARY KEY, "
+                   + DatabaseHelper.STAMP + " TEXT NOT NULL, "
+                   + DatabaseHelper.FRAGMENT + " TEXT NOT NULL, "
+
+                   + " CONSTRAINT " + DatabaseHelper.TABLE_NAME_BIB_FRAGMENT
+                   + "_FK_1 FOREIGN KEY (" + DatabaseHelper.BOOK_ID + ") REFERENCES "
+                   + DatabaseHelper.TABLE_NAME_BOOK + "(" + DatabaseHelper._ID
+                   + ") ON DELETE CASCADE"
+                   + " );");
+  }
+
+  // Version 7: stored plain text of the notes
+  private static void migrateToVersion7(SQLiteDatabase db) {
+    db.execSQL("ALTER TABLE " + DatabaseHelper.TABLE_NAME_NOTE + " ADD COLUMN "
+                   + DatabaseHelper.PLAIN_TEXT + " TEXT NOT NULL DEFAULT ''");
+
+    Cursor cursor = db.query(DatabaseHelper.TABLE_NAME_NOTE,
+                             new String[] {DatabaseHelper._ID, DatabaseHelper.TEXT},
+                             null, null, null, null, null);
+
+    SQLiteStatement updatePlainText = db.compileStatement(
+        "UPDATE " + DatabaseHelper.TABLE_NAME_NOTE + " SET " + DatabaseHelper.PLAIN_TEXT
+            + " = ? WHERE " + DatabaseHelper._ID + " = ?");
+    if (cursor.moveToFirst()) {
+      do {
+        updatePlainText.bindString(1, NoteDao.toPlainText(cursor.getString(1)));
+        updatePlainText.bindLong(2, cursor.getLong(0));
+        updatePlainText.executeUpdateDelete();
+      } while (cursor.moveToNext());
+    }
+
+    updatePlainText.close();
+    cursor.close();
+
+    // The stored BibTeX entries were rendered from the HTML body of the notes
+    db.execSQL("DELETE FROM " + DatabaseHelper.TABLE_NAME_BIB_FRAGMENT);
+  }
+
+  /**
+   * Migrates the database to the given version. The database must be in the version before.
+   *
+   * @param db      the database to migrate
+   * @param version the version to migrate to
+   */
+  public static void migrate(SQLiteDatabase db, int version) {
+    switch (version) {
+      case 2:
+        migrateToVersion2(db);
+        break;
+
+      case 3:
+        migrateToVersion3(db);
+        break;
+
+      case 4:
+        migrateToVersion4(db);
+        break;
+
+      case 5:
+        migrateToVersion5(db);
+        break;
+
+      case 6:
+        migrateToVersion6(db);
+        break;
+
+      case 7:
+        migrateToVersion7(db);
+        break;
+
+      default:
+        throw new IllegalArgumentException("No migration to database version " + version);
+    }
+  }
+
+  /**
+   * Migrates the database step by step from the old version to the new version.
+   *
+   * @param db         the database to migrate
+   * @param oldVersion current version of the database
+   * @param newVersion version the database should have afterwards
+   */
+  public static void migrate(SQLiteDatabase db, int oldVersion, int newVersion) {
+    for (int version = oldVersion + 1; version <= newVersion; version++) {
+      migrate(db, version);
+    }
+  }
+
+}
@@ -0,0 +1,231 @@
+package de.bibbuddy;
+
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * DeleteDao contains the sql queries to delete shelves, books and notes together with
+ * everything that belongs to them. Each delete is done with a few set-based queries within
+ * one transaction. The links to deleted rows are removed by the foreign keys of the link
+ * tables and the search index by its triggers.
+ *
+ * @author Sarah Kurek
+ */
+public class DeleteDao {
+
+  private static final String TAG = DeleteDao.class.getSimpleName();
+
+  // SQLite allows at most 999 parameters in one query
+  private static final int MAX_IDS_PER_QUERY = 500;
+
+  private static final String DELETE_ORPHANED_AUTHORS =
+      "DELETE FROM " + DatabaseHelper.TABLE_NAME_AUTHOR + " WHERE NOT EXISTS (SELECT 1 FROM "
+          + DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK + " lnk WHERE lnk."
+          + DatabaseHelper.AUTHOR_ID + " = " + DatabaseHelper.TABLE_NAME_AUTHOR + "."
+          + DatabaseHelper._ID + ")";
+
+  private final DatabaseHelper dbHelper;
+
+  private static String createIdList(int idCount) {
+    StringBuilder idList = new StringBuilder("(");
+    for (int i = 0; i < idCount; i++) {
+      idList.append(i == 0 ? "?" : ", ?");
+    }
+
+    return idList.append(")").toString();
+  }
+
+  private static String deleteNotesOfShelvesQuery(String shelfIds) {
+    return "DELETE FROM " + DatabaseHelper.TABLE_NAME_NOTE + " WHERE " + DatabaseHelper._ID
+        + " IN (SELECT n." + DatabaseHelper.NOTE_ID + " FROM "
+        + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " n JOIN "
+        + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " s ON (n." + DatabaseHelper.BOOK_ID
+        + " = s." + DatabaseHelper.BOOK_ID + ") WHERE s." + DatabaseHelper.SHELF_ID + " IN "
+        + shelfIds + ")";
+  }
+
+  private static String deleteBooksOfShelvesQuery(String shelfIds) {
+    return "DELETE FROM " + DatabaseHelper.TABLE_NAME_BOOK + " WHERE " + DatabaseHelper._ID
+        + " IN (SELECT " + DatabaseHelper.BOOK_ID + " FROM "
+        + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " WHERE " + DatabaseHelper.SHELF_ID
+        + " IN " + shelfIds + ")";
+  }
+
+  private static String deleteShelvesQuery(String shelfIds) {
+    return "DELETE FROM " + DatabaseHelper.TABLE_NAME_SHELF + " WHERE " + DatabaseHelper._ID
+        + " IN " + shelfIds;
+  }
+
+  private static String deleteNotesOfBooksQuery(String bookIds) {
+    return "DELETE FROM " + DatabaseHelper.TABLE_NAME_NOTE + " WHERE " + DatabaseHelper._ID
+        + " IN (SELECT " + DatabaseHelper.NOTE_ID + " FROM "
+        + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " WHERE " + DatabaseHelper.BOOK_ID
+        + " IN " + bookIds + ")";
+  }
+
+  private static String deleteBooksQuery(String bookIds) {
+    return "DELETE FROM " + DatabaseHelper.TABLE_NAME_BOOK + " WHERE " + DatabaseHelper._ID
+        + " IN " + bookIds;
+  }
+
+  private static String deleteNotesQuery(String noteIds) {
+    return "DELETE FROM " + DatabaseHelper.TABLE_NAME_NOTE + " WHERE " + DatabaseHelper._ID
+        + " IN " + noteIds;
+  }
+
+  /**
+   * Runs a delete query for all given ids. The ids are split into several queries
+   * if there are more than MAX_IDS_PER_QUERY.
+   *
+   * @param db          the database
+   * @param deleteQuery creates the delete query for a list of id parameters
+   * @param ids         ids to delete
+   * @return number of deleted rows
+   */
+  private static int delete(SQLiteDatabase db, Function<String, String> deleteQuery,
+                            List<Long> ids) {
+    int deletedRows = 0;
+
+    for (int start = 0; start < ids.size(); start += MAX_IDS_PER_QUERY) {
+      List<Long> idsOfQuery = ids.subList(start, Math.min(ids.size(), start + MAX_IDS_PER_QUERY));
+
+      SQLiteStatement statement =
+          db.compileStatement(deleteQuery.apply(createIdList(idsOfQuery.size())));
+      try {
+        for (int i = 0; i < idsOfQuery.size(); i++) {
+          statement.bindLong(i + 1, idsOfQuery.get(i));
+        }
+
+        deletedRows += statement.executeUpdateDelete();
+      } finally {
+        statement.close();
+      }
+    }
+
+    return deletedRows;
+  }
+
+  private static int deleteOrphanedAuthors(SQLiteDatabase db) {
+    SQLiteStatement statement = db.compileStatement(DELETE_ORPHANED_AUTHORS);
+    try {
+      return statement.executeUpdateDelete();
+    } finally {
+      statement.close();
+    }
+  }
+
+  public DeleteDao(DatabaseHelper dbHelper) {
+    this.dbHelper = dbHelper;
+  }
+
+  private void clearAuthorCache(int authorCount) {
+    if (authorCount > 0) {
+      dbHelper.getAuthorCache().clear();
+    }
+  }
+
+  /**
+   * Deletes the shelves with their books and the notes of the books.
+   * Authors that have no book anymore are deleted as well.
+   *
+   * @param shelfIds ids of the shelves
+   * @return what was deleted, nothing is deleted if the transaction failed
+   */
+  public DeleteResult deleteShelves(List<Long> shelfIds) {
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
+    DeleteResult result = new DeleteResult(0, 0, 0, 0);
+
+    db.beginTransaction();
+    try {
+      int noteCount = delete(db, DeleteDao::deleteNotesOfShelvesQuery, shelfIds);
+      int bookCount = delete(db, DeleteDao::deleteBooksOfShelvesQuery, shelfIds);
+      int authorCount = deleteOrphanedAuthors(db);
+      int shelfCount = delete(db, DeleteDao::deleteShelvesQuery, shelfIds);
+
+      db.setTransactionSuccessful();
+
+      result = new DeleteResult(shelfCount, bookCount, noteCount, authorCount);
+
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
+    } finally {
+      db.endTransaction();
+      dbHelper.updateSearchDataVersion();
+    }
+
+    // Removed after the commit, so no reader caches the deleted rows again.
+    // The ids of the deleted books are not known, so all books are removed from the cache
+    dbHelper.getShelfCache().removeAll(shelfIds);
+    dbHelper.getBookCache().clear();
+    clearAuthorCache(result.getAuthorCount());
+
+    return result;
+  }
+
+  /**
+   * Deletes the books with their notes.
+   * Authors that have no book anymore are deleted as well.
+   *
+   * @param bookIds ids of the books
+   * @return what was deleted, nothing is deleted if the transaction failed
+   */
+  public DeleteResult deleteBooks(List<Long> bookIds) {
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
+    DeleteResult result = new DeleteResult(0, 0, 0, 0);
+
+    db.beginTransaction();
+    try {
+      int noteCount = delete(db, DeleteDao::deleteNotesOfBooksQuery, bookIds);
+      int bookCount = delete(db, DeleteDao::deleteBooksQuery, bookIds);
+      int authorCount = deleteOrphanedAuthors(db);
+
+      db.setTransactionSuccessful();
+
+      result = new DeleteResult(0, bookCount, noteCount, authorCount);
+
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
+    } finally {
+      db.endTransaction();
+      dbHelper.updateSearchDataVersion();
+    }
+
+    // Removed after the commit, so no reader caches the deleted rows again
+    dbHelper.getBookCache().removeAll(bookIds);
+    clearAuthorCache(result.getAuthorCount());
+
+    return result;
+  }
+
+  /**
+   * Deletes the notes.
+   *
+   * @param noteIds ids of the notes
+   * @return what was deleted, nothing is deleted if the transaction failed
+   */
+  public DeleteResult deleteNotes(List<Long> noteIds) {
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+    db.beginTransaction();
+    try {
+      int noteCount = delete(db, DeleteDao::deleteNotesQuery, noteIds);
+
+      db.setTransactionSuccessful();
+
+      return new DeleteResult(0, 0, noteCount, 0);
+
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
+    } finally {
+      db.endTransaction();
+      dbHelper.updateSearchDataVersion();
+    }
+
+    return new DeleteResult(0, 0, 0, 0);
+  }
+
+}
@@ -0,0 +1,46 @@
+package de.bibbuddy;
+
+/**
+ * The DeleteResult holds how many shelves, books, notes and authors were deleted together.
+ *
+ * @author Sarah Kurek
+ */
+public class DeleteResult {
+
+  private final int shelfCount;
+  private final int bookCount;
+  private final int noteCount;
+  private final int authorCount;
+
+  /**
+   * Constructor of a DeleteResult.
+   *
+   * @param shelfCount  number of deleted shelves
+   * @param bookCount   number of deleted books
+   * @param noteCount   number of deleted notes
+   * @param authorCount number of deleted authors
+   */
+  public DeleteResult(int shelfCount, int bookCount, int noteCount, int authorCount) {
+    this.shelfCount = shelfCount;
+    this.bookCount = bookCount;
+    this.noteCount = noteCount;
+    this.authorCount = authorCount;
+  }
+
+  public int getShelfCount() {
+    return shelfCount;
+  }
+
+  public int getBookCount() {
+    return bookCount;
+  }
+
+  public int getNoteCount() {
+    return noteCount;
+  }
+
+  public int getAuthorCount() {
+    return authorCount;
+  }
+
+}
@@ -0,0 +1,127 @@
+package de.bibbuddy;
+
+import android.util.LruCache;
+import java.util.List;
+import java.util.function.LongFunction;
+import java.util.function.ToIntFunction;
+
+/**
+ * The EntityCache holds the last loaded entities of one table by their id, so that a DAO
+ * does not have to query the database again for the same row. Every id is mapped to one
+ * entity object, which is shared by all callers until the row is written.
+ * The cache is bounded by the estimated size of the entities in bytes and evicts the least
+ * recently used entities first. The DAOs remove an entity as soon as its row is updated or
+ * deleted. An entity that was loaded while any entity was removed is not cached, because it
+ * may have been read before the write.
+ *
+ * @param <T> the type of the cached entities
+ * @author Sarah Kurek
+ */
+public class EntityCache<T> {
+
+  // Estimated size of an entity object without its strings
+  private static final int ENTITY_OVERHEAD = 64;
+
+  private final LruCache<Long, T> cache;
+
+  // Counts the removals, guarded by this cache
+  private long removeCount;
+
+  /**
+   * Estimates the memory of a string in bytes.
+   *
+   * @param text the string or null
+   * @return estimated size of the string
+   */
+  static int sizeOf(String text) {
+    return text == null ? 0 : 40 + 2 * text.length();
+  }
+
+  /**
+   * Constructor of the EntityCache.
+   *
+   * @param maxSize    maximum estimated size of all entities in bytes
+   * @param sizeOfData estimates the size of the strings of an entity in bytes
+   */
+  public EntityCache(int maxSize, ToIntFunction<T> sizeOfData) {
+    cache = new LruCache<Long, T>(maxSize) {
+      @Override
+      protected int sizeOf(Long id, T entity) {
+        return ENTITY_OVERHEAD + sizeOfData.applyAsInt(entity);
+      }
+    };
+  }
+
+  /**
+   * Gets the entity with the id from the cache or loads it if it is not cached.
+   * An entity that does not exist is not cached.
+   *
+   * @param id   id of the entity
+   * @param load loads the entity from the database
+   * @return the entity or null if it does not exist
+   */
+  public T get(long id, LongFunction<T> load) {
+    long loadRemoveCount;
+
+    synchronized (this) {
+      T entity = cache.get(id);
+      if (entity != null) {
+        return entity;
+      }
+
+      loadRemoveCount = removeCount;
+    }
+
+    // Loaded without the lock, so the queries of other threads are not blocked
+    T entity = load.apply(id);
+
+    synchronized (this) {
+      if (entity != null && loadRemoveCount == removeCount) {
+        cache.put(id, entity);
+      }
+    }
+
+    return entity;
+  }
+
+  /**
+   * Removes the entity with the id. Must be called after the write of its row was committed.
+   *
+   * @param id id of the entity or null
+   */
+  public synchronized void remove(Long id) {
+    removeCount++;
+
+    if (id != null) {
+      cache.remove(id);
+    }
+  }
+
+  public synchronized void removeAll(List<Long> ids) {
+    removeCount++;
+
+    for (Long id : ids) {
+      if (id != null) {
+        cache.remove(id);
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    removeCount++;
+    cache.evictAll();
+  }
+
+  public int getHitCount() {
+    return cache.hitCount();
+  }
+
+  public int getMissCount() {
+    return cache.missCount();
+  }
+
+  public int getSize() {
+    return cache.size();
+  }
+
+}
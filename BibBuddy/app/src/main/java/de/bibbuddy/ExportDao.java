@@ -0,0 +1,284 @@
+package de.bibbuddy;
+
+import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.SQLException;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ExportDao contains the sql queries for the BibTeX export. The books of an export,
+ * their authors and their text notes are each read with one query ordered by the id of
+ * the book. The three cursors are then read side by side, so the entries are grouped book
+ * by book while they are written and only one entry is held in memory.
+ * The rendered entry of each book is stored together with a stamp of the modification dates
+ * of the book, its authors and its text notes. As long as the stamp does not change, the
+ * stored entry is exported again and the book is not rendered a second time.
+ * The newly rendered entries are stored on the writer thread of the DatabaseExecutor,
+ * because the export itself runs on a reader thread.
+ *
+ * @author Silvia Ivanova
+ */
+public class ExportDao {
+
+  private static final String TAG = ExportDao.class.getSimpleName();
+
+  // Ids of the books of the library, of a shelf and of a single book
+  private static final String LIBRARY_BOOK_IDS = "SELECT " + DatabaseHelper.BOOK_ID + " FROM "
+      + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK;
+  private static final String SHELF_BOOK_IDS = LIBRARY_BOOK_IDS + " WHERE "
+      + DatabaseHelper.SHELF_ID + " = ?";
+  private static final String BOOK_IDS = "SELECT " + DatabaseHelper._ID + " FROM "
+      + DatabaseHelper.TABLE_NAME_BOOK + " WHERE " + DatabaseHelper._ID + " = ?";
+
+  // Format version of the entries and modification dates of a book, its text notes and its
+  // authors. The number of notes and authors is part of the stamp, so removed notes and
+  // authors change it as well.
+  private static final String FRAGMENT_STAMP = "'" + ShareBibTex.BIB_FORMAT_VERSION
+      + ":' || b." + DatabaseHelper.MOD_DATE
+      + " || ':' || (SELECT COUNT(*) || ':' || IFNULL(MAX(n." + DatabaseHelper.MOD_DATE
+      + "), 0) FROM " + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " lnk JOIN "
+      + DatabaseHelper.TABLE_NAME_NOTE + " n ON (n." + DatabaseHelper._ID + " = lnk."
+      + DatabaseHelper.NOTE_ID + ") WHERE lnk." + DatabaseHelper.BOOK_ID + " = b."
+      + DatabaseHelper._ID + " AND n." + DatabaseHelper.TYPE + " = " + NoteTypeLut.TEXT.getId()
+      + ") || ':' || (SELECT COUNT(*) || ':' || IFNULL(MAX(a." + DatabaseHelper.MOD_DATE
+      + "), 0) FROM " + DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK + " al JOIN "
+      + DatabaseHelper.TABLE_NAME_AUTHOR + " a ON (a." + DatabaseHelper._ID + " = al."
+      + DatabaseHelper.AUTHOR_ID + ") WHERE al." + DatabaseHelper.BOOK_ID + " = b."
+      + DatabaseHelper._ID + ")";
+
+  private static final String STORE_FRAGMENT = "INSERT OR REPLACE INTO "
+      + DatabaseHelper.TABLE_NAME_BIB_FRAGMENT + " (" + DatabaseHelper.BOOK_ID + ", "
+      + DatabaseHelper.STAMP + ", " + DatabaseHelper.FRAGMENT + ") VALUES (?, ?, ?)";
+
+  // Number of rendered entries that are stored within one transaction
+  private static final int STORE_BATCH_SIZE = 100;
+
+  private final DatabaseHelper dbHelper;
+
+  private static String countBooksQuery(String bookIds) {
+    return "SELECT COUNT(" + DatabaseHelper._ID + ") FROM " + DatabaseHelper.TABLE_NAME_BOOK
+        + " WHERE " + DatabaseHelper._ID + " IN (" + bookIds + ")";
+  }
+
+  private static String booksQuery(String bookIds) {
+    return "SELECT b." + DatabaseHelper._ID + ", b." + DatabaseHelper.ISBN + ", b."
+        + DatabaseHelper.TITLE + ", b." + DatabaseHelper.SUBTITLE + ", b."
+        + DatabaseHelper.PUB_YEAR + ", b." + DatabaseHelper.PUBLISHER + ", b."
+        + DatabaseHelper.VOLUME + ", b." + DatabaseHelper.EDITION + ", b."
+        + DatabaseHelper.ADD_INFOS + ", b." + DatabaseHelper.CREATE_DATE + ", b."
+        + DatabaseHelper.MOD_DATE + ", " + FRAGMENT_STAMP + ", f." + DatabaseHelper.STAMP
+        + ", f." + DatabaseHelper.FRAGMENT + " FROM " + DatabaseHelper.TABLE_NAME_BOOK
+        + " b LEFT JOIN " + DatabaseHelper.TABLE_NAME_BIB_FRAGMENT + " f ON (f."
+        + DatabaseHelper.BOOK_ID + " = b." + DatabaseHelper._ID + ") WHERE b."
+        + DatabaseHelper._ID + " IN (" + bookIds + ") ORDER BY b." + DatabaseHelper._ID;
+  }
+
+  private static String authorsQuery(String bookIds) {
+    return "SELECT al." + DatabaseHelper.BOOK_ID + ", a." + DatabaseHelper._ID
+        + ", a." + DatabaseHelper.FIRST_NAME + ", a." + DatabaseHelper.LAST_NAME
+        + ", a." + DatabaseHelper.TITLE + ", a." + DatabaseHelper.CREATE_DATE
+        + ", a." + DatabaseHelper.MOD_DATE
+        + " FROM " + DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK + " al JOIN "
+        + DatabaseHelper.TABLE_NAME_AUTHOR + " a ON (a." + DatabaseHelper._ID + " = al."
+        + DatabaseHelper.AUTHOR_ID + ") WHERE al." + DatabaseHelper.BOOK_ID + " IN ("
+        + bookIds + ") ORDER BY al." + DatabaseHelper.BOOK_ID + ", al." + DatabaseHelper._ID;
+  }
+
+  private static String textNotesQuery(String bookIds) {
+    return "SELECT lnk." + DatabaseHelper.BOOK_ID + ", n." + DatabaseHelper.PLAIN_TEXT
+        + " FROM " + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " lnk JOIN "
+        + DatabaseHelper.TABLE_NAME_NOTE + " n ON (n." + DatabaseHelper._ID + " = lnk."
+        + DatabaseHelper.NOTE_ID + ") WHERE n." + DatabaseHelper.TYPE + " = "
+        + NoteTypeLut.TEXT.getId() + " AND lnk." + DatabaseHelper.BOOK_ID + " IN ("
+        + bookIds + ") ORDER BY lnk." + DatabaseHelper.BOOK_ID + ", lnk." + DatabaseHelper._ID;
+  }
+
+  private static Book createBookData(Cursor cursor) {
+    return new Book(cursor.getLong(0), cursor.getString(1), cursor.getString(2),
+                    cursor.getString(3), cursor.getInt(4), cursor.getString(5),
+                    cursor.getString(6), cursor.getString(7), cursor.getString(8),
+                    cursor.getLong(9), cursor.getLong(10));
+  }
+
+  // Skips the rows of the books before the given book, the cursors are ordered by book id
+  private static void skipRowsBefore(Cursor cursor, long bookId) {
+    while (!cursor.isAfterLast() && cursor.getLong(0) < bookId) {
+      cursor.moveToNext();
+    }
+  }
+
+  private static List<Author> readAuthors(Cursor authorCursor, long bookId) {
+    List<Author> authors = new ArrayList<>();
+
+    skipRowsBefore(authorCursor, bookId);
+
+    while (!authorCursor.isAfterLast() && authorCursor.getLong(0) == bookId) {
+      authors.add(new Author(authorCursor.getLong(1), authorCursor.getString(2),
+                             authorCursor.getString(3), authorCursor.getString(4),
+                             authorCursor.getLong(5), authorCursor.getLong(6)));
+      authorCursor.moveToNext();
+    }
+
+    return authors;
+  }
+
+  private static List<String> readTextNotes(Cursor noteCursor, long bookId) {
+    List<String> textNotes = new ArrayList<>();
+
+    skipRowsBefore(noteCursor, bookId);
+
+    while (!noteCursor.isAfterLast() && noteCursor.getLong(0) == bookId) {
+      textNotes.add(noteCursor.getString(1));
+      noteCursor.moveToNext();
+    }
+
+    return textNotes;
+  }
+
+  // The stored entry of a book can be exported again if the stamp of the book is unchanged
+  private static String getStoredFragment(Cursor bookCursor) {
+    if (bookCursor.isNull(13) || !bookCursor.getString(11).equals(bookCursor.getString(12))) {
+      return null;
+    }
+
+    return bookCursor.getString(13);
+  }
+
+  // The stored entries only save work, an export does not fail if they cannot be written
+  private static int storeFragments(SQLiteDatabase db, List<BibFragment> fragments) {
+    db.beginTransaction();
+    try {
+      SQLiteStatement storeFragment = db.compileStatement(STORE_FRAGMENT);
+      for (BibFragment fragment : fragments) {
+        storeFragment.bindLong(1, fragment.bookId);
+        storeFragment.bindString(2, fragment.stamp);
+        storeFragment.bindString(3, fragment.entry);
+        storeFragment.executeInsert();
+      }
+
+      storeFragment.close();
+      db.setTransactionSuccessful();
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
+      return 0;
+    } finally {
+      db.endTransaction();
+    }
+
+    return fragments.size();
+  }
+
+  public ExportDao(DatabaseHelper dbHelper) {
+    this.dbHelper = dbHelper;
+  }
+
+  // Hands the rendered entries over to the writer thread and starts a new batch
+  private void submitFragments(List<BibFragment> fragments) {
+    if (fragments.isEmpty()) {
+      return;
+    }
+
+    List<BibFragment> batch = new ArrayList<>(fragments);
+    fragments.clear();
+
+    DatabaseExecutor.getInstance().write(
+        () -> storeFragments(dbHelper.getWritableDatabase(), batch), null);
+  }
+
+  private void exportBooks(String bookIds, String[] args, BookEntryListener listener)
+      throws IOException {
+    SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+    listener.onBookCount((int) DatabaseUtils.longForQuery(db, countBooksQuery(bookIds), args));
+
+    // Newly rendered entries that are not stored yet
+    List<BibFragment> renderedFragments = new ArrayList<>();
+
+    try (Cursor bookCursor = db.rawQuery(booksQuery(bookIds), args);
+         Cursor authorCursor = db.rawQuery(authorsQuery(bookIds), args);
+         Cursor noteCursor = db.rawQuery(textNotesQuery(bookIds), args)) {
+
+      authorCursor.moveToFirst();
+      noteCursor.moveToFirst();
+
+      while (bookCursor.moveToNext()) {
+        String fragment = getStoredFragment(bookCursor);
+
+        if (fragment == null) {
+          Book book = createBookData(bookCursor);
+          fragment = listener.renderBookEntry(book, readAuthors(authorCursor, book.getId()),
+                                              readTextNotes(noteCursor, book.getId()));
+
+          renderedFragments.add(new BibFragment(book.getId(), bookCursor.getString(11),
+                                                fragment));
+          if (renderedFragments.size() == STORE_BATCH_SIZE) {
+            submitFragments(renderedFragments);
+          }
+        }
+
+        listener.onBookEntry(fragment);
+      }
+    } finally {
+      submitFragments(renderedFragments);
+    }
+  }
+
+  /**
+   * Reads every book of the library once together with its authors and text notes.
+   *
+   * @param listener listener for the books, called for one book after the other
+   * @throws IOException if the listener could not write a book
+   */
+  public void exportLibrary(BookEntryListener listener) throws IOException {
+    exportBooks(LIBRARY_BOOK_IDS, new String[0], listener);
+  }
+
+  /**
+   * Reads the books of a shelf together with their authors and text notes.
+   *
+   * @param shelfId  id of the shelf
+   * @param listener listener for the books, called for one book after the other
+   * @throws IOException if the listener could not write a book
+   */
+  public void exportShelf(Long shelfId, BookEntryListener listener) throws IOException {
+    exportBooks(SHELF_BOOK_IDS, new String[] {String.valueOf(shelfId)}, listener);
+  }
+
+  /**
+   * Reads a book together with its authors and text notes.
+   *
+   * @param bookId   id of the book
+   * @param listener listener for the book
+   * @throws IOException if the listener could not write the book
+   */
+  public void exportBook(Long bookId, BookEntryListener listener) throws IOException {
+    exportBooks(BOOK_IDS, new String[] {String.valueOf(bookId)}, listener);
+  }
+
+  private static final class BibFragment {
+
+    private final long bookId;
+    private final String stamp;
+    private final String entry;
+
+    private BibFragment(long bookId, String stamp, String entry) {
+      this.bookId = bookId;
+      this.stamp = stamp;
+      this.entry = entry;
+    }
+  }
+
+  public interface BookEntryListener {
+    void onBookCount(int bookCount);
+
+    String renderBookEntry(Book book, List<Author> authors, List<String> textNotes);
+
+    void onBookEntry(String bookEntry) throws IOException;
+  }
+
+}
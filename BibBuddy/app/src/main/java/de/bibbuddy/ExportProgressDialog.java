@@ -0,0 +1,43 @@
+package de.bibbuddy;
+
+import android.app.AlertDialog;
+import android.content.Context;
+
+/**
+ * The ExportProgressDialog shows how many books of a BibTeX export are already written.
+ *
+ * @author Silvia Ivanova
+ */
+public class ExportProgressDialog implements ShareBibTex.ProgressListener {
+
+  private final Context context;
+  private final AlertDialog dialog;
+
+  /**
+   * Constructor of the ExportProgressDialog.
+   *
+   * @param context context of the dialog
+   */
+  public ExportProgressDialog(Context context) {
+    this.context = context;
+    this.dialog = new AlertDialog.Builder(context)
+        .setTitle(R.string.export_progress_title)
+        .setMessage(R.string.export_progress_start)
+        .setCancelable(false)
+        .create();
+  }
+
+  public void show() {
+    dialog.show();
+  }
+
+  public void dismiss() {
+    dialog.dismiss();
+  }
+
+  @Override
+  public void onProgress(int exportedBooks, int bookCount) {
+    dialog.setMessage(context.getString(R.string.export_progress, exportedBooks, bookCount));
+  }
+
+}
@@ -5,6 +5,7 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.TextView;
+import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.RecyclerView;
@@ -21,8 +22,7 @@ public class HomeFragment extends BackStackFragment
     implements BookRecyclerViewAdapter.BookListener {
 
   private View view;
-  private BookModel bookModel;
-  private List<BookItem> bookItemList;
+  private List<RecentBookItem> bookItemList = new ArrayList<>();
 
   private void setupMainActivity() {
     MainActivity mainActivity = (MainActivity) requireActivity();
@@ -35,21 +35,27 @@ public class HomeFragment extends BackStackFragment
   }
 
   private void setupBooksRecyclerView() {
-    RecyclerView recyclerView = view.findViewById(R.id.home_books_list);
-
-    bookModel = new BookModel(view.getContext(), 1L);
+    BookModel bookModel = new BookModel(view.getContext(), 1L);
     int bookAmount = 3;
-    List<Book> bookList = bookModel.findModifiedBooks(bookAmount);
-    bookItemList = getBookItems(bookList);
 
-    BookRecyclerViewAdapter adapter =
-        new BookRecyclerViewAdapter(bookItemList, this, requireContext());
-    recyclerView.setAdapter(adapter);
+    bookModel.loadRecentBookItems(bookAmount, recentBookItems -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      bookItemList = recentBookItems;
 
-    updateEmptyView(bookItemList);
+      RecyclerView recyclerView = view.findViewById(R.id.home_books_list);
+      BookRecyclerViewAdapter adapter =
+          new BookRecyclerViewAdapter(new ArrayList<>(bookItemList), this, requireContext());
+      recyclerView.setAdapter(adapter);
+
+      updateEmptyView(bookItemList);
+    }, error -> Toast.makeText(requireContext(), R.string.database_error, Toast.LENGTH_LONG)
+        .show());
   }
 
-  private void updateEmptyView(List<BookItem> bookList) {
+  private void updateEmptyView(List<RecentBookItem> bookList) {
     TextView emptyView = view.findViewById(R.id.home_books_list_empty);
 
     if (bookList.isEmpty()) {
@@ -60,14 +66,14 @@ public class HomeFragment extends BackStackFragment
   }
 
 
-  private Bundle createBookBundle(LibraryItem item) {
+  private Bundle createBookBundle(RecentBookItem item) {
     Bundle bundle = new Bundle();
 
     Long currentBookId = item.getId();
     String currentBookTitle = item.getName();
 
-    bundle.putLong(LibraryKeys.SHELF_ID, bookModel.findShelfIdByBook(item.getId()));
-    bundle.putString(LibraryKeys.SHELF_NAME, bookModel.findShelfNameByBook(item.getId()));
+    bundle.putLong(LibraryKeys.SHELF_ID, item.getShelfId());
+    bundle.putString(LibraryKeys.SHELF_NAME, item.getShelfName());
 
     bundle.putLong(LibraryKeys.BOOK_ID, currentBookId);
     bundle.putString(LibraryKeys.BOOK_TITLE, currentBookTitle);
@@ -75,25 +81,6 @@ public class HomeFragment extends BackStackFragment
     return bundle;
   }
 
-  private List<BookItem> getBookItems(List<Book> bookList) {
-    List<BookItem> bookItemList = new ArrayList<>();
-
-    for (Book book : bookList) {
-      bookModel.setShelfId(bookModel.findShelfIdByBook(book.getId()));
-
-      bookItemList.add(
-          new BookItem(
-              book,
-              bookModel.findShelfIdByBook(book.getId()),
-              bookModel.getAuthorString(book.getId()),
-              bookModel.countAllNotesForBook(book.getId())
-          )
-      );
-    }
-
-    return bookItemList;
-  }
-
   private void updateWelcomeMessage() {
     TextView welcomeMessage = view.findViewById(R.id.welcome_msg);
 
@@ -132,7 +119,7 @@ public class HomeFragment extends BackStackFragment
 
   @Override
   public void onBookClicked(int position) {
-    BookItem bookItem = bookItemList.get(position);
+    RecentBookItem bookItem = bookItemList.get(position);
 
     BookNotesFragment bookNotesFragment = new BookNotesFragment();
     bookNotesFragment.setArguments(createBookBundle(bookItem));
@@ -2,64 +2,52 @@ package de.bibbuddy;
 
 import android.content.Context;
 import android.net.Uri;
+import android.util.Log;
 import androidx.annotation.NonNull;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * The ImportBibTex is responsible for the import of a
  * BibTex file.
  * It contains methods for reading and parsing the
  * contents of the imported file.
+ * The entries are parsed in parallel by a pool of workers and saved by a single writer
+ * in the same order as they appear in the file.
  *
  * @author Silvia Ivanova
  */
 public class ImportBibTex {
 
-  private final Context context;
-
-  private final String[] bibTags = {BibTexKeys.ISBN, BibTexKeys.AUTHOR, BibTexKeys.BOOK_TITLE,
-      BibTexKeys.SUBTITLE, BibTexKeys.VOLUME, BibTexKeys.PUBLISHER,
-      BibTexKeys.EDITION, BibTexKeys.ANNOTE, BibTexKeys.YEAR};
-
-  private final HashMap<String, String> bibTagValue;
-
-  private void removeCurlyBracketsFromBibTag(@NonNull StringBuilder stringBuilder,
-                                             @NonNull String[] brackets) {
-    for (String bracket : brackets) {
-      if (stringBuilder.toString().contains(bracket)) {
-
-        int bracketIndex = stringBuilder.indexOf(bracket);
-        while (bracketIndex != -1) {
-          stringBuilder.replace(bracketIndex, bracketIndex + bracket.length(), "");
-          bracketIndex += "".length();
-          bracketIndex = stringBuilder.indexOf(bracket, bracketIndex);
-        }
+  private static final String TAG = ImportBibTex.class.getSimpleName();
 
-      }
-    }
-  }
+  // Number of entries that are saved within one transaction
+  private static final int BATCH_SIZE = 200;
 
-  private void removeEqualSignFromBibTag(String line) {
-    for (String bibTag : bibTags) {
+  // Number of entries that may be read ahead of the writer
+  private static final int QUEUE_CAPACITY = 2 * BATCH_SIZE;
 
-      if (line.contains(BibTexKeys.EQUAL_SIGN) && line.contains(bibTag)) {
-        line = line.replaceFirst("\\s*=\\s*", BibTexKeys.EQUAL_SIGN);
-      }
+  // Marks the end of the read entries for the writer
+  private static final Future<BibTexEntry> END_OF_FILE = CompletableFuture.completedFuture(null);
 
-    }
-  }
+  private final Context context;
 
-  private void getAuthorNames(String authorNames, List<Author> authors) {
+  private static void getAuthorNames(String authorNames, List<Author> authors) {
 
     // If the names are comma separated
     if (authorNames.contains(BibTexKeys.COMMA_SEPARATOR + " ")) {
@@ -78,21 +66,16 @@ public class ImportBibTex {
 
   }
 
-
-  private int getParsedYear() {
-    String year = bibTagValue.get(BibTexKeys.YEAR);
-
+  private static int getParsedYear(String year) {
     if (DataValidation.isValidYear(year)) {
-      return Integer.parseInt(Objects.requireNonNull(bibTagValue.get(BibTexKeys.YEAR)));
+      return Integer.parseInt(year);
     }
 
     return 0;
   }
 
-  private String getParsedIsbn() {
-    String isbn = bibTagValue.get(BibTexKeys.ISBN);
-
-    if (Objects.requireNonNull(isbn).contains("-")) {
+  private static String getParsedIsbn(String isbn) {
+    if (isbn.contains("-")) {
       isbn = isbn.replaceAll("-", "");
 
       if (DataValidation.isValidIsbn10or13(isbn)) {
@@ -105,15 +88,41 @@ public class ImportBibTex {
     return isbn;
   }
 
-  @NonNull
-  private String replaceLast(String string, String substring) {
-    int index = string.lastIndexOf(substring);
-    if (index == -1) {
-      return string;
+  // One core is left for reading the file and for the writer
+  private static int getWorkerCount() {
+    return Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+  }
+
+  private static <T> T getResult(Future<T> future)
+      throws InterruptedIOException, ExecutionException {
+    try {
+      return future.get();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Import of BibTeX file was interrupted");
     }
+  }
 
-    return string.substring(0, index) + ""
-        + string.substring(index + substring.length());
+  private static Future<BibTexEntry> takeParsedEntry(
+      BlockingQueue<Future<BibTexEntry>> parsedEntries) throws InterruptedIOException {
+    try {
+      return parsedEntries.take();
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Import of BibTeX file was interrupted");
+    }
+  }
+
+  private static void awaitReadEntries(Future<Void> readResult) throws IOException {
+    try {
+      getResult(readResult);
+    } catch (ExecutionException ex) {
+      if (ex.getCause() instanceof IOException) {
+        throw (IOException) ex.getCause();
+      }
+
+      throw new IllegalStateException(ex.getCause());
+    }
   }
 
   /**
@@ -123,7 +132,6 @@ public class ImportBibTex {
    */
   public ImportBibTex(Context context) {
     this.context = context;
-    bibTagValue = new HashMap<>();
   }
 
   /**
@@ -141,144 +149,29 @@ public class ImportBibTex {
   }
 
   /**
-   * Reads the URI line by line and appends the content to
-   * a String Builder.
-   * This method also removes initial unnecessary brackets from
-   * the concatenated URI content.
-   *
-   * @param uri Uniform Resource Identifier (URI)
-   * @return the URI content as String
-   */
-  public String readTextFromUri(Uri uri) throws IOException {
-    StringBuilder stringBuilder = new StringBuilder();
-
-    try (InputStream inputStream =
-             context.getContentResolver().openInputStream(uri);
-
-         BufferedReader reader = new BufferedReader(
-             new InputStreamReader(Objects.requireNonNull(inputStream)))) {
-
-      String line;
-      while ((line = reader.readLine()) != null) {
-
-        if (line.length() > 0) {
-
-          if (line.contains(BibTexKeys.BOOK_SHORTTITLE)) {
-            line = "";
-          }
-
-          if (line.contains(BibTexKeys.NOTE)) {
-            line = line.replace(BibTexKeys.NOTE, BibTexKeys.ANNOTE);
-          }
-
-          if (line.contains("\t")) {
-            line = line.substring(line.indexOf("\t") + 1);
-          }
-
-          removeEqualSignFromBibTag(line);
-          stringBuilder.append(line.trim()).append("\n");
-          stringBuilder.setLength(stringBuilder.length() - 1);
-        }
-
-      }
-
-      removeCurlyBracketsFromBibTag(stringBuilder,
-                                    new String[] {BibTexKeys.CLOSING_CURLY_BRACKET,
-                                        BibTexKeys.OPENING_CURLY_BRACKET});
-    }
-
-    if (stringBuilder.toString().isEmpty()) {
-      return null;
-    }
-
-    if (stringBuilder.toString().startsWith(BibTexKeys.BIB_AT_TAG)
-        && stringBuilder.toString().contains(BibTexKeys.BOOK_TAG)) {
-      return stringBuilder.toString();
-    }
-
-    return null;
-  }
-
-  /**
-   * Splits the String content of URI file and removes redundant
-   * BibTeX elements.
-   *
-   * @param bibText the BibTeX content as String
-   * @return list of unique BibTeX elements
-   */
-  public List<String> getNonRedundantBibItems(@NonNull String bibText) {
-
-    return Arrays.stream(bibText.split(BibTexKeys.BOOK_TAG_REGEX))
-        .distinct().collect(Collectors.toList());
-  }
-
-  /**
-   * Parses the given BibTeX item to raw text value and stores
-   * the values in a HashMap with BibTag as key and the
-   * corresponding parsed text data as value.
+   * Parses the given BibTeX item into a book with its authors and its note.
+   * If the item has no "annote" field, its "note" field is used as note instead.
+   * The method keeps no state, so it can be called from several threads at once.
    *
-   * @param bibItem the BibTeX item as String
+   * @param bibItem the BibTeX item read by the BibTexReader
+   * @return the parsed entry
    */
-  public void parseBibItem(String bibItem) {
-    List<String> bibItemsList = checkNextBibTag(bibItem);
-
-    for (String currentBibTag : bibTags) {
-      String parsedBibValue = "";
-
-      for (int i = 0; i < bibItemsList.size(); i++) {
-        String currentBibItem = bibItemsList.get(i);
-
-        if (currentBibItem.startsWith(currentBibTag)) {
-          parsedBibValue = replaceLast(replaceLast(currentBibItem,
-                                                   BibTexKeys.COMMA_SEPARATOR), "\n");
-          parsedBibValue = parsedBibValue.replace(currentBibTag, "");
-          bibItemsList.set(i, parsedBibValue);
-        }
-      }
-
-      bibTagValue.put(currentBibTag, parsedBibValue);
+  public static BibTexEntry parseBibItem(BibTexItem bibItem) {
+    Book book = new Book(getParsedIsbn(bibItem.getField(BibTexKeys.FIELD_ISBN)),
+                         bibItem.getField(BibTexKeys.FIELD_TITLE),
+                         bibItem.getField(BibTexKeys.FIELD_SUBTITLE),
+                         getParsedYear(bibItem.getField(BibTexKeys.FIELD_YEAR)),
+                         bibItem.getField(BibTexKeys.FIELD_PUBLISHER),
+                         bibItem.getField(BibTexKeys.FIELD_VOLUME),
+                         bibItem.getField(BibTexKeys.FIELD_EDITION), "");
+
+    String note = bibItem.getField(BibTexKeys.FIELD_ANNOTE);
+    if (note.isEmpty()) {
+      note = bibItem.getField(BibTexKeys.FIELD_NOTE);
     }
 
-  }
-
-  /**
-   * Checks for the position of the next BibTeX tag.
-   * The BibTeX tags (without "@book") do not have fixed order, so this
-   * method stores the positions of the BibTeX tags  in a List and then
-   * through sorting of this list - determines which is the next BibTeX tag.
-   *
-   * @param bibItem a single BibTeX item as String
-   * @return the next BibTeX element with a BibTeX tag
-   */
-  public List<String> checkNextBibTag(@NonNull String bibItem) {
-    ArrayList<Integer> nextBibTagIndex = new ArrayList<>();
-    ArrayList<String> bibItemsWithTags = new ArrayList<>();
-
-    if (bibItem.contains(BibTexKeys.BOOK_TAG)) {
-      nextBibTagIndex.add(bibItem.indexOf(BibTexKeys.BOOK_TAG));
-
-      for (String bibTag : bibTags) {
-        if (bibItem.contains(bibTag)) {
-          nextBibTagIndex.add(bibItem.indexOf(bibTag));
-        }
-      }
-
-    }
-
-    nextBibTagIndex.add(bibItem.length());
-    Collections.sort(nextBibTagIndex);
-
-    int currentBibTagPosition = 0;
-    for (int i = 0; i < nextBibTagIndex.size(); i++) {
-      int nextBibTagPosition = nextBibTagIndex.get(i);
-      if (nextBibTagPosition > 0) {
-        bibItemsWithTags.add(bibItem.substring(currentBibTagPosition,
-                                               nextBibTagPosition));
-        currentBibTagPosition = nextBibTagPosition;
-      }
-    }
-
-    return bibItemsWithTags;
+    return new BibTexEntry(book, parseAuthorNames(bibItem.getField(BibTexKeys.FIELD_AUTHOR)),
+                           note);
   }
 
   /**
@@ -287,15 +180,14 @@ public class ImportBibTex {
    * (no matter how many authors there are), this method
    * considers parsing of one author and of multiple authors.
    *
+   * @param authorNames value of the author field
    * @return list of parsed author(s) name(s) and family name(s)
    */
-
-  public List<Author> parseAuthorNames() {
-    String authorNames = bibTagValue.get(BibTexKeys.AUTHOR);
+  public static List<Author> parseAuthorNames(String authorNames) {
     List<Author> authors = new ArrayList<>();
 
     // If multiple authors
-    if (Objects.requireNonNull(authorNames).contains(BibTexKeys.AND_MULTIPLE_AUTHORS)) {
+    if (authorNames.contains(BibTexKeys.AND_MULTIPLE_AUTHORS)) {
       String[] names = authorNames.split(BibTexKeys.AND_MULTIPLE_AUTHORS);
 
       for (String name : names) {
@@ -312,52 +204,109 @@ public class ImportBibTex {
     return authors;
   }
 
+  // Reads the book entries of the file and hands them to the parse workers. The parsed
+  // entries are queued in the order of the file and END_OF_FILE is queued at the end, also
+  // if the file could not be read to the end.
+  private Void readEntries(Uri uri, ExecutorService parseWorkers,
+                           BlockingQueue<Future<BibTexEntry>> parsedEntries)
+      throws IOException, InterruptedException {
+    try (InputStream inputStream = context.getContentResolver().openInputStream(uri);
+         BibTexReader reader = new BibTexReader(new InputStreamReader(
+             Objects.requireNonNull(inputStream), StandardCharsets.UTF_8))) {
+
+      Set<String> bibKeys = new HashSet<>();
+      BibTexItem bibItem;
+      while ((bibItem = reader.next()) != null) {
+        if (!BibTexKeys.ENTRY_BOOK.equals(bibItem.getType()) || !bibKeys.add(bibItem.getKey())) {
+          continue;
+        }
 
-  /**
-   * Checks if there is a note in the current BibTeX
-   * segment.
-   *
-   * @return true if the note exists, false if the note does not exist
-   */
-  public boolean existsBibNote() {
-    return Objects.requireNonNull(bibTagValue.get(BibTexKeys.ANNOTE)).isEmpty();
+        BibTexItem currentItem = bibItem;
+        parsedEntries.put(parseWorkers.submit(() -> parseBibItem(currentItem)));
+      }
+    } finally {
+      parsedEntries.put(END_OF_FILE);
+    }
+
+    return null;
   }
 
   /**
-   * Adds the parsed BibTeX value for a note into the
-   * Database and links the created note with a book.
+   * Reads the BibTeX file of the URI entry by entry and saves the books, authors and notes.
+   * A reader thread reads the file and hands every book entry to a pool of parse workers.
+   * The calling thread is the single writer: it takes the parsed entries in the order of the
+   * file and saves them in batches, each batch within one transaction. At most QUEUE_CAPACITY
+   * entries are read ahead of the writer, so the memory needed does not depend on the size
+   * of the file.
+   * Entries with a citation key that was already read are skipped, as BibTeX itself does.
+   * An entry that cannot be parsed is skipped as well.
+   * If a batch cannot be saved, the reader and the workers are stopped and the error is
+   * thrown. The import runs on the calling thread, which must not be the main thread.
    *
-   * @param noteModel object of the NoteModel class
-   *                  responsible for adding a note into the
-   *                  Database through the class NoteDao
-   * @param book      the corresponding book of the imported note
+   * @param uri     Uniform Resource Identifier (URI) of the BibTeX file
+   * @param shelfId id of the shelf the books are imported into
+   * @return number of imported books
+   * @throws IOException if the file cannot be read
    */
-  public void importBibNote(NoteModel noteModel, Book book) {
-    if (bibTagValue.containsKey(BibTexKeys.ANNOTE)
-        && !Objects.requireNonNull(bibTagValue.get(BibTexKeys.ANNOTE)).isEmpty()) {
+  public int importBibItems(Uri uri, Long shelfId) throws IOException {
+    ImportDao importDao = new ImportDao(DatabaseHelper.getInstance(context));
+    BlockingQueue<Future<BibTexEntry>> parsedEntries = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+
+    ExecutorService parseWorkers = Executors.newFixedThreadPool(getWorkerCount());
+    ExecutorService entryReader = Executors.newSingleThreadExecutor();
+
+    try {
+      Future<Void> readResult =
+          entryReader.submit(() -> readEntries(uri, parseWorkers, parsedEntries));
+
+      List<BibTexEntry> batch = new ArrayList<>(BATCH_SIZE);
+      int importedBooks = 0;
+
+      Future<BibTexEntry> parsedEntry = takeParsedEntry(parsedEntries);
+      while (parsedEntry != END_OF_FILE) {
+        try {
+          batch.add(getResult(parsedEntry));
+        } catch (ExecutionException ex) {
+          Log.e(TAG, ex.toString(), ex);
+        }
 
-      noteModel.createNote(bibTagValue.get(BibTexKeys.ANNOTE),
-                           NoteTypeLut.TEXT, bibTagValue.get(BibTexKeys.ANNOTE),
-                           "");
+        if (batch.size() == BATCH_SIZE) {
+          importedBooks += importDao.createBatch(batch, shelfId);
+          batch.clear();
+        }
 
-      noteModel.linkNoteWithBook(book.getId(),
-                                 noteModel.getLastNote().getId());
+        parsedEntry = takeParsedEntry(parsedEntries);
+      }
 
-    }
+      awaitReadEntries(readResult);
+
+      if (!batch.isEmpty()) {
+        importedBooks += importDao.createBatch(batch, shelfId);
+      }
 
+      return importedBooks;
+    } finally {
+      // Also stops a reader that waits for space in the queue after the writer failed
+      entryReader.shutdownNow();
+      parseWorkers.shutdownNow();
+    }
   }
 
   /**
-   * Sets the parsed BibTeX values for a book.
+   * Imports the BibTeX file of the URI on the writer thread of the DatabaseExecutor, so the
+   * import runs after all writes submitted before and no other write runs at the same time.
    *
-   * @return a new Book object
+   * @param uri           Uniform Resource Identifier (URI) of the BibTeX file
+   * @param shelfId       id of the shelf the books are imported into
+   * @param listener      listener for the number of imported books, called on the main thread
+   * @param errorListener listener for the error if the file could not be imported, called on
+   *                      the main thread
    */
-  public Book importBook() {
-
-    return new Book(getParsedIsbn(), bibTagValue.get(BibTexKeys.BOOK_TITLE),
-                    bibTagValue.get(BibTexKeys.SUBTITLE), getParsedYear(),
-                    bibTagValue.get(BibTexKeys.PUBLISHER), bibTagValue.get(BibTexKeys.VOLUME),
-                    bibTagValue.get(BibTexKeys.EDITION), "");
+  public void importBibItems(Uri uri, Long shelfId,
+                             DatabaseExecutor.ResultListener<Integer> listener,
+                             DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().write(() -> importBibItems(uri, shelfId), listener,
+                                         errorListener);
   }
 
 }
@@ -0,0 +1,205 @@
+package de.bibbuddy;
+
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteDoneException;
+import android.database.sqlite.SQLiteException;
+import android.database.sqlite.SQLiteStatement;
+import android.util.Log;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * ImportDao contains the sql queries for the import of BibTeX entries.
+ * A batch of entries is written within one transaction with precompiled insert statements.
+ *
+ * @author Silvia Ivanova
+ */
+public class ImportDao {
+
+  private static final String TAG = ImportDao.class.getSimpleName();
+
+  private static final String INSERT_BOOK =
+      "INSERT INTO " + DatabaseHelper.TABLE_NAME_BOOK + " ("
+          + DatabaseHelper.ISBN + ", " + DatabaseHelper.TITLE + ", "
+          + DatabaseHelper.SUBTITLE + ", " + DatabaseHelper.PUB_YEAR + ", "
+          + DatabaseHelper.PUBLISHER + ", " + DatabaseHelper.VOLUME + ", "
+          + DatabaseHelper.EDITION + ", " + DatabaseHelper.ADD_INFOS + ", "
+          + DatabaseHelper.CREATE_DATE + ", " + DatabaseHelper.MOD_DATE + ", "
+          + DatabaseHelper.SORT_KEY + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String INSERT_SHELF_BOOK_LNK =
+      "INSERT OR IGNORE INTO " + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " ("
+          + DatabaseHelper.SHELF_ID + ", " + DatabaseHelper.BOOK_ID + ") VALUES (?, ?)";
+
+  private static final String FIND_AUTHOR =
+      "SELECT " + DatabaseHelper._ID + " FROM " + DatabaseHelper.TABLE_NAME_AUTHOR
+          + " WHERE " + DatabaseHelper.FIRST_NAME + " = ? AND "
+          + DatabaseHelper.LAST_NAME + " = ? AND " + DatabaseHelper.TITLE + " IS NULL LIMIT 1";
+
+  private static final String INSERT_AUTHOR =
+      "INSERT INTO " + DatabaseHelper.TABLE_NAME_AUTHOR + " ("
+          + DatabaseHelper.FIRST_NAME + ", " + DatabaseHelper.LAST_NAME + ", "
+          + DatabaseHelper.CREATE_DATE + ", " + DatabaseHelper.MOD_DATE
+          + ") VALUES (?, ?, ?, ?)";
+
+  private static final String INSERT_AUTHOR_BOOK_LNK =
+      "INSERT OR IGNORE INTO " + DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK + " ("
+          + DatabaseHelper.AUTHOR_ID + ", " + DatabaseHelper.BOOK_ID + ") VALUES (?, ?)";
+
+  private static final String INSERT_NOTE_FILE =
+      "INSERT INTO " + DatabaseHelper.TABLE_NAME_NOTE_FILE + " ("
+          + DatabaseHelper.FILE + ") VALUES ('')";
+
+  private static final String INSERT_NOTE =
+      "INSERT INTO " + DatabaseHelper.TABLE_NAME_NOTE + " ("
+          + DatabaseHelper.NAME + ", " + DatabaseHelper.TYPE + ", "
+          + DatabaseHelper.TEXT + ", " + DatabaseHelper.CREATE_DATE + ", "
+          + DatabaseHelper.MOD_DATE + ", " + DatabaseHelper.NOTE_FILE_ID + ", "
+          + DatabaseHelper.SORT_KEY + ", " + DatabaseHelper.PLAIN_TEXT
+          + ") VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+  private static final String INSERT_BOOK_NOTE_LNK =
+      "INSERT OR IGNORE INTO " + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " ("
+          + DatabaseHelper.BOOK_ID + ", " + DatabaseHelper.NOTE_ID + ") VALUES (?, ?)";
+
+  private final DatabaseHelper dbHelper;
+
+  private static void bindStringOrNull(SQLiteStatement statement, int index, String value) {
+    if (value == null) {
+      statement.bindNull(index);
+    } else {
+      statement.bindString(index, value);
+    }
+  }
+
+  private static String authorKey(Author author) {
+    return author.getFirstName() + "\u0000" + author.getLastName();
+  }
+
+  public ImportDao(DatabaseHelper dbHelper) {
+    this.dbHelper = dbHelper;
+  }
+
+  /**
+   * Saves a batch of imported entries with their authors and notes in one transaction
+   * and links the books with the given shelf.
+   * If anything in the batch fails, the whole batch is rolled back.
+   *
+   * @param entries parsed BibTeX entries
+   * @param shelfId id of the shelf the books are imported into
+   * @return number of saved books
+   */
+  public int createBatch(List<BibTexEntry> entries, Long shelfId) {
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
+    Long currentTime = new Date().getTime();
+    Map<String, Long> authorIds = new HashMap<>();
+
+    SQLiteStatement insertBook = db.compileStatement(INSERT_BOOK);
+    SQLiteStatement insertShelfLink = db.compileStatement(INSERT_SHELF_BOOK_LNK);
+    SQLiteStatement findAuthor = db.compileStatement(FIND_AUTHOR);
+    SQLiteStatement insertAuthor = db.compileStatement(INSERT_AUTHOR);
+    SQLiteStatement insertAuthorLink = db.compileStatement(INSERT_AUTHOR_BOOK_LNK);
+    SQLiteStatement insertNoteFile = db.compileStatement(INSERT_NOTE_FILE);
+    SQLiteStatement insertNote = db.compileStatement(INSERT_NOTE);
+    SQLiteStatement insertNoteLink = db.compileStatement(INSERT_BOOK_NOTE_LNK);
+    SQLiteStatement insertNoteIndex = db.compileStatement(SearchDao.INSERT_NOTE_INDEX);
+
+    int savedBooks = 0;
+    db.beginTransaction();
+    try {
+      for (BibTexEntry entry : entries) {
+        Book book = entry.getBook();
+
+        insertBook.clearBindings();
+        bindStringOrNull(insertBook, 1, book.getIsbn());
+        bindStringOrNull(insertBook, 2, book.getTitle());
+        bindStringOrNull(insertBook, 3, book.getSubtitle());
+        insertBook.bindLong(4, book.getPubYear() == null ? 0 : book.getPubYear());
+        bindStringOrNull(insertBook, 5, book.getPublisher());
+        bindStringOrNull(insertBook, 6, book.getVolume());
+        bindStringOrNull(insertBook, 7, book.getEdition());
+        bindStringOrNull(insertBook, 8, book.getAddInfo());
+        insertBook.bindLong(9, currentTime);
+        insertBook.bindLong(10, currentTime);
+        insertBook.bindString(11, SortKey.create(book.getTitle()));
+        long bookId = insertBook.executeInsert();
+
+        insertShelfLink.bindLong(1, shelfId);
+        insertShelfLink.bindLong(2, bookId);
+        insertShelfLink.executeInsert();
+
+        for (Author author : entry.getAuthors()) {
+          Long authorId = authorIds.get(authorKey(author));
+
+          if (authorId == null) {
+            try {
+              bindStringOrNull(findAuthor, 1, author.getFirstName());
+              bindStringOrNull(findAuthor, 2, author.getLastName());
+              authorId = findAuthor.simpleQueryForLong();
+            } catch (SQLiteDoneException ex) {
+              bindStringOrNull(insertAuthor, 1, author.getFirstName());
+              bindStringOrNull(insertAuthor, 2, author.getLastName());
+              insertAuthor.bindLong(3, currentTime);
+              insertAuthor.bindLong(4, currentTime);
+              authorId = insertAuthor.executeInsert();
+            }
+
+            authorIds.put(authorKey(author), authorId);
+          }
+
+          insertAuthorLink.bindLong(1, authorId);
+          insertAuthorLink.bindLong(2, bookId);
+          insertAuthorLink.executeInsert();
+        }
+
+        if (entry.hasNote()) {
+          long noteFileId = insertNoteFile.executeInsert();
+          String plainText = NoteDao.toPlainText(entry.getNote());
+
+          insertNote.bindString(1, entry.getNote());
+          insertNote.bindLong(2, NoteTypeLut.TEXT.getId());
+          insertNote.bindString(3, entry.getNote());
+          insertNote.bindLong(4, currentTime);
+          insertNote.bindLong(5, currentTime);
+          insertNote.bindLong(6, noteFileId);
+          insertNote.bindString(7, SortKey.create(entry.getNote()));
+          insertNote.bindString(8, plainText);
+          long noteId = insertNote.executeInsert();
+
+          insertNoteLink.bindLong(1, bookId);
+          insertNoteLink.bindLong(2, noteId);
+          insertNoteLink.executeInsert();
+
+          insertNoteIndex.bindString(1, plainText);
+          insertNoteIndex.bindLong(2, noteId);
+          insertNoteIndex.executeInsert();
+        }
+
+        savedBooks++;
+      }
+
+      db.setTransactionSuccessful();
+    } catch (SQLiteException ex) {
+      Log.e(TAG, ex.toString(), ex);
+      savedBooks = 0;
+    } finally {
+      db.endTransaction();
+      dbHelper.updateSearchDataVersion();
+
+      insertBook.close();
+      insertShelfLink.close();
+      findAuthor.close();
+      insertAuthor.close();
+      insertAuthorLink.close();
+      insertNoteFile.close();
+      insertNote.close();
+      insertNoteLink.close();
+      insertNoteIndex.close();
+    }
+
+    return savedBooks;
+  }
+
+}
@@ -0,0 +1,147 @@
+package de.bibbuddy;
+
+import android.database.SQLException;
+import android.database.sqlite.SQLiteCursor;
+import android.database.sqlite.SQLiteCursorDriver;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteQuery;
+import android.util.Log;
+import java.util.List;
+
+/**
+ * The InstrumentedCursorFactory creates the cursors of all queries of the DatabaseHelper in
+ * debug builds. Each cursor measures the time that SQLite needs to fill it and records it
+ * with the DAO method that ran the query in the QueryStats when it is closed.
+ * Slow queries are logged with their query plan. Statements that are executed without a
+ * cursor, like the inserts and updates of the DAOs, are not recorded.
+ *
+ * @author Sarah Kurek
+ */
+public class InstrumentedCursorFactory implements SQLiteDatabase.CursorFactory {
+
+  private static final String TAG = InstrumentedCursorFactory.class.getSimpleName();
+
+  private static final long SLOW_QUERY_MILLIS = 50;
+
+  private static final String DAO_PACKAGE = "de.bibbuddy.";
+  private static final String OTHER_QUERIES = "other";
+
+  private final QueryStats queryStats;
+
+  /**
+   * Constructor of the InstrumentedCursorFactory.
+   *
+   * @param queryStats statistics that the queries are recorded in
+   */
+  public InstrumentedCursorFactory(QueryStats queryStats) {
+    this.queryStats = queryStats;
+  }
+
+  /**
+   * Finds the DAO method that runs a query in the stack trace.
+   *
+   * @param stackTrace stack trace of the query
+   * @return the DAO method, e.g. "ShelfDao.countAllNotesForShelf"
+   */
+  static String findDaoMethod(StackTraceElement[] stackTrace) {
+    for (StackTraceElement element : stackTrace) {
+      String className = element.getClassName();
+
+      if (className.startsWith(DAO_PACKAGE) && className.endsWith("Dao")) {
+        return className.substring(DAO_PACKAGE.length()) + "." + element.getMethodName();
+      }
+    }
+
+    return OTHER_QUERIES;
+  }
+
+  // The query only shows its sql in toString
+  private static String getSql(SQLiteQuery query) {
+    return query.toString().replaceFirst("^SQLiteQuery: ", "");
+  }
+
+  private static boolean isRecorded(String sql) {
+    String statement = sql.trim().toUpperCase();
+
+    return !statement.startsWith("EXPLAIN") && !statement.startsWith("PRAGMA");
+  }
+
+  @Override
+  public SQLiteCursor newCursor(SQLiteDatabase db, SQLiteCursorDriver masterQuery,
+                                String editTable, SQLiteQuery query) {
+    String sql = getSql(query);
+    if (!isRecorded(sql)) {
+      return new SQLiteCursor(masterQuery, editTable, query);
+    }
+
+    String daoMethod = findDaoMethod(Thread.currentThread().getStackTrace());
+
+    return new InstrumentedCursor(masterQuery, editTable, query, daoMethod, sql);
+  }
+
+  private class InstrumentedCursor extends SQLiteCursor {
+
+    private final String daoMethod;
+    private final String sql;
+
+    private long nanos;
+    private int rows;
+    private boolean recorded;
+
+    private InstrumentedCursor(SQLiteCursorDriver driver, String editTable, SQLiteQuery query,
+                               String daoMethod, String sql) {
+      super(driver, editTable, query);
+
+      this.daoMethod = daoMethod;
+      this.sql = sql;
+    }
+
+    // The query runs when the count is read first, the following windows are filled on moves
+    @Override
+    public int getCount() {
+      long start = System.nanoTime();
+      rows = super.getCount();
+      nanos += System.nanoTime() - start;
+
+      return rows;
+    }
+
+    @Override
+    public boolean onMove(int oldPosition, int newPosition) {
+      long start = System.nanoTime();
+      boolean moved = super.onMove(oldPosition, newPosition);
+      nanos += System.nanoTime() - start;
+
+      return moved;
+    }
+
+    private boolean logSlowQuery() {
+      long millis = nanos / 1_000_000;
+      if (millis < SLOW_QUERY_MILLIS) {
+        return false;
+      }
+
+      try {
+        List<String> queryPlan = DatabaseHelper.explainQueryPlan(getDatabase(), sql, null);
+        Log.w(TAG, "Slow query in " + daoMethod + " (" + millis + " ms): " + sql
+            + "\n" + String.join("\n", queryPlan));
+
+      } catch (SQLException ex) {
+        Log.e(TAG, ex.toString(), ex);
+      }
+
+      return true;
+    }
+
+    @Override
+    public void close() {
+      if (!recorded) {
+        recorded = true;
+        queryStats.record(daoMethod, nanos, rows, logSlowQuery());
+      }
+
+      super.close();
+    }
+  }
+
+}
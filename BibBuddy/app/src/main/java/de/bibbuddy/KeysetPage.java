@@ -0,0 +1,134 @@
+package de.bibbuddy;
+
+/**
+ * The KeysetPage describes one page of a sorted list query. A page does not start at an
+ * offset, but after the sort key and id of the last item of the previous page, so each page
+ * is read from the index without skipping the rows of the pages before.
+ * The id is part of the sort order, so items with the same sort key keep a stable order.
+ * Names are sorted by their stored SortKey, so each sort order can be read from an index.
+ *
+ * @author Claudia Schönherr
+ */
+public class KeysetPage {
+
+  // Number of items of a page, enough to fill the screen several times
+  public static final int PAGE_SIZE = 50;
+
+  private final SortTypeLut sortTypeLut;
+  private final SortableItem lastItem;
+
+  private KeysetPage(SortTypeLut sortTypeLut, SortableItem lastItem) {
+    this.sortTypeLut = sortTypeLut;
+    this.lastItem = lastItem;
+  }
+
+  /**
+   * Creates the first page of a list.
+   *
+   * @param sortTypeLut sort order of the list
+   * @return the first page
+   */
+  public static KeysetPage first(SortTypeLut sortTypeLut) {
+    return new KeysetPage(sortTypeLut, null);
+  }
+
+  /**
+   * Creates the page that starts after the given item.
+   *
+   * @param lastItem last item of the current page
+   * @return the next page
+   */
+  public KeysetPage next(SortableItem lastItem) {
+    return new KeysetPage(sortTypeLut, lastItem);
+  }
+
+  public SortTypeLut getSortTypeLut() {
+    return sortTypeLut;
+  }
+
+  private boolean isNameOrder() {
+    return sortTypeLut == SortTypeLut.NAME_ASCENDING
+        || sortTypeLut == SortTypeLut.NAME_DESCENDING;
+  }
+
+  private boolean isDescending() {
+    return sortTypeLut == SortTypeLut.MOD_DATE_LATEST
+        || sortTypeLut == SortTypeLut.NAME_DESCENDING;
+  }
+
+  private String getSortColumn(String sortKeyColumn, String dateColumn) {
+    if (isNameOrder()) {
+      return sortKeyColumn;
+    }
+
+    return dateColumn;
+  }
+
+  /**
+   * Creates the condition for the items of this page.
+   *
+   * @param sortKeyColumn column of the sort key of an item
+   * @param dateColumn    column of the modification date of an item
+   * @param idColumn      column of the id of an item
+   * @return the condition, which is always true for the first page
+   */
+  public String createWhere(String sortKeyColumn, String dateColumn, String idColumn) {
+    if (lastItem == null) {
+      return "1";
+    }
+
+    String sortColumn = getSortColumn(sortKeyColumn, dateColumn);
+    String compare = isDescending() ? " < ?" : " > ?";
+
+    return "(" + sortColumn + compare + " OR (" + sortColumn + " = ? AND " + idColumn
+        + compare + "))";
+  }
+
+  /**
+   * Gets the arguments of the condition of createWhere.
+   *
+   * @return the arguments, which are empty for the first page
+   */
+  public String[] getWhereArgs() {
+    if (lastItem == null) {
+      return new String[0];
+    }
+
+    String sortKey;
+    if (isNameOrder()) {
+      sortKey = SortKey.create(lastItem.getName());
+    } else {
+      sortKey = String.valueOf(lastItem.getModDate());
+    }
+
+    return new String[] {sortKey, sortKey, String.valueOf(lastItem.getId())};
+  }
+
+  /**
+   * Creates the sort order of the list without a limit.
+   *
+   * @param sortKeyColumn column of the sort key of an item
+   * @param dateColumn    column of the modification date of an item
+   * @param idColumn      column of the id of an item
+   * @return the ORDER BY clause
+   */
+  public String createSortOrder(String sortKeyColumn, String dateColumn, String idColumn) {
+    String direction = isDescending() ? " DESC" : " ASC";
+
+    return " ORDER BY " + getSortColumn(sortKeyColumn, dateColumn) + direction + ", "
+        + idColumn + direction;
+  }
+
+  /**
+   * Creates the sort order and the limit of this page.
+   *
+   * @param sortKeyColumn column of the sort key of an item
+   * @param dateColumn    column of the modification date of an item
+   * @param idColumn      column of the id of an item
+   * @return the ORDER BY and LIMIT clause
+   */
+  public String createOrderBy(String sortKeyColumn, String dateColumn, String idColumn) {
+    return createSortOrder(sortKeyColumn, dateColumn, idColumn) + " LIMIT " + PAGE_SIZE;
+  }
+
+}
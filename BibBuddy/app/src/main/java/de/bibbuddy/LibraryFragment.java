@@ -39,8 +39,6 @@ public class LibraryFragment extends BackStackFragment
   private LibraryModel libraryModel;
   private LibraryRecyclerViewAdapter adapter;
 
-  private BookModel bookModel;
-
   private SortTypeLut sortTypeLut;
 
   private void setupMainActivity() {
@@ -64,21 +62,34 @@ public class LibraryFragment extends BackStackFragment
   }
 
   private void checkEmptyLibrary() {
-    if (libraryModel.getCurrentLibraryList().isEmpty() || bookModel.getAllBooks().isEmpty()) {
-      AlertDialog.Builder alertDialogEmptyLib = new AlertDialog.Builder(requireContext());
-      alertDialogEmptyLib.setTitle(R.string.empty_library);
-      alertDialogEmptyLib.setMessage(R.string.empty_library_description);
+    if (libraryModel.getCurrentLibraryList().isEmpty()) {
+      showEmptyLibraryDialog();
+      return;
+    }
 
-      alertDialogEmptyLib.setPositiveButton(R.string.ok,
-          (dialog, which) -> {
-        });
+    libraryModel.checkHasBooks(hasBooks -> {
+      if (!isAdded()) {
+        return;
+      }
 
-      alertDialogEmptyLib.create().show();
+      if (hasBooks) {
+        shareLibraryBibIntent();
+      } else {
+        showEmptyLibraryDialog();
+      }
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
+  }
 
-    } else {
-      shareLibraryBibIntent();
-    }
+  private void showEmptyLibraryDialog() {
+    AlertDialog.Builder alertDialogEmptyLib = new AlertDialog.Builder(requireContext());
+    alertDialogEmptyLib.setTitle(R.string.empty_library);
+    alertDialogEmptyLib.setMessage(R.string.empty_library_description);
+
+    alertDialogEmptyLib.setPositiveButton(R.string.ok,
+        (dialog, which) -> {
+      });
 
+    alertDialogEmptyLib.create().show();
   }
 
   private void handleManualLibrary() {
@@ -174,42 +185,65 @@ public class LibraryFragment extends BackStackFragment
   private void performDeleteShelf() {
     final int shelvesNumber = selectedShelfItems.size();
 
-    libraryModel.deleteShelves(selectedShelfItems);
-    updateLibraryListView(libraryModel.getCurrentLibraryList());
+    libraryModel.deleteShelves(selectedShelfItems, deleteResult -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      updateLibraryListView(libraryModel.getCurrentLibraryList());
 
-    if (shelvesNumber > 1) {
-      Toast.makeText(context, getString(R.string.deleted_shelves), Toast.LENGTH_SHORT).show();
-    } else {
-      Toast.makeText(context, getString(R.string.deleted_shelf), Toast.LENGTH_SHORT).show();
-    }
+      if (shelvesNumber > 1) {
+        Toast.makeText(context, getString(R.string.deleted_shelves), Toast.LENGTH_SHORT).show();
+      } else {
+        Toast.makeText(context, getString(R.string.deleted_shelf), Toast.LENGTH_SHORT).show();
+      }
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
-  private Bundle createRenameShelfBundle() {
+  private Bundle createRenameShelfBundle(ShelfItem shelfItem, String[] shelfNames) {
     Bundle bundle = new Bundle();
 
-    bundle.putStringArray(LibraryKeys.SHELF_NAMES, getAllShelfNames());
-    bundle.putString(LibraryKeys.SHELF_NAME, selectedShelfItems.get(0).getName());
+    bundle.putStringArray(LibraryKeys.SHELF_NAMES, shelfNames);
+    bundle.putString(LibraryKeys.SHELF_NAME, shelfItem.getName());
 
-    Long currentShelfId = selectedShelfItems.get(0).getId();
+    Long currentShelfId = shelfItem.getId();
     bundle.putLong(LibraryKeys.SHELF_ID, currentShelfId);
 
     return bundle;
   }
 
   private void handleRenameShelf() {
-    LibraryFormFragment libraryFormFragment =
-        new LibraryFormFragment(new LibraryFormFragment.ChangeShelfListener() {
-          @Override
-          public void onShelfRenamed(String shelfName) {
-            libraryModel.renameShelf(selectedShelfItems.get(0), shelfName);
-            adapter.notifyDataSetChanged();
-            Toast.makeText(context, getString(R.string.renamed_shelf), Toast.LENGTH_SHORT).show();
-          }
-        });
+    ShelfItem shelfItem = selectedShelfItems.get(0);
 
-    libraryFormFragment.setArguments(createRenameShelfBundle());
+    libraryModel.loadShelfNames(shelfNames -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    showFragment(libraryFormFragment, LibraryKeys.FRAGMENT_LIBRARY_FORM);
+      LibraryFormFragment libraryFormFragment =
+          new LibraryFormFragment(new LibraryFormFragment.ChangeShelfListener() {
+            @Override
+            public void onShelfRenamed(String shelfName) {
+              renameShelf(shelfItem, shelfName);
+            }
+          });
+
+      libraryFormFragment.setArguments(createRenameShelfBundle(shelfItem, shelfNames));
+
+      showFragment(libraryFormFragment, LibraryKeys.FRAGMENT_LIBRARY_FORM);
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
+  }
+
+  private void renameShelf(ShelfItem shelfItem, String shelfName) {
+    libraryModel.renameShelf(shelfItem, shelfName, renamedShelfItem -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      // the list is loaded after the shelf was renamed, an earlier load may miss the new name
+      loadLibraryList();
+      Toast.makeText(context, getString(R.string.renamed_shelf), Toast.LENGTH_SHORT).show();
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   private void deselectLibraryItems() {
@@ -227,28 +261,32 @@ public class LibraryFragment extends BackStackFragment
           sortTypeLut = newSortCriteria;
           ((MainActivity) requireActivity())
           .setSortTypeLut(newSortCriteria);
-          sortLibraryList();
+          loadLibraryList();
         });
     sortDialog.show();
   }
 
-  private void sortLibraryList() {
-    List<ShelfItem> libraryList = libraryModel.getSortedLibraryList(sortTypeLut);
-    adapter.setLibraryList(libraryList);
-    adapter.notifyDataSetChanged();
-  }
-
   private void setupRecyclerView() {
     libraryModel = new LibraryModel(requireContext());
-    List<ShelfItem> libraryList = libraryModel
-        .getSortedLibraryList(sortTypeLut, libraryModel.getLibraryList(null));
 
     SwipeableRecyclerView libraryRecyclerView = view.findViewById(R.id.library_recycler_view);
-    adapter = new LibraryRecyclerViewAdapter(libraryList, this, context);
+    adapter = new LibraryRecyclerViewAdapter(libraryModel.getCurrentLibraryList(), this,
+                                             context);
     libraryRecyclerView.setAdapter(adapter);
     libraryRecyclerView.setListener(this);
+    libraryRecyclerView.addOnScrollListener(new PageScrollListener(this::loadNextLibraryPage));
 
-    updateEmptyView(libraryList);
+    loadLibraryList();
+  }
+
+  private void loadLibraryList() {
+    libraryModel.loadLibraryList(null, sortTypeLut, this::updateLibraryListView,
+        error -> showLoadError(this::loadLibraryList));
+  }
+
+  private void loadNextLibraryPage() {
+    libraryModel.loadNextLibraryPage(this::updateLibraryListView,
+        error -> showLoadError(this::loadNextLibraryPage));
   }
 
   private void setupAddShelfBtn() {
@@ -260,7 +298,7 @@ public class LibraryFragment extends BackStackFragment
     addShelfBtn.setOnClickListener(v -> handleAddShelf());
   }
 
-  private Bundle createAddShelfBundle() {
+  private Bundle createAddShelfBundle(String[] shelfNames) {
     Bundle bundle = new Bundle();
 
     Long currentShelfId = libraryModel.getShelfId();
@@ -270,35 +308,46 @@ public class LibraryFragment extends BackStackFragment
       bundle.putLong(LibraryKeys.SHELF_ID, currentShelfId);
     }
 
-    bundle.putStringArray(LibraryKeys.SHELF_NAMES, getAllShelfNames());
+    bundle.putStringArray(LibraryKeys.SHELF_NAMES, shelfNames);
 
     return bundle;
   }
 
-  private String[] getAllShelfNames() {
-    List<ShelfItem> currentLibraryList = libraryModel.getCurrentLibraryList();
-    String[] shelfNames = new String[currentLibraryList.size()];
-    for (int i = 0; i < currentLibraryList.size(); i++) {
-      shelfNames[i] = currentLibraryList.get(i).getName();
-    }
+  private void handleAddShelf() {
+    libraryModel.loadShelfNames(shelfNames -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      LibraryFormFragment libraryFormFragment =
+          new LibraryFormFragment(new LibraryFormFragment.ChangeShelfListener() {
+            @Override
+            public void onShelfAdded(String name) {
+              addShelf(name);
+            }
+          });
 
-    return shelfNames;
+      libraryFormFragment.setArguments(createAddShelfBundle(shelfNames));
+
+      showFragment(libraryFormFragment, LibraryKeys.FRAGMENT_LIBRARY_FORM);
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
-  private void handleAddShelf() {
-    LibraryFormFragment libraryFormFragment =
-        new LibraryFormFragment(new LibraryFormFragment.ChangeShelfListener() {
-          @Override
-          public void onShelfAdded(String name) {
-            libraryModel.addShelf(name, libraryModel.getShelfId());
-            updateLibraryListView(libraryModel.getCurrentLibraryList());
-            Toast.makeText(context, getString(R.string.shelf_added), Toast.LENGTH_SHORT).show();
-          }
-        });
+  private void addShelf(String name) {
+    libraryModel.addShelf(name, libraryModel.getShelfId(), shelf -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    libraryFormFragment.setArguments(createAddShelfBundle());
+      if (shelf == null) {
+        Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show();
+        return;
+      }
 
-    showFragment(libraryFormFragment, LibraryKeys.FRAGMENT_LIBRARY_FORM);
+      // the list is loaded after the shelf was saved, an earlier load may miss the new shelf
+      loadLibraryList();
+      Toast.makeText(context, getString(R.string.shelf_added), Toast.LENGTH_SHORT).show();
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   private void updateEmptyView(List<ShelfItem> libraryList) {
@@ -312,7 +361,7 @@ public class LibraryFragment extends BackStackFragment
   }
 
   private void updateLibraryListView(List<ShelfItem> libraryList) {
-    libraryList = libraryModel.getSortedLibraryList(sortTypeLut, libraryList);
+    adapter.setLibraryList(libraryList);
     adapter.notifyDataSetChanged();
     updateEmptyView(libraryList);
   }
@@ -338,12 +387,24 @@ public class LibraryFragment extends BackStackFragment
 
   private void shareLibraryBibIntent() {
     String fileName = "library_export_BibBuddy";
-    ShareBibTex shareBibTex = new ShareBibTex(fileName);
+    ShareBibTex shareBibTex = new ShareBibTex(context, fileName);
+
+    ExportProgressDialog progressDialog = new ExportProgressDialog(context);
+    progressDialog.show();
+
+    shareBibTex.writeTemporaryBibFile(
+        shareBibTex::writeBibDataLibrary,
+        progressDialog,
+        contentUri -> {
+          progressDialog.dismiss();
 
-    NoteModel noteModel = new NoteModel(requireContext());
-    String content = shareBibTex.getBibDataLibrary(libraryModel, bookModel, noteModel);
-    Uri contentUri = shareBibTex.writeTemporaryBibFile(context, content);
+          if (contentUri != null && isAdded()) {
+            startShareLibraryIntent(contentUri);
+          }
+        });
+  }
 
+  private void startShareLibraryIntent(Uri contentUri) {
     Intent shareLibraryIntent =
         ShareCompat.IntentBuilder.from(requireActivity())
             .setStream(contentUri)
@@ -381,13 +442,18 @@ public class LibraryFragment extends BackStackFragment
     setupAddShelfBtn();
 
     selectedShelfItems.clear();
-    bookModel = new BookModel(requireContext(), libraryModel.getShelfId());
 
     setHasOptionsMenu(true);
 
     return view;
   }
 
+  @Override
+  public void onDestroyView() {
+    libraryModel.cancelLoading();
+    super.onDestroyView();
+  }
+
   @Override
   public void onCreateOptionsMenu(@NonNull Menu menu, MenuInflater inflater) {
     inflater.inflate(R.menu.fragment_library_menu, menu);
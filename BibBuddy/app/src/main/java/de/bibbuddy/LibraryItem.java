@@ -51,6 +51,7 @@ public class LibraryItem implements SortableItem {
     return image;
   }
 
+  @Override
   public Long getId() {
     return id;
   }
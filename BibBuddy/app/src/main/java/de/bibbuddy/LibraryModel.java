@@ -13,50 +13,11 @@ public class LibraryModel {
 
   private final ShelfDao shelfDao;
   private final BookDao bookDao;
-  private final AuthorDao authorDao;
-  private final NoteDao noteDao;
+  private final DeleteDao deleteDao;
 
-  private List<ShelfItem> libraryList;
-  private Long currentShelfId;
-
-  private void deleteAuthors(Long bookId) {
-    List<Long> authorIds = bookDao.getAllAuthorIdsForBook(bookId);
-
-    for (Long authorId : authorIds) {
-      authorDao.delete(authorId, bookId);
-    }
-  }
-
-  private void deleteNotes(Long bookId) {
-    List<Long> noteIds = noteDao.getAllNoteIdsForBook(bookId);
-
-    for (Long noteId : noteIds) {
-      noteDao.delete(noteId);
-    }
-  }
-
-  private void sortLibraryList(SortTypeLut sortTypeLut) {
-    switch (sortTypeLut) {
-      case MOD_DATE_LATEST:
-        libraryList.sort(new SortDate());
-        break;
-
-      case MOD_DATE_OLDEST:
-        libraryList.sort(new SortDate().reversed());
-        break;
+  private final PageLoader<ShelfItem> libraryPages;
 
-      case NAME_ASCENDING:
-        libraryList.sort(new SortName());
-        break;
-
-      case NAME_DESCENDING:
-        libraryList.sort(new SortName().reversed());
-        break;
-
-      default:
-        throw new IllegalArgumentException();
-    }
-  }
+  private Long currentShelfId;
 
   /**
    * The LibraryModel contains all the shelf data for the LibraryFragment.
@@ -64,26 +25,30 @@ public class LibraryModel {
    * @param context context for the LibraryModel
    */
   public LibraryModel(Context context) {
-    DatabaseHelper databaseHelper = new DatabaseHelper(context);
+    DatabaseHelper databaseHelper = DatabaseHelper.getInstance(context);
     this.shelfDao = new ShelfDao(databaseHelper);
     this.bookDao = new BookDao(databaseHelper);
-    this.authorDao = new AuthorDao(databaseHelper);
-    this.noteDao = new NoteDao(databaseHelper);
+    this.deleteDao = new DeleteDao(databaseHelper);
+    this.libraryPages = new PageLoader<>(databaseHelper.getQueryStats().traceScreen(
+        "LibraryFragment page", page -> shelfDao.findShelfItemsByParentId(currentShelfId, page)));
   }
 
   /**
-   * Adds a new book to the bookList and database.
+   * Adds a new shelf to the database on the writer thread. The libraryList has to be loaded
+   * again by the listener to show it at its position in the sort order, a list that was
+   * loaded before the listener is called may not contain the new shelf yet.
    *
-   * @param name     name of the new shelf
-   * @param parentId parentId of the new shelf (can be used in future)
+   * @param name          name of the new shelf
+   * @param parentId      parentId of the new shelf (can be used in future)
+   * @param listener      listener for the saved shelf or null if it could not be saved,
+   *                      called on the main thread
+   * @param errorListener listener for the error if the shelf could not be saved, called on
+   *                      the main thread
    */
-  public void addShelf(String name, Long parentId) {
-    Shelf shelf = new Shelf(name, parentId);
-    shelfDao.create(shelf);
-
-    shelf = shelfDao.findById(shelfDao.findLatestId());
-
-    libraryList.add(new ShelfItem(shelf, 0, 0));
+  public void addShelf(String name, Long parentId, DatabaseExecutor.ResultListener<Shelf> listener,
+                       DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().write(() -> shelfDao.create(new Shelf(name, parentId)),
+                                         listener, errorListener);
   }
 
   /**
@@ -92,32 +57,73 @@ public class LibraryModel {
    * @return the current libraryList
    */
   public List<ShelfItem> getCurrentLibraryList() {
-    return libraryList;
+    return libraryPages.getItems();
   }
 
   /**
-   * Gets the libraryList of the current parentId of the shelf.
+   * Loads the names of all shelves of the library on a background thread, also of the ones
+   * that are not loaded into the libraryList.
    *
-   * @param parentId parentId of the shelf (can be used in future)
-   * @return the libraryList of the given id
+   * @param listener      listener for the names of all shelves, called on the main thread
+   * @param errorListener listener for the error if the names could not be loaded, called on
+   *                      the main thread
    */
-  public List<ShelfItem> getLibraryList(Long parentId) {
-    currentShelfId = parentId;
+  public void loadShelfNames(DatabaseExecutor.ResultListener<String[]> listener,
+                             DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(() -> {
+      List<Shelf> shelves = shelfDao.findAllByParentId(null);
+      String[] shelfNames = new String[shelves.size()];
+      for (int i = 0; i < shelves.size(); i++) {
+        shelfNames[i] = shelves.get(i).getName();
+      }
 
-    List<Shelf> list = shelfDao.findAllByParentId(parentId);
+      return shelfNames;
+    }, listener, errorListener);
+  }
 
-    libraryList = new ArrayList<>();
-    for (Shelf shelf : list) {
-      Long shelfId = shelf.getId();
-      List<Long> bookIds = bookDao.getAllBookIdsForShelf(shelfId);
+  /**
+   * Checks on a background thread whether the library contains at least one book.
+   *
+   * @param listener      listener for the result, called on the main thread
+   * @param errorListener listener for the error if the check failed, called on the main
+   *                      thread
+   */
+  public void checkHasBooks(DatabaseExecutor.ResultListener<Boolean> listener,
+                            DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(bookDao::hasBooks, listener, errorListener);
+  }
 
-      int bookNum = shelfDao.countAllBooksForShelf(shelfId);
-      int noteNum = shelfDao.countAllNotesForShelf(bookIds);
+  /**
+   * Loads the first page of the libraryList of the current parentId of the shelf
+   * on a background thread.
+   *
+   * @param parentId      parentId of the shelf (can be used in future)
+   * @param sortTypeLut   sort order of the libraryList
+   * @param listener      listener for the loaded libraryList, called on the main thread
+   * @param errorListener listener for the error if the page could not be loaded, called on
+   *                      the main thread
+   */
+  public void loadLibraryList(Long parentId, SortTypeLut sortTypeLut,
+                              DatabaseExecutor.ResultListener<List<ShelfItem>> listener,
+                              DatabaseExecutor.ErrorListener errorListener) {
+    currentShelfId = parentId;
+    libraryPages.loadFirstPage(sortTypeLut, listener, errorListener);
+  }
 
-      libraryList.add(new ShelfItem(shelf, bookNum, noteNum));
-    }
+  /**
+   * Loads the next page of the libraryList and appends it, if there is one.
+   *
+   * @param listener      listener for the loaded libraryList, called on the main thread
+   * @param errorListener listener for the error if the page could not be loaded, called on
+   *                      the main thread
+   */
+  public void loadNextLibraryPage(DatabaseExecutor.ResultListener<List<ShelfItem>> listener,
+                                  DatabaseExecutor.ErrorListener errorListener) {
+    libraryPages.loadNextPage(listener, errorListener);
+  }
 
-    return libraryList;
+  public void cancelLoading() {
+    libraryPages.cancel();
   }
 
   /**
@@ -127,7 +133,7 @@ public class LibraryModel {
    * @return the clicked ShelfItem
    */
   public ShelfItem getSelectedLibraryItem(int position) {
-    return libraryList.get(position);
+    return getCurrentLibraryList().get(position);
   }
 
   /**
@@ -140,75 +146,64 @@ public class LibraryModel {
   }
 
   /**
-   * Deletes all selected shelves and their respective books and notes.
+   * Deletes all selected shelves and their respective books and notes within one transaction
+   * on the writer thread. The deleted shelves are removed from the libraryList afterwards.
    *
    * @param selectedShelfItems selected shelf items of the user
+   * @param listener           listener for what was deleted, called on the main thread
+   * @param errorListener      listener for the error if the shelves could not be deleted,
+   *                           called on the main thread
    */
-  public void deleteShelves(List<ShelfItem> selectedShelfItems) {
-    if (selectedShelfItems == null) {
+  public void deleteShelves(List<ShelfItem> selectedShelfItems,
+                            DatabaseExecutor.ResultListener<DeleteResult> listener,
+                            DatabaseExecutor.ErrorListener errorListener) {
+    if (selectedShelfItems == null || selectedShelfItems.isEmpty()) {
+      listener.onResult(new DeleteResult(0, 0, 0, 0));
       return;
     }
 
-    for (ShelfItem shelf : selectedShelfItems) {
-      Long shelfId = shelf.getId();
-
-      List<Long> bookIds = bookDao.getAllBookIdsForShelf(shelfId);
+    // The selection of the user is cleared while the shelves are deleted
+    List<ShelfItem> deletedShelfItems = new ArrayList<>(selectedShelfItems);
+    List<Long> shelfIds = new ArrayList<>();
+    for (ShelfItem shelf : deletedShelfItems) {
+      shelfIds.add(shelf.getId());
+    }
 
-      for (Long bookId : bookIds) {
-        deleteNotes(bookId);
-        deleteAuthors(bookId);
-        bookDao.delete(bookId, shelfId);
-      }
+    DatabaseExecutor.getInstance().write(() -> deleteDao.deleteShelves(shelfIds),
+        deleteResult -> {
+          if (deleteResult.getShelfCount() > 0) {
+            getCurrentLibraryList().removeAll(deletedShelfItems);
+          }
 
-      shelfDao.delete(shelfId);
-      libraryList.removeIf(shelf::equals);
-    }
+          listener.onResult(deleteResult);
+        }, errorListener);
   }
 
   /**
-   * Renames the selected shelf.
+   * Renames the selected shelf on the writer thread. The libraryList has to be loaded again
+   * by the listener to show the shelf at its position in the sort order.
    *
-   * @param shelfItem selected shelf of the user
+   * @param shelfItem     selected shelf of the user
+   * @param shelfName     new name of the shelf
+   * @param listener      listener for the renamed shelf, called on the main thread
+   * @param errorListener listener for the error if the shelf could not be renamed, called on
+   *                      the main thread
    */
-  public void renameShelf(ShelfItem shelfItem, String shelfName) {
+  public void renameShelf(ShelfItem shelfItem, String shelfName,
+                          DatabaseExecutor.ResultListener<ShelfItem> listener,
+                          DatabaseExecutor.ErrorListener errorListener) {
     if (shelfItem == null) {
       return;
     }
 
-    shelfDao.renameShelf(shelfItem.getId(), shelfName);
-
-    for (int i = 0; i < libraryList.size(); i++) {
-      if (libraryList.get(i).equals(shelfItem)) {
-        shelfItem.setName(shelfName);
-        libraryList.set(i, shelfItem);
-      }
-    }
-  }
-
-  /**
-   * Gets the sorted search result list by sortTypeLut.
-   *
-   * @param sortTypeLut sortTypeLut of the list
-   * @return the sorted shelves
-   */
-  public List<ShelfItem> getSortedLibraryList(SortTypeLut sortTypeLut) {
-    sortLibraryList(sortTypeLut);
-
-    return libraryList;
-  }
-
-  /**
-   * Gets the sorted libraryList by sortTypeLut.
-   *
-   * @param sortTypeLut sortTypeLut of the list
-   * @return the sorted libraryList
-   */
-  public List<ShelfItem> getSortedLibraryList(SortTypeLut sortTypeLut,
-                                              List<ShelfItem> libraryList) {
-    this.libraryList = libraryList;
-    sortLibraryList(sortTypeLut);
-
-    return libraryList;
+    Long shelfId = shelfItem.getId();
+    DatabaseExecutor.getInstance().write(() -> {
+      shelfDao.renameShelf(shelfId, shelfName);
+      return shelfItem;
+    }, renamedShelfItem -> {
+      renamedShelfItem.setName(shelfName);
+      listener.onResult(renamedShelfItem);
+    }, errorListener);
   }
 
 }
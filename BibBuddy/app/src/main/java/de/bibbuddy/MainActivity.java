@@ -5,6 +5,7 @@ import android.content.ContentResolver;
 import android.content.Intent;
 import android.net.Uri;
 import android.os.Bundle;
+import android.os.StrictMode;
 import android.view.View;
 import android.widget.ImageButton;
 import android.widget.TextView;
@@ -31,12 +32,36 @@ public class MainActivity extends AppCompatActivity {
   private AsDefaultAppFragment defaultAppFragment;
 
   private SortTypeLut sortTypeLut;
+  private SortTypeLut searchSortTypeLut;
   private boolean[] filterCriteria;
   private String searchText;
 
   private boolean isDefaultSelected;
   private Uri uri;
 
+  // Crashes debug builds on database, disk and network access on the main thread, so that
+  // a query that is not run by the DatabaseExecutor stands out while developing
+  private static void setupStrictMode() {
+    if (!BuildConfig.DEBUG) {
+      return;
+    }
+
+    StrictMode.ThreadPolicy.Builder threadPolicy = new StrictMode.ThreadPolicy.Builder()
+        .detectDiskReads()
+        .detectDiskWrites()
+        .detectNetwork()
+        .penaltyLog()
+        .penaltyDeath();
+
+    StrictMode.VmPolicy.Builder vmPolicy = new StrictMode.VmPolicy.Builder()
+        .detectLeakedSqlLiteObjects()
+        .detectLeakedClosableObjects()
+        .penaltyLog();
+
+    StrictMode.setThreadPolicy(threadPolicy.build());
+    StrictMode.setVmPolicy(vmPolicy.build());
+  }
+
   private void setupDefaultAppSelected() {
     Intent defaultAppIntent = getIntent();
     String action = defaultAppIntent.getAction();
@@ -125,6 +150,14 @@ public class MainActivity extends AppCompatActivity {
 
       updateFragment(homeFragment, homeFragmentTag);
     });
+
+    // The recorded queries are only shown in debug builds
+    if (BuildConfig.DEBUG) {
+      logoBtn.setOnLongClickListener(v -> {
+        new QueryStatsDialog(this).show();
+        return true;
+      });
+    }
   }
 
   private void updateFragment(Fragment fragment, String tag) {
@@ -165,6 +198,7 @@ public class MainActivity extends AppCompatActivity {
 
   @Override
   protected void onCreate(Bundle savedInstanceState) {
+    setupStrictMode();
     super.onCreate(savedInstanceState);
     setContentView(R.layout.activity_main);
 
@@ -182,6 +216,7 @@ public class MainActivity extends AppCompatActivity {
     setupBottomNavigationView();
 
     sortTypeLut = SortTypeLut.MOD_DATE_LATEST;
+    searchSortTypeLut = SortTypeLut.RELEVANCE;
     filterCriteria = new boolean[] {true, true, true}; // shelf, book, note
     searchText = "";
   }
@@ -270,6 +305,14 @@ public class MainActivity extends AppCompatActivity {
     this.sortTypeLut = sortTypeLut;
   }
 
+  public SortTypeLut getSearchSortTypeLut() {
+    return searchSortTypeLut;
+  }
+
+  public void setSearchSortTypeLut(SortTypeLut searchSortTypeLut) {
+    this.searchSortTypeLut = searchSortTypeLut;
+  }
+
   public String getSearchText() {
     return searchText;
   }
@@ -8,8 +8,8 @@ package de.bibbuddy;
  */
 public class NoteAudioItem extends NoteItem {
 
-  public NoteAudioItem(Note note, Long bookId) {
-    super(note, R.drawable.audionote, bookId);
+  public NoteAudioItem(NoteSummary note) {
+    super(note, R.drawable.audionote);
   }
 
   @Override
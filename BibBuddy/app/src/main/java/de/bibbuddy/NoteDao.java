@@ -1,18 +1,21 @@
 package de.bibbuddy;
 
-import static android.text.Html.escapeHtml;
-
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.DatabaseUtils;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteException;
 import android.util.Log;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
+import org.jsoup.Jsoup;
 
 /**
  * NoteDao contains all sql queries related to Note.
+ * The plain text of a note is stored next to its HTML body when the note is written,
+ * so the search index and the export do not have to parse the HTML again.
  *
  * @author Sarah Kurek, Claudia Schönherr, Luis Moßburger, Silvia Ivanova
  */
@@ -20,8 +23,44 @@ public class NoteDao {
 
   private static final String TAG = NoteDao.class.getSimpleName();
 
+  // Columns of the note lists together with the path of the note file, the text of the
+  // notes is not needed for them. The id of the book follows as last column.
+  private static final String SUMMARY_COLUMNS = "n." + DatabaseHelper._ID + ", n."
+      + DatabaseHelper.NAME + ", n." + DatabaseHelper.TYPE + ", n." + DatabaseHelper.MOD_DATE
+      + ", n." + DatabaseHelper.NOTE_FILE_ID + ", f." + DatabaseHelper.FILE;
+
+  private static final String NOTE_FILE_JOIN = " LEFT JOIN "
+      + DatabaseHelper.TABLE_NAME_NOTE_FILE + " f ON (f." + DatabaseHelper._ID + " = n."
+      + DatabaseHelper.NOTE_FILE_ID + ")";
+
+  // A note belongs to one book, notes without a book get the book id 0
+  private static final String ALL_NOTES = "SELECT " + SUMMARY_COLUMNS + ", IFNULL((SELECT lnk."
+      + DatabaseHelper.BOOK_ID + " FROM " + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK
+      + " lnk WHERE lnk." + DatabaseHelper.NOTE_ID + " = n." + DatabaseHelper._ID
+      + " LIMIT 1), 0) FROM " + DatabaseHelper.TABLE_NAME_NOTE + " n" + NOTE_FILE_JOIN;
+
+  private static final String NOTES_FOR_BOOK = "SELECT " + SUMMARY_COLUMNS + ", lnk."
+      + DatabaseHelper.BOOK_ID + " FROM " + DatabaseHelper.TABLE_NAME_NOTE + " n JOIN "
+      + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " lnk ON (n." + DatabaseHelper._ID + " = lnk."
+      + DatabaseHelper.NOTE_ID + ")" + NOTE_FILE_JOIN + " WHERE lnk." + DatabaseHelper.BOOK_ID
+      + " = ?";
+
   private final DatabaseHelper dbHelper;
 
+  /**
+   * Converts the HTML body of a note into the plain text that is stored with the note.
+   *
+   * @param html HTML body of the note
+   * @return the plain text of the note
+   */
+  static String toPlainText(String html) {
+    if (html == null || html.isEmpty()) {
+      return "";
+    }
+
+    return Jsoup.parse(html).text();
+  }
+
   private Note createNoteData(Cursor cursor) {
 
     return new Note(
@@ -35,10 +74,34 @@ public class NoteDao {
     );
   }
 
-  private void updateBookModified(Long bookId) {
+  private static NoteSummary createNoteSummary(Cursor cursor) {
+    return new NoteSummary(cursor.getLong(0), cursor.getString(1),
+                           NoteTypeLut.valueOf(cursor.getInt(2)), cursor.getLong(3),
+                           cursor.getLong(4), cursor.isNull(5) ? "" : cursor.getString(5),
+                           cursor.getLong(6));
+  }
 
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
+  private List<NoteSummary> findNoteSummaries(String selectQuery, String[] args) {
+    SQLiteDatabase db = dbHelper.getReadableDatabase();
+
+    Cursor cursor = db.rawQuery(selectQuery, args);
 
+    List<NoteSummary> noteList = new ArrayList<>();
+    if (cursor.moveToFirst()) {
+      do {
+        noteList.add(createNoteSummary(cursor));
+      } while (cursor.moveToNext());
+    }
+
+    cursor.close();
+
+    return noteList;
+  }
+
+  private void updateBookModified(Long bookId) {
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+    try {
       ContentValues contentValues = new ContentValues();
       contentValues.put(DatabaseHelper.MOD_DATE, new Date().getTime());
 
@@ -50,6 +113,8 @@ public class NoteDao {
       Log.e(TAG, ex.toString(), ex);
     }
 
+    dbHelper.getBookCache().remove(bookId);
+    dbHelper.updateSearchDataVersion();
   }
 
   public NoteDao(DatabaseHelper dbHelper) {
@@ -57,53 +122,55 @@ public class NoteDao {
   }
 
   /**
-  * Creates a new Note.
-  *
-  * @param note the note that should be created
-  * */
-  public void create(Note note) {
+   * Creates a new Note with its note file within one transaction.
+   *
+   * @param note the note that should be created
+   * @return the saved note with its generated id or null if it could not be saved
+   */
+  public Note create(Note note) {
     Long currentTime = new Date().getTime();
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
-      try {
-        ContentValues noteFileValues = new ContentValues();
-        if (note.getNoteFilePath() == null) {
-          noteFileValues.put(DatabaseHelper.FILE, "");
-        } else {
-          noteFileValues.put(DatabaseHelper.FILE, note.getNoteFilePath());
-        }
-
-        db.insert(DatabaseHelper.TABLE_NAME_NOTE_FILE, null, noteFileValues);
-        Cursor c =
-            db.query(DatabaseHelper.TABLE_NAME_NOTE_FILE, null, null,
-                     null, null, null, null);
-        c.moveToLast();
-
-        ContentValues noteValues = new ContentValues();
-        noteValues.put(DatabaseHelper.NAME, note.getName());
-        noteValues.put(DatabaseHelper.TYPE, note.getType().getId());
-        noteValues.put(DatabaseHelper.TEXT, note.getText());
-        noteValues.put(DatabaseHelper.CREATE_DATE, currentTime);
-        noteValues.put(DatabaseHelper.MOD_DATE, currentTime);
-        noteValues.put(DatabaseHelper.NOTE_FILE_ID, c.getLong(0));
-
-        c.close();
-
-        db.insert(DatabaseHelper.TABLE_NAME_NOTE, null, noteValues);
-
-        Cursor cursor =
-            db.query(DatabaseHelper.TABLE_NAME_NOTE, null, null, null,
-                     null, null, null);
-        cursor.moveToLast();
-
-        cursor.close();
-
-      } catch (SQLiteException ex) {
-        Log.e(TAG, ex.toString(), ex);
-
-      } finally {
-        db.close();
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
+
+    db.beginTransaction();
+    try {
+      ContentValues noteFileValues = new ContentValues();
+      if (note.getNoteFilePath() == null) {
+        noteFileValues.put(DatabaseHelper.FILE, "");
+      } else {
+        noteFileValues.put(DatabaseHelper.FILE, note.getNoteFilePath());
       }
+
+      long noteFileId =
+          db.insertOrThrow(DatabaseHelper.TABLE_NAME_NOTE_FILE, null, noteFileValues);
+
+      String plainText = toPlainText(note.getText());
+
+      ContentValues noteValues = new ContentValues();
+      noteValues.put(DatabaseHelper.NAME, note.getName());
+      noteValues.put(DatabaseHelper.SORT_KEY, SortKey.create(note.getName()));
+      noteValues.put(DatabaseHelper.TYPE, note.getType().getId());
+      noteValues.put(DatabaseHelper.TEXT, note.getText());
+      noteValues.put(DatabaseHelper.PLAIN_TEXT, plainText);
+      noteValues.put(DatabaseHelper.CREATE_DATE, currentTime);
+      noteValues.put(DatabaseHelper.MOD_DATE, currentTime);
+      noteValues.put(DatabaseHelper.NOTE_FILE_ID, noteFileId);
+
+      long noteId = db.insertOrThrow(DatabaseHelper.TABLE_NAME_NOTE, null, noteValues);
+      SearchDao.indexTextNote(db, noteId, plainText);
+
+      db.setTransactionSuccessful();
+
+      return new Note(noteId, note.getName(), note.getType(), note.getText(), currentTime,
+                      currentTime, noteFileId);
+
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
+    } finally {
+      db.endTransaction();
+      dbHelper.updateSearchDataVersion();
     }
+
+    return null;
   }
 
   // Gets single note entry
@@ -131,65 +198,37 @@ public class NoteDao {
   }
 
   /**
-   * Fetches the path-string of a note-file linked to a note.
+   * Counts the notes of a type.
    *
-   * @param noteFileId id of the note-file linked to the note
-   * @return returns a string representing the path to the saved note media
+   * @param type type of the notes
+   * @return the number of notes of the type
    */
-  public String getNoteFilePath(long noteFileId) {
+  public int countNotes(NoteTypeLut type) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-    Cursor cursor = db.query(DatabaseHelper.TABLE_NAME_NOTE_FILE,
-                             new String[] {DatabaseHelper._ID,
-                                 DatabaseHelper.FILE},
-                             DatabaseHelper._ID + " = ?", new String[] {String.valueOf(noteFileId)},
-                             null, null, null, String.valueOf(1));
-
-    String path = "";
-    if (cursor.moveToFirst()) {
-      path = cursor.getString(1);
-    }
-
-    cursor.close();
-
-    return path;
-  }
-
-  // Gets all notes in a list view
-  public List<Note> findAll() {
-    SQLiteDatabase db = dbHelper.getWritableDatabase();
-
-    String selectQuery = "SELECT * FROM " + DatabaseHelper.TABLE_NAME_NOTE;
-
-    Cursor cursor = db.rawQuery(selectQuery, null);
-
-    List<Note> noteList = new ArrayList<>();
-    if (cursor.moveToFirst()) {
-      do {
-        Note note = createNoteData(cursor);
-        noteList.add(note);
-      } while (cursor.moveToNext());
-    }
-
-    cursor.close();
-
-    return noteList;
+    return (int) DatabaseUtils.queryNumEntries(db, DatabaseHelper.TABLE_NAME_NOTE,
+                                               DatabaseHelper.TYPE + " = ?",
+                                               new String[] {String.valueOf(type.getId())});
   }
 
-  // Deletes single note entry
-  public void delete(Long id) {
-    SQLiteDatabase db = dbHelper.getWritableDatabase();
-    db.delete(DatabaseHelper.TABLE_NAME_NOTE, DatabaseHelper._ID + " = ?",
-              new String[] {String.valueOf(id)});
-
-    db.delete(DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK, DatabaseHelper.NOTE_ID + " = ?",
-              new String[] {String.valueOf(id)});
+  /**
+   * Finds one page of all notes without their text.
+   *
+   * @param page page of the notes in their sort order
+   * @return the notes of the page
+   */
+  public List<NoteSummary> findAll(KeysetPage page) {
+    String selectQuery = ALL_NOTES + " WHERE " + page.createWhere("n." + DatabaseHelper.SORT_KEY,
+                                         "n." + DatabaseHelper.MOD_DATE, "n." + DatabaseHelper._ID)
+        + page.createOrderBy("n." + DatabaseHelper.SORT_KEY, "n." + DatabaseHelper.MOD_DATE,
+                             "n." + DatabaseHelper._ID);
 
-    db.close();
+    return findNoteSummaries(selectQuery, page.getWhereArgs());
   }
 
   /**
-   * Updates a note object within database selected by its id.
+   * Updates a note object within database selected by its id together with its entry in
+   * the search index. Nothing is changed if one of them cannot be written.
    *
    * @param id   note id
    * @param name note name
@@ -197,16 +236,32 @@ public class NoteDao {
    */
   public void updateNote(Long id, String name, String text) {
     Long currentTime = new Date().getTime();
+    String plainText = toPlainText(text);
+
     ContentValues values = new ContentValues();
     values.put(DatabaseHelper.NAME, name);
+    values.put(DatabaseHelper.SORT_KEY, SortKey.create(name));
     values.put(DatabaseHelper.TEXT, text);
+    values.put(DatabaseHelper.PLAIN_TEXT, plainText);
     values.put(DatabaseHelper.MOD_DATE, currentTime);
 
-    dbHelper.getWritableDatabase().update(DatabaseHelper.TABLE_NAME_NOTE, values,
-                                          DatabaseHelper._ID + " = ?",
-                                          new String[] {String.valueOf(id)});
     SQLiteDatabase db = dbHelper.getWritableDatabase();
-    db.close();
+
+    // The note and its indexed text are only changed together
+    db.beginTransaction();
+    try {
+      db.update(DatabaseHelper.TABLE_NAME_NOTE, values, DatabaseHelper._ID + " = ?",
+                new String[] {String.valueOf(id)});
+      SearchDao.indexTextNote(db, id, plainText);
+
+      db.setTransactionSuccessful();
+
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
+    } finally {
+      db.endTransaction();
+      dbHelper.updateSearchDataVersion();
+    }
   }
 
   /**
@@ -216,8 +271,9 @@ public class NoteDao {
    * @param noteId id of the note to link
    */
   public void linkNoteWithBook(Long bookId, Long noteId) {
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
 
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
+    try {
       ContentValues contentValues = new ContentValues();
       contentValues.put(DatabaseHelper.BOOK_ID, bookId);
       contentValues.put(DatabaseHelper.NOTE_ID, noteId);
@@ -234,107 +290,45 @@ public class NoteDao {
   }
 
   /**
-   * Gets all notes of a book by the bookId.
-   *
-   * @param bookId id of the book
-   * @return a list of all noteIds of a book
-   */
-  public List<Long> getAllNoteIdsForBook(Long bookId) {
-    SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-    String selectQuery = "SELECT * FROM " + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " WHERE "
-        + DatabaseHelper.BOOK_ID + " = ?";
-
-    Cursor cursor = db.rawQuery(selectQuery, new String[] {String.valueOf(bookId)});
-
-    List<Long> noteIds = new ArrayList<>();
-    if (cursor.moveToFirst()) {
-      do {
-        noteIds.add(Long.parseLong(cursor.getString(2)));
-      } while (cursor.moveToNext());
-    }
-
-    cursor.close();
-
-    return noteIds;
-  }
-
-  /**
-   * Gets a list of all notes that are connected to a specific book.
+   * Gets all notes of a book without their text in the order they were linked.
    *
    * @param bookId id of the book that the result notes must be connected to
-   * @return returns a list of connected note-objects
+   * @return the notes of the book
    */
-  public List<Note> getAllNotesForBook(Long bookId) {
-    List<Long> noteIds = getAllNoteIdsForBook(bookId);
-    List<Note> noteList = new ArrayList<>();
-    for (Long id : noteIds) {
-      noteList.add(findById(id));
-    }
-
-    return noteList;
+  public List<NoteSummary> getAllNotesForBook(Long bookId) {
+    return findNoteSummaries(NOTES_FOR_BOOK + " ORDER BY lnk." + DatabaseHelper._ID,
+                             new String[] {String.valueOf(bookId)});
   }
 
   /**
-   * Gets text string of a specific note.
+   * Gets all notes of a book without their text in the given sort order.
    *
-   * @param id id of the note to look for
-   * @return returns the notes text value
+   * @param bookId      id of the book
+   * @param sortTypeLut sort order of the notes
+   * @return the sorted notes of the book
    */
-  public String findTextById(Long id) {
-    SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-    Cursor cursor = db.query(DatabaseHelper.TABLE_NAME_NOTE,
-                             new String[] {DatabaseHelper._ID, DatabaseHelper.NAME,
-                                 DatabaseHelper.TYPE, DatabaseHelper.TEXT,
-                                 DatabaseHelper.CREATE_DATE, DatabaseHelper.MOD_DATE,
-                                 DatabaseHelper.NOTE_FILE_ID},
-                             DatabaseHelper._ID + " = ?", new String[] {String.valueOf(id)},
-                             null, null, null, String.valueOf(1));
+  public List<NoteSummary> getAllNotesForBook(Long bookId, SortTypeLut sortTypeLut) {
+    String selectQuery = NOTES_FOR_BOOK + KeysetPage.first(sortTypeLut).createSortOrder(
+        "n." + DatabaseHelper.SORT_KEY, "n." + DatabaseHelper.MOD_DATE,
+        "n." + DatabaseHelper._ID);
 
-    String noteText = null;
-    if (cursor.moveToFirst()) {
-      noteText = cursor.getString(3);
-    }
-
-    cursor.close();
-
-    return noteText;
+    return findNoteSummaries(selectQuery, new String[] {String.valueOf(bookId)});
   }
 
   /**
-   * Finds all text notes which which contain searchInput.
+   * Checks whether a book has at least one note. The query stops at the first note instead
+   * of loading all notes of the book.
    *
-   * @param searchInput searchInput of the user
-   * @return returns a list of notes which have the searchInput in the name
+   * @param bookId id of the book
+   * @return true if the book has a note
    */
-  public List<Note> findTextNotesByName(String searchInput) {
-    searchInput = escapeHtml(searchInput);
-
+  public boolean hasNotesForBook(Long bookId) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-    String selectQuery = "SELECT n.* FROM " + DatabaseHelper.TABLE_NAME_NOTE
-        + " n JOIN " + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK
-        + " lnk ON (n." + DatabaseHelper._ID + " = lnk." + DatabaseHelper.NOTE_ID + ")"
-        + " WHERE n." + DatabaseHelper.TYPE + " = ? AND (n."
-        + DatabaseHelper.NAME + " LIKE '%" + searchInput + "%'"
-        + " OR n." + DatabaseHelper.TEXT + " LIKE '%" + searchInput + "%')";
+    String selectQuery = "SELECT EXISTS (SELECT 1 FROM " + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK
+        + " WHERE " + DatabaseHelper.BOOK_ID + " = ?)";
 
-    Cursor cursor = db.rawQuery(selectQuery,
-                                new String[] {String.valueOf(NoteTypeLut.TEXT.getId())});
-
-    List<Note> noteList = new ArrayList<>();
-    if (cursor.moveToFirst()) {
-      do {
-        Note note = createNoteData(cursor);
-        noteList.add(note);
-
-      } while (cursor.moveToNext());
-    }
-
-    cursor.close();
-
-    return noteList;
+    return DatabaseUtils.longForQuery(db, selectQuery, new String[] {String.valueOf(bookId)}) == 1;
   }
 
   /**
@@ -363,35 +357,4 @@ public class NoteDao {
     return bookId;
   }
 
-  /**
-   * Gets all text notes of a book by the bookId.
-   *
-   * @param bookId id of the book
-   * @return a list of all text noteIds of a book
-   */
-  public List<Long> getTextNoteIdsForBook(Long bookId) {
-    SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-    String selectQuery = "SELECT lnk." + DatabaseHelper.NOTE_ID + " FROM "
-        + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " lnk JOIN "
-        + DatabaseHelper.TABLE_NAME_NOTE
-        + " n ON (n." + DatabaseHelper._ID + " = lnk." + DatabaseHelper.NOTE_ID + ")"
-        + " WHERE n." + DatabaseHelper.TYPE + " = ? AND lnk." + DatabaseHelper.BOOK_ID + "= ?";
-
-    Cursor cursor = db.rawQuery(selectQuery, new String[] {
-        String.valueOf(NoteTypeLut.TEXT.getId()), String.valueOf(bookId)
-    });
-
-    List<Long> noteIds = new ArrayList<>();
-    if (cursor.moveToFirst()) {
-      do {
-        noteIds.add(Long.parseLong(cursor.getString(0)));
-      } while (cursor.moveToNext());
-    }
-
-    cursor.close();
-
-    return noteIds;
-  }
-
 }
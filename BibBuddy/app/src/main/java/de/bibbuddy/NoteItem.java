@@ -8,21 +8,18 @@ package de.bibbuddy;
  */
 public abstract class NoteItem implements SortableItem {
 
-  private final Note note;
+  private final NoteSummary note;
   private final int image;
-  private final Long bookId;
 
   /**
    * Constructor to set up a NoteItem for view/UI usages.
    *
-   * @param note   the note
-   * @param image  id for the drawable resource of the note type icon
-   * @param bookId id of the book that the note is connected to
+   * @param note  the note with the id of the book that it is connected to
+   * @param image id for the drawable resource of the note type icon
    */
-  public NoteItem(Note note, int image, Long bookId) {
+  public NoteItem(NoteSummary note, int image) {
     this.note = note;
     this.image = image;
-    this.bookId = bookId;
   }
 
   @Override
@@ -39,6 +36,7 @@ public abstract class NoteItem implements SortableItem {
     return image;
   }
 
+  @Override
   public Long getId() {
     return note.getId();
   }
@@ -48,7 +46,11 @@ public abstract class NoteItem implements SortableItem {
   }
 
   public Long getBookId() {
-    return bookId;
+    return note.getBookId();
+  }
+
+  public String getNoteFilePath() {
+    return note.getNoteFilePath();
   }
 
   public String getModDateStr() {
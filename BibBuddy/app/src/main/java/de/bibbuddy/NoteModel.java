@@ -3,7 +3,7 @@ package de.bibbuddy;
 import android.content.Context;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.concurrent.Future;
 
 /**
  * NoteModel manages all data of the NoteView.
@@ -14,17 +14,18 @@ public class NoteModel {
 
   private final NoteDao noteDao;
   private final BookDao bookDao;
+  private final DeleteDao deleteDao;
 
-  private List<NoteItem> createItemList(List<Note> noteList) {
+  private final PageLoader<NoteItem> notePages;
+
+  private List<NoteItem> createItemList(List<NoteSummary> noteList) {
     List<NoteItem> noteItemList = new ArrayList<>();
 
-    for (Note note : noteList) {
+    for (NoteSummary note : noteList) {
       if (note.getType() == NoteTypeLut.TEXT) {
-        noteItemList
-            .add(new NoteTextItem(note, noteDao.findBookIdByNoteId(note.getId())));
+        noteItemList.add(new NoteTextItem(note));
       } else if (note.getType() == NoteTypeLut.AUDIO) {
-        noteItemList
-            .add(new NoteAudioItem(note, noteDao.findBookIdByNoteId(note.getId())));
+        noteItemList.add(new NoteAudioItem(note));
       }
     }
 
@@ -37,45 +38,31 @@ public class NoteModel {
    * @param context context for the BookModel
    */
   public NoteModel(Context context) {
-    DatabaseHelper databaseHelper = new DatabaseHelper(context);
+    DatabaseHelper databaseHelper = DatabaseHelper.getInstance(context);
     this.noteDao = new NoteDao(databaseHelper);
     this.bookDao = new BookDao(databaseHelper);
+    this.deleteDao = new DeleteDao(databaseHelper);
+    this.notePages = new PageLoader<>(databaseHelper.getQueryStats().traceScreen(
+        "NotesFragment page", page -> createItemList(noteDao.findAll(page))));
   }
 
   /**
-   * Gets the Ids of all notes for a given book.
-   *
-   * @param id id of a book
-   * @return a list with the Ids of all text notes
-   */
-  public List<Long> getTextNoteIdsForBook(Long id) {
-    return noteDao.getTextNoteIdsForBook(id);
-  }
-
-  /**
-   * Gets text string of a specific note without formatting xml tags.
-   *
-   * @param id id of the note to look for
-   * @return returns the notes text value without formatting texts
-   */
-  public String findStrippedTextById(Long id) {
-    return noteDao.findTextById(id).replaceAll(
-        "(<p dir=\"ltr\"( style=\"margin-top:0; margin-bottom:0;\")?>|</p>|"
-            + "<div align=\"right\" {2}<div align=\"center\" {2}> >|</div>|"
-            + "<span style=\"text-decoration:line-through;\">|</span>|<(/)?i>|"
-            + "<(/)?b>|<(/)?u>|<(/)?br>|<(/)?blockquote>)",
-        "");
-  }
-
-  /**
-   * Creates a note object and pass it to the noteDao to add it to the database as well.
+   * Creates a note object and saves it linked with its book on the writer thread.
+   * A noteList that has to show the note is loaded after the listener is called.
    *
-   * @param name         of the note object
-   * @param type         of the note object
-   * @param text         of the note object
-   * @param noteFilePath string value representing the path to a linked noteFile-object
+   * @param name          of the note object
+   * @param type          of the note object
+   * @param text          of the note object
+   * @param noteFilePath  string value representing the path to a linked noteFile-object
+   * @param bookId        id of the book of the note
+   * @param listener      listener for the saved note or null if it could not be saved,
+   *                      called on the main thread
+   * @param errorListener listener for the error if the note could not be saved, called on
+   *                      the main thread
    */
-  public void createNote(String name, NoteTypeLut type, String text, String noteFilePath) {
+  public void createNote(String name, NoteTypeLut type, String text, String noteFilePath,
+                         Long bookId, DatabaseExecutor.ResultListener<Note> listener,
+                         DatabaseExecutor.ErrorListener errorListener) {
     Note note;
     if (noteFilePath.equals("")) {
       note = new Note(name, type, text);
@@ -83,127 +70,155 @@ public class NoteModel {
       note = new Note(name, type, text, noteFilePath);
     }
 
-    noteDao.create(note);
-  }
-
-  public void updateNote(Note note, String name, String text) {
-    noteDao.updateNote(note.getId(), name, text);
-  }
+    DatabaseExecutor.getInstance().write(() -> {
+      Note savedNote = noteDao.create(note);
+      if (savedNote != null) {
+        noteDao.linkNoteWithBook(bookId, savedNote.getId());
+      }
 
-  public void deleteNote(Long id) {
-    noteDao.delete(id);
+      return savedNote;
+    }, listener, errorListener);
   }
 
-  public Note getNoteById(Long id) {
-    return noteDao.findById(id);
+  /**
+   * Updates the name and text of a note on the writer thread.
+   *
+   * @param note          note to update
+   * @param name          new name of the note
+   * @param text          new text of the note
+   * @param listener      listener for the updated note, called on the main thread
+   * @param errorListener listener for the error if the note could not be updated, called on
+   *                      the main thread
+   */
+  public void updateNote(Note note, String name, String text,
+                         DatabaseExecutor.ResultListener<Note> listener,
+                         DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().write(() -> {
+      noteDao.updateNote(note.getId(), name, text);
+      return note;
+    }, listener, errorListener);
   }
 
-  public Note getLastNote() {
-    return noteDao.findAll().get(noteDao.findAll().size() - 1);
+  /**
+   * Deletes the notes with the given ids within one transaction on the writer thread.
+   *
+   * @param noteIds       ids of the notes
+   * @param listener      listener for what was deleted, called on the main thread
+   * @param errorListener listener for the error if the notes could not be deleted, called on
+   *                      the main thread
+   */
+  public void deleteNotes(List<Long> noteIds,
+                          DatabaseExecutor.ResultListener<DeleteResult> listener,
+                          DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().write(() -> deleteDao.deleteNotes(noteIds), listener,
+                                         errorListener);
   }
 
   /**
-   * Fetches the entire noteItem-list from the database.
+   * Loads a note by its id on a background thread.
    *
-   * @return a list of all NoteItems from the database
+   * @param id            id of the note
+   * @param listener      listener for the note, called on the main thread
+   * @param errorListener listener for the error if the note could not be loaded, called on
+   *                      the main thread
    */
-  public List<NoteItem> getNoteList() {
-    return createItemList(noteDao.findAll());
+  public void loadNote(Long id, DatabaseExecutor.ResultListener<Note> listener,
+                       DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(() -> noteDao.findById(id), listener, errorListener);
   }
 
   /**
-   * Fetches all notes, that are connected to a specific book, from the database.
+   * Loads the first page of all notes on a background thread.
    *
-   * @param bookId whose connected notes are searched for
-   * @return a list of NoteItems whose connected notes are connected to the specific book
+   * @param sortTypeLut   sort order of the noteList
+   * @param listener      listener for the loaded noteList, called on the main thread
+   * @param errorListener listener for the error if the page could not be loaded, called on
+   *                      the main thread
    */
-  public List<NoteItem> getNoteListForBook(Long bookId) {
-    List<Note> noteList = noteDao.getAllNotesForBook(bookId);
-    return createItemList(noteList);
+  public void loadNoteList(SortTypeLut sortTypeLut,
+                           DatabaseExecutor.ResultListener<List<NoteItem>> listener,
+                           DatabaseExecutor.ErrorListener errorListener) {
+    notePages.loadFirstPage(sortTypeLut, listener, errorListener);
   }
 
   /**
-   * Gets the list of all existing voice notes (noteType=1) from the database.
+   * Loads the next page of all notes and appends it, if there is one.
    *
-   * @return a list of NoteItems created from all voice type note objects from the database
+   * @param listener      listener for the loaded noteList, called on the main thread
+   * @param errorListener listener for the error if the page could not be loaded, called on
+   *                      the main thread
    */
-  public List<Note> getVoiceNoteList() {
-    List<Note> noteList = noteDao.findAll();
-
-    return noteList.stream()
-        .filter(note -> note.getType() == NoteTypeLut.AUDIO)
-        .collect(Collectors.toList());
+  public void loadNextNotePage(DatabaseExecutor.ResultListener<List<NoteItem>> listener,
+                               DatabaseExecutor.ErrorListener errorListener) {
+    notePages.loadNextPage(listener, errorListener);
   }
 
-  public String getNoteFilePath(Long id) {
-    return noteDao.getNoteFilePath(getNoteById(id).getNoteFileId());
+  public void cancelLoading() {
+    notePages.cancel();
   }
 
-  public void linkNoteWithBook(Long bookId, Long noteId) {
-    noteDao.linkNoteWithBook(bookId, noteId);
+  public List<NoteItem> getCurrentNoteList() {
+    return notePages.getItems();
   }
 
   /**
-   * Gets a list of all noteItems from the database sorted by given sortTypeLut.
+   * Loads the noteList of a book sorted by sortTypeLut on a background thread.
    *
-   * @param sortTypeLut chosen by the user to sort the list
-   * @param noteList    to be sorted
-   * @return the sorted noteList
+   * @param sortTypeLut   currently applied to the list
+   * @param bookId        id of the book the noteList is linked to
+   * @param listener      listener for the sorted noteList, called on the main thread
+   * @param errorListener listener for the error if the noteList could not be loaded, called
+   *                      on the main thread
+   * @return the future of the noteList
    */
-  public List<NoteItem> sortNoteList(SortTypeLut sortTypeLut, List<NoteItem> noteList) {
-    switch (sortTypeLut) {
-
-      case MOD_DATE_LATEST:
-        noteList.sort(new SortDate());
-        break;
-
-      case MOD_DATE_OLDEST:
-        noteList.sort(new SortDate().reversed());
-        break;
-
-      case NAME_ASCENDING:
-        noteList.sort(new SortName());
-        break;
-
-      case NAME_DESCENDING:
-        noteList.sort(new SortName().reversed());
-        break;
-
-      default:
-        throw new IllegalArgumentException();
-    }
-
-    return noteList;
+  public Future<List<NoteItem>> loadNoteListForBook(
+      SortTypeLut sortTypeLut, Long bookId,
+      DatabaseExecutor.ResultListener<List<NoteItem>> listener,
+      DatabaseExecutor.ErrorListener errorListener) {
+    return DatabaseExecutor.getInstance().read(
+        () -> createItemList(noteDao.getAllNotesForBook(bookId, sortTypeLut)), listener,
+        errorListener);
   }
 
   /**
-   * Gets the noteList of a book sorted by sortTypeLut.
+   * Checks on a background thread whether a book has at least one note.
    *
-   * @param sortTypeLut currently applied to the list
-   * @param bookId      id of the book the noteList is linked to
-   * @return the sorted noteList
+   * @param bookId        id of the book
+   * @param listener      listener for the result, called on the main thread
+   * @param errorListener listener for the error if the check failed, called on the main
+   *                      thread
    */
-  public List<NoteItem> getSortedNoteList(SortTypeLut sortTypeLut, Long bookId) {
-    List<Note> noteListDb = noteDao.getAllNotesForBook(bookId);
-    List<NoteItem> noteList = createItemList(noteListDb);
-
-    return sortNoteList(sortTypeLut, noteList);
+  public void checkHasNotes(Long bookId, DatabaseExecutor.ResultListener<Boolean> listener,
+                            DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(() -> noteDao.hasNotesForBook(bookId), listener,
+                                        errorListener);
   }
 
   /**
-   * Gets the noteList for all notes in the database sorted by sortTypeLut.
+   * Counts the voice notes on a background thread.
    *
-   * @param sortTypeLut currently applied to the list
-   * @return the sorted noteList
+   * @param listener      listener for the number of voice notes, called on the main thread
+   * @param errorListener listener for the error if the notes could not be counted, called on
+   *                      the main thread
    */
-  public List<NoteItem> getAllSortedNoteList(SortTypeLut sortTypeLut) {
-    List<Note> allNoteList = noteDao.findAll();
-    List<NoteItem> noteList = createItemList(allNoteList);
-
-    return sortNoteList(sortTypeLut, noteList);
+  public void countVoiceNotes(DatabaseExecutor.ResultListener<Integer> listener,
+                              DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(() -> noteDao.countNotes(NoteTypeLut.AUDIO), listener,
+                                        errorListener);
   }
 
-  public String getBookNameByBookId(Long bookId) {
-    return bookDao.findBookTitleByBookId(bookId);
+  /**
+   * Loads the title of a book on a background thread.
+   *
+   * @param bookId        id of the book
+   * @param listener      listener for the title, called on the main thread
+   * @param errorListener listener for the error if the title could not be loaded, called on
+   *                      the main thread
+   */
+  public void loadBookName(Long bookId, DatabaseExecutor.ResultListener<String> listener,
+                           DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(() -> bookDao.findBookTitleByBookId(bookId), listener,
+                                        errorListener);
   }
+
 }
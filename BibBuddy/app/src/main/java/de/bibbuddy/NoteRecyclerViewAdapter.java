@@ -4,6 +4,7 @@ import android.content.Context;
 import android.media.MediaMetadataRetriever;
 import android.media.MediaPlayer;
 import android.os.Bundle;
+import android.os.StrictMode;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -23,6 +24,8 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * NoteRecyclerViewAdapter provides a binding from a note list to a corresponding
@@ -35,6 +38,9 @@ public class NoteRecyclerViewAdapter
 
   private static final String TAG = NoteRecyclerViewAdapter.class.getSimpleName();
 
+  // Reads the durations of the voice notes from their files off the main thread
+  private static final ExecutorService DURATION_EXECUTOR = Executors.newSingleThreadExecutor();
+
   private final MainActivity activity;
   private final NoteModel noteModel;
   private final List<MediaPlayer> mediaPlayers = new ArrayList<>();
@@ -103,14 +109,26 @@ public class NoteRecyclerViewAdapter
   }
 
   private void setTotalTimes(NoteItem noteItem, TextView totalTime) {
-    MediaMetadataRetriever mmr = new MediaMetadataRetriever();
-    mmr.setDataSource(noteModel.getNoteFilePath(noteItem.getId()));
-    String durationStr = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
-
-    int millis = Integer.parseInt(durationStr);
-    String time = new SimpleDateFormat("mm:ss", Locale.getDefault())
-        .format(new Date(millis));
-    totalTime.setText(time);
+    String filePath = noteItem.getNoteFilePath();
+
+    // The view can be bound to another note before the duration is read
+    totalTime.setTag(filePath);
+
+    DURATION_EXECUTOR.execute(() -> {
+      MediaMetadataRetriever mmr = new MediaMetadataRetriever();
+      mmr.setDataSource(filePath);
+      String durationStr = mmr.extractMetadata(MediaMetadataRetriever.METADATA_KEY_DURATION);
+
+      int millis = Integer.parseInt(durationStr);
+      String time = new SimpleDateFormat("mm:ss", Locale.getDefault())
+          .format(new Date(millis));
+
+      activity.runOnUiThread(() -> {
+        if (filePath.equals(totalTime.getTag())) {
+          totalTime.setText(time);
+        }
+      });
+    });
   }
 
   private void setupMediaPlayerListeners(MediaPlayer mediaPlayer, SeekBarCompat progressBar,
@@ -181,10 +199,14 @@ public class NoteRecyclerViewAdapter
 
   private void startAudio(MediaPlayer mediaPlayer, ImageButton button,
                           NoteItem noteItem, SeekBarListener seekBarListener) {
+    // Only the file is opened on the main thread, the player prepares it in the background
+    StrictMode.ThreadPolicy threadPolicy = StrictMode.allowThreadDiskReads();
     try {
-      mediaPlayer.setDataSource(noteModel.getNoteFilePath(noteItem.getId()));
+      mediaPlayer.setDataSource(noteItem.getNoteFilePath());
     } catch (IOException ex) {
       Log.e(TAG, ex.toString(), ex);
+    } finally {
+      StrictMode.setThreadPolicy(threadPolicy);
     }
 
     mediaPlayer.prepareAsync();
@@ -0,0 +1,70 @@
+package de.bibbuddy;
+
+/**
+ * The NoteSummary holds the columns of a note that the note lists show together with the
+ * path of its note file and the id of its book. The text of the note is not part of it and
+ * is only loaded when the note is opened.
+ *
+ * @author Sarah Kurek
+ */
+public class NoteSummary {
+
+  private final Long id;
+  private final String name;
+  private final NoteTypeLut type;
+  private final Long modDate;
+  private final Long noteFileId;
+  private final String noteFilePath;
+  private final Long bookId;
+
+  /**
+   * Constructor to set up a NoteSummary from the database.
+   *
+   * @param id           id of the note
+   * @param name         name of the note
+   * @param type         type of the note
+   * @param modDate      modification date of the note
+   * @param noteFileId   id of the note file of the note
+   * @param noteFilePath path of the note file of the note
+   * @param bookId       id of the book of the note
+   */
+  public NoteSummary(Long id, String name, NoteTypeLut type, Long modDate, Long noteFileId,
+                     String noteFilePath, Long bookId) {
+    this.id = id;
+    this.name = name;
+    this.type = type;
+    this.modDate = modDate;
+    this.noteFileId = noteFileId;
+    this.noteFilePath = noteFilePath;
+    this.bookId = bookId;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public NoteTypeLut getType() {
+    return type;
+  }
+
+  public Long getModDate() {
+    return modDate;
+  }
+
+  public Long getNoteFileId() {
+    return noteFileId;
+  }
+
+  public String getNoteFilePath() {
+    return noteFilePath;
+  }
+
+  public Long getBookId() {
+    return bookId;
+  }
+
+}
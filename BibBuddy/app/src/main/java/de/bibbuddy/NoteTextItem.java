@@ -15,11 +15,10 @@ public class NoteTextItem extends NoteItem {
   /**
    * Constructor to set up a new noteTextItem.
    *
-   * @param note   note object
-   * @param bookId id of the related book
+   * @param note note object with the id of the related book
    */
-  public NoteTextItem(Note note, Long bookId) {
-    super(note, R.drawable.document, bookId);
+  public NoteTextItem(NoteSummary note) {
+    super(note, R.drawable.document);
 
     String name = note.getName();
     name = Jsoup.parse(name).text();
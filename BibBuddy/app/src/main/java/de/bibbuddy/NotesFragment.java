@@ -17,6 +17,7 @@ import com.tsuryo.swipeablerv.SwipeLeftRightCallback;
 import com.tsuryo.swipeablerv.SwipeableRecyclerView;
 import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * NotesFragment is responsible for the Notes of a Book.
@@ -98,20 +99,29 @@ public class NotesFragment extends BackStackFragment implements SwipeLeftRightCa
   }
 
   private void performDelete(List<NoteItem> itemsToDelete) {
-    itemsToDelete.forEach(note -> noteModel.deleteNote(note.getId()));
-
-    noteList = noteModel.getNoteList();
-    adapter.setNoteList(noteList);
-
     MainActivity mainActivity = (MainActivity) requireActivity();
-    if (!itemsToDelete.isEmpty()) {
-      Toast.makeText(mainActivity, getString(R.string.deleted_notes), Toast.LENGTH_SHORT).show();
-    } else {
-      Toast.makeText(mainActivity, getString(R.string.deleted_note), Toast.LENGTH_SHORT).show();
-    }
+
+    noteModel.deleteNotes(
+        itemsToDelete.stream().map(NoteItem::getId).collect(Collectors.toList()),
+        deleteResult -> {
+          if (!isAdded()) {
+            return;
+          }
+
+          // the list is loaded after the notes were deleted, an earlier load may still show them
+          loadNoteList();
+
+          if (!itemsToDelete.isEmpty()) {
+            Toast.makeText(mainActivity, getString(R.string.deleted_notes), Toast.LENGTH_SHORT)
+                .show();
+          } else {
+            Toast.makeText(mainActivity, getString(R.string.deleted_note), Toast.LENGTH_SHORT)
+                .show();
+          }
+        },
+        error -> Toast.makeText(mainActivity, R.string.database_error, Toast.LENGTH_LONG).show());
 
     deselectNoteItems();
-    updateEmptyListView(noteList);
   }
 
   private void handleHelpNotesFragment() {
@@ -131,13 +141,30 @@ public class NotesFragment extends BackStackFragment implements SwipeLeftRightCa
     notesRecyclerView = view.findViewById(R.id.note_list_recycler_view);
 
     noteModel = new NoteModel(requireActivity());
-    noteList = noteModel.getNoteList();
+    noteList = noteModel.getCurrentNoteList();
 
     adapter =
         new NoteRecyclerViewAdapter((MainActivity) requireActivity(), noteList, noteModel);
     notesRecyclerView.setAdapter(adapter);
     notesRecyclerView.setListener(this);
+    notesRecyclerView.addOnScrollListener(new PageScrollListener(this::loadNextNotePage));
+
+    loadNoteList();
+  }
+
+  private void loadNoteList() {
+    noteModel.loadNoteList(sortTypeLut, this::updateNoteList,
+        error -> showLoadError(this::loadNoteList));
+  }
+
+  private void loadNextNotePage() {
+    noteModel.loadNextNotePage(this::updateNoteList,
+        error -> showLoadError(this::loadNextNotePage));
+  }
 
+  private void updateNoteList(List<NoteItem> noteList) {
+    this.noteList = noteList;
+    adapter.setNoteList(noteList);
     updateEmptyListView(noteList);
   }
 
@@ -161,16 +188,11 @@ public class NotesFragment extends BackStackFragment implements SwipeLeftRightCa
         newSortCriteria -> {
           sortTypeLut = newSortCriteria;
           mainActivity.setSortTypeLut(newSortCriteria);
-          sortNoteList();
+          loadNoteList();
         });
     sortDialog.show();
   }
 
-  private void sortNoteList() {
-    noteList = noteModel.getAllSortedNoteList(sortTypeLut);
-    adapter.setNoteList(noteList);
-  }
-
   @Override
   protected void onBackPressed() {
     if (adapter.getSelectedNoteItems().isEmpty()) {
@@ -198,6 +220,12 @@ public class NotesFragment extends BackStackFragment implements SwipeLeftRightCa
     return view;
   }
 
+  @Override
+  public void onDestroyView() {
+    noteModel.cancelLoading();
+    super.onDestroyView();
+  }
+
   @Override
   public void onCreateOptionsMenu(@NonNull Menu menu, MenuInflater inflater) {
     inflater.inflate(R.menu.fragment_note_list_menu, menu);
@@ -0,0 +1,121 @@
+package de.bibbuddy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * The PageLoader loads a sorted list page by page on a background thread and appends each
+ * page to the items that are already loaded. The items are only changed on the main thread,
+ * so an adapter can show them directly. If a page cannot be loaded, the same page is loaded
+ * again by the next call.
+ *
+ * @param <T> the type of the items
+ * @author Claudia Schönherr
+ */
+public class PageLoader<T extends SortableItem> {
+
+  private final Function<KeysetPage, List<T>> pageQuery;
+
+  private List<T> items = new ArrayList<>();
+  private KeysetPage nextPage;
+  private Future<List<T>> loadingPage;
+
+  // Counts the canceled loads, so that a page which arrives after its cancellation is ignored
+  private int loadCount;
+
+  /**
+   * Constructor of the PageLoader.
+   *
+   * @param pageQuery query for the items of a page, runs on a background thread
+   */
+  public PageLoader(Function<KeysetPage, List<T>> pageQuery) {
+    this.pageQuery = pageQuery;
+  }
+
+  private void loadPage(KeysetPage page, DatabaseExecutor.ResultListener<List<T>> listener,
+                        DatabaseExecutor.ErrorListener errorListener) {
+    int load = loadCount;
+
+    loadingPage = DatabaseExecutor.getInstance().read(() -> pageQuery.apply(page), pageItems -> {
+      if (load != loadCount) {
+        return;
+      }
+
+      loadingPage = null;
+
+      if (pageItems.size() < KeysetPage.PAGE_SIZE) {
+        nextPage = null;
+      } else {
+        nextPage = page.next(pageItems.get(pageItems.size() - 1));
+      }
+
+      listener.onResult(pageItems);
+    }, error -> {
+      if (load != loadCount) {
+        return;
+      }
+
+      loadingPage = null;
+      errorListener.onError(error);
+    });
+  }
+
+  /**
+   * Loads the first page in the given sort order. The loaded items are replaced by the
+   * items of the first page once it is loaded.
+   *
+   * @param sortTypeLut   sort order of the items
+   * @param listener      listener for all loaded items, called on the main thread
+   * @param errorListener listener for the error if the page could not be loaded, called on
+   *                      the main thread
+   */
+  public void loadFirstPage(SortTypeLut sortTypeLut,
+                            DatabaseExecutor.ResultListener<List<T>> listener,
+                            DatabaseExecutor.ErrorListener errorListener) {
+    cancel();
+
+    loadPage(KeysetPage.first(sortTypeLut), pageItems -> {
+      items = pageItems;
+      listener.onResult(items);
+    }, errorListener);
+  }
+
+  /**
+   * Loads the next page and appends it to the loaded items. Nothing is loaded if a page is
+   * still loading or if all pages are loaded.
+   *
+   * @param listener      listener for all loaded items, called on the main thread
+   * @param errorListener listener for the error if the page could not be loaded, called on
+   *                      the main thread
+   */
+  public void loadNextPage(DatabaseExecutor.ResultListener<List<T>> listener,
+                           DatabaseExecutor.ErrorListener errorListener) {
+    if (loadingPage != null || nextPage == null) {
+      return;
+    }
+
+    loadPage(nextPage, pageItems -> {
+      items.addAll(pageItems);
+      listener.onResult(items);
+    }, errorListener);
+  }
+
+  /**
+   * Cancels the page that is still loading.
+   */
+  public void cancel() {
+    loadCount++;
+
+    if (loadingPage != null) {
+      loadingPage.cancel(false);
+      loadingPage = null;
+    }
+  }
+
+  public List<T> getItems() {
+    return items;
+  }
+
+}
@@ -0,0 +1,45 @@
+package de.bibbuddy;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * The PageScrollListener asks for the next page of a list while the user scrolls down,
+ * before the last loaded item becomes visible.
+ *
+ * @author Claudia Schönherr
+ */
+public class PageScrollListener extends RecyclerView.OnScrollListener {
+
+  // Number of items below the visible items at which the next page is loaded
+  private static final int PREFETCH_DISTANCE = KeysetPage.PAGE_SIZE / 2;
+
+  private final NextPageListener listener;
+
+  public PageScrollListener(NextPageListener listener) {
+    this.listener = listener;
+  }
+
+  @Override
+  public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+    if (dy <= 0) {
+      return;
+    }
+
+    LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+    if (layoutManager == null) {
+      return;
+    }
+
+    int lastVisiblePosition = layoutManager.findLastVisibleItemPosition();
+    if (lastVisiblePosition >= layoutManager.getItemCount() - PREFETCH_DISTANCE) {
+      listener.onNextPage();
+    }
+  }
+
+  public interface NextPageListener {
+    void onNextPage();
+  }
+
+}
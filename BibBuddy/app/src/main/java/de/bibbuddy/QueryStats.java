@@ -0,0 +1,397 @@
+package de.bibbuddy;
+
+import android.util.Log;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+/**
+ * QueryStats collects how often each DAO method queries the database, how long the queries
+ * take and how many rows they read. The queries are recorded by the InstrumentedCursorFactory
+ * of the DatabaseHelper, which is only installed in debug builds.
+ * A screen can trace its load to see how many queries it needs, so that a query that runs
+ * once per list item stands out. A trace only counts the queries of the thread it was
+ * started on.
+ *
+ * @author Sarah Kurek
+ */
+public class QueryStats {
+
+  private static final String TAG = QueryStats.class.getSimpleName();
+
+  // Upper bounds of the latency buckets in ms, the last bucket holds all slower queries
+  private static final long[] BUCKET_BOUNDS = {1, 4, 16, 64, 256};
+
+  private static final int RECENT_SCREEN_COUNT = 20;
+
+  private final boolean enabled;
+
+  private final Map<String, MethodStats> methodStats = new HashMap<>();
+  private final List<ScreenTrace> activeScreens = new ArrayList<>();
+  private final Deque<ScreenTrace> recentScreens = new ArrayDeque<>();
+
+  private int queryCount;
+  private long queryNanos;
+  private long rowCount;
+
+  /**
+   * Constructor of the QueryStats.
+   *
+   * @param enabled whether the queries are recorded, the screens are not traced otherwise
+   */
+  public QueryStats(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  private static long toMillis(long nanos) {
+    return nanos / 1_000_000;
+  }
+
+  private static int findBucket(long nanos) {
+    long millis = toMillis(nanos);
+
+    int bucket = 0;
+    while (bucket < BUCKET_BOUNDS.length && millis >= BUCKET_BOUNDS[bucket]) {
+      bucket++;
+    }
+
+    return bucket;
+  }
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  /**
+   * Records a query that is finished.
+   *
+   * @param daoMethod DAO method that ran the query
+   * @param nanos     time that the query took
+   * @param rows      number of rows that the query read
+   * @param slow      whether the query was logged as slow
+   */
+  public synchronized void record(String daoMethod, long nanos, int rows, boolean slow) {
+    MethodStats stats = methodStats.get(daoMethod);
+    if (stats == null) {
+      stats = new MethodStats(daoMethod);
+      methodStats.put(daoMethod, stats);
+    }
+
+    stats.add(nanos, rows, slow);
+
+    queryCount++;
+    queryNanos += nanos;
+    rowCount += rows;
+
+    Thread thread = Thread.currentThread();
+    for (ScreenTrace screen : activeScreens) {
+      if (screen.thread == thread) {
+        screen.add(daoMethod, nanos);
+      }
+    }
+  }
+
+  /**
+   * Starts to trace the queries of a screen. All queries of the calling thread until the
+   * trace is finished are counted, the ones of other threads that run at the same time are
+   * not. Nothing is counted if the queries are not recorded.
+   *
+   * @param screen name of the screen and what it does, e.g. "LibraryFragment load"
+   * @return the running trace
+   */
+  public synchronized ScreenTrace startScreen(String screen) {
+    ScreenTrace trace = new ScreenTrace(screen);
+    if (enabled) {
+      activeScreens.add(trace);
+    }
+
+    return trace;
+  }
+
+  /**
+   * Traces the queries of a screen each time the query runs. The trace is started and
+   * finished on the thread of the query, also if the query fails, so a canceled or failed
+   * load never leaves its trace running.
+   *
+   * @param screen name of the screen and what it does, e.g. "LibraryFragment page"
+   * @param query  query that loads the screen
+   * @param <T>    type of the argument of the query
+   * @param <R>    type of the result
+   * @return query that runs the given query within a trace
+   */
+  public <T, R> Function<T, R> traceScreen(String screen, Function<T, R> query) {
+    if (!enabled) {
+      return query;
+    }
+
+    return argument -> {
+      ScreenTrace trace = startScreen(screen);
+
+      try {
+        return query.apply(argument);
+      } finally {
+        trace.finish();
+      }
+    };
+  }
+
+  public synchronized int getQueryCount() {
+    return queryCount;
+  }
+
+  /**
+   * Gets the summaries of the last traced screens, the latest first.
+   *
+   * @return summaries of the screens
+   */
+  public synchronized List<String> getScreenSummaries() {
+    List<String> summaries = new ArrayList<>();
+    for (ScreenTrace screen : recentScreens) {
+      summaries.add(screen.getSummary());
+    }
+
+    return summaries;
+  }
+
+  private List<MethodStats> sortMethodStats() {
+    List<MethodStats> sortedStats = new ArrayList<>(methodStats.values());
+    sortedStats.sort((first, second) -> Integer.compare(second.count, first.count));
+
+    return sortedStats;
+  }
+
+  /**
+   * Gets a readable summary of all queries, the DAO methods with the most queries first.
+   *
+   * @return the summary
+   */
+  public synchronized String getSummary() {
+    StringBuilder summary = new StringBuilder();
+    summary.append(queryCount).append(" queries, ").append(toMillis(queryNanos)).append(" ms, ")
+        .append(rowCount).append(" rows\n");
+
+    for (ScreenTrace screen : recentScreens) {
+      summary.append('\n').append(screen.getSummary());
+    }
+
+    summary.append('\n');
+    for (MethodStats stats : sortMethodStats()) {
+      summary.append('\n').append(stats.getSummary());
+    }
+
+    return summary.toString();
+  }
+
+  /**
+   * Exports all statistics as JSON.
+   *
+   * @return the statistics as JSON object
+   */
+  public synchronized String toJson() {
+    JSONObject json = new JSONObject();
+
+    try {
+      json.put("queryCount", queryCount);
+      json.put("queryMillis", toMillis(queryNanos));
+      json.put("rowCount", rowCount);
+
+      JSONArray bucketBounds = new JSONArray();
+      for (long bound : BUCKET_BOUNDS) {
+        bucketBounds.put(bound);
+      }
+      json.put("histogramBoundsMillis", bucketBounds);
+
+      JSONArray methods = new JSONArray();
+      for (MethodStats stats : sortMethodStats()) {
+        methods.put(stats.toJson());
+      }
+      json.put("methods", methods);
+
+      JSONArray screens = new JSONArray();
+      for (ScreenTrace screen : recentScreens) {
+        screens.put(screen.toJson());
+      }
+      json.put("screens", screens);
+
+    } catch (JSONException ex) {
+      Log.e(TAG, ex.toString(), ex);
+    }
+
+    return json.toString();
+  }
+
+  /**
+   * Removes all recorded queries and traced screens.
+   */
+  public synchronized void reset() {
+    methodStats.clear();
+    recentScreens.clear();
+
+    queryCount = 0;
+    queryNanos = 0;
+    rowCount = 0;
+  }
+
+  private static class MethodStats {
+
+    private final String daoMethod;
+    private final int[] histogram = new int[BUCKET_BOUNDS.length + 1];
+
+    private int count;
+    private int slowCount;
+    private long nanos;
+    private long maxNanos;
+    private long rows;
+
+    private MethodStats(String daoMethod) {
+      this.daoMethod = daoMethod;
+    }
+
+    private void add(long queryNanos, int queryRows, boolean slow) {
+      count++;
+      nanos += queryNanos;
+      maxNanos = Math.max(maxNanos, queryNanos);
+      rows += queryRows;
+      histogram[findBucket(queryNanos)]++;
+
+      if (slow) {
+        slowCount++;
+      }
+    }
+
+    private String getSummary() {
+      return daoMethod + ": " + count + "x, " + toMillis(nanos) + " ms, max "
+          + toMillis(maxNanos) + " ms, " + rows + " rows";
+    }
+
+    private JSONObject toJson() throws JSONException {
+      JSONArray buckets = new JSONArray();
+      for (int bucketCount : histogram) {
+        buckets.put(bucketCount);
+      }
+
+      return new JSONObject()
+          .put("method", daoMethod)
+          .put("count", count)
+          .put("slowCount", slowCount)
+          .put("totalMillis", toMillis(nanos))
+          .put("maxMillis", toMillis(maxNanos))
+          .put("rows", rows)
+          .put("histogram", buckets);
+    }
+  }
+
+  /**
+   * The ScreenTrace counts the queries that a screen needs for one load.
+   */
+  public class ScreenTrace {
+
+    private final String screen;
+    private final Thread thread = Thread.currentThread();
+    private final long startNanos = System.nanoTime();
+    private final Map<String, Integer> methodCounts = new HashMap<>();
+
+    private long wallNanos;
+    private int screenQueryCount;
+    private long screenQueryNanos;
+
+    private ScreenTrace(String screen) {
+      this.screen = screen;
+    }
+
+    private void add(String daoMethod, long nanos) {
+      Integer methodCount = methodCounts.get(daoMethod);
+      methodCounts.put(daoMethod, methodCount == null ? 1 : methodCount + 1);
+
+      screenQueryCount++;
+      screenQueryNanos += nanos;
+    }
+
+    private String findTopMethod() {
+      String topMethod = null;
+      for (Map.Entry<String, Integer> methodCount : methodCounts.entrySet()) {
+        if (topMethod == null || methodCount.getValue() > methodCounts.get(topMethod)) {
+          topMethod = methodCount.getKey();
+        }
+      }
+
+      return topMethod;
+    }
+
+    /**
+     * Finishes the trace and logs its summary.
+     *
+     * @return the summary of the screen
+     */
+    public String finish() {
+      String summary;
+
+      synchronized (QueryStats.this) {
+        if (!activeScreens.remove(this)) {
+          return getSummary();
+        }
+
+        wallNanos = System.nanoTime() - startNanos;
+
+        recentScreens.addFirst(this);
+        if (recentScreens.size() > RECENT_SCREEN_COUNT) {
+          recentScreens.removeLast();
+        }
+
+        summary = getSummary();
+      }
+
+      Log.d(TAG, summary);
+
+      return summary;
+    }
+
+    public int getQueryCount() {
+      synchronized (QueryStats.this) {
+        return screenQueryCount;
+      }
+    }
+
+    /**
+     * Gets the summary of the screen, e.g. "LibraryFragment load: 412 queries, 180 ms".
+     * The DAO method with the most queries is added, if it ran more than once.
+     *
+     * @return the summary
+     */
+    public String getSummary() {
+      synchronized (QueryStats.this) {
+        String summary = screen + ": " + screenQueryCount + " queries, "
+            + toMillis(screenQueryNanos) + " ms";
+
+        String topMethod = findTopMethod();
+        if (topMethod != null && methodCounts.get(topMethod) > 1) {
+          summary += " (" + topMethod + " " + methodCounts.get(topMethod) + "x)";
+        }
+
+        return summary;
+      }
+    }
+
+    private JSONObject toJson() throws JSONException {
+      JSONObject methods = new JSONObject();
+      for (Map.Entry<String, Integer> methodCount : methodCounts.entrySet()) {
+        methods.put(methodCount.getKey(), methodCount.getValue());
+      }
+
+      return new JSONObject()
+          .put("screen", screen)
+          .put("queryCount", screenQueryCount)
+          .put("queryMillis", toMillis(screenQueryNanos))
+          .put("wallMillis", toMillis(wallNanos))
+          .put("methods", methods);
+    }
+  }
+
+}
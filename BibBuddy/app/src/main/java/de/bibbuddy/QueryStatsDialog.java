@@ -0,0 +1,49 @@
+package de.bibbuddy;
+
+import android.app.AlertDialog;
+import android.content.Context;
+import android.content.Intent;
+
+/**
+ * The QueryStatsDialog shows the recorded queries of the debug build. The statistics can be
+ * shared as JSON and reset, e.g. before a screen is opened again.
+ *
+ * @author Sarah Kurek
+ */
+public class QueryStatsDialog {
+
+  private final Context context;
+  private final QueryStats queryStats;
+
+  /**
+   * Constructor of the QueryStatsDialog.
+   *
+   * @param context context of the dialog
+   */
+  public QueryStatsDialog(Context context) {
+    this.context = context;
+    this.queryStats = DatabaseHelper.getInstance(context).getQueryStats();
+  }
+
+  private void shareJson() {
+    Intent shareJsonIntent = new Intent(Intent.ACTION_SEND)
+        .setType("application/json")
+        .putExtra(Intent.EXTRA_TEXT, queryStats.toJson());
+
+    context.startActivity(Intent.createChooser(shareJsonIntent, "SEND"));
+  }
+
+  /**
+   * Shows the dialog with the current statistics.
+   */
+  public void show() {
+    new AlertDialog.Builder(context)
+        .setTitle(R.string.query_stats_title)
+        .setMessage(queryStats.getSummary())
+        .setPositiveButton(R.string.query_stats_share, (dialog, which) -> shareJson())
+        .setNeutralButton(R.string.query_stats_reset, (dialog, which) -> queryStats.reset())
+        .setNegativeButton(R.string.ok, null)
+        .show();
+  }
+
+}
@@ -0,0 +1,42 @@
+package de.bibbuddy;
+
+/**
+ * The RecentBookItem holds a recently modified book of the home screen together with the
+ * shelf that it is opened in.
+ *
+ * @author Luis Moßburger
+ */
+public class RecentBookItem extends BookItem {
+
+  private final Long shelfId;
+  private final String shelfName;
+
+  /**
+   * Constructor for a RecentBookItem that is read directly from the dashboard query.
+   *
+   * @param id        id of the book
+   * @param title     title of the book
+   * @param year      publication year of the book
+   * @param modDate   modification date of the book
+   * @param shelfId   shelfId of the book
+   * @param shelfName name of the shelf of the book
+   * @param authors   authors of the book
+   * @param noteCount total number of notes in the book
+   */
+  public RecentBookItem(Long id, String title, int year, Long modDate, Long shelfId,
+                        String shelfName, String authors, int noteCount) {
+    super(id, title, year, modDate, shelfId, authors, noteCount);
+
+    this.shelfId = shelfId;
+    this.shelfName = shelfName;
+  }
+
+  public Long getShelfId() {
+    return shelfId;
+  }
+
+  public String getShelfName() {
+    return shelfName;
+  }
+
+}
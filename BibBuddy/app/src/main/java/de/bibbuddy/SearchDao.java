@@ -0,0 +1,234 @@
+package de.bibbuddy;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteStatement;
+import android.os.CancellationSignal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * SearchDao contains all sql queries related to the full-text search index.
+ * The index holds one document per shelf, book and text note. The docid of a document
+ * is the id of the item times DOC_TYPE_COUNT plus the doc type of the item, so an item
+ * can be found in the index by its id without a table scan.
+ * Shelves and books are kept in sync by triggers, text notes are indexed with their stored
+ * plain text by the DAOs that write them.
+ *
+ * @author Claudia Schönherr
+ */
+public class SearchDao {
+
+  // Number of item types in the index and the doc type of each item type
+  public static final int DOC_TYPE_COUNT = 3;
+  public static final int DOC_TYPE_SHELF = 0;
+  public static final int DOC_TYPE_BOOK = 1;
+  public static final int DOC_TYPE_TEXT_NOTE = 2;
+
+  // Indexes the note with the given id if it is a text note
+  public static final String INSERT_NOTE_INDEX =
+      "INSERT INTO " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + " ("
+          + DatabaseHelper.DOC_ID + ", " + DatabaseHelper.NAME + ", "
+          + DatabaseHelper.CONTENT + ") SELECT " + DatabaseHelper._ID + " * " + DOC_TYPE_COUNT
+          + " + " + DOC_TYPE_TEXT_NOTE + ", " + DatabaseHelper.NAME + ", ? FROM "
+          + DatabaseHelper.TABLE_NAME_NOTE + " WHERE " + DatabaseHelper._ID + " = ? AND "
+          + DatabaseHelper.TYPE + " = " + NoteTypeLut.TEXT.getId();
+
+  // Weight of a match in the name and in the content column for the rank of an item
+  private static final double[] COLUMN_WEIGHTS = {2.0, 1.0};
+
+  private final DatabaseHelper dbHelper;
+
+  private static String createSearchQuery(String table, String nameColumn, int docType) {
+    String selectQuery = "SELECT t." + DatabaseHelper._ID + ", t." + nameColumn + ", t."
+        + DatabaseHelper.MOD_DATE + ", matchinfo(" + DatabaseHelper.TABLE_NAME_SEARCH_INDEX
+        + ", 'pcx'), " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + "." + DatabaseHelper.NAME
+        + ", " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + "." + DatabaseHelper.CONTENT
+        + ", t." + DatabaseHelper.SORT_KEY
+        + " FROM " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + " JOIN " + table
+        + " t ON (t." + DatabaseHelper._ID + " = " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX
+        + "." + DatabaseHelper.DOC_ID + " / " + DOC_TYPE_COUNT + ")";
+
+    if (docType == DOC_TYPE_TEXT_NOTE) {
+      selectQuery += " JOIN " + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " lnk ON (t."
+          + DatabaseHelper._ID + " = lnk." + DatabaseHelper.NOTE_ID + ")";
+    }
+
+    return selectQuery + " WHERE " + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + " MATCH ? AND "
+        + DatabaseHelper.TABLE_NAME_SEARCH_INDEX + "." + DatabaseHelper.DOC_ID + " % "
+        + DOC_TYPE_COUNT + " = " + docType;
+  }
+
+  private static String getIndexedText(Cursor cursor) {
+    String name = cursor.isNull(4) ? "" : cursor.getString(4);
+    String content = cursor.isNull(5) ? "" : cursor.getString(5);
+
+    return name + " " + content;
+  }
+
+  /**
+   * Converts the search input of the user into a full-text query.
+   * Every word of the input has to be found at the beginning of a word of the item,
+   * so the user does not have to type whole words.
+   *
+   * @param searchInput searchInput of the user
+   * @return the full-text query or an empty string if the input contains no words
+   */
+  static String createMatchQuery(String searchInput) {
+    StringBuilder matchQuery = new StringBuilder();
+
+    for (String word : searchInput.split("[^\\p{L}\\p{N}]+")) {
+      if (word.isEmpty()) {
+        continue;
+      }
+
+      if (matchQuery.length() > 0) {
+        matchQuery.append(' ');
+      }
+
+      // Quoted, so words like AND or NOT are not read as operators
+      matchQuery.append('"').append(word).append("*\"");
+    }
+
+    return matchQuery.toString();
+  }
+
+  /**
+   * Calculates the rank of an item from the result of matchinfo with the format 'pcx'.
+   * A match counts more the less often the word is found in all items.
+   *
+   * @param matchInfo result of matchinfo for the item
+   * @return the rank of the item, a higher rank is a better match
+   */
+  static double rank(byte[] matchInfo) {
+    IntBuffer info = ByteBuffer.wrap(matchInfo).order(ByteOrder.nativeOrder()).asIntBuffer();
+    int phraseCount = info.get(0);
+    int columnCount = info.get(1);
+
+    double rank = 0.0;
+    for (int phrase = 0; phrase < phraseCount; phrase++) {
+      for (int column = 0; column < columnCount; column++) {
+        int index = 2 + 3 * (phrase * columnCount + column);
+        int hitsInItem = info.get(index);
+        int hitsInAllItems = info.get(index + 1);
+
+        if (hitsInItem > 0) {
+          rank += COLUMN_WEIGHTS[column] * hitsInItem / hitsInAllItems;
+        }
+      }
+    }
+
+    return rank;
+  }
+
+  /**
+   * Adds a saved note to the search index or replaces the indexed note.
+   * Notes of other types than text are not indexed.
+   *
+   * @param db        the database
+   * @param noteId    id of the note
+   * @param plainText plain text of the note
+   */
+  static void indexTextNote(SQLiteDatabase db, long noteId, String plainText) {
+    removeTextNote(db, noteId);
+
+    SQLiteStatement insertNoteIndex = db.compileStatement(INSERT_NOTE_INDEX);
+    try {
+      insertNoteIndex.bindString(1, plainText);
+      insertNoteIndex.bindLong(2, noteId);
+      insertNoteIndex.executeInsert();
+    } finally {
+      insertNoteIndex.close();
+    }
+  }
+
+  /**
+   * Removes a text note from the search index.
+   *
+   * @param db     the database
+   * @param noteId id of the note
+   */
+  static void removeTextNote(SQLiteDatabase db, long noteId) {
+    db.delete(DatabaseHelper.TABLE_NAME_SEARCH_INDEX, DatabaseHelper.DOC_ID + " = ?",
+              new String[] {String.valueOf(noteId * DOC_TYPE_COUNT + DOC_TYPE_TEXT_NOTE)});
+  }
+
+  public SearchDao(DatabaseHelper dbHelper) {
+    this.dbHelper = dbHelper;
+  }
+
+  public long getDataVersion() {
+    return dbHelper.getSearchDataVersion();
+  }
+
+  /**
+   * Finds all items of the given type which match the searchInput.
+   * The query is aborted with an OperationCanceledException if the cancellationSignal
+   * is canceled while it runs.
+   *
+   * @param searchInput        searchInput of the user
+   * @param searchType         type of the items to search for
+   * @param cancellationSignal signal to cancel the query or null
+   * @return the found items with their rank, the best match first
+   */
+  public List<SearchHit> findSearchHits(String searchInput, SearchTypeLut searchType,
+                                        CancellationSignal cancellationSignal) {
+    List<SearchHit> searchHits = new ArrayList<>();
+
+    String matchQuery = createMatchQuery(searchInput);
+    if (matchQuery.isEmpty()) {
+      return searchHits;
+    }
+
+    String selectQuery;
+    int image;
+
+    switch (searchType) {
+      case SEARCH_SHELF:
+        selectQuery = createSearchQuery(DatabaseHelper.TABLE_NAME_SHELF, DatabaseHelper.NAME,
+                                        DOC_TYPE_SHELF);
+        image = R.drawable.books;
+        break;
+
+      case SEARCH_BOOK:
+        selectQuery = createSearchQuery(DatabaseHelper.TABLE_NAME_BOOK, DatabaseHelper.TITLE,
+                                        DOC_TYPE_BOOK);
+        image = R.drawable.ic_book;
+        break;
+
+      case SEARCH_TEXT_NOTE:
+        selectQuery = createSearchQuery(DatabaseHelper.TABLE_NAME_NOTE, DatabaseHelper.NAME,
+                                        DOC_TYPE_TEXT_NOTE);
+        image = R.drawable.document;
+        break;
+
+      default:
+        throw new IllegalArgumentException();
+    }
+
+    SQLiteDatabase db = dbHelper.getReadableDatabase();
+    Cursor cursor = db.rawQuery(selectQuery, new String[] {matchQuery}, cancellationSignal);
+
+    if (cursor.moveToFirst()) {
+      do {
+        SearchItem searchItem = new SearchItem(cursor.getString(1), image, cursor.getLong(0),
+                                               cursor.getLong(2), searchType,
+                                               cursor.getString(6), rank(cursor.getBlob(3)));
+        searchHits.add(new SearchHit(searchItem, getIndexedText(cursor)));
+
+      } while (cursor.moveToNext());
+    }
+
+    cursor.close();
+
+    searchHits.sort(Comparator.comparingDouble(
+        (SearchHit searchHit) -> searchHit.getSearchItem().getRank()).reversed());
+
+    return searchHits;
+  }
+
+}
@@ -0,0 +1,218 @@
+package de.bibbuddy;
+
+import android.os.CancellationSignal;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.OperationCanceledException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * The SearchEngine runs the search as the user types on a background thread.
+ * A search starts after the user stopped typing for DEBOUNCE_DELAY milliseconds and
+ * cancels the search that is still running. The results are published on the main thread
+ * for one item type after the other, as soon as they are found.
+ * If a search only extends the words of the previous search, the previous results of a type
+ * are narrowed down in memory instead of searching the database again. This is only done as
+ * long as no shelves, books or notes were written since the previous results were found.
+ *
+ * @author Claudia Schönherr
+ */
+public class SearchEngine {
+
+  // Milliseconds without input before a search starts
+  private static final long DEBOUNCE_DELAY = 300L;
+
+  private final SearchDao searchDao;
+  private final ExecutorService searchExecutor = Executors.newSingleThreadExecutor();
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+  // Results of the last finished search of each type, only used by the search thread
+  private final Map<SearchTypeLut, List<String>> lastSearchWords =
+      new EnumMap<>(SearchTypeLut.class);
+  private final Map<SearchTypeLut, List<SearchHit>> lastSearchHits =
+      new EnumMap<>(SearchTypeLut.class);
+  private long lastDataVersion;
+
+  // Only used on the main thread
+  private Runnable pendingSearch;
+  private CancellationSignal runningSearch;
+
+  /**
+   * Checks whether every item that matches the new words also matched the last words.
+   * This is the case if every last word is the beginning of the new word at the same position.
+   *
+   * @param lastWords normalized words of the last search
+   * @param newWords  normalized words of the new search
+   * @return true if the new search only narrows down the last search
+   */
+  static boolean isNarrowing(List<String> lastWords, List<String> newWords) {
+    if (lastWords.isEmpty() || newWords.size() < lastWords.size()) {
+      return false;
+    }
+
+    for (int i = 0; i < lastWords.size(); i++) {
+      if (!newWords.get(i).startsWith(lastWords.get(i))) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+  private static List<SearchItem> getSearchItems(List<SearchHit> searchHits) {
+    List<SearchItem> searchItems = new ArrayList<>(searchHits.size());
+    for (SearchHit searchHit : searchHits) {
+      searchItems.add(searchHit.getSearchItem());
+    }
+
+    return searchItems;
+  }
+
+  public SearchEngine(SearchDao searchDao) {
+    this.searchDao = searchDao;
+  }
+
+  private List<SearchHit> findSearchHits(String searchInput, List<String> searchWords,
+                                         SearchTypeLut searchType,
+                                         CancellationSignal cancellationSignal) {
+    List<String> lastWords = lastSearchWords.get(searchType);
+    List<SearchHit> searchHits;
+
+    if (lastWords != null && isNarrowing(lastWords, searchWords)) {
+      searchHits = new ArrayList<>();
+      for (SearchHit searchHit : lastSearchHits.get(searchType)) {
+        cancellationSignal.throwIfCanceled();
+
+        if (searchHit.matches(searchWords)) {
+          searchHits.add(searchHit);
+        }
+      }
+
+    } else {
+      searchHits = searchDao.findSearchHits(searchInput, searchType, cancellationSignal);
+    }
+
+    lastSearchWords.put(searchType, searchWords);
+    lastSearchHits.put(searchType, searchHits);
+
+    return searchHits;
+  }
+
+  private void runSearch(String searchInput, Set<SearchTypeLut> searchTypes,
+                         CancellationSignal cancellationSignal, SearchResultListener listener) {
+    List<String> searchWords = SearchHit.getSearchWords(searchInput);
+
+    // Read before the queries, so a write during the search makes the next one query again
+    long dataVersion = searchDao.getDataVersion();
+    if (dataVersion != lastDataVersion) {
+      lastSearchWords.clear();
+      lastSearchHits.clear();
+      lastDataVersion = dataVersion;
+    }
+
+    try {
+      for (SearchTypeLut searchType : searchTypes) {
+        cancellationSignal.throwIfCanceled();
+
+        List<SearchItem> searchItems = getSearchItems(
+            findSearchHits(searchInput, searchWords, searchType, cancellationSignal));
+
+        // Checked on the main thread again, so no result of a canceled search is published
+        mainHandler.post(() -> {
+          if (!cancellationSignal.isCanceled()) {
+            listener.onSearchResults(searchType, searchItems);
+          }
+        });
+      }
+
+    } catch (OperationCanceledException ex) {
+      return;
+    }
+
+    mainHandler.post(() -> {
+      if (!cancellationSignal.isCanceled()) {
+        runningSearch = null;
+        listener.onSearchFinished();
+      }
+    });
+  }
+
+  /**
+   * Starts a search for the items of the given types immediately.
+   * Must be called on the main thread.
+   *
+   * @param searchInput searchInput of the user
+   * @param searchTypes types of the items to search for
+   * @param listener    listener for the results, called on the main thread
+   */
+  public void searchNow(String searchInput, Set<SearchTypeLut> searchTypes,
+                        SearchResultListener listener) {
+    cancel();
+
+    Set<SearchTypeLut> types = EnumSet.noneOf(SearchTypeLut.class);
+    types.addAll(searchTypes);
+
+    CancellationSignal cancellationSignal = new CancellationSignal();
+    runningSearch = cancellationSignal;
+
+    searchExecutor.execute(() -> runSearch(searchInput, types, cancellationSignal, listener));
+  }
+
+  /**
+   * Starts a search for the items of the given types as soon as the user stopped typing.
+   * Must be called on the main thread.
+   *
+   * @param searchInput searchInput of the user
+   * @param searchTypes types of the items to search for
+   * @param listener    listener for the results, called on the main thread
+   */
+  public void search(String searchInput, Set<SearchTypeLut> searchTypes,
+                     SearchResultListener listener) {
+    cancel();
+
+    pendingSearch = () -> {
+      pendingSearch = null;
+      searchNow(searchInput, searchTypes, listener);
+    };
+
+    mainHandler.postDelayed(pendingSearch, DEBOUNCE_DELAY);
+  }
+
+  /**
+   * Cancels the waiting and the running search. No results of them are published anymore.
+   * Must be called on the main thread.
+   */
+  public void cancel() {
+    if (pendingSearch != null) {
+      mainHandler.removeCallbacks(pendingSearch);
+      pendingSearch = null;
+    }
+
+    if (runningSearch != null) {
+      runningSearch.cancel();
+      runningSearch = null;
+    }
+  }
+
+  /**
+   * Cancels all searches and stops the search thread. The SearchEngine cannot be used anymore.
+   */
+  public void close() {
+    cancel();
+    searchExecutor.shutdown();
+  }
+
+  public interface SearchResultListener {
+    void onSearchResults(SearchTypeLut searchType, List<SearchItem> searchItems);
+
+    void onSearchFinished();
+  }
+
+}
@@ -3,6 +3,8 @@ package de.bibbuddy;
 import android.annotation.SuppressLint;
 import android.content.Context;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.KeyEvent;
 import android.view.LayoutInflater;
 import android.view.Menu;
@@ -45,7 +47,7 @@ public class SearchFragment extends BackStackFragment
 
     mainActivity.setVisibilityImportShareBtn(View.GONE, View.GONE);
     mainActivity.setVisibilitySortBtn(true);
-    sortTypeLut = mainActivity.getSortTypeLut();
+    sortTypeLut = mainActivity.getSearchSortTypeLut();
 
     filterCriteria = mainActivity.getFilterCriteria();
 
@@ -67,20 +69,16 @@ public class SearchFragment extends BackStackFragment
     searchModel = new SearchModel(context);
     searchResultList = new ArrayList<>();
 
-    String searchText = ((MainActivity) requireActivity()).getSearchText();
-    if (!DataValidation.isStringEmpty(searchText)) {
-      searchItems(searchText);
-    }
-
     adapter = new SearchRecyclerViewAdapter(searchResultList, this);
 
     RecyclerView searchRecyclerView = view.findViewById(R.id.search_recycler_view);
     searchRecyclerView.setAdapter(adapter);
 
-    updateEmptyView(searchResultList);
+    view.findViewById(R.id.list_view_search_empty).setVisibility(View.GONE);
 
-    if (DataValidation.isStringEmpty(searchText)) {
-      view.findViewById(R.id.list_view_search_empty).setVisibility(View.GONE);
+    String searchText = ((MainActivity) requireActivity()).getSearchText();
+    if (!DataValidation.isStringEmpty(searchText)) {
+      searchItems(searchText);
     }
   }
 
@@ -97,6 +95,23 @@ public class SearchFragment extends BackStackFragment
   private void setupSearchInput() {
     searchInput = view.findViewById(R.id.search_input);
 
+    searchInput.addTextChangedListener(new TextWatcher() {
+      @Override
+      public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+      }
+
+      @Override
+      public void onTextChanged(CharSequence s, int start, int before, int count) {
+      }
+
+      @Override
+      public void afterTextChanged(Editable s) {
+        String searchText = s.toString();
+        ((MainActivity) requireActivity()).setSearchText(searchText);
+        searchWhileTyping(searchText);
+      }
+    });
+
     searchInput.setOnEditorActionListener((v, actionId, event) -> {
 
       if (!(event == null || event.getAction() != KeyEvent.ACTION_DOWN)) {
@@ -119,22 +134,44 @@ public class SearchFragment extends BackStackFragment
     updateSearchResultList(searchText);
   }
 
+  private void searchWhileTyping(String searchText) {
+    if (DataValidation.isStringEmpty(searchText)) {
+      searchModel.cancelSearch();
+      showSearchResultList(searchModel.getSortedSearchResultList(sortTypeLut));
+      view.findViewById(R.id.list_view_search_empty).setVisibility(View.GONE);
+      return;
+    }
+
+    searchModel.search(searchText, sortTypeLut, filterCriteria, true,
+                       this::onSearchResultListChanged);
+  }
+
   private void updateSearchResultList(String searchInputStr) {
-    searchResultList =
-        searchModel.getSearchResultList(searchInputStr, sortTypeLut, filterCriteria);
+    searchModel.search(searchInputStr, sortTypeLut, filterCriteria, false,
+                       this::onSearchResultListChanged);
+  }
+
+  private void onSearchResultListChanged(List<SearchItem> searchResultList, boolean isFinished) {
+    showSearchResultList(searchResultList);
+
+    if (isFinished) {
+      updateEmptyView(searchResultList);
+    }
+  }
+
+  private void showSearchResultList(List<SearchItem> searchResultList) {
+    this.searchResultList = searchResultList;
 
     adapter.setSearchResultList(searchResultList);
     adapter.notifyDataSetChanged();
-
-    updateEmptyView(searchResultList);
   }
 
   private void handleSortSearch() {
-    SortDialog sortDialog = new SortDialog(context, sortTypeLut,
+    SortDialog sortDialog = new SortDialog(context, sortTypeLut, SearchModel.SEARCH_SORT_TYPES,
         newSortCriteria -> {
           sortTypeLut = newSortCriteria;
           ((MainActivity) requireActivity())
-          .setSortTypeLut(newSortCriteria);
+          .setSearchSortTypeLut(newSortCriteria);
           sortResultList();
         });
 
@@ -212,39 +249,48 @@ public class SearchFragment extends BackStackFragment
     showFragment(bookFragment);
   }
 
-  private Bundle createBookBundle(SearchItem searchItem) {
+  private Bundle createBookBundle(SearchItem searchItem, Shelf shelf) {
     Bundle bundle = new Bundle();
 
-    Long searchItemId = searchItem.getId();
-    bundle.putLong(LibraryKeys.SHELF_ID, searchModel.getShelfIdByBook(searchItemId));
-    bundle.putString(LibraryKeys.SHELF_NAME, searchModel.getShelfNameByBook(searchItemId));
-    bundle.putLong(LibraryKeys.BOOK_ID, searchItemId);
+    bundle.putLong(LibraryKeys.SHELF_ID, shelf.getId());
+    bundle.putString(LibraryKeys.SHELF_NAME, shelf.getName());
+    bundle.putLong(LibraryKeys.BOOK_ID, searchItem.getId());
 
     return bundle;
   }
 
   private void openBook(SearchItem searchItem) {
-    BookNotesFragment bookNotesFragment = new BookNotesFragment();
-    bookNotesFragment.setArguments(createBookBundle(searchItem));
+    searchModel.loadShelfByBook(searchItem.getId(), shelf -> {
+      if (!isAdded()) {
+        return;
+      }
 
-    showFragment(bookNotesFragment);
-  }
+      BookNotesFragment bookNotesFragment = new BookNotesFragment();
+      bookNotesFragment.setArguments(createBookBundle(searchItem, shelf));
 
-  private Bundle createNoteBundle(SearchItem searchItem) {
-    Long noteId = searchItem.getId();
+      showFragment(bookNotesFragment);
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
+  }
 
+  private Bundle createNoteBundle(SearchItem searchItem, Long bookId) {
     Bundle bundle = new Bundle();
-    bundle.putLong(LibraryKeys.BOOK_ID, searchModel.getBookIdByNoteId(noteId));
-    bundle.putLong(LibraryKeys.NOTE_ID, noteId);
+    bundle.putLong(LibraryKeys.BOOK_ID, bookId);
+    bundle.putLong(LibraryKeys.NOTE_ID, searchItem.getId());
 
     return bundle;
   }
 
   private void openTextNote(SearchItem searchItem) {
-    TextNoteEditorFragment textNoteEditorFragment = new TextNoteEditorFragment();
-    textNoteEditorFragment.setArguments(createNoteBundle(searchItem));
+    searchModel.loadBookIdByNoteId(searchItem.getId(), bookId -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      TextNoteEditorFragment textNoteEditorFragment = new TextNoteEditorFragment();
+      textNoteEditorFragment.setArguments(createNoteBundle(searchItem, bookId));
 
-    showFragment(textNoteEditorFragment);
+      showFragment(textNoteEditorFragment);
+    }, error -> Toast.makeText(context, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   @Nullable
@@ -257,8 +303,8 @@ public class SearchFragment extends BackStackFragment
 
     setupMainActivity();
 
-    setupSearchInput();
     setupRecyclerView();
+    setupSearchInput();
     setupSortBtn();
     setupFilterBtn();
 
@@ -267,6 +313,12 @@ public class SearchFragment extends BackStackFragment
     return view;
   }
 
+  @Override
+  public void onDestroyView() {
+    searchModel.close();
+    super.onDestroyView();
+  }
+
   @Override
   public void onCreateOptionsMenu(@NonNull Menu menu, MenuInflater inflater) {
     inflater.inflate(R.menu.fragment_search_menu, menu);
@@ -0,0 +1,91 @@
+package de.bibbuddy;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The SearchHit holds an item found by the full-text search together with the text it was
+ * indexed with, so a search can be narrowed down without the database.
+ *
+ * @author Claudia Schönherr
+ */
+public class SearchHit {
+
+  private final SearchItem searchItem;
+  private final String indexedText;
+
+  // Created when the hit is filtered for the first time
+  private String normalizedText;
+
+  /**
+   * Normalizes a text the same way the full-text index does: the text is lower case,
+   * without diacritics and every word is separated by a single whitespace.
+   *
+   * @param text text to normalize
+   * @return the normalized text
+   */
+  public static String normalize(String text) {
+    String normalizedText = Normalizer.normalize(text, Normalizer.Form.NFD)
+        .replaceAll("\\p{M}+", "")
+        .toLowerCase(Locale.ROOT);
+
+    return normalizedText.replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+  }
+
+  /**
+   * Splits the search input of the user into normalized words.
+   *
+   * @param searchInput searchInput of the user
+   * @return the normalized words of the input
+   */
+  public static List<String> getSearchWords(String searchInput) {
+    List<String> searchWords = new ArrayList<>();
+
+    for (String word : normalize(searchInput).split(" ")) {
+      if (!word.isEmpty()) {
+        searchWords.add(word);
+      }
+    }
+
+    return searchWords;
+  }
+
+  /**
+   * Constructor of a SearchHit.
+   *
+   * @param searchItem  the found item
+   * @param indexedText text the item was indexed with
+   */
+  public SearchHit(SearchItem searchItem, String indexedText) {
+    this.searchItem = searchItem;
+    this.indexedText = indexedText;
+  }
+
+  public SearchItem getSearchItem() {
+    return searchItem;
+  }
+
+  /**
+   * Checks whether every search word is found at the beginning of a word of the item,
+   * which is the same condition the full-text search uses.
+   *
+   * @param searchWords normalized words of the search input
+   * @return true if the item matches all words
+   */
+  public boolean matches(List<String> searchWords) {
+    if (normalizedText == null) {
+      normalizedText = " " + normalize(indexedText);
+    }
+
+    for (String word : searchWords) {
+      if (!normalizedText.contains(" " + word)) {
+        return false;
+      }
+    }
+
+    return true;
+  }
+
+}
@@ -12,6 +12,8 @@ public class SearchItem extends LibraryItem {
 
   private final SearchTypeLut itemType;
   private final String displayName;
+  private final String sortKey;
+  private final double rank;
 
   /**
    * Constructor of a SearchItem.
@@ -21,11 +23,16 @@ public class SearchItem extends LibraryItem {
    * @param id       id of the SearchItem
    * @param modDate  modification date of the SearchItem
    * @param itemType type of the SearchItem
+   * @param sortKey  stored sort key of the name of the SearchItem
+   * @param rank     rank of the SearchItem, a higher rank is a better match
    */
-  public SearchItem(String name, int image, Long id, Long modDate, SearchTypeLut itemType) {
+  public SearchItem(String name, int image, Long id, Long modDate, SearchTypeLut itemType,
+                    String sortKey, double rank) {
     super(name, image, id, null, modDate);
 
     this.itemType = itemType;
+    this.sortKey = sortKey;
+    this.rank = rank;
 
     String itemName = Jsoup.parse(name).text();
     if (itemName.length() > 25) {
@@ -43,4 +50,12 @@ public class SearchItem extends LibraryItem {
     return displayName;
   }
 
+  public String getSortKey() {
+    return sortKey;
+  }
+
+  public double getRank() {
+    return rank;
+  }
+
 }
@@ -2,7 +2,10 @@ package de.bibbuddy;
 
 import android.content.Context;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * The SearchModel contains all the search data for the SearchFragment.
@@ -11,100 +14,148 @@ import java.util.List;
  */
 public class SearchModel {
 
-  private final ShelfDao shelfDao;
+  private static final Comparator<SearchItem> BY_MOD_DATE =
+      Comparator.comparing(SearchItem::getModDate).thenComparing(SearchItem::getId);
+  private static final Comparator<SearchItem> BY_SORT_KEY =
+      Comparator.comparing(SearchItem::getSortKey).thenComparing(SearchItem::getId);
+  private static final Comparator<SearchItem> BY_RANK =
+      Comparator.comparingDouble(SearchItem::getRank).reversed().thenComparing(BY_SORT_KEY);
+
+  // Sort orders of the searchResultList, the best matches first by default
+  static final SortTypeLut[] SEARCH_SORT_TYPES = {SortTypeLut.RELEVANCE,
+      SortTypeLut.MOD_DATE_LATEST, SortTypeLut.MOD_DATE_OLDEST, SortTypeLut.NAME_ASCENDING,
+      SortTypeLut.NAME_DESCENDING};
+
+  private final SearchEngine searchEngine;
   private final BookDao bookDao;
   private final NoteDao noteDao;
 
   private final List<SearchItem> searchResultList;
 
+  // Sort order of the searchResultList, also used for results that arrive later
+  private SortTypeLut sortTypeLut = SortTypeLut.RELEVANCE;
+
   /**
    * Constructor for a SearchModel.
    *
    * @param context context for the SearchModel
    */
   public SearchModel(Context context) {
-    DatabaseHelper databaseHelper = new DatabaseHelper(context);
-    this.shelfDao = new ShelfDao(databaseHelper);
+    DatabaseHelper databaseHelper = DatabaseHelper.getInstance(context);
+    this.searchEngine = new SearchEngine(new SearchDao(databaseHelper));
     this.bookDao = new BookDao(databaseHelper);
     this.noteDao = new NoteDao(databaseHelper);
 
     this.searchResultList = new ArrayList<>();
   }
 
-  /**
-   * Gets the searchResultList based on the user input.
-   *
-   * @param searchInput    input of the search
-   * @param sortTypeLut    sortTypeLut for the searchResultList
-   * @param filterCriteria filterCriteria for the searchResultList
-   * @return returns the searchResultList
-   */
-  public List<SearchItem> getSearchResultList(String searchInput, SortTypeLut sortTypeLut,
-                                              boolean[] filterCriteria) {
-    searchResultList.clear();
+  private static Set<SearchTypeLut> getSearchTypes(boolean[] filterCriteria) {
+    Set<SearchTypeLut> searchTypes = EnumSet.noneOf(SearchTypeLut.class);
 
     if (filterCriteria[0]) { // filter shelf
-      searchShelves(searchInput);
+      searchTypes.add(SearchTypeLut.SEARCH_SHELF);
     }
 
     if (filterCriteria[1]) { // filter book
-      searchBooks(searchInput);
+      searchTypes.add(SearchTypeLut.SEARCH_BOOK);
     }
 
     if (filterCriteria[2]) { // filter note
-      searchNotes(searchInput);
+      searchTypes.add(SearchTypeLut.SEARCH_TEXT_NOTE);
     }
 
-    sortSearchResultList(sortTypeLut);
-
-    return searchResultList;
+    return searchTypes;
   }
 
-  private void searchShelves(String searchInput) {
-    List<Shelf> shelfList = shelfDao.findShelvesByName(searchInput);
-    for (Shelf shelf : shelfList) {
-      searchResultList.add(
-          new SearchItem(shelf.getName(), R.drawable.books, shelf.getId(), shelf.getModDate(),
-                         SearchTypeLut.SEARCH_SHELF));
+  /**
+   * Searches in the background for the user input and updates the searchResultList.
+   * The listener gets the sorted searchResultList each time the results of one item type
+   * were added, so the first results are shown before the whole search is finished.
+   * A new search cancels the search that is still running.
+   *
+   * @param searchInput    input of the search
+   * @param sortTypeLut    sortTypeLut for the searchResultList
+   * @param filterCriteria filterCriteria for the searchResultList
+   * @param isTyping       true if the user is still typing, then the search waits for a pause
+   * @param listener       listener for the updated searchResultList
+   */
+  public void search(String searchInput, SortTypeLut sortTypeLut, boolean[] filterCriteria,
+                     boolean isTyping, SearchResultListListener listener) {
+    this.sortTypeLut = sortTypeLut;
+
+    SearchEngine.SearchResultListener resultListener = new SearchEngine.SearchResultListener() {
+
+      // The results of the last search are shown until the first results of this search arrive
+      private boolean isResultListCleared;
+
+      private void clearResultList() {
+        if (!isResultListCleared) {
+          searchResultList.clear();
+          isResultListCleared = true;
+        }
+      }
+
+      @Override
+      public void onSearchResults(SearchTypeLut searchType, List<SearchItem> searchItems) {
+        clearResultList();
+        searchResultList.addAll(searchItems);
+        sortSearchResultList(SearchModel.this.sortTypeLut);
+
+        listener.onSearchResultListChanged(searchResultList, false);
+      }
+
+      @Override
+      public void onSearchFinished() {
+        clearResultList();
+        listener.onSearchResultListChanged(searchResultList, true);
+      }
+    };
+
+    if (isTyping) {
+      searchEngine.search(searchInput, getSearchTypes(filterCriteria), resultListener);
+    } else {
+      searchEngine.searchNow(searchInput, getSearchTypes(filterCriteria), resultListener);
     }
   }
 
-  private void searchBooks(String searchInput) {
-    List<Book> bookList = bookDao.findBooksByTitle(searchInput);
-    for (Book book : bookList) {
-      searchResultList.add(
-          new SearchItem(book.getTitle(), R.drawable.ic_book, book.getId(), book.getModDate(),
-                         SearchTypeLut.SEARCH_BOOK));
-    }
+  /**
+   * Cancels the running search and clears the searchResultList.
+   */
+  public void cancelSearch() {
+    searchEngine.cancel();
+    searchResultList.clear();
   }
 
-  private void searchNotes(String searchInput) {
-    List<Note> noteList = noteDao.findTextNotesByName(searchInput);
-    for (Note note : noteList) {
-      searchResultList.add(
-          new SearchItem(note.getName(), R.drawable.document, note.getId(), note.getModDate(),
-                         SearchTypeLut.SEARCH_TEXT_NOTE));
-    }
+  /**
+   * Cancels the running search and stops the background search.
+   */
+  public void close() {
+    searchEngine.close();
   }
 
-
+  // The results of all item types are merged, so they are sorted by their stored sort keys
+  // or by the rank of the full-text search
   private void sortSearchResultList(SortTypeLut sortTypeLut) {
     switch (sortTypeLut) {
 
+      case RELEVANCE:
+        searchResultList.sort(BY_RANK);
+        break;
+
       case MOD_DATE_LATEST:
-        searchResultList.sort(new SortDate());
+        searchResultList.sort(BY_MOD_DATE.reversed());
         break;
 
       case MOD_DATE_OLDEST:
-        searchResultList.sort(new SortDate().reversed());
+        searchResultList.sort(BY_MOD_DATE);
         break;
 
       case NAME_ASCENDING:
-        searchResultList.sort(new SortName());
+        searchResultList.sort(BY_SORT_KEY);
         break;
 
       case NAME_DESCENDING:
-        searchResultList.sort(new SortName().reversed());
+        searchResultList.sort(BY_SORT_KEY.reversed());
         break;
 
       default:
@@ -112,7 +163,6 @@ public class SearchModel {
     }
   }
 
-
   /**
    * Gets the selected search item at the current position.
    *
@@ -123,8 +173,18 @@ public class SearchModel {
     return searchResultList.get(position);
   }
 
-  public Long getBookIdByNoteId(Long noteId) {
-    return noteDao.findBookIdByNoteId(noteId);
+  /**
+   * Loads the id of the book of a note on a background thread.
+   *
+   * @param noteId        id of the note
+   * @param listener      listener for the id of the book, called on the main thread
+   * @param errorListener listener for the error if the id could not be loaded, called on the
+   *                      main thread
+   */
+  public void loadBookIdByNoteId(Long noteId, DatabaseExecutor.ResultListener<Long> listener,
+                                 DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(() -> noteDao.findBookIdByNoteId(noteId), listener,
+                                        errorListener);
   }
 
   /**
@@ -134,17 +194,30 @@ public class SearchModel {
    * @return returns the sorted search results
    */
   public List<SearchItem> getSortedSearchResultList(SortTypeLut sortTypeLut) {
+    this.sortTypeLut = sortTypeLut;
     sortSearchResultList(sortTypeLut);
 
     return searchResultList;
   }
 
-  public Long getShelfIdByBook(Long bookId) {
-    return bookDao.findShelfIdByBook(bookId);
+  /**
+   * Loads the id and name of the shelf of a book on a background thread.
+   *
+   * @param bookId        id of the book
+   * @param listener      listener for the shelf with its id and name, called on the main
+   *                      thread
+   * @param errorListener listener for the error if the shelf could not be loaded, called on
+   *                      the main thread
+   */
+  public void loadShelfByBook(Long bookId, DatabaseExecutor.ResultListener<Shelf> listener,
+                              DatabaseExecutor.ErrorListener errorListener) {
+    DatabaseExecutor.getInstance().read(
+        () -> new Shelf(bookDao.findShelfIdByBook(bookId), bookDao.findShelfNameByBook(bookId),
+                        null, null, null), listener, errorListener);
   }
 
-  public String getShelfNameByBook(Long searchItemId) {
-    return bookDao.findShelfNameByBook(searchItemId);
+  public interface SearchResultListListener {
+    void onSearchResultListChanged(List<SearchItem> searchResultList, boolean isFinished);
   }
 
 }
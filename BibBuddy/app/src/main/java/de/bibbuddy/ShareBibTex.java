@@ -2,17 +2,27 @@ package de.bibbuddy;
 
 import android.content.Context;
 import android.net.Uri;
+import android.os.Handler;
+import android.os.Looper;
 import android.util.Log;
 import android.widget.Toast;
 import androidx.core.content.FileProvider;
+import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
  * The ShareBibTex creates and writes a BibTex file.
  * It contains methods for generation of contents that are
  * used for the export of the BibTex file.
+ * The entries are read book by book from the ExportDao and written through a buffer
+ * straight into the file, so an export never holds more than one entry in memory.
+ * The rendered entries are stored by the ExportDao, so only changed books are rendered again.
  *
  * @author Silvia Ivanova, Luis Moßburger
  */
@@ -21,7 +31,72 @@ public class ShareBibTex {
 
   private static final String TAG = ShareBibTex.class.getSimpleName();
 
+  // Version of the rendered entries, it is part of the stamp of the entries stored by the
+  // ExportDao. Increase it whenever renderBibEntry changes, so the stored entries are replaced.
+  static final int BIB_FORMAT_VERSION = 2;
+
+  // Characters of the notes that LaTeX would read as commands
+  private static final String SPECIAL_CHARACTERS = "&%$#_";
+
+  // Size of the buffer in front of the file in chars
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  // Number of exported books after which the progress is reported
+  private static final int PROGRESS_STEP = 50;
+
+  private final Context context;
   private final String fileName;
+  private final ExportDao exportDao;
+
+  private static void appendField(StringBuilder entry, String key, Object value) {
+    entry.append(key).append(BibTexKeys.OPENING_CURLY_BRACKET).append(value)
+        .append(BibTexKeys.CLOSING_CURLY_BRACKET).append(BibTexKeys.COMMA_SEPARATOR)
+        .append('\n');
+  }
+
+  private static void reportProgress(ProgressListener progressListener, int exportedBooks,
+                                     int bookCount) {
+    if (progressListener != null
+        && (exportedBooks % PROGRESS_STEP == 0 || exportedBooks == bookCount)) {
+      progressListener.onProgress(exportedBooks, bookCount);
+    }
+  }
+
+  /**
+   * Escapes the characters of a plain text that LaTeX would read as commands, e.g. "&"
+   * becomes "\&".
+   *
+   * @param text the plain text
+   * @return the escaped text
+   */
+  static String escapeBibText(String text) {
+    StringBuilder escapedText = new StringBuilder(text.length());
+
+    for (int i = 0; i < text.length(); i++) {
+      char character = text.charAt(i);
+      if (SPECIAL_CHARACTERS.indexOf(character) >= 0) {
+        escapedText.append('\\');
+      }
+
+      escapedText.append(character);
+    }
+
+    return escapedText.toString();
+  }
+
+  private static boolean writeBibFile(File file, BibContent content,
+                                      ProgressListener progressListener) {
+    try (Writer writer = new BufferedWriter(
+        new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8),
+        BUFFER_SIZE)) {
+
+      content.write(writer, progressListener);
+      return true;
+    } catch (IOException ex) {
+      Log.e(TAG, ex.toString(), ex);
+      return false;
+    }
+  }
 
   private String getBibKey(Book book) {
     // Removes whitespaces from book's title
@@ -29,181 +104,210 @@ public class ShareBibTex {
                                       "");
   }
 
-  private String getBibNotesFromBook(Book book, NoteModel noteModel) {
-    List<Long> notesList = noteModel.getTextNoteIdsForBook(book.getId());
-    StringBuilder allNotes = new StringBuilder();
+  private void appendBibNotes(StringBuilder entry, List<String> textNotes) {
+    entry.append(BibTexKeys.ANNOTE).append(BibTexKeys.OPENING_CURLY_BRACKET);
 
-    for (int i = 0; i < notesList.size(); i++) {
-      String bookTextNotes = noteModel.findStrippedTextById(notesList.get(i)) + "; ";
-      allNotes.append(bookTextNotes);
+    for (String textNote : textNotes) {
+      entry.append(escapeBibText(textNote)).append("; ");
     }
 
-    return BibTexKeys.ANNOTE + BibTexKeys.OPENING_CURLY_BRACKET + allNotes
-        + BibTexKeys.CLOSING_CURLY_BRACKET + BibTexKeys.COMMA_SEPARATOR + "\n";
-
+    entry.append(BibTexKeys.CLOSING_CURLY_BRACKET).append(BibTexKeys.COMMA_SEPARATOR)
+        .append('\n');
   }
 
-  private String getBibAuthorNames(Long bookId, BookModel bookModel) {
-    Book book = bookModel.getBookById(bookId);
-
-    List<Author> authorsList = bookModel.getAuthorList(book.getId());
-    StringBuilder authorNames = new StringBuilder();
+  private void appendBibAuthorNames(StringBuilder entry, List<Author> authorsList) {
+    entry.append(BibTexKeys.AUTHOR).append(BibTexKeys.OPENING_CURLY_BRACKET);
 
     for (int i = 0; i < authorsList.size(); i++) {
-      authorNames.append(authorsList.get(i).getLastName())
+      entry.append(authorsList.get(i).getLastName())
           .append(BibTexKeys.COMMA_SEPARATOR + " ")
           .append(authorsList.get(i).getFirstName());
 
       if (i < authorsList.size() - 1) {
-        authorNames.append(BibTexKeys.AND_MULTIPLE_AUTHORS);
+        entry.append(BibTexKeys.AND_MULTIPLE_AUTHORS);
       }
     }
 
-    if (authorsList.isEmpty()) {
-      authorNames = new StringBuilder();
-    }
+    entry.append(BibTexKeys.CLOSING_CURLY_BRACKET).append(BibTexKeys.COMMA_SEPARATOR)
+        .append('\n');
+  }
+
+  private String renderBibEntry(Book book, List<Author> authors, List<String> textNotes) {
+    StringBuilder entry = new StringBuilder();
+
+    entry.append(BibTexKeys.BOOK_TAG).append(BibTexKeys.OPENING_CURLY_BRACKET)
+        .append(getBibKey(book)).append(BibTexKeys.COMMA_SEPARATOR).append('\n');
+
+    appendField(entry, BibTexKeys.ISBN, book.getIsbn());
+    appendBibAuthorNames(entry, authors);
+    appendField(entry, BibTexKeys.BOOK_TITLE, book.getTitle());
+    appendField(entry, BibTexKeys.SUBTITLE, book.getSubtitle());
+    appendField(entry, BibTexKeys.PUBLISHER, book.getPublisher());
+    appendField(entry, BibTexKeys.EDITION, book.getEdition());
+    appendBibNotes(entry, textNotes);
+
+    entry.append(BibTexKeys.YEAR).append(book.getPubYear()).append('\n')
+        .append(BibTexKeys.CLOSING_CURLY_BRACKET).append("\n\n");
+
+    return entry.toString();
+  }
+
+  private ExportDao.BookEntryListener createEntryWriter(Writer writer,
+                                                        ProgressListener progressListener) {
+    return new ExportDao.BookEntryListener() {
+
+      private int bookCount;
+      private int exportedBooks;
+
+      @Override
+      public void onBookCount(int bookCount) {
+        this.bookCount = bookCount;
+      }
+
+      @Override
+      public String renderBookEntry(Book book, List<Author> authors, List<String> textNotes) {
+        return renderBibEntry(book, authors, textNotes);
+      }
 
-    return BibTexKeys.AUTHOR + BibTexKeys.OPENING_CURLY_BRACKET + authorNames
-        + BibTexKeys.CLOSING_CURLY_BRACKET + BibTexKeys.COMMA_SEPARATOR + "\n";
+      @Override
+      public void onBookEntry(String bookEntry) throws IOException {
+        writer.write(bookEntry);
 
+        exportedBooks++;
+        reportProgress(progressListener, exportedBooks, bookCount);
+      }
+    };
   }
 
   /**
    * The ShareBibTex is responsible for the creating, writing
    * and retrieving of contents, needed for the BibTex Export.
    *
+   * @param context  context of the export
    * @param fileName name of the BibTex file
    */
-  public ShareBibTex(String fileName) {
+  public ShareBibTex(Context context, String fileName) {
+    this.context = context;
     this.fileName = fileName;
+    this.exportDao = new ExportDao(DatabaseHelper.getInstance(context));
   }
 
   /**
-   * Generates the BibTex format for all books inclusive their
+   * Writes the BibTex format for all books inclusive their
    * notes from the entire library.
    *
-   * @param libraryModel object of the LibraryModel class
-   * @param bookModel    object of the class BookModel
-   *                     used to retrieve book data
-   * @param noteModel    object of the class NoteModel
-   *                     used to retrieve note data
-   * @return the BibTex format of a library as String
+   * @param writer           writer of the BibTex file
+   * @param progressListener listener for the number of exported books or null
+   * @throws IOException if the file could not be written
    */
-  public String getBibDataLibrary(LibraryModel libraryModel,
-                                  BookModel bookModel, NoteModel noteModel) {
-    StringBuilder bibFormat = new StringBuilder();
-
-    List<ShelfItem> shelfItem = libraryModel.getCurrentLibraryList();
-
-    // For each shelf in the library
-    for (int i = 0; i < shelfItem.size(); i++) {
-      Long currentShelfId = shelfItem.get(i).getId();
-
-      bibFormat.append(getBibDataFromShelf(currentShelfId, bookModel,
-                                           noteModel));
-
-    }
-
-    return bibFormat.toString();
+  public void writeBibDataLibrary(Writer writer, ProgressListener progressListener)
+      throws IOException {
+    exportDao.exportLibrary(createEntryWriter(writer, progressListener));
   }
 
   /**
-   * Generates the BibTex format for all books in a given shelf.
+   * Writes the BibTex format for all books in a given shelf.
    *
-   * @param shelfId   id of the shelf
-   * @param bookModel object of the class BookModel
-   *                  used to retrieve book data from a selected shelf
-   * @param noteModel object of the class NoteModel
-   *                  used to retrieve note data from a selected shelf
-   * @return the BibTex format of a collection of books as String
+   * @param writer           writer of the BibTex file
+   * @param shelfId          id of the shelf
+   * @param progressListener listener for the number of exported books or null
+   * @throws IOException if the file could not be written
    */
-  public String getBibDataFromShelf(Long shelfId, BookModel bookModel, NoteModel noteModel) {
-    List<Long> bookIdsCurrentShelf =
-        bookModel.getAllBookIdsForShelf(shelfId);
-    StringBuilder bibFormat = new StringBuilder();
-
-    // For each book in the current shelf
-    for (int i = 0; i < bookIdsCurrentShelf.size(); i++) {
-      Long bookId = bookIdsCurrentShelf.get(i);
-
-      bibFormat.append(getBibDataFromBook(bookId, bookModel, noteModel));
-
-    }
-
-    return bibFormat.toString();
+  public void writeBibDataFromShelf(Writer writer, Long shelfId,
+                                    ProgressListener progressListener) throws IOException {
+    exportDao.exportShelf(shelfId, createEntryWriter(writer, progressListener));
   }
 
   /**
-   * Generates the BibTex format for a given book.
+   * Writes the BibTex format for a given book.
    *
-   * @param bookId    id of the book
-   * @param bookModel object of the class BookModel
-   *                  used to retrieve book data
-   * @param noteModel object of the class NoteModel
-   *                  used to retrieve note data
-   * @return the BibTex format of a book as String
+   * @param writer writer of the BibTex file
+   * @param bookId id of the book
+   * @throws IOException if the file could not be written
    */
-  public String getBibDataFromBook(Long bookId, BookModel bookModel, NoteModel noteModel) {
-    Book book = bookModel.getBookById(bookId);
-
-    return BibTexKeys.BOOK_TAG + BibTexKeys.OPENING_CURLY_BRACKET + getBibKey(book)
-        + BibTexKeys.COMMA_SEPARATOR + "\n"
-
-        + BibTexKeys.ISBN + BibTexKeys.OPENING_CURLY_BRACKET + book.getIsbn()
-        + BibTexKeys.CLOSING_CURLY_BRACKET + BibTexKeys.COMMA_SEPARATOR + "\n"
-
-        + getBibAuthorNames(bookId, bookModel)
-
-        + BibTexKeys.BOOK_TITLE + BibTexKeys.OPENING_CURLY_BRACKET + book.getTitle()
-        + BibTexKeys.CLOSING_CURLY_BRACKET + BibTexKeys.COMMA_SEPARATOR + "\n"
+  public void writeBibDataFromBook(Writer writer, Long bookId) throws IOException {
+    exportDao.exportBook(bookId, createEntryWriter(writer, null));
+  }
 
-        + BibTexKeys.SUBTITLE + BibTexKeys.OPENING_CURLY_BRACKET + book.getSubtitle()
-        + BibTexKeys.CLOSING_CURLY_BRACKET + BibTexKeys.COMMA_SEPARATOR + "\n"
+  private static void deleteIncompleteFile(File file) {
+    if (file.exists() && !file.delete()) {
+      Log.w(TAG, "Could not delete incomplete file " + file);
+    }
+  }
 
-        + BibTexKeys.PUBLISHER + BibTexKeys.OPENING_CURLY_BRACKET + book.getPublisher()
-        + BibTexKeys.CLOSING_CURLY_BRACKET + BibTexKeys.COMMA_SEPARATOR + "\n"
+  private Uri writeTemporaryBibFile(BibContent content, ProgressListener progressListener) {
+    File file = new File(context.getCacheDir(), fileName + StorageKeys.BIB_FILE_TYPE);
 
-        + BibTexKeys.EDITION + BibTexKeys.OPENING_CURLY_BRACKET + book.getEdition()
-        + BibTexKeys.CLOSING_CURLY_BRACKET + BibTexKeys.COMMA_SEPARATOR + "\n"
+    try {
+      if (writeBibFile(file, content, progressListener)) {
+        return FileProvider.getUriForFile(context, "de.bibbuddy.app.file_provider_paths", file);
+      }
+    } catch (RuntimeException ex) {
+      deleteIncompleteFile(file);
+      throw ex;
+    }
 
-        + getBibNotesFromBook(book, noteModel)
+    deleteIncompleteFile(file);
 
-        + BibTexKeys.YEAR + book.getPubYear() + "\n" + BibTexKeys.CLOSING_CURLY_BRACKET
-        + "\n" + "\n";
+    return null;
+  }
 
+  private void handleFailedBibFile(DatabaseExecutor.ResultListener<Uri> listener) {
+    Toast.makeText(context, context.getString(R.string.exception_failed_temp_file),
+                   Toast.LENGTH_LONG).show();
+    listener.onResult(null);
   }
 
   /**
-   * Writes a temporary BibTex file.
+   * Writes a temporary BibTex file on a background thread.
+   * The listener is called in any case, also if the export fails with an unexpected error.
    *
-   * @param context the context of the used fragment
-   * @param content the content of temporary BibTeX file
-   * @return the temporary file as URI
+   * @param content          the content of temporary BibTeX file
+   * @param progressListener listener for the number of exported books, called on the main
+   *                         thread, or null
+   * @param listener         listener for the temporary file as URI or null if it could not
+   *                         be written, called on the main thread
    */
-  public Uri writeTemporaryBibFile(Context context, String content) {
-
-    String fullFileName = fileName + StorageKeys.BIB_FILE_TYPE;
-    File file = new File(context.getCacheDir(), fullFileName);
+  public void writeTemporaryBibFile(BibContent content, ProgressListener progressListener,
+                                    DatabaseExecutor.ResultListener<Uri> listener) {
+    ProgressListener mainProgressListener = null;
+    if (progressListener != null) {
+      Handler mainHandler = new Handler(Looper.getMainLooper());
+      mainProgressListener = (exportedBooks, bookCount) -> mainHandler.post(
+          () -> progressListener.onProgress(exportedBooks, bookCount));
+    }
 
-    try {
-      FileWriter fileWriter = new FileWriter(file);
-      fileWriter.append(content);
-      fileWriter.flush();
-      fileWriter.close();
-    } catch (Exception ex) {
-      Toast.makeText(context, context.getString(R.string.exception_failed_temp_file),
-                     Toast.LENGTH_LONG).show();
+    // The file is created, written and deleted on failure off the main thread
+    ProgressListener writeProgressListener = mainProgressListener;
+    DatabaseExecutor.getInstance().read(
+        () -> writeTemporaryBibFile(content, writeProgressListener), contentUri -> {
+          if (contentUri == null) {
+            handleFailedBibFile(listener);
+            return;
+          }
+
+          listener.onResult(contentUri);
+        }, error -> handleFailedBibFile(listener));
+  }
 
-      Log.e(TAG, ex.toString(), ex);
-    }
+  /**
+   * Writes a temporary BibTex file on a background thread without reporting the progress.
+   *
+   * @param content  the content of temporary BibTeX file
+   * @param listener listener for the temporary file as URI or null if it could not be
+   *                 written, called on the main thread
+   */
+  public void writeTemporaryBibFile(BibContent content,
+                                    DatabaseExecutor.ResultListener<Uri> listener) {
+    writeTemporaryBibFile(content, null, listener);
+  }
 
-    File parentFile = new File(context.getCacheDir(), "");
-    File tempFile = new File(parentFile, fullFileName);
+  public interface BibContent {
+    void write(Writer writer, ProgressListener progressListener) throws IOException;
+  }
 
-    return FileProvider.getUriForFile(
-        context,
-        "de.bibbuddy.app.file_provider_paths",
-        tempFile);
+  public interface ProgressListener {
+    void onProgress(int exportedBooks, int bookCount);
   }
 
 }
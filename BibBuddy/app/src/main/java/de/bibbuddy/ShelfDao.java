@@ -2,8 +2,8 @@ package de.bibbuddy;
 
 import android.content.ContentValues;
 import android.database.Cursor;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
-import android.database.sqlite.SQLiteException;
 import android.util.Log;
 import java.util.ArrayList;
 import java.util.Date;
@@ -46,28 +46,34 @@ public class ShelfDao {
    * Save a shelf in the database.
    *
    * @param shelf that should be saved.
+   * @return the saved shelf with its generated id or null if it could not be saved
    */
-  public void create(Shelf shelf) {
+  public Shelf create(Shelf shelf) {
     Long currentTime = new Date().getTime();
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
 
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
+    try {
       ContentValues contentValues = new ContentValues();
       contentValues.put(DatabaseHelper.NAME, shelf.getName());
+      contentValues.put(DatabaseHelper.SORT_KEY, SortKey.create(shelf.getName()));
       contentValues.put(DatabaseHelper.CREATE_DATE, currentTime);
       contentValues.put(DatabaseHelper.MOD_DATE, currentTime);
       contentValues.put(DatabaseHelper.SHELF_ID, shelf.getShelfId());
 
-      Long id = db.insert(DatabaseHelper.TABLE_NAME_SHELF, null, contentValues);
+      long id = db.insertOrThrow(DatabaseHelper.TABLE_NAME_SHELF, null, contentValues);
       shelf.setId(id);
+      dbHelper.updateSearchDataVersion();
 
-    } catch (SQLiteException ex) {
-      Log.e(TAG, ex.toString(), ex);
+      return new Shelf(id, shelf.getName(), currentTime, currentTime, shelf.getShelfId());
 
+    } catch (SQLException ex) {
+      Log.e(TAG, ex.toString(), ex);
     }
 
+    return null;
   }
 
-  public Shelf findById(long id) {
+  private Shelf loadById(long id) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
     Cursor cursor = db.query(DatabaseHelper.TABLE_NAME_SHELF,
@@ -95,13 +101,15 @@ public class ShelfDao {
     return shelf;
   }
 
-  // Deletes single shelf entry
-  public void delete(Long id) {
-    SQLiteDatabase db = dbHelper.getWritableDatabase();
-    db.delete(DatabaseHelper.TABLE_NAME_SHELF, DatabaseHelper._ID + " = ?",
-              new String[] {String.valueOf(id)});
-
-    db.close();
+  /**
+   * Gets a single shelf by its id. The shelf is shared with the other callers through the
+   * shelf cache until it is renamed or deleted.
+   *
+   * @param id id of the shelf
+   * @return the shelf or null if it does not exist
+   */
+  public Shelf findById(long id) {
+    return dbHelper.getShelfCache().get(id, this::loadById);
   }
 
   /**
@@ -111,7 +119,7 @@ public class ShelfDao {
    * @return list with all sub-shelves for the current shelf
    */
   public List<Shelf> findAllByParentId(Long id) {
-    SQLiteDatabase db = dbHelper.getWritableDatabase();
+    SQLiteDatabase db = dbHelper.getReadableDatabase();
 
     String selectQuery = "SELECT * FROM " + DatabaseHelper.TABLE_NAME_SHELF
         + " WHERE " + DatabaseHelper.SHELF_ID + partSqlQuery(id);
@@ -139,57 +147,83 @@ public class ShelfDao {
   }
 
   /**
-   * Finds the last added shelfId.
+   * Counts all Notes for a certain Shelf.
    *
-   * @return last added shelfId
+   * @param shelfId current shelfId
+   * @return count of all notes of the books in the current shelf
    */
-  public Long findLatestId() {
+  public int countAllNotesForShelf(Long shelfId) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-    String selectQuery = "SELECT " + DatabaseHelper._ID + " FROM "
-        + DatabaseHelper.TABLE_NAME_SHELF + " ORDER BY " + DatabaseHelper._ID + " DESC LIMIT 1";
+    String selectQuery = "SELECT COUNT(n." + DatabaseHelper._ID + ") FROM "
+        + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " lnk JOIN "
+        + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " n ON (n." + DatabaseHelper.BOOK_ID
+        + " = lnk." + DatabaseHelper.BOOK_ID + ") WHERE lnk." + DatabaseHelper.SHELF_ID + " = ?";
 
-    Cursor cursor = db.rawQuery(selectQuery, null);
+    Cursor cursor = db.rawQuery(selectQuery, new String[] {String.valueOf(shelfId)});
 
-    Long id = null;
+    int noteCount = 0;
     if (cursor.moveToFirst()) {
-      do {
-        id = cursor.getLong(0); // Id
-      } while (cursor.moveToNext());
+      noteCount = cursor.getInt(0);
     }
 
     cursor.close();
 
-    return id;
+    return noteCount;
   }
 
   /**
-   * Counts all Notes for a certain Shelf.
+   * Finds one page of the sub-shelves of a certain shelf together with the number of their
+   * books and notes. The counts are only calculated for the shelves of the page.
    *
-   * @param shelfBookIds list with all bookIds for current shelf
-   * @return count of all books for current shelf
+   * @param id   current shelfId
+   * @param page page of the shelves in their sort order
+   * @return list with the sub-shelves of the page as ShelfItems
    */
-  public int countAllNotesForShelf(List<Long> shelfBookIds) {
+  public List<ShelfItem> findShelfItemsByParentId(Long id, KeysetPage page) {
     SQLiteDatabase db = dbHelper.getReadableDatabase();
 
-    int noteCount = 0;
-    for (Long bookId : shelfBookIds) {
-      String selectQuery = "SELECT COUNT(" + DatabaseHelper._ID + ") FROM "
-          + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " WHERE "
-          + DatabaseHelper.BOOK_ID + " = ?";
-
-      Cursor cursor = db.rawQuery(selectQuery, new String[] {String.valueOf(bookId)});
+    String sortKeyColumn = "s." + DatabaseHelper.SORT_KEY;
+    String dateColumn = "s." + DatabaseHelper.MOD_DATE;
+    String idColumn = "s." + DatabaseHelper._ID;
+
+    String selectQuery = "SELECT s." + DatabaseHelper._ID + ", s." + DatabaseHelper.NAME
+        + ", s." + DatabaseHelper.CREATE_DATE + ", s." + DatabaseHelper.MOD_DATE
+        + ", s." + DatabaseHelper.SHELF_ID
+        + ", (SELECT COUNT(" + DatabaseHelper._ID + ") FROM "
+        + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " lnk WHERE lnk." + DatabaseHelper.SHELF_ID
+        + " = s." + DatabaseHelper._ID + ")"
+        + ", (SELECT COUNT(n." + DatabaseHelper._ID + ") FROM "
+        + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " lnk JOIN "
+        + DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK + " n ON (n." + DatabaseHelper.BOOK_ID
+        + " = lnk." + DatabaseHelper.BOOK_ID + ") WHERE lnk." + DatabaseHelper.SHELF_ID
+        + " = s." + DatabaseHelper._ID + ")"
+        + " FROM " + DatabaseHelper.TABLE_NAME_SHELF + " s"
+        + " WHERE s." + DatabaseHelper.SHELF_ID + partSqlQuery(id)
+        + " AND " + page.createWhere(sortKeyColumn, dateColumn, idColumn)
+        + page.createOrderBy(sortKeyColumn, dateColumn, idColumn);
+
+    Cursor cursor = db.rawQuery(selectQuery, page.getWhereArgs());
+
+    List<ShelfItem> shelfItemList = new ArrayList<>();
+    if (cursor.moveToFirst()) {
+      do {
+        Shelf shelf = createShelfData(cursor);
 
-      if (cursor.moveToFirst()) {
-        do {
-          noteCount += Integer.parseInt(cursor.getString(0));
-        } while (cursor.moveToNext());
-      }
+        if (id == null) {
+          shelf.setShelfId(null);
+        } else {
+          shelf.setShelfId(cursor.getLong(4));
+        }
 
-      cursor.close();
+        // Book count, Note count
+        shelfItemList.add(new ShelfItem(shelf, cursor.getInt(5), cursor.getInt(6)));
+      } while (cursor.moveToNext());
     }
 
-    return noteCount;
+    cursor.close();
+
+    return shelfItemList;
   }
 
   /**
@@ -229,41 +263,15 @@ public class ShelfDao {
     ContentValues values = new ContentValues();
 
     values.put(DatabaseHelper.NAME, shelfName);
+    values.put(DatabaseHelper.SORT_KEY, SortKey.create(shelfName));
     values.put(DatabaseHelper.MOD_DATE, new Date().getTime());
 
     dbHelper.getWritableDatabase().update(DatabaseHelper.TABLE_NAME_SHELF, values,
                                           DatabaseHelper._ID + " = ?",
                                           new String[] {String.valueOf(id)});
-    SQLiteDatabase db = dbHelper.getWritableDatabase();
-    db.close();
-  }
-
-  /**
-   * Finds all shelf names which contain the searchInput.
-   *
-   * @param searchInput searchInput of the user
-   * @return a list of shelves which have the searchInput in the name
-   */
-  public List<Shelf> findShelvesByName(String searchInput) {
-    SQLiteDatabase db = dbHelper.getReadableDatabase();
-
-    String selectQuery = "SELECT * FROM " + DatabaseHelper.TABLE_NAME_SHELF + " WHERE "
-        + DatabaseHelper.NAME + " LIKE '%" + searchInput + "%'";
 
-    Cursor cursor = db.rawQuery(selectQuery, null);
-
-    List<Shelf> shelfList = new ArrayList<>();
-    if (cursor.moveToFirst()) {
-      do {
-        Shelf shelf = createShelfData(cursor);
-        shelfList.add(shelf);
-
-      } while (cursor.moveToNext());
-    }
-
-    cursor.close();
-
-    return shelfList;
+    dbHelper.getShelfCache().remove(id);
+    dbHelper.updateSearchDataVersion();
   }
 
 }
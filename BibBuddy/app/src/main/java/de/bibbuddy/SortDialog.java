@@ -2,6 +2,7 @@ package de.bibbuddy;
 
 import android.app.AlertDialog;
 import android.content.Context;
+import java.util.Arrays;
 import java.util.stream.Stream;
 
 /**
@@ -13,6 +14,7 @@ public class SortDialog extends AlertDialog.Builder {
 
   private final SortDialogListener listener;
   private final Context context;
+  private final SortTypeLut[] sortTypes;
 
   private SortTypeLut sortTypeLut;
 
@@ -30,15 +32,18 @@ public class SortDialog extends AlertDialog.Builder {
       case NAME_DESCENDING:
         return context.getString(R.string.sort_name_descending);
 
+      case RELEVANCE:
+        return context.getString(R.string.sort_relevance);
+
       default:
         throw new IllegalArgumentException();
     }
   }
 
   private void setupDialog() {
-    int checkedItem = sortTypeLut.getId();
+    int checkedItem = Arrays.asList(sortTypes).indexOf(sortTypeLut);
 
-    String[] sortChoices = Stream.of(SortTypeLut.values())
+    String[] sortChoices = Stream.of(sortTypes)
         .map(this::getSortCriteriaDisplayText)
         .toArray(String[]::new);
 
@@ -49,15 +54,29 @@ public class SortDialog extends AlertDialog.Builder {
   }
 
   private void handleSelectedSortChoice(int choice) {
-    sortTypeLut = SortTypeLut.valueOf(choice);
+    sortTypeLut = sortTypes[choice];
   }
 
   protected SortDialog(Context context, SortTypeLut sortTypeLut,
                        SortDialogListener listener) {
+    this(context, sortTypeLut, SortTypeLut.LIST_SORT_TYPES, listener);
+  }
+
+  /**
+   * Creates a SortDialog with the given sort orders as choices.
+   *
+   * @param context     context of the dialog
+   * @param sortTypeLut sort order that is selected
+   * @param sortTypes   sort orders the user can choose from
+   * @param listener    listener for the chosen sort order
+   */
+  protected SortDialog(Context context, SortTypeLut sortTypeLut, SortTypeLut[] sortTypes,
+                       SortDialogListener listener) {
     super(context);
 
     this.context = context;
     this.listener = listener;
+    this.sortTypes = sortTypes;
 
     this.sortTypeLut = sortTypeLut;
 
@@ -0,0 +1,36 @@
+package de.bibbuddy;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The SortKey creates the normalized name that shelves, books and notes are sorted by.
+ * It is stored next to the name, so the database can sort by a plain binary comparison
+ * and read the order from an index. Upper and lower case and accents are ignored,
+ * so "Äpfel" is sorted next to "apfel".
+ *
+ * @author Claudia Schönherr
+ */
+public class SortKey {
+
+  private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+  /**
+   * Creates the sort key of a name.
+   *
+   * @param name name of a shelf or note or title of a book, can be null
+   * @return the sort key, which is empty if there is no name
+   */
+  public static String create(String name) {
+    if (name == null) {
+      return "";
+    }
+
+    String sortKey = Normalizer.normalize(name.trim(), Normalizer.Form.NFD);
+    sortKey = COMBINING_MARKS.matcher(sortKey).replaceAll("");
+
+    return sortKey.toLowerCase(Locale.ROOT).replace("ß", "ss");
+  }
+
+}
@@ -4,6 +4,7 @@ import java.util.stream.Stream;
 
 /**
  * SortTypeLut enum for sorting lists.
+ * RELEVANCE is only used for search results, which are ranked by the full-text search.
  *
  * @author Claudia Schönherr
  */
@@ -12,7 +13,12 @@ public enum SortTypeLut {
   MOD_DATE_LATEST(0),
   MOD_DATE_OLDEST(1),
   NAME_ASCENDING(2),
-  NAME_DESCENDING(3);
+  NAME_DESCENDING(3),
+  RELEVANCE(4);
+
+  // Sort orders of the lists of shelves, books and notes
+  static final SortTypeLut[] LIST_SORT_TYPES =
+      {MOD_DATE_LATEST, MOD_DATE_OLDEST, NAME_ASCENDING, NAME_DESCENDING};
 
   private final int id;
 
@@ -2,6 +2,8 @@ package de.bibbuddy;
 
 public interface SortableItem {
 
+  Long getId();
+
   String getName();
 
   Long getModDate();
@@ -26,8 +26,9 @@ public class TagDao {
   }
 
   public boolean create(Tag tag) {
+    SQLiteDatabase db = dbHelper.getWritableDatabase();
 
-    try (SQLiteDatabase db = dbHelper.getWritableDatabase()) {
+    try {
       ContentValues contentValues = new ContentValues();
       contentValues.put(DatabaseHelper.NAME, tag.getName());
 
@@ -73,7 +74,7 @@ public class TagDao {
 
     String selectQuery = "SELECT * FROM " + DatabaseHelper.TABLE_NAME_TAG;
 
-    SQLiteDatabase db = dbHelper.getWritableDatabase();
+    SQLiteDatabase db = dbHelper.getReadableDatabase();
     Cursor cursor = db.rawQuery(selectQuery, null);
 
     if (cursor.moveToFirst()) {
@@ -96,8 +97,6 @@ public class TagDao {
     SQLiteDatabase db = dbHelper.getWritableDatabase();
     db.delete(DatabaseHelper.TABLE_NAME_TAG, DatabaseHelper._ID + " = ?",
               new String[] {String.valueOf(id)});
-
-    db.close();
   }
 
 }
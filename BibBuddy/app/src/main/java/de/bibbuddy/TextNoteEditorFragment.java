@@ -34,6 +34,7 @@ public class TextNoteEditorFragment extends BackStackFragment {
   private NoteModel noteModel;
   private Note note;
   private Long bookId;
+  private boolean saving;
 
   private ImageView formatArrow;
   private RichTextEditor richTextEditor;
@@ -63,9 +64,10 @@ public class TextNoteEditorFragment extends BackStackFragment {
   }
 
   /**
-   * Saves the current text as Note object.
+   * Saves the current text as Note object and closes the editor after it was saved, so the
+   * noteList that is shown next already contains it.
    */
-  private void saveNote() {
+  private void saveNoteAndClose() {
     String text = Html.toHtml(richTextEditor.getText(), Html.FROM_HTML_MODE_LEGACY);
     String rawText = Jsoup.parse(text).text();
     String[] lines = text.split("\\n");
@@ -83,18 +85,44 @@ public class TextNoteEditorFragment extends BackStackFragment {
       }
     }
 
-    if (rawText.length() != 0) {
-      if (requireArguments().size() == 2) {
-        noteModel.updateNote(note, name, text);
-      } else {
-        noteModel.createNote(name, NoteTypeLut.TEXT, text, "");
-        noteModel.linkNoteWithBook(bookId, noteModel.getLastNote().getId());
-      }
+    // A note that is not loaded yet has not been changed
+    if (rawText.length() == 0 || (requireArguments().size() == 2 && note == null)) {
+      closeFragment();
+      return;
+    }
 
-      Toast.makeText(requireActivity(), getString(R.string.text_note_saved),
-                     Toast.LENGTH_SHORT)
-          .show();
+    saving = true;
+    if (requireArguments().size() == 2) {
+      noteModel.updateNote(note, name, text, this::onNoteSaved, this::onSaveError);
+    } else {
+      noteModel.createNote(name, NoteTypeLut.TEXT, text, "", bookId, this::onNoteSaved,
+                           this::onSaveError);
+    }
+  }
+
+  private void onNoteSaved(Note savedNote) {
+    if (!isAdded()) {
+      return;
+    }
+
+    if (savedNote == null) {
+      onSaveError(null);
+      return;
     }
+
+    Toast.makeText(requireActivity(), getString(R.string.text_note_saved),
+                   Toast.LENGTH_SHORT)
+        .show();
+    closeFragment();
+  }
+
+  private void onSaveError(Throwable error) {
+    if (!isAdded()) {
+      return;
+    }
+
+    Toast.makeText(requireActivity(), R.string.database_error, Toast.LENGTH_LONG).show();
+    closeFragment();
   }
 
   private void setupMainActivity() {
@@ -103,8 +131,13 @@ public class TextNoteEditorFragment extends BackStackFragment {
     mainActivity.setVisibilityImportShareBtn(View.GONE, View.GONE);
     mainActivity.setVisibilitySortBtn(false);
 
-    mainActivity.updateHeaderFragment(noteModel.getBookNameByBookId(bookId));
     mainActivity.updateNavigationFragment(R.id.navigation_notes);
+
+    noteModel.loadBookName(bookId, bookName -> {
+      if (isAdded()) {
+        mainActivity.updateHeaderFragment(bookName);
+      }
+    }, error -> Toast.makeText(mainActivity, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   private void hideFormatToolbar() {
@@ -284,8 +317,31 @@ public class TextNoteEditorFragment extends BackStackFragment {
 
   @Override
   protected void onBackPressed() {
-    saveNote();
-    closeFragment();
+    // The editor is closed by the save that is already running
+    if (!saving) {
+      saveNoteAndClose();
+    }
+  }
+
+  private void loadNote(Long noteId) {
+    // The note can only be edited after its text is shown
+    richTextEditor.setEnabled(false);
+
+    noteModel.loadNote(noteId, loadedNote -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      note = loadedNote;
+
+      String text = note.getText();
+      text = text.replace("align=\"center\"", "style=\"text-align:center;\"");
+      text = text.replace("align=\"right\"", "style=\"text-align:end;\"");
+      richTextEditor.setText(Html.fromHtml(text, Html.FROM_HTML_MODE_LEGACY));
+      richTextEditor.setSelection(richTextEditor.getEditableText().length());
+      richTextEditor.setEnabled(true);
+    }, error -> Toast.makeText(requireActivity(), R.string.database_error, Toast.LENGTH_LONG)
+        .show());
   }
 
   @Nullable
@@ -308,13 +364,7 @@ public class TextNoteEditorFragment extends BackStackFragment {
     setupFormatArrow();
 
     if (requireArguments().size() == 2) {
-      Long noteId = requireArguments().getLong(LibraryKeys.NOTE_ID);
-      note = noteModel.getNoteById(noteId);
-
-      String text = note.getText();
-      text = text.replace("align=\"center\"", "style=\"text-align:center;\"");
-      text = text.replace("align=\"right\"", "style=\"text-align:end;\"");
-      richTextEditor.setText(Html.fromHtml(text, Html.FROM_HTML_MODE_LEGACY));
+      loadNote(requireArguments().getLong(LibraryKeys.NOTE_ID));
     }
 
     richTextEditor.setSelection(richTextEditor.getEditableText().length());
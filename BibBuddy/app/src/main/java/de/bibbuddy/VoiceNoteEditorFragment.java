@@ -3,6 +3,7 @@ package de.bibbuddy;
 import android.app.AlertDialog;
 import android.media.MediaRecorder;
 import android.os.Bundle;
+import android.os.StrictMode;
 import android.text.Html;
 import android.text.Spanned;
 import android.util.Log;
@@ -39,17 +40,34 @@ public class VoiceNoteEditorFragment extends BackStackFragment {
   private MediaRecorder recorder;
   private File newAudio;
   private boolean isRecording = false;
+  private boolean saving = false;
+  private boolean closeAfterSave = false;
 
   private void setupAudio() {
     MainActivity mainActivity = (MainActivity) requireActivity();
-    String filePath = mainActivity.getExternalCacheDir().getAbsolutePath();
-    if (noteModel.getVoiceNoteList().isEmpty()) {
-      filePath += "/audio_record_1.mp4";
-    } else {
-      filePath += "/audio_record_" + noteModel.getVoiceNoteList().size() + 1 + ".mp4";
-    }
 
-    newAudio = new File(filePath);
+    // The recording can only start after the name of its file is known
+    recordBtn.setEnabled(false);
+
+    noteModel.countVoiceNotes(voiceNoteCount -> {
+      if (!isAdded()) {
+        return;
+      }
+
+      // The cache directory is created on first use, like the file that the recorder creates
+      StrictMode.ThreadPolicy threadPolicy = StrictMode.allowThreadDiskWrites();
+      String filePath = mainActivity.getExternalCacheDir().getAbsolutePath();
+      StrictMode.setThreadPolicy(threadPolicy);
+
+      if (voiceNoteCount == 0) {
+        filePath += "/audio_record_1.mp4";
+      } else {
+        filePath += "/audio_record_" + voiceNoteCount + 1 + ".mp4";
+      }
+
+      newAudio = new File(filePath);
+      recordBtn.setEnabled(true);
+    }, error -> Toast.makeText(mainActivity, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   private void setupMainActivity() {
@@ -58,8 +76,13 @@ public class VoiceNoteEditorFragment extends BackStackFragment {
     mainActivity.setVisibilityImportShareBtn(View.GONE, View.GONE);
     mainActivity.setVisibilitySortBtn(false);
 
-    mainActivity.updateHeaderFragment(noteModel.getBookNameByBookId(bookId));
     mainActivity.updateNavigationFragment(R.id.navigation_library);
+
+    noteModel.loadBookName(bookId, bookName -> {
+      if (isAdded()) {
+        mainActivity.updateHeaderFragment(bookName);
+      }
+    }, error -> Toast.makeText(mainActivity, R.string.database_error, Toast.LENGTH_LONG).show());
   }
 
   /**
@@ -122,10 +145,14 @@ public class VoiceNoteEditorFragment extends BackStackFragment {
     recorder.setAudioEncodingBitRate(56000);
     recorder.setOutputFile(newAudio.getPath());
 
+    // Only the output file is created on the main thread, the recorder writes it later
+    StrictMode.ThreadPolicy threadPolicy = StrictMode.allowThreadDiskWrites();
     try {
       recorder.prepare();
     } catch (IOException ex) {
       Log.e(TAG, ex.toString(), ex);
+    } finally {
+      StrictMode.setThreadPolicy(threadPolicy);
     }
 
     recorder.start();
@@ -140,16 +167,59 @@ public class VoiceNoteEditorFragment extends BackStackFragment {
   }
 
   private void saveNote() {
+    MainActivity mainActivity = (MainActivity) requireActivity();
     Long currentTime = new Date().getTime();
     String fileName =
         getString(R.string.voice_note_name) + DateConverter.convertDateToString(currentTime);
 
-    noteModel.createNote(fileName, NoteTypeLut.AUDIO, "", newAudio.getPath());
-    noteModel.linkNoteWithBook(bookId, noteModel.getLastNote().getId());
+    saving = true;
+    noteModel.createNote(fileName, NoteTypeLut.AUDIO, "", newAudio.getPath(), bookId,
+        newNote -> {
+          saving = false;
+          if (!isAdded()) {
+            return;
+          }
+
+          if (newNote == null) {
+            Toast.makeText(mainActivity, R.string.database_error, Toast.LENGTH_LONG).show();
+          } else {
+            Toast.makeText(mainActivity, getString(R.string.voice_note_saved),
+                           Toast.LENGTH_SHORT)
+                .show();
+          }
+
+          closeIfRequested();
+        }, error -> {
+          saving = false;
+          if (!isAdded()) {
+            return;
+          }
+
+          Toast.makeText(mainActivity, R.string.database_error, Toast.LENGTH_LONG).show();
+          closeIfRequested();
+        });
+  }
 
-    Toast.makeText(requireActivity(), getString(R.string.voice_note_saved),
-                   Toast.LENGTH_SHORT)
-        .show();
+  private void closeIfRequested() {
+    if (closeAfterSave) {
+      closeFragment();
+    }
+  }
+
+  @Override
+  protected void onBackPressed() {
+    if (isRecording) {
+      recordBtn.setSelected(false);
+      record(false);
+    }
+
+    // The editor is closed after the note was saved, so the noteList that is shown next
+    // already contains it
+    if (saving) {
+      closeAfterSave = true;
+    } else {
+      closeFragment();
+    }
   }
 
   @Nullable
@@ -167,6 +237,8 @@ public class VoiceNoteEditorFragment extends BackStackFragment {
     pulse = view.findViewById(R.id.ripple_animation);
     recordBtn = view.findViewById(R.id.record_btn);
 
+    enableBackPressedHandler();
+
     setupAudio();
     setupOnClickListener();
     setHasOptionsMenu(true);
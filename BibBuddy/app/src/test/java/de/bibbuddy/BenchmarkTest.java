@@ -0,0 +1,10 @@
+package de.bibbuddy;
+
+/**
+ * Category of the benchmarks. They are left out of the normal unit tests and only run with
+ * ./gradlew testDebugUnitTest -Pbenchmark, so the timings are always measured on their own.
+ *
+ * @author Silvia Ivanova
+ */
+public interface BenchmarkTest {
+}
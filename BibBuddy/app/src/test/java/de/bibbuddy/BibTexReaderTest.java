@@ -0,0 +1,73 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Test;
+
+/**
+ * Tests for the BibTexReader class.
+ *
+ * @author Silvia Ivanova
+ */
+public class BibTexReaderTest {
+
+  private static final String BIB_TEXT =
+      "% text outside of entries is ignored\n"
+          + "@string{pub = \"Springer\"}\n"
+          + "@comment{not {an} entry}\n"
+          + "@Book{companion,\n"
+          + "  title = {The {LaTeX} Companion},\n"
+          + "\tauthor = \"Mittelbach, Frank and Goossens, Michel\",\n"
+          + "  publisher = pub # { Verlag},\n"
+          + "  year = 2004,\n"
+          + "  note = {a \"quoted\"\n   note}\n"
+          + "}\n"
+          + "@article(odd, title = \"An {\"}odd{\"} title\")\n"
+          + "@book{broken, title = {unterminated\n";
+
+  @Test
+  public void next_Test() throws IOException {
+    BibTexReader reader = new BibTexReader(new StringReader(BIB_TEXT));
+
+    BibTexItem book = reader.next();
+    assertEquals(BibTexKeys.ENTRY_BOOK, book.getType());
+    assertEquals("companion", book.getKey());
+    assertEquals("The LaTeX Companion", book.getField(BibTexKeys.FIELD_TITLE));
+    assertEquals("Mittelbach, Frank and Goossens, Michel",
+                 book.getField(BibTexKeys.FIELD_AUTHOR));
+    assertEquals("Springer Verlag", book.getField(BibTexKeys.FIELD_PUBLISHER));
+    assertEquals("2004", book.getField(BibTexKeys.FIELD_YEAR));
+    assertEquals("a \"quoted\" note", book.getField(BibTexKeys.FIELD_NOTE));
+    assertEquals("", book.getField(BibTexKeys.FIELD_ISBN));
+
+    BibTexItem article = reader.next();
+    assertEquals("article", article.getType());
+    assertEquals("An \"odd\" title", article.getField(BibTexKeys.FIELD_TITLE));
+
+    assertNull(reader.next());
+  }
+
+  @Test
+  public void next_parenthesizedSkippedEntries_Test() throws IOException {
+    BibTexReader reader = new BibTexReader(new StringReader(
+        "@preamble(\"\\newcommand{\\x}{y}\")\n"
+            + "@comment(see (this) entry)\n"
+            + "@book{key, title = {Title}}\n"));
+
+    BibTexItem book = reader.next();
+    assertEquals("key", book.getKey());
+    assertEquals("Title", book.getField(BibTexKeys.FIELD_TITLE));
+
+    assertNull(reader.next());
+  }
+
+  @Test
+  public void normalize_Test() {
+    assertEquals("a b c", BibTexReader.normalize("  {a}\n\t b  {{c}} "));
+    assertEquals("", BibTexReader.normalize("{}"));
+  }
+
+}
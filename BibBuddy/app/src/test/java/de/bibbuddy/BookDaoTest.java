@@ -0,0 +1,86 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests for the BookDao class.
+ *
+ * @author Silvia Ivanova
+ */
+public class BookDaoTest extends DatabaseTest {
+
+  private static RecentBookItem findItem(List<RecentBookItem> bookItems, Long bookId) {
+    for (RecentBookItem bookItem : bookItems) {
+      if (bookItem.getId().equals(bookId)) {
+        return bookItem;
+      }
+    }
+
+    throw new AssertionError("Book " + bookId + " not found");
+  }
+
+  @Test
+  public void findRecentBookItems_authorOrder_Test() {
+    BookDao bookDao = new BookDao(dbHelper);
+    Shelf shelf = new ShelfDao(dbHelper).create(new Shelf("Shelf", null));
+
+    // Turing is saved first with the lower id, but is linked last with the second book
+    bookDao.create(new Book(null, "First", null, 2021, null, null, null, null),
+                   Collections.singletonList(new Author("Alan", "Turing")), shelf.getId());
+    Book second =
+        bookDao.create(new Book(null, "Second", null, 2021, null, null, null, null),
+                       Arrays.asList(new Author("Ada", "Lovelace"), new Author("Alan", "Turing")),
+                       shelf.getId());
+
+    RecentBookItem bookItem = findItem(bookDao.findRecentBookItems(2), second.getId());
+    assertEquals("Ada Lovelace, Alan Turing", bookItem.getAuthors());
+  }
+
+  @Test
+  public void create_unknownShelf_Test() {
+    BookDao bookDao = new BookDao(dbHelper);
+
+    // The link with the shelf fails, so the book and its author are rolled back
+    Book book = bookDao.create(new Book(null, "Lost", null, 2021, null, null, null, null),
+                               Collections.singletonList(new Author("Grace", "Hopper")), 42L);
+
+    assertNull(book);
+    assertTrue(bookDao.findAllBooks().isEmpty());
+  }
+
+  @Test
+  public void hasBooks_Test() {
+    BookDao bookDao = new BookDao(dbHelper);
+    Shelf shelf = new ShelfDao(dbHelper).create(new Shelf("Shelf", null));
+
+    assertFalse(bookDao.hasBooks());
+
+    bookDao.create(new Book(null, "Title", null, 2021, null, null, null, null),
+                   Collections.emptyList(), shelf.getId());
+
+    assertTrue(bookDao.hasBooks());
+  }
+
+  @Test
+  public void hasBooksInShelf_Test() {
+    BookDao bookDao = new BookDao(dbHelper);
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    Shelf emptyShelf = shelfDao.create(new Shelf("Empty", null));
+    Shelf shelf = shelfDao.create(new Shelf("Shelf", null));
+
+    bookDao.create(new Book(null, "Title", null, 2021, null, null, null, null),
+                   Collections.emptyList(), shelf.getId());
+
+    assertFalse(bookDao.hasBooksInShelf(emptyShelf.getId()));
+    assertTrue(bookDao.hasBooksInShelf(shelf.getId()));
+  }
+
+}
@@ -0,0 +1,156 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Compares the import, listing and search workloads with the default settings of SQLite
+ * and with the performance profile. Every profile runs the workloads several times and the
+ * fastest run of each workload counts. The timings of both profiles are written to the
+ * report file of the build. The test fails if the performance profile needs longer for a
+ * workload than the default settings times the threshold, which can be set with
+ * -Pbenchmark.profileThreshold.
+ *
+ * @author Sarah Kurek
+ */
+@Category(BenchmarkTest.class)
+@RunWith(RobolectricTestRunner.class)
+public class ConnectionProfileBenchmarkTest {
+
+  private static final String DB_NAME = "BibBuddyStorage.db";
+  private static final int BOOK_COUNT = 1000;
+  private static final int BATCH_SIZE = 200;
+  private static final int RUN_COUNT = 3;
+  private static final double DEFAULT_THRESHOLD = 1.0;
+  private static final List<String> WORDS =
+      Arrays.asList("algebra", "biology", "chemistry", "design", "economy", "film", "geology");
+
+  private static List<BibTexEntry> createEntries(int first, int count) {
+    List<BibTexEntry> entries = new ArrayList<>();
+    for (int i = first; i < first + count; i++) {
+      String word = WORDS.get(i % WORDS.size());
+      Book book = new Book(null, "Book " + i + " " + word, "About " + word, 2000 + i % 20,
+                           "Publisher " + i % 10, null, null, null);
+      List<Author> authors = Arrays.asList(new Author("First" + i % 50, "Last" + i % 50));
+
+      entries.add(new BibTexEntry(book, authors, "<p>Notes on " + word + " " + i + "</p>"));
+    }
+
+    return entries;
+  }
+
+  private static long millisSince(long start) {
+    return (System.nanoTime() - start) / 1_000_000;
+  }
+
+  // Runs the workloads RUN_COUNT times and keeps the fastest timing of each workload
+  private static Map<String, Long> runFastestWorkloads(ConnectionProfile profile) {
+    Map<String, Long> fastestTimings = new LinkedHashMap<>();
+
+    for (int run = 0; run < RUN_COUNT; run++) {
+      for (Map.Entry<String, Long> timing : runWorkloads(profile).entrySet()) {
+        fastestTimings.merge(timing.getKey(), timing.getValue(), Math::min);
+      }
+    }
+
+    return fastestTimings;
+  }
+
+  private static Map<String, Long> runWorkloads(ConnectionProfile profile) {
+    Map<String, Long> timings = new LinkedHashMap<>();
+    Context context = ApplicationProvider.getApplicationContext();
+    DatabaseHelper.closeInstance();
+    context.deleteDatabase(DB_NAME);
+
+    DatabaseHelper dbHelper = DatabaseHelper.getInstance(context, profile);
+    Long shelfId = new ShelfDao(dbHelper).create(new Shelf("Benchmark", null)).getId();
+
+    long start = System.nanoTime();
+    ImportDao importDao = new ImportDao(dbHelper);
+    int importedBooks = 0;
+    for (int first = 0; first < BOOK_COUNT; first += BATCH_SIZE) {
+      importedBooks += importDao.createBatch(createEntries(first, BATCH_SIZE), shelfId);
+    }
+    timings.put("import", millisSince(start));
+    assertEquals(BOOK_COUNT, importedBooks);
+
+    start = System.nanoTime();
+    BookDao bookDao = new BookDao(dbHelper);
+    int listedBooks = 0;
+    KeysetPage page = KeysetPage.first(SortTypeLut.NAME_ASCENDING);
+    List<BookItem> bookItems = bookDao.findBookItemsForShelf(shelfId, page);
+    while (!bookItems.isEmpty()) {
+      listedBooks += bookItems.size();
+      page = page.next(bookItems.get(bookItems.size() - 1));
+      bookItems = bookDao.findBookItemsForShelf(shelfId, page);
+    }
+    timings.put("list", millisSince(start));
+    assertEquals(BOOK_COUNT, listedBooks);
+
+    start = System.nanoTime();
+    SearchDao searchDao = new SearchDao(dbHelper);
+    for (String word : WORDS) {
+      for (SearchTypeLut searchType : SearchTypeLut.values()) {
+        searchDao.findSearchHits(word.substring(0, 4), searchType, null);
+      }
+    }
+    timings.put("search", millisSince(start));
+
+    DatabaseHelper.closeInstance();
+
+    return timings;
+  }
+
+  @After
+  public void tearDown() {
+    DatabaseHelper.closeInstance();
+  }
+
+  @Test
+  public void connectionProfiles_Test() throws IOException {
+    double threshold =
+        Double.parseDouble(System.getProperty("benchmark.profileThreshold",
+                                              String.valueOf(DEFAULT_THRESHOLD)));
+
+    Map<String, Long> defaultTimings = runFastestWorkloads(ConnectionProfile.DEFAULT);
+    Map<String, Long> performanceTimings = runFastestWorkloads(ConnectionProfile.PERFORMANCE);
+
+    Map<String, Long> timings = new LinkedHashMap<>();
+    List<String> slowerWorkloads = new ArrayList<>();
+    for (Map.Entry<String, Long> timing : performanceTimings.entrySet()) {
+      long defaultMillis = defaultTimings.get(timing.getKey());
+      timings.put("default." + timing.getKey(), defaultMillis);
+      timings.put("performance." + timing.getKey(), timing.getValue());
+
+      if (timing.getValue() > Math.round(defaultMillis * threshold)) {
+        slowerWorkloads.add(timing.getKey() + " took " + timing.getValue() + " ms, default "
+                                + defaultMillis + " ms");
+      }
+    }
+
+    String reportFile = System.getProperty("benchmark.profileReportFile");
+    if (reportFile != null) {
+      LibraryBenchmarkTest.storeTimings(timings, reportFile,
+                                        "ConnectionProfileBenchmarkTest in ms, fastest of "
+                                            + RUN_COUNT + " runs");
+    }
+
+    assertTrue("Performance profile is slower: " + slowerWorkloads + ", all timings: "
+                   + timings, slowerWorkloads.isEmpty());
+  }
+
+}
@@ -0,0 +1,70 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Tests for the DatabaseExecutor class.
+ *
+ * @author Sarah Kurek
+ */
+@RunWith(RobolectricTestRunner.class)
+public class DatabaseExecutorTest {
+
+  @Test
+  public void write_Test() throws Exception {
+    DatabaseExecutor databaseExecutor = DatabaseExecutor.getInstance();
+    List<Thread> writeThreads = new ArrayList<>();
+    List<String> results = new ArrayList<>();
+
+    Future<String> future = databaseExecutor.write(() -> {
+      writeThreads.add(Thread.currentThread());
+      return "result";
+    }, results::add);
+
+    assertEquals("result", future.get());
+    assertNotEquals(Thread.currentThread(), writeThreads.get(0));
+
+    // The writes run one after the other, so the first result is posted when this one is done
+    databaseExecutor.write(() -> writeThreads.add(Thread.currentThread()), null).get();
+    assertEquals(writeThreads.get(0), writeThreads.get(1));
+    assertTrue(results.isEmpty());
+
+    shadowOf(Looper.getMainLooper()).idle();
+    assertEquals(1, results.size());
+  }
+
+  @Test
+  public void write_error_Test() throws Exception {
+    DatabaseExecutor databaseExecutor = DatabaseExecutor.getInstance();
+    List<String> results = new ArrayList<>();
+    List<Throwable> errors = new ArrayList<>();
+
+    Future<String> future = databaseExecutor.write(() -> {
+      throw new IllegalStateException("failed");
+    }, results::add, errors::add);
+
+    try {
+      future.get();
+    } catch (ExecutionException ex) {
+      // The error is delivered to the error listener
+    }
+
+    shadowOf(Looper.getMainLooper()).idle();
+    assertTrue(results.isEmpty());
+    assertEquals(1, errors.size());
+    assertEquals("failed", errors.get(0).getMessage());
+  }
+
+}
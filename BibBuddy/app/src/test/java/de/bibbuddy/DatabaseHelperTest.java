@@ -0,0 +1,94 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.content.ContentValues;
+import android.database.DatabaseUtils;
+import android.database.sqlite.SQLiteDatabase;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the DatabaseHelper class.
+ *
+ * @author Sarah Kurek
+ */
+public class DatabaseHelperTest extends DatabaseTest {
+
+  private SQLiteDatabase db;
+
+  private static boolean usesIndex(List<String> queryPlan) {
+    for (String detail : queryPlan) {
+      if (!detail.contains("INDEX") || detail.startsWith("SCAN")) {
+        return false;
+      }
+    }
+
+    return !queryPlan.isEmpty();
+  }
+
+  private void assertUsesIndex(String table, String column) {
+    List<String> queryPlan = DatabaseHelper.explainQueryPlan(
+        db, "SELECT * FROM " + table + " WHERE " + column + " = ?", new String[] {"1"});
+
+    assertTrue(table + "." + column + ": " + queryPlan, usesIndex(queryPlan));
+  }
+
+  private ContentValues shelfBookValues() {
+    ContentValues values = new ContentValues();
+    values.put(DatabaseHelper.SHELF_ID, 1);
+    values.put(DatabaseHelper.BOOK_ID, 1);
+
+    return values;
+  }
+
+  @Before
+  public void setUp() {
+    db = dbHelper.getWritableDatabase();
+  }
+
+  @Test
+  public void linkTableIndex_Test() {
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK, DatabaseHelper.SHELF_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK, DatabaseHelper.BOOK_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK, DatabaseHelper.BOOK_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_BOOK_NOTE_LNK, DatabaseHelper.NOTE_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK, DatabaseHelper.BOOK_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_AUTHOR_BOOK_LNK, DatabaseHelper.AUTHOR_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_BOOK_TAG_LNK, DatabaseHelper.TAG_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_NOTE_TAG_LNK, DatabaseHelper.TAG_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_BOOK_LINK, DatabaseHelper.BOOK_ORIGIN_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_BOOK_LINK, DatabaseHelper.BOOK_REF_ID);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_BOOK, DatabaseHelper.MOD_DATE);
+    assertUsesIndex(DatabaseHelper.TABLE_NAME_SHELF, DatabaseHelper.SHELF_ID);
+  }
+
+  @Test
+  public void connectionProfile_Test() {
+    ConnectionProfile profile = ConnectionProfile.PERFORMANCE;
+
+    assertEquals("wal", DatabaseUtils.stringForQuery(db, "PRAGMA journal_mode", null));
+    assertEquals(1, DatabaseUtils.longForQuery(db, "PRAGMA foreign_keys", null));
+    assertEquals(profile.getCacheSize(),
+                 DatabaseUtils.longForQuery(db, "PRAGMA cache_size", null));
+    assertEquals(profile.getTempStore().ordinal(),
+                 DatabaseUtils.longForQuery(db, "PRAGMA temp_store", null));
+    assertEquals(profile.getSynchronous().ordinal(),
+                 DatabaseUtils.longForQuery(db, "PRAGMA synchronous", null));
+  }
+
+  @Test
+  public void uniqueLink_Test() {
+    db.execSQL("INSERT INTO " + DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK + " ("
+        + DatabaseHelper.SHELF_ID + ", " + DatabaseHelper.BOOK_ID + ") VALUES (1, 1)");
+
+    long id = db.insert(DatabaseHelper.TABLE_NAME_SHELF_BOOK_LNK, null,
+                        shelfBookValues());
+
+    assertFalse(id > 0);
+  }
+
+}
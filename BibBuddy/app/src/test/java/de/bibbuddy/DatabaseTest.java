@@ -0,0 +1,30 @@
+package de.bibbuddy;
+
+import androidx.test.core.app.ApplicationProvider;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Base class for the tests that use the database.
+ * Each test gets the DatabaseHelper of the application, it is closed after the test.
+ *
+ * @author Sarah Kurek
+ */
+@RunWith(RobolectricTestRunner.class)
+public abstract class DatabaseTest {
+
+  protected DatabaseHelper dbHelper;
+
+  @Before
+  public void setUpDatabase() {
+    dbHelper = DatabaseHelper.getInstance(ApplicationProvider.getApplicationContext());
+  }
+
+  @After
+  public void tearDownDatabase() {
+    DatabaseHelper.closeInstance();
+  }
+
+}
@@ -0,0 +1,41 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.junit.Test;
+
+/**
+ * Tests for the DeleteDao class.
+ *
+ * @author Sarah Kurek
+ */
+public class DeleteDaoTest extends DatabaseTest {
+
+  @Test
+  public void deleteShelves_Test() {
+    Shelf shelf = new ShelfDao(dbHelper).create(new Shelf("Shelf", null));
+
+    BookDao bookDao = new BookDao(dbHelper);
+    Book book = bookDao.create(new Book("", "Title", "", 2021, "", "", "", ""),
+                               Collections.singletonList(new Author("Ada", "Lovelace", "")),
+                               shelf.getId());
+
+    NoteDao noteDao = new NoteDao(dbHelper);
+    Note note = noteDao.create(new Note("Note", NoteTypeLut.TEXT, "<p>Text</p>"));
+    noteDao.linkNoteWithBook(book.getId(), note.getId());
+
+    DeleteResult deleteResult =
+        new DeleteDao(dbHelper).deleteShelves(Collections.singletonList(shelf.getId()));
+
+    assertEquals(1, deleteResult.getShelfCount());
+    assertEquals(1, deleteResult.getBookCount());
+    assertEquals(1, deleteResult.getNoteCount());
+    assertEquals(1, deleteResult.getAuthorCount());
+
+    assertTrue(bookDao.getAllAuthorsForBook(book.getId()).isEmpty());
+    assertTrue(noteDao.getAllNoteIdsForBook(book.getId()).isEmpty());
+  }
+
+}
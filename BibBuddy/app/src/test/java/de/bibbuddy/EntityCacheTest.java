@@ -0,0 +1,57 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import org.junit.Test;
+
+/**
+ * Tests for the EntityCache class.
+ *
+ * @author Sarah Kurek
+ */
+public class EntityCacheTest extends DatabaseTest {
+
+  @Test
+  public void findById_Test() {
+    BookDao bookDao = new BookDao(dbHelper);
+    Book book = bookDao.create(new Book("", "Title", "", 2021, "", "", "", ""));
+    EntityCache<Book> bookCache = dbHelper.getBookCache();
+
+    Book cachedBook = bookDao.findById(book.getId());
+    assertSame(cachedBook, bookDao.findById(book.getId()));
+    assertEquals(1, bookCache.getMissCount());
+    assertEquals(1, bookCache.getHitCount());
+
+    Book changedBook = new Book(cachedBook);
+    changedBook.setTitle("New Title");
+    bookDao.updateBook(changedBook, Collections.emptyList());
+
+    Book updatedBook = bookDao.findById(book.getId());
+    assertNotSame(cachedBook, updatedBook);
+    assertEquals("New Title", updatedBook.getTitle());
+
+    new DeleteDao(dbHelper).deleteBooks(Collections.singletonList(book.getId()));
+    assertNull(bookDao.findById(book.getId()));
+  }
+
+  @Test
+  public void get_removedWhileLoading_Test() {
+    EntityCache<Shelf> shelfCache = new EntityCache<>(1024, shelf -> 0);
+    Shelf oldShelf = new Shelf(1L, "Old", 1L, 1L, null);
+    Shelf newShelf = new Shelf(1L, "New", 1L, 2L, null);
+
+    // The shelf is renamed by another thread while its old row is loaded
+    assertSame(oldShelf, shelfCache.get(1L, id -> {
+      shelfCache.remove(id);
+      return oldShelf;
+    }));
+
+    assertSame(newShelf, shelfCache.get(1L, id -> newShelf));
+    assertSame(newShelf, shelfCache.get(1L, id -> oldShelf));
+  }
+
+}
@@ -0,0 +1,125 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests for the ExportDao class.
+ *
+ * @author Silvia Ivanova
+ */
+public class ExportDaoTest extends DatabaseTest {
+
+  private Book createBook(BookDao bookDao, NoteDao noteDao, Long shelfId, String title,
+                          List<Author> authors, String... textNotes) {
+    Book book = bookDao.create(new Book(null, title, null, 2021, null, null, null, null),
+                               authors, shelfId);
+
+    for (String textNote : textNotes) {
+      Note note = noteDao.create(new Note(title + " note", NoteTypeLut.TEXT, textNote));
+      noteDao.linkNoteWithBook(book.getId(), note.getId());
+    }
+
+    return book;
+  }
+
+  // The rendered entries are stored on the writer thread, which runs its tasks in order
+  private void awaitStoredFragments() throws Exception {
+    DatabaseExecutor.getInstance().write(() -> null, null).get();
+  }
+
+  @Test
+  public void exportShelf_Test() throws Exception {
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    BookDao bookDao = new BookDao(dbHelper);
+    NoteDao noteDao = new NoteDao(dbHelper);
+
+    Shelf shelf = shelfDao.create(new Shelf("Shelf", null));
+    Shelf otherShelf = shelfDao.create(new Shelf("Other shelf", null));
+
+    createBook(bookDao, noteDao, shelf.getId(), "First",
+               Arrays.asList(new Author("Ada", "Lovelace"), new Author("Alan", "Turing")),
+               "first note", "second note");
+    createBook(bookDao, noteDao, otherShelf.getId(), "Other",
+               Collections.singletonList(new Author("Grace", "Hopper")), "other note");
+    createBook(bookDao, noteDao, shelf.getId(), "Second", new ArrayList<>());
+    createBook(bookDao, noteDao, shelf.getId(), "Third",
+               Collections.singletonList(new Author("Edsger", "Dijkstra")), "third note");
+
+    EntryCollector entries = new EntryCollector();
+    new ExportDao(dbHelper).exportShelf(shelf.getId(), entries);
+
+    assertEquals(3, entries.bookCount);
+    assertEquals(Arrays.asList("First Lovelace Turing [first note] [second note]", "Second",
+                               "Third Dijkstra [third note]"), entries.entries);
+  }
+
+  @Test
+  public void exportShelf_storedFragments_Test() throws Exception {
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    BookDao bookDao = new BookDao(dbHelper);
+    NoteDao noteDao = new NoteDao(dbHelper);
+
+    Shelf shelf = shelfDao.create(new Shelf("Shelf", null));
+    createBook(bookDao, noteDao, shelf.getId(), "First", new ArrayList<>(), "first note");
+    Book second = createBook(bookDao, noteDao, shelf.getId(), "Second", new ArrayList<>());
+
+    ExportDao exportDao = new ExportDao(dbHelper);
+    EntryCollector firstExport = new EntryCollector();
+    exportDao.exportShelf(shelf.getId(), firstExport);
+    assertEquals(2, firstExport.renderedBooks);
+    awaitStoredFragments();
+
+    EntryCollector secondExport = new EntryCollector();
+    exportDao.exportShelf(shelf.getId(), secondExport);
+    assertEquals(0, secondExport.renderedBooks);
+    assertEquals(firstExport.entries, secondExport.entries);
+
+    Note note = noteDao.create(new Note("Second note", NoteTypeLut.TEXT, "new note"));
+    noteDao.linkNoteWithBook(second.getId(), note.getId());
+
+    EntryCollector thirdExport = new EntryCollector();
+    exportDao.exportShelf(shelf.getId(), thirdExport);
+    assertEquals(1, thirdExport.renderedBooks);
+    assertEquals(Arrays.asList("First [first note]", "Second [new note]"),
+                 thirdExport.entries);
+  }
+
+  private static class EntryCollector implements ExportDao.BookEntryListener {
+
+    private final List<String> entries = new ArrayList<>();
+    private int bookCount;
+    private int renderedBooks;
+
+    @Override
+    public void onBookCount(int bookCount) {
+      this.bookCount = bookCount;
+    }
+
+    @Override
+    public String renderBookEntry(Book book, List<Author> authors, List<String> textNotes) {
+      renderedBooks++;
+
+      StringBuilder entry = new StringBuilder(book.getTitle());
+      for (Author author : authors) {
+        entry.append(' ').append(author.getLastName());
+      }
+      for (String textNote : textNotes) {
+        entry.append(" [").append(textNote).append(']');
+      }
+
+      return entry.toString();
+    }
+
+    @Override
+    public void onBookEntry(String bookEntry) {
+      entries.add(bookEntry);
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import android.net.Uri;
+import androidx.test.core.app.ApplicationProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import org.junit.Test;
+
+/**
+ * Tests for the ImportBibTex class.
+ *
+ * @author Silvia Ivanova
+ */
+public class ImportBibTexTest extends DatabaseTest {
+
+  // More entries than fit into the queue of the parsed entries and into one batch
+  private static final int ENTRY_COUNT = 450;
+
+  private static String getTitle(int i) {
+    return String.format(Locale.ROOT, "Book %03d", i);
+  }
+
+  private static Uri writeBibFile(String bibText) throws IOException {
+    File file = new File(ApplicationProvider.getApplicationContext().getCacheDir(),
+                         "import.bib");
+    try (Writer writer =
+             new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+      writer.write(bibText);
+    }
+
+    return Uri.fromFile(file);
+  }
+
+  // The import runs on the writer thread like in the app
+  private static int importBibFile(Uri uri, Long shelfId) throws Exception {
+    ImportBibTex importBibTex = new ImportBibTex(ApplicationProvider.getApplicationContext());
+
+    return DatabaseExecutor.getInstance()
+        .write(() -> importBibTex.importBibItems(uri, shelfId), null).get();
+  }
+
+  @Test
+  public void importBibItems_Test() throws Exception {
+    Long shelfId = new ShelfDao(dbHelper).create(new Shelf("Import", null)).getId();
+
+    StringBuilder bibText = new StringBuilder();
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      bibText.append("@book{key").append(i).append(", title = {").append(getTitle(i))
+          .append("}, author = {Last, First}, year = 2021}\n");
+    }
+    bibText.append("@book{key0, title = {Duplicate}}\n");
+
+    assertEquals(ENTRY_COUNT, importBibFile(writeBibFile(bibText.toString()), shelfId));
+
+    // The books are saved in the order of the file
+    List<Book> books = new BookDao(dbHelper).getAllBooksForShelf(shelfId);
+    books.sort(Comparator.comparing(Book::getId));
+    assertEquals(ENTRY_COUNT, books.size());
+    for (int i = 0; i < ENTRY_COUNT; i++) {
+      assertEquals(getTitle(i), books.get(i).getTitle());
+    }
+  }
+
+  @Test
+  public void importBibItems_missingFile_Test() throws Exception {
+    Long shelfId = new ShelfDao(dbHelper).create(new Shelf("Import", null)).getId();
+    File missingFile = new File(ApplicationProvider.getApplicationContext().getCacheDir(),
+                                "missing.bib");
+
+    try {
+      importBibFile(Uri.fromFile(missingFile), shelfId);
+      fail("The import of a missing file did not fail");
+    } catch (ExecutionException ex) {
+      assertTrue(ex.getCause().toString(), ex.getCause() instanceof IOException);
+    }
+  }
+
+}
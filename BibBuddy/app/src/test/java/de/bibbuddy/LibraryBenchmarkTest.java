@@ -0,0 +1,344 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.net.Uri;
+import android.os.Looper;
+import androidx.test.core.app.ApplicationProvider;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Runs the queries of the library, book and note lists, the search, the BibTeX import and
+ * export and the deletes on a generated library and compares their timings with
+ * benchmark-baseline.properties. The test fails if a workload takes longer than its baseline
+ * times the threshold, which can be set with -Pbenchmark.threshold. A workload without
+ * baseline is reported as a warning and not checked.
+ * With -Pbenchmark.record the timings are written to the baseline file instead, which is
+ * then committed. The library size can be multiplied with -Pbenchmark.scale, the baseline is
+ * only checked and recorded for the default size.
+ * The timings of each run are written to the report file of the build.
+ * The models load their lists on the DatabaseExecutor, so the queries of their page loaders
+ * are timed directly. The search runs through the SearchModel and the import through the
+ * ImportBibTex with a BibTeX file like in the app.
+ *
+ * @author Silvia Ivanova
+ */
+@Category(BenchmarkTest.class)
+@RunWith(RobolectricTestRunner.class)
+public class LibraryBenchmarkTest {
+
+  private static final String DB_NAME = "BibBuddyStorage.db";
+  private static final String BASELINE_FILE = "benchmark-baseline.properties";
+
+  private static final int SHELF_COUNT = 10;
+  private static final int BOOKS_PER_SHELF = 100;
+  private static final int AUTHORS_PER_BOOK = 2;
+  private static final int NOTES_PER_BOOK = 3;
+  private static final int NOTE_LENGTH = 400;
+
+  private static final double DEFAULT_THRESHOLD = 1.5;
+  private static final long SEARCH_TIMEOUT_MILLIS = 10000;
+  private static final int SEARCH_PREFIX_LENGTH = 3;
+
+  private final Map<String, Long> timings = new LinkedHashMap<>();
+
+  private Context context;
+  private DatabaseHelper dbHelper;
+
+  private static long millisSince(long start) {
+    return (System.nanoTime() - start) / 1_000_000;
+  }
+
+  private static Properties loadBaseline() throws IOException {
+    Properties baseline = new Properties();
+
+    try (InputStream inputStream =
+             LibraryBenchmarkTest.class.getClassLoader().getResourceAsStream(BASELINE_FILE)) {
+      if (inputStream != null) {
+        baseline.load(inputStream);
+      }
+    }
+
+    return baseline;
+  }
+
+  static void storeTimings(Map<String, Long> timings, String fileName, String comment)
+      throws IOException {
+    Properties properties = new Properties();
+    for (Map.Entry<String, Long> timing : timings.entrySet()) {
+      properties.setProperty(timing.getKey(), String.valueOf(timing.getValue()));
+    }
+
+    File file = new File(fileName);
+    File directory = file.getParentFile();
+    if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("Could not create " + directory);
+    }
+
+    try (OutputStream outputStream = new FileOutputStream(file)) {
+      properties.store(outputStream, comment);
+    }
+  }
+
+  private static boolean[] allSearchTypes() {
+    return new boolean[] {true, true, true};
+  }
+
+  @Before
+  public void setUp() {
+    context = ApplicationProvider.getApplicationContext();
+    DatabaseHelper.closeInstance();
+    context.deleteDatabase(DB_NAME);
+
+    dbHelper = DatabaseHelper.getInstance(context);
+  }
+
+  @After
+  public void tearDown() {
+    DatabaseHelper.closeInstance();
+  }
+
+  // The rendered entries are stored on the writer thread, which runs its tasks in order
+  private static void awaitStoredFragments() throws Exception {
+    DatabaseExecutor.getInstance().write(() -> null, null).get();
+  }
+
+  private Uri writeBibFile(String bibTex, int shelfIndex) throws IOException {
+    File file = new File(context.getCacheDir(), "benchmark-" + shelfIndex + ".bib");
+    try (Writer writer =
+             new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+      writer.write(bibTex);
+    }
+
+    return Uri.fromFile(file);
+  }
+
+  // Imports the file through the ImportBibTex on the writer thread like the BookFragment
+  private int importShelf(ImportBibTex importBibTex, Uri uri, Long shelfId) throws Exception {
+    return DatabaseExecutor.getInstance()
+        .write(() -> importBibTex.importBibItems(uri, shelfId), null).get();
+  }
+
+  private List<BookItem> listBooks(BookDao bookDao, Long shelfId, SortTypeLut sortTypeLut) {
+    List<BookItem> bookItems = new ArrayList<>();
+
+    KeysetPage page = KeysetPage.first(sortTypeLut);
+    List<BookItem> pageItems = bookDao.findBookItemsForShelf(shelfId, page);
+    while (!pageItems.isEmpty()) {
+      bookItems.addAll(pageItems);
+      page = page.next(pageItems.get(pageItems.size() - 1));
+      pageItems = bookDao.findBookItemsForShelf(shelfId, page);
+    }
+
+    return bookItems;
+  }
+
+  private int listShelves(ShelfDao shelfDao, SortTypeLut sortTypeLut) {
+    int shelfCount = 0;
+
+    KeysetPage page = KeysetPage.first(sortTypeLut);
+    List<ShelfItem> pageItems = shelfDao.findShelfItemsByParentId(null, page);
+    while (!pageItems.isEmpty()) {
+      shelfCount += pageItems.size();
+      page = page.next(pageItems.get(pageItems.size() - 1));
+      pageItems = shelfDao.findShelfItemsByParentId(null, page);
+    }
+
+    return shelfCount;
+  }
+
+  private int listNotes(NoteDao noteDao, SortTypeLut sortTypeLut) {
+    int noteCount = 0;
+
+    KeysetPage page = KeysetPage.first(sortTypeLut);
+    List<NoteSummary> pageItems = noteDao.findAll(page);
+    while (!pageItems.isEmpty()) {
+      noteCount += pageItems.size();
+      page = page.next(new NoteTextItem(pageItems.get(pageItems.size() - 1)));
+      pageItems = noteDao.findAll(page);
+    }
+
+    return noteCount;
+  }
+
+  // Searches for every word like a user who types it, so the later searches are narrowed down
+  private int search(SearchModel searchModel, String word) throws InterruptedException {
+    int resultCount = 0;
+
+    for (int length = SEARCH_PREFIX_LENGTH; length <= word.length(); length++) {
+      List<Integer> finishedResults = new ArrayList<>();
+      SearchModel.SearchResultListListener listener = (searchResults, isFinished) -> {
+        if (isFinished) {
+          finishedResults.add(searchResults.size());
+        }
+      };
+      searchModel.search(word.substring(0, length), SortTypeLut.NAME_ASCENDING,
+                         allSearchTypes(), false, listener);
+
+      long end = System.currentTimeMillis() + SEARCH_TIMEOUT_MILLIS;
+      while (finishedResults.isEmpty() && System.currentTimeMillis() < end) {
+        Thread.sleep(1);
+        shadowOf(Looper.getMainLooper()).idle();
+      }
+
+      assertEquals("Search for " + word.substring(0, length) + " did not finish",
+                   1, finishedResults.size());
+      resultCount = finishedResults.get(0);
+    }
+
+    return resultCount;
+  }
+
+  // A workload without baseline is only reported, so the benchmark can run before a
+  // baseline was recorded on the machine
+  private void checkBaseline(double threshold) throws IOException {
+    Properties baseline = loadBaseline();
+    List<String> regressions = new ArrayList<>();
+
+    for (Map.Entry<String, Long> timing : timings.entrySet()) {
+      String baselineMillis = baseline.getProperty(timing.getKey());
+      if (baselineMillis == null) {
+        System.err.println("Warning: " + timing.getKey() + " took " + timing.getValue()
+                               + " ms without baseline, record it with -Pbenchmark.record");
+        continue;
+      }
+
+      long maxMillis = Math.round(Long.parseLong(baselineMillis) * threshold);
+      if (timing.getValue() > maxMillis) {
+        regressions.add(timing.getKey() + " took " + timing.getValue() + " ms, baseline "
+                            + baselineMillis + " ms");
+      }
+    }
+
+    assertTrue("Performance regression: " + regressions + ", all timings: " + timings,
+               regressions.isEmpty());
+  }
+
+  @Test
+  public void libraryBenchmark_Test() throws Exception {
+    int scale = Integer.getInteger("benchmark.scale", 1);
+    double threshold =
+        Double.parseDouble(System.getProperty("benchmark.threshold",
+                                              String.valueOf(DEFAULT_THRESHOLD)));
+
+    LibraryGenerator generator = new LibraryGenerator(SHELF_COUNT, BOOKS_PER_SHELF * scale,
+                                                      AUTHORS_PER_BOOK, NOTES_PER_BOOK,
+                                                      NOTE_LENGTH);
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    BookDao bookDao = new BookDao(dbHelper);
+    NoteDao noteDao = new NoteDao(dbHelper);
+    List<Long> shelfIds = generator.createShelves(shelfDao);
+
+    List<Uri> bibTexFiles = new ArrayList<>();
+    for (int i = 0; i < generator.getShelfCount(); i++) {
+      bibTexFiles.add(writeBibFile(generator.createBibTex(i), i));
+    }
+
+    long start = System.nanoTime();
+    ImportBibTex importBibTex = new ImportBibTex(context);
+    int importedBooks = 0;
+    for (int i = 0; i < shelfIds.size(); i++) {
+      importedBooks += importShelf(importBibTex, bibTexFiles.get(i), shelfIds.get(i));
+    }
+    timings.put("import", millisSince(start));
+    assertEquals(generator.getBookCount(), importedBooks);
+
+    List<Long> bookIds = new ArrayList<>();
+    for (Long shelfId : shelfIds) {
+      for (BookItem bookItem : listBooks(bookDao, shelfId, SortTypeLut.NAME_ASCENDING)) {
+        bookIds.add(bookItem.getId());
+      }
+    }
+    generator.createNotes(noteDao, bookIds);
+
+    start = System.nanoTime();
+    for (SortTypeLut sortTypeLut : SortTypeLut.LIST_SORT_TYPES) {
+      assertEquals(generator.getShelfCount(), listShelves(shelfDao, sortTypeLut));
+    }
+    timings.put("library_list", millisSince(start));
+
+    start = System.nanoTime();
+    int listedBooks = 0;
+    for (SortTypeLut sortTypeLut : SortTypeLut.LIST_SORT_TYPES) {
+      for (Long shelfId : shelfIds) {
+        listedBooks += listBooks(bookDao, shelfId, sortTypeLut).size();
+      }
+    }
+    timings.put("book_list", millisSince(start));
+    assertEquals(SortTypeLut.LIST_SORT_TYPES.length * generator.getBookCount(), listedBooks);
+
+    start = System.nanoTime();
+    int listedNotes = listNotes(noteDao, SortTypeLut.MOD_DATE_LATEST);
+    timings.put("note_list", millisSince(start));
+    assertEquals(NOTES_PER_BOOK * generator.getBookCount(), listedNotes);
+
+    SearchModel searchModel = new SearchModel(context);
+    start = System.nanoTime();
+    for (String word : LibraryGenerator.WORDS) {
+      assertTrue(search(searchModel, word) > 0);
+    }
+    timings.put("search", millisSince(start));
+    searchModel.close();
+
+    ShareBibTex shareBibTex = new ShareBibTex(context, "benchmark");
+    start = System.nanoTime();
+    StringWriter firstExport = new StringWriter();
+    shareBibTex.writeBibDataLibrary(firstExport, null);
+    timings.put("export", millisSince(start));
+    awaitStoredFragments();
+
+    start = System.nanoTime();
+    StringWriter secondExport = new StringWriter();
+    shareBibTex.writeBibDataLibrary(secondExport, null);
+    timings.put("export_stored", millisSince(start));
+    assertEquals(firstExport.toString(), secondExport.toString());
+
+    start = System.nanoTime();
+    DeleteDao deleteDao = new DeleteDao(dbHelper);
+    List<Long> deletedBookIds = bookIds.subList(0, bookIds.size() / 2);
+    int deletedBooks = deleteDao.deleteBooks(deletedBookIds).getBookCount();
+    deletedBooks += deleteDao.deleteShelves(shelfIds).getBookCount();
+    timings.put("delete", millisSince(start));
+    assertEquals(generator.getBookCount(), deletedBooks);
+
+    String reportFile = System.getProperty("benchmark.reportFile");
+    if (reportFile != null) {
+      storeTimings(timings, reportFile, "LibraryBenchmarkTest in ms, scale " + scale);
+    }
+
+    if (scale != 1) {
+      return;
+    }
+
+    String baselineFile = System.getProperty("benchmark.baselineFile");
+    if (Boolean.getBoolean("benchmark.record") && baselineFile != null) {
+      storeTimings(timings, baselineFile, "Baseline of LibraryBenchmarkTest in ms, recorded with "
+          + "./gradlew testDebugUnitTest -Pbenchmark -Pbenchmark.record");
+    } else {
+      checkBaseline(threshold);
+    }
+  }
+
+}
@@ -0,0 +1,157 @@
+package de.bibbuddy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The LibraryGenerator creates the same synthetic library for the same settings every time,
+ * because all names and texts are chosen by a random generator with a fixed seed.
+ * The books are written as BibTeX, so that the benchmarks can import them like a file.
+ *
+ * @author Silvia Ivanova
+ */
+public class LibraryGenerator {
+
+  // Words of the titles and notes, the search benchmark searches for their prefixes
+  static final String[] WORDS = {
+      "algebra", "biology", "chemistry", "design", "economy", "film", "geology", "history",
+      "informatics", "journalism", "kinetics", "linguistics", "music", "neurology", "optics",
+      "philosophy", "quantum", "rhetoric", "sociology", "theology"};
+
+  private static final String[] FIRST_NAMES = {
+      "Ada", "Alan", "Barbara", "Claude", "Donald", "Edsger", "Frances", "Grace", "John",
+      "Margaret", "Niklaus", "Radia", "Tim", "Sophie"};
+
+  private static final String[] LAST_NAMES = {
+      "Allen", "Dijkstra", "Hopper", "Kay", "Knuth", "Liskov", "Lovelace", "McCarthy",
+      "Hamilton", "Perlman", "Shannon", "Turing", "Wilson", "Wirth"};
+
+  private static final long SEED = 42;
+
+  private final int shelfCount;
+  private final int booksPerShelf;
+  private final int authorsPerBook;
+  private final int notesPerBook;
+  private final int noteLength;
+
+  private final Random random = new Random(SEED);
+
+  /**
+   * Constructor of the LibraryGenerator.
+   *
+   * @param shelfCount     number of shelves
+   * @param booksPerShelf  number of books in each shelf
+   * @param authorsPerBook number of authors of each book
+   * @param notesPerBook   number of text notes of each book, at least 1
+   * @param noteLength     approximate number of characters of each note
+   */
+  public LibraryGenerator(int shelfCount, int booksPerShelf, int authorsPerBook,
+                          int notesPerBook, int noteLength) {
+    this.shelfCount = shelfCount;
+    this.booksPerShelf = booksPerShelf;
+    this.authorsPerBook = authorsPerBook;
+    this.notesPerBook = notesPerBook;
+    this.noteLength = noteLength;
+  }
+
+  private String randomItem(String[] items) {
+    return items[random.nextInt(items.length)];
+  }
+
+  private String createText(int length) {
+    StringBuilder text = new StringBuilder();
+
+    while (text.length() < length) {
+      if (text.length() > 0) {
+        text.append(' ');
+      }
+
+      text.append(randomItem(WORDS));
+    }
+
+    return text.toString();
+  }
+
+  private String createAuthors() {
+    StringBuilder authors = new StringBuilder();
+
+    for (int i = 0; i < authorsPerBook; i++) {
+      if (i > 0) {
+        authors.append(BibTexKeys.AND_MULTIPLE_AUTHORS);
+      }
+
+      authors.append(randomItem(LAST_NAMES)).append(", ").append(randomItem(FIRST_NAMES));
+    }
+
+    return authors.toString();
+  }
+
+  public int getShelfCount() {
+    return shelfCount;
+  }
+
+  public int getBookCount() {
+    return shelfCount * booksPerShelf;
+  }
+
+  /**
+   * Creates the shelves of the library.
+   *
+   * @param shelfDao DAO that saves the shelves
+   * @return ids of the shelves
+   */
+  public List<Long> createShelves(ShelfDao shelfDao) {
+    List<Long> shelfIds = new ArrayList<>();
+
+    for (int i = 0; i < shelfCount; i++) {
+      shelfIds.add(shelfDao.create(new Shelf("Shelf " + i + " " + randomItem(WORDS), null))
+                       .getId());
+    }
+
+    return shelfIds;
+  }
+
+  /**
+   * Creates the BibTeX file of the books of a shelf. Each book has its first note as annote.
+   *
+   * @param shelfIndex index of the shelf
+   * @return the content of the BibTeX file
+   */
+  public String createBibTex(int shelfIndex) {
+    StringBuilder bibTex = new StringBuilder();
+
+    for (int i = 0; i < booksPerShelf; i++) {
+      String word = randomItem(WORDS);
+
+      bibTex.append('@').append(BibTexKeys.ENTRY_BOOK).append("{book").append(shelfIndex)
+          .append('_').append(i).append(",\n")
+          .append("  title = {").append(word).append(" volume ").append(i).append("},\n")
+          .append("  author = {").append(createAuthors()).append("},\n")
+          .append("  publisher = {").append(randomItem(LAST_NAMES)).append(" Verlag},\n")
+          .append("  year = {").append(1950 + random.nextInt(70)).append("},\n")
+          .append("  annote = {<p>").append(createText(noteLength)).append("</p>}\n")
+          .append("}\n\n");
+    }
+
+    return bibTex.toString();
+  }
+
+  /**
+   * Adds the text notes after the first one to the books.
+   *
+   * @param noteDao DAO that saves the notes
+   * @param bookIds ids of the books
+   */
+  public void createNotes(NoteDao noteDao, List<Long> bookIds) {
+    for (Long bookId : bookIds) {
+      for (int i = 1; i < notesPerBook; i++) {
+        Note note = noteDao.create(new Note("Note " + i + " " + randomItem(WORDS),
+                                            NoteTypeLut.TEXT,
+                                            "<p>" + createText(noteLength) + "</p>"));
+        noteDao.linkNoteWithBook(bookId, note.getId());
+      }
+    }
+  }
+
+}
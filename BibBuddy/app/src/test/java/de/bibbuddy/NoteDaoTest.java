@@ -0,0 +1,34 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import org.junit.Test;
+
+/**
+ * Tests for the NoteDao class.
+ *
+ * @author Sabrina Freisleben
+ */
+public class NoteDaoTest extends DatabaseTest {
+
+  @Test
+  public void hasNotesForBook_Test() {
+    Shelf shelf = new ShelfDao(dbHelper).create(new Shelf("Shelf", null));
+
+    BookDao bookDao = new BookDao(dbHelper);
+    Book emptyBook = bookDao.create(new Book(null, "Empty", null, 2021, null, null, null, null),
+                                    Collections.emptyList(), shelf.getId());
+    Book book = bookDao.create(new Book(null, "Title", null, 2021, null, null, null, null),
+                               Collections.emptyList(), shelf.getId());
+
+    NoteDao noteDao = new NoteDao(dbHelper);
+    Note note = noteDao.create(new Note("Note", NoteTypeLut.TEXT, "<p>Text</p>"));
+    noteDao.linkNoteWithBook(book.getId(), note.getId());
+
+    assertFalse(noteDao.hasNotesForBook(emptyBook.getId()));
+    assertTrue(noteDao.hasNotesForBook(book.getId()));
+  }
+
+}
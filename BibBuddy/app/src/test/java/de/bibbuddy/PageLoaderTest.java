@@ -0,0 +1,78 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+/**
+ * Tests for the PageLoader class.
+ *
+ * @author Claudia Schönherr
+ */
+@RunWith(RobolectricTestRunner.class)
+public class PageLoaderTest {
+
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private final List<Integer> loadedCounts = new ArrayList<>();
+  private final List<Throwable> errors = new ArrayList<>();
+
+  private static List<ShelfItem> createPage(int first, int count) {
+    List<ShelfItem> page = new ArrayList<>();
+    for (long id = first; id < first + count; id++) {
+      page.add(new ShelfItem(new Shelf(id, "Shelf " + id, id, id, null), 0, 0));
+    }
+
+    return page;
+  }
+
+  // Waits until the reader thread has posted the expected number of callbacks
+  private void awaitCallbacks(int count) throws InterruptedException {
+    long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (loadedCounts.size() + errors.size() < count && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+      shadowOf(Looper.getMainLooper()).idle();
+    }
+  }
+
+  @Test
+  public void loadNextPage_afterError_Test() throws Exception {
+    AtomicInteger queryCount = new AtomicInteger();
+    PageLoader<ShelfItem> pageLoader = new PageLoader<>(page -> {
+      switch (queryCount.incrementAndGet()) {
+        case 1:
+          return createPage(0, KeysetPage.PAGE_SIZE);
+        case 2:
+          throw new IllegalStateException("failed");
+        default:
+          return createPage(KeysetPage.PAGE_SIZE, 1);
+      }
+    });
+
+    pageLoader.loadFirstPage(SortTypeLut.NAME_ASCENDING,
+                             items -> loadedCounts.add(items.size()), errors::add);
+    awaitCallbacks(1);
+
+    pageLoader.loadNextPage(items -> loadedCounts.add(items.size()), errors::add);
+    awaitCallbacks(2);
+    assertEquals(1, errors.size());
+
+    // The page that failed is loaded again
+    pageLoader.loadNextPage(items -> loadedCounts.add(items.size()), errors::add);
+    awaitCallbacks(3);
+
+    assertEquals(3, queryCount.get());
+    assertEquals(2, loadedCounts.size());
+    assertEquals(KeysetPage.PAGE_SIZE + 1, (int) loadedCounts.get(1));
+    assertTrue(errors.get(0) instanceof IllegalStateException);
+  }
+
+}
@@ -0,0 +1,103 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.function.Function;
+import org.json.JSONObject;
+import org.junit.Test;
+
+/**
+ * Tests for the QueryStats class.
+ *
+ * @author Sarah Kurek
+ */
+public class QueryStatsTest extends DatabaseTest {
+
+  @Test
+  public void findDaoMethod_Test() {
+    StackTraceElement[] stackTrace = {
+        new StackTraceElement("android.database.sqlite.SQLiteDatabase", "rawQuery", null, 1),
+        new StackTraceElement("de.bibbuddy.ShelfDao$1", "apply", null, 1),
+        new StackTraceElement("de.bibbuddy.ShelfDao", "countAllNotesForShelf", null, 1),
+        new StackTraceElement("de.bibbuddy.LibraryModel", "loadLibraryList", null, 1)};
+
+    assertEquals("ShelfDao.countAllNotesForShelf",
+                 InstrumentedCursorFactory.findDaoMethod(stackTrace));
+    assertEquals("other", InstrumentedCursorFactory.findDaoMethod(new StackTraceElement[0]));
+  }
+
+  @Test
+  public void screenTrace_Test() throws Exception {
+    QueryStats queryStats = dbHelper.getQueryStats();
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    Shelf shelf = shelfDao.create(new Shelf("Shelf", null));
+
+    queryStats.reset();
+    QueryStats.ScreenTrace trace = queryStats.startScreen("LibraryFragment load");
+    shelfDao.countAllNotesForShelf(shelf.getId());
+    shelfDao.countAllNotesForShelf(shelf.getId());
+    String summary = trace.finish();
+
+    if (!queryStats.isEnabled()) {
+      assertEquals(0, trace.getQueryCount());
+      return;
+    }
+
+    assertEquals(2, trace.getQueryCount());
+    assertTrue(summary.startsWith("LibraryFragment load: 2 queries, "));
+    assertTrue(summary.endsWith("(ShelfDao.countAllNotesForShelf 2x)"));
+
+    JSONObject json = new JSONObject(queryStats.toJson());
+    JSONObject methodStats = json.getJSONArray("methods").getJSONObject(0);
+    assertEquals("ShelfDao.countAllNotesForShelf", methodStats.getString("method"));
+    assertEquals(2, methodStats.getInt("count"));
+    assertEquals(1, json.getJSONArray("screens").length());
+  }
+
+  @Test
+  public void screenTrace_otherThread_Test() throws Exception {
+    QueryStats queryStats = dbHelper.getQueryStats();
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    Shelf shelf = shelfDao.create(new Shelf("Shelf", null));
+
+    QueryStats.ScreenTrace trace = queryStats.startScreen("LibraryFragment load");
+    Thread otherThread = new Thread(() -> shelfDao.countAllNotesForShelf(shelf.getId()));
+    otherThread.start();
+    otherThread.join();
+    trace.finish();
+
+    assertEquals(0, trace.getQueryCount());
+  }
+
+  @Test
+  public void traceScreen_failedQuery_Test() {
+    QueryStats queryStats = dbHelper.getQueryStats();
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    Shelf shelf = shelfDao.create(new Shelf("Shelf", null));
+
+    queryStats.reset();
+    Function<Long, Integer> query = queryStats.traceScreen("LibraryFragment page", shelfId -> {
+      shelfDao.countAllNotesForShelf(shelfId);
+      throw new IllegalStateException("failed page");
+    });
+
+    try {
+      query.apply(shelf.getId());
+      fail();
+    } catch (IllegalStateException ex) {
+      assertEquals("failed page", ex.getMessage());
+    }
+
+    if (!queryStats.isEnabled()) {
+      assertTrue(queryStats.getScreenSummaries().isEmpty());
+      return;
+    }
+
+    assertEquals(1, queryStats.getScreenSummaries().size());
+    assertTrue(queryStats.getScreenSummaries().get(0)
+                   .startsWith("LibraryFragment page: 1 queries, "));
+  }
+
+}
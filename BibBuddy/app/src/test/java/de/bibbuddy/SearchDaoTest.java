@@ -0,0 +1,59 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the SearchDao class.
+ *
+ * @author Claudia Schönherr
+ */
+public class SearchDaoTest extends DatabaseTest {
+
+  private SearchDao searchDao;
+
+  @Before
+  public void setUp() {
+    searchDao = new SearchDao(dbHelper);
+  }
+
+  @Test
+  public void createMatchQuery_Test() {
+    assertEquals("\"java*\" \"and*\"", SearchDao.createMatchQuery(" java AND"));
+    assertEquals("\"O*\" \"Reilly*\"", SearchDao.createMatchQuery("O'Reilly"));
+    assertEquals("", SearchDao.createMatchQuery("\"*-"));
+  }
+
+  @Test
+  public void findSearchHits_Test() {
+    new ShelfDao(dbHelper).create(new Shelf("Müller", null));
+
+    List<SearchHit> searchHits =
+        searchDao.findSearchHits("mull", SearchTypeLut.SEARCH_SHELF, null);
+
+    assertEquals(1, searchHits.size());
+    assertEquals(SearchTypeLut.SEARCH_SHELF, searchHits.get(0).getSearchItem().getItemType());
+
+    assertTrue(searchDao.findSearchHits("mull", SearchTypeLut.SEARCH_BOOK, null).isEmpty());
+  }
+
+  @Test
+  public void findSearchHits_rank_Test() {
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    shelfDao.create(new Shelf("Java Kochbuch", null));
+    shelfDao.create(new Shelf("Java und Java", null));
+
+    List<SearchHit> searchHits =
+        searchDao.findSearchHits("java", SearchTypeLut.SEARCH_SHELF, null);
+
+    assertEquals(2, searchHits.size());
+    assertEquals("Java und Java", searchHits.get(0).getSearchItem().getName());
+    assertTrue(searchHits.get(0).getSearchItem().getRank()
+                   > searchHits.get(1).getSearchItem().getRank());
+  }
+
+}
@@ -0,0 +1,91 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import org.junit.Test;
+
+/**
+ * Tests for the SearchEngine class.
+ *
+ * @author Claudia Schönherr
+ */
+public class SearchEngineTest extends DatabaseTest {
+
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  // Searches for shelves and waits until the search thread has published all results
+  private static List<SearchItem> searchShelves(SearchEngine searchEngine, String searchInput)
+      throws InterruptedException {
+    List<SearchItem> searchItems = new ArrayList<>();
+    List<Boolean> finished = new ArrayList<>();
+
+    SearchEngine.SearchResultListener listener = new SearchEngine.SearchResultListener() {
+      @Override
+      public void onSearchResults(SearchTypeLut searchType, List<SearchItem> results) {
+        searchItems.addAll(results);
+      }
+
+      @Override
+      public void onSearchFinished() {
+        finished.add(true);
+      }
+    };
+    searchEngine.searchNow(searchInput, EnumSet.of(SearchTypeLut.SEARCH_SHELF), listener);
+
+    long end = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (finished.isEmpty() && System.currentTimeMillis() < end) {
+      Thread.sleep(10);
+      shadowOf(Looper.getMainLooper()).idle();
+    }
+
+    assertEquals(1, finished.size());
+
+    return searchItems;
+  }
+
+  @Test
+  public void isNarrowing_Test() {
+    assertTrue(SearchEngine.isNarrowing(Collections.singletonList("jav"),
+                                        Collections.singletonList("java")));
+    assertTrue(SearchEngine.isNarrowing(Collections.singletonList("java"),
+                                        Arrays.asList("java", "s")));
+    assertFalse(SearchEngine.isNarrowing(Collections.singletonList("java"),
+                                         Collections.singletonList("jav")));
+    assertFalse(SearchEngine.isNarrowing(Arrays.asList("java", "s"),
+                                         Collections.singletonList("java")));
+    assertFalse(SearchEngine.isNarrowing(Collections.emptyList(),
+                                         Collections.singletonList("java")));
+  }
+
+  @Test
+  public void getSearchWords_Test() {
+    assertEquals(Arrays.asList("muller", "o", "reilly"),
+                 SearchHit.getSearchWords(" Müller, O'Reilly "));
+    assertTrue(SearchHit.getSearchWords(" - ").isEmpty());
+  }
+
+  @Test
+  public void searchNow_narrowingAfterWrite_Test() throws Exception {
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    SearchEngine searchEngine = new SearchEngine(new SearchDao(dbHelper));
+
+    shelfDao.create(new Shelf("Java", null));
+    assertEquals(1, searchShelves(searchEngine, "jav").size());
+
+    // The results of "jav" are not narrowed down, because a shelf was added in the meantime
+    shelfDao.create(new Shelf("Javascript", null));
+    assertEquals(2, searchShelves(searchEngine, "java").size());
+
+    searchEngine.close();
+  }
+
+}
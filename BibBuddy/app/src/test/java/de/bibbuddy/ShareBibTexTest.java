@@ -0,0 +1,22 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Tests for the ShareBibTex class.
+ *
+ * @author Silvia Ivanova
+ */
+public class ShareBibTexTest {
+
+  @Test
+  public void escapeBibText_Test() {
+    assertEquals("Kernighan \\& Ritchie, 100\\% C", ShareBibTex.escapeBibText(
+        "Kernighan & Ritchie, 100% C"));
+    assertEquals("\\$x\\_1\\# ", ShareBibTex.escapeBibText("$x_1# "));
+    assertEquals("", ShareBibTex.escapeBibText(""));
+  }
+
+}
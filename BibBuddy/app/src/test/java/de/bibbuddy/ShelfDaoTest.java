@@ -0,0 +1,51 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+
+/**
+ * Tests for the ShelfDao class.
+ *
+ * @author Sarah Kurek, Claudia Schönherr
+ */
+public class ShelfDaoTest extends DatabaseTest {
+
+  @Test
+  public void findShelfItemsByParentId_Test() {
+    ShelfDao shelfDao = new ShelfDao(dbHelper);
+    int shelfCount = KeysetPage.PAGE_SIZE + 10;
+    for (int i = 0; i < shelfCount; i++) {
+      // Every name exists twice, so the pages have to be split between equal names
+      shelfDao.create(new Shelf("Shelf " + (i % (shelfCount / 2)), null));
+    }
+
+    KeysetPage firstPage = KeysetPage.first(SortTypeLut.NAME_ASCENDING);
+    List<ShelfItem> shelves = shelfDao.findShelfItemsByParentId(null, firstPage);
+    assertEquals(KeysetPage.PAGE_SIZE, shelves.size());
+
+    KeysetPage nextPage = firstPage.next(shelves.get(shelves.size() - 1));
+    List<ShelfItem> nextShelves = shelfDao.findShelfItemsByParentId(null, nextPage);
+    assertEquals(shelfCount - KeysetPage.PAGE_SIZE, nextShelves.size());
+
+    List<ShelfItem> allShelves = new ArrayList<>(shelves);
+    allShelves.addAll(nextShelves);
+
+    Set<Long> shelfIds = new HashSet<>();
+    for (int i = 0; i < allShelves.size(); i++) {
+      shelfIds.add(allShelves.get(i).getId());
+      if (i > 0) {
+        assertTrue(allShelves.get(i - 1).getName()
+                       .compareToIgnoreCase(allShelves.get(i).getName()) <= 0);
+      }
+    }
+
+    assertEquals(shelfCount, shelfIds.size());
+  }
+
+}
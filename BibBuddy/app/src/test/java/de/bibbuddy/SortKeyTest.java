@@ -0,0 +1,25 @@
+package de.bibbuddy;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+/**
+ * Tests for the SortKey class.
+ *
+ * @author Claudia Schönherr
+ */
+public class SortKeyTest {
+
+  @Test
+  public void create_Test() {
+    assertEquals("", SortKey.create(null));
+    assertEquals("apfel", SortKey.create(" Äpfel "));
+    assertEquals("strasse", SortKey.create("Straße"));
+    assertEquals(SortKey.create("Ecole"), SortKey.create("école"));
+
+    assertTrue(SortKey.create("apfel").compareTo(SortKey.create("Birne")) < 0);
+  }
+
+}